@@ -0,0 +1,99 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.benchmark.data.RijenResultSet;
+import be.vives.ti.benchmark.data.Testdata;
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.exception.ApplicationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet het omzetten van rijen uit een ResultSet naar Klant- en
+ * Rekening-objecten (getKlantUitDatabase en getRekeningUitDatabase), los van
+ * de databank. De rijen komen uit een RijenResultSet in het geheugen; de
+ * benchmark staat in het package van de DAO's omdat de mapping daar
+ * package-private is.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MappingBenchmark {
+
+    private static final int AANTAL_RIJEN = 1000;
+
+    private final KlantDAO klantDAO = new KlantDAO();
+    private final RekeningDAO rekeningDAO = new RekeningDAO();
+    private RijenResultSet klantRijen;
+    private RijenResultSet rekeningRijen;
+
+    @Setup
+    public void setUp() {
+        Testdata data = new Testdata();
+
+        ArrayList<Klant> klanten = data.klanten(AANTAL_RIJEN);
+        Object[][] rijen = new Object[AANTAL_RIJEN][];
+        for (int i = 0; i < AANTAL_RIJEN; i++) {
+            Klant k = klanten.get(i);
+            rijen[i] = new Object[]{k.getId(), k.getNaam(), k.getVoornaam(), k.getAdres(), k.getPostcode(),
+                    k.getGemeente(), k.getStatus().name()};
+        }
+        klantRijen = new RijenResultSet(
+                new String[]{"id", "naam", "voornaam", "adres", "postcode", "gemeente", "status"}, rijen);
+
+        ArrayList<Rekening> rekeningen = data.rekeningen(AANTAL_RIJEN, AANTAL_RIJEN);
+        rijen = new Object[AANTAL_RIJEN][];
+        for (int i = 0; i < AANTAL_RIJEN; i++) {
+            Rekening r = rekeningen.get(i);
+            rijen[i] = new Object[]{r.getRekeningnummer().getRekeningnummer(), r.getEigenaar(),
+                    r.getStatus().name(), r.getSaldo().toBigDecimal()};
+        }
+        rekeningRijen = new RijenResultSet(
+                new String[]{"rekeningnummer", "eigenaar", "status", "saldo"}, rijen);
+    }
+
+    @Benchmark
+    public void klanten(Blackhole bh) throws SQLException {
+        klantRijen.terugzetten();
+        ResultSet r = klantRijen.getResultSet();
+        while (r.next()) {
+            bh.consume(klantDAO.getKlantUitDatabase(r));
+        }
+    }
+
+    @Benchmark
+    public void rekeningen(Blackhole bh) throws SQLException, ApplicationException {
+        rekeningRijen.terugzetten();
+        ResultSet r = rekeningRijen.getResultSet();
+        while (r.next()) {
+            bh.consume(rekeningDAO.getRekeningUitDatabase(r));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MappingBenchmark.class.getSimpleName())
+                .parent(new CommandLineOptions(args))
+                .build()).run();
+    }
+}
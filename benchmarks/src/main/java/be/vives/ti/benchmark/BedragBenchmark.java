@@ -0,0 +1,100 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.datatype.Bedrag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergelijkt het rekenen met saldi als BigDecimal (zoals Rekening en
+ * RekeningService dat vroeger deden) met het rekenen in eurocent met Bedrag.
+ * Per operatie wordt een reeks stortingen en opnames op één saldo verwerkt:
+ * - bedrag afronden op 2 decimalen
+ * - bij een opname controleren of het saldo volstaat
+ * - saldo bijwerken en opnieuw opvragen (getSaldo)
+ * <p>
+ * Uitvoeren via benchmarks.jar (zie README.md) of de main-methode, met
+ * optionele JMH-argumenten, bv. -prof gc om de allocaties per operatie te zien.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BedragBenchmark {
+
+    private static final int AANTAL_MUTATIES = 1024;
+
+    // positief = storting, negatief = opname, met 3 decimalen zoals invoer van een gebruiker
+    private BigDecimal[] mutatiesBigDecimal;
+    private Bedrag[] mutatiesBedrag;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        mutatiesBigDecimal = new BigDecimal[AANTAL_MUTATIES];
+        mutatiesBedrag = new Bedrag[AANTAL_MUTATIES];
+        for (int i = 0; i < AANTAL_MUTATIES; i++) {
+            long duizendsten = random.nextInt(500_000) - 200_000;
+            mutatiesBigDecimal[i] = BigDecimal.valueOf(duizendsten, 3);
+            mutatiesBedrag[i] = Bedrag.van(mutatiesBigDecimal[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal saldo = BigDecimal.ZERO;
+        for (BigDecimal mutatie : mutatiesBigDecimal) {
+            BigDecimal afgerond = mutatie.setScale(2, RoundingMode.HALF_UP);
+            if (afgerond.signum() >= 0 || saldo.compareTo(afgerond.negate()) >= 0) {
+                saldo = saldo.add(afgerond);
+            }
+            // getSaldo() rondde bij elke oproep opnieuw af
+            saldo = saldo.setScale(2, RoundingMode.HALF_UP);
+        }
+        return saldo;
+    }
+
+    @Benchmark
+    public Bedrag bedrag() {
+        Bedrag saldo = Bedrag.NUL;
+        for (Bedrag mutatie : mutatiesBedrag) {
+            if (!mutatie.isNegatief() || saldo.compareTo(mutatie.negatief()) >= 0) {
+                saldo = saldo.plus(mutatie);
+            }
+        }
+        return saldo;
+    }
+
+    // omzetten van de BigDecimal die JDBC teruggeeft (zoals in getRekeningUitDatabase)
+    @Benchmark
+    public long bedragVanBigDecimal() {
+        long som = 0;
+        for (BigDecimal mutatie : mutatiesBigDecimal) {
+            som += Bedrag.van(mutatie).getCenten();
+        }
+        return som;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(BedragBenchmark.class.getSimpleName())
+                .parent(new org.openjdk.jmh.runner.options.CommandLineOptions(args))
+                .build()).run();
+    }
+}
@@ -0,0 +1,142 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.DAO.KlantRepository;
+import be.vives.ti.DAO.RekeningGrootboekDAO;
+import be.vives.ti.benchmark.data.Testdata;
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.extra.Rekeningnummers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet hoe lang het openen van een RekeningGrootboekDAO duurt, tot het
+ * grootboek klaar is om te gebruiken:
+ * - snapshot: de snapshot laden en enkel het logboek erna herspelen (hier 1%
+ * van de mutaties); het journaal van vóór de snapshot wordt daarna in een
+ * eigen thread ingelezen en telt niet mee
+ * - logboek: zonder snapshot, het hele logboek herspelen
+ * <p>
+ * Het grootboek heeft per 10 rekeningen één klant en 2 mutaties per
+ * rekening. Het vullen gebeurt één keer per fork en duurt voor 10 miljoen
+ * rekeningen een minuut; het logboek is dan ruim 1 GB groot (in de tijdelijke
+ * map van het systeem).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-XX:MaxDirectMemorySize=2g"})
+public class GrootboekOpstartBenchmark {
+
+    private static final int STUK = 10_000;
+
+    @Param({"1000000", "10000000"})
+    public int aantalRekeningen;
+
+    @Param({"snapshot", "logboek"})
+    public String herstel;
+
+    private Path map;
+
+    @Setup(Level.Trial)
+    public void vullen() throws Exception {
+        map = Files.createTempDirectory("grootboek");
+        try (RekeningGrootboekDAO grootboek = new RekeningGrootboekDAO(map, false, aantalRekeningen)) {
+            KlantRepository klantDAO = grootboek.getKlantDAO();
+            Testdata data = new Testdata();
+            int aantalKlanten = Math.max(1, aantalRekeningen / 10);
+            ArrayList<Klant> klanten = new ArrayList<>();
+            // dubbele klanten worden niet toegevoegd (id null)
+            ArrayList<Integer> eigenaars = new ArrayList<>();
+            for (int i = 0; i < aantalKlanten; i++) {
+                klanten.add(data.klant(null));
+                if (klanten.size() == STUK || i == aantalKlanten - 1) {
+                    for (Integer id : klantDAO.toevoegenKlanten(klanten)) {
+                        if (id != null) {
+                            eigenaars.add(id);
+                        }
+                    }
+                    klanten.clear();
+                }
+            }
+            for (int i = 0; i < aantalRekeningen; i++) {
+                Rekening rekening = new Rekening();
+                rekening.setRekeningnummer(new Rekeningnummer(Rekeningnummers.maak(i)));
+                rekening.setSaldo(Bedrag.vanCenten(100_000));
+                rekening.setEigenaar(eigenaars.get(i % eigenaars.size()));
+                grootboek.toevoegenRekening(rekening);
+            }
+            muteren(grootboek, 0, aantalRekeningen);
+            muteren(grootboek, 0, aantalRekeningen);
+            if ("snapshot".equals(herstel)) {
+                grootboek.snapshot();
+            }
+            muteren(grootboek, 0, aantalRekeningen / 100);
+        }
+    }
+
+    // één storting op elk van de rekeningen met volgnummer van tot tot
+    private static void muteren(RekeningGrootboekDAO grootboek, int van, int tot) throws Exception {
+        ArrayList<Mutatie> mutaties = new ArrayList<>();
+        for (int i = van; i < tot; i++) {
+            Mutatie mutatie = new Mutatie();
+            mutatie.setRekeningnummer(Rekeningnummers.maak(i));
+            mutatie.setBedrag(Bedrag.vanCenten(1 + i % 1000));
+            mutaties.add(mutatie);
+            if (mutaties.size() == STUK || i == tot - 1) {
+                grootboek.verrekenenSaldoRekeningen(mutaties);
+                mutaties.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void opruimen() {
+        File[] bestanden = map.toFile().listFiles();
+        if (bestanden != null) {
+            for (File bestand : bestanden) {
+                bestand.delete();
+            }
+        }
+        map.toFile().delete();
+    }
+
+    @Benchmark
+    public int openen() throws Exception {
+        try (RekeningGrootboekDAO grootboek = new RekeningGrootboekDAO(map, false, aantalRekeningen)) {
+            return grootboek.zoekAantalOpenRekeningen(1);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(GrootboekOpstartBenchmark.class.getSimpleName())
+                .parent(new CommandLineOptions(args))
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.benchmark.data.Testdata;
+import be.vives.ti.comparator.KlantComparator;
+import be.vives.ti.databag.Klant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet het sorteren van klanten met KlantComparator (op naam, daarna
+ * voornaam), zoals de UI de klantenlijst sorteert. De testdata bevat veel
+ * gelijke familienamen, zodat ook de vergelijking op voornaam gemeten wordt.
+ * <p>
+ * Elke operatie sorteert een nieuwe kopie van dezelfde ongesorteerde lijst.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class KlantComparatorBenchmark {
+
+    @Param({"100", "10000"})
+    private int aantalKlanten;
+
+    private final KlantComparator comparator = new KlantComparator();
+    private ArrayList<Klant> klanten;
+
+    @Setup
+    public void setUp() {
+        klanten = new Testdata().klanten(aantalKlanten);
+    }
+
+    @Benchmark
+    public ArrayList<Klant> sorteren() {
+        ArrayList<Klant> kopie = new ArrayList<>(klanten);
+        kopie.sort(comparator);
+        return kopie;
+    }
+
+    // enkel de vergelijking van twee opeenvolgende klanten, zonder het sorteren zelf
+    @Benchmark
+    public int vergelijken() {
+        int som = 0;
+        for (int i = 1; i < klanten.size(); i++) {
+            som += comparator.compare(klanten.get(i - 1), klanten.get(i));
+        }
+        return som;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(KlantComparatorBenchmark.class.getSimpleName())
+                .parent(new CommandLineOptions(args))
+                .build()).run();
+    }
+}
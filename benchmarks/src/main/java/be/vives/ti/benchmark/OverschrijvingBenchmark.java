@@ -0,0 +1,116 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.DAO.KlantDAO;
+import be.vives.ti.DAO.RekeningDAO;
+import be.vives.ti.DAO.connect.ConnectionManager;
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.Overschrijving;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.extra.Rekeningnummers;
+import be.vives.ti.extra.Removals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Meet de doorvoer van gelijktijdige overschrijvingen tussen een kleine set
+ * "hete" rekeningen, zodat veel transacties op dezelfde rijen botsen.
+ * <p>
+ * Draait tegen de databank uit DB.properties (uit de test-jar). Uitvoeren via
+ * de main-methode, met optioneel: aantal threads, aantal rekeningen, duur in
+ * seconden. Na afloop wordt gecontroleerd dat de som van de saldi niet
+ * veranderd is en worden de testgegevens weer verwijderd.
+ */
+public class OverschrijvingBenchmark {
+
+    private static final Bedrag STARTSALDO = Bedrag.vanCenten(100000);
+
+    public static void main(String[] args) throws Exception {
+        int aantalThreads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int aantalRekeningen = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int duurSeconden = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        KlantDAO klantDAO = new KlantDAO();
+        RekeningDAO rekeningDAO = new RekeningDAO();
+
+        Klant klant = new Klant();
+        klant.setNaam("Benchmark");
+        klant.setVoornaam("Overschrijving");
+        klant.setAdres("Doorvoerstraat 1");
+        klant.setPostcode("8500");
+        klant.setGemeente("Kortrijk");
+        klant.setStatus(KlantStatus.INGESCHREVEN);
+        klant.setId(klantDAO.toevoegenKlant(klant));
+
+        String[] rekeningnummers = new String[aantalRekeningen];
+        try {
+            for (int i = 0; i < aantalRekeningen; i++) {
+                rekeningnummers[i] = Rekeningnummers.maak(900000000000L + i);
+                Rekening rekening = new Rekening();
+                rekening.setRekeningnummer(new Rekeningnummer(rekeningnummers[i]));
+                rekening.setEigenaar(klant.getId());
+                rekeningDAO.toevoegenRekening(rekening);
+                rekeningDAO.verrekenenSaldoRekening(rekeningnummers[i], STARTSALDO);
+            }
+
+            AtomicLong gelukt = new AtomicLong();
+            AtomicLong geweigerd = new AtomicLong();
+            AtomicLong fouten = new AtomicLong();
+            long einde = System.nanoTime() + TimeUnit.SECONDS.toNanos(duurSeconden);
+
+            ExecutorService executor = Executors.newFixedThreadPool(aantalThreads);
+            long start = System.nanoTime();
+            for (int t = 0; t < aantalThreads; t++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < einde) {
+                        int van = random.nextInt(aantalRekeningen);
+                        int naar = (van + 1 + random.nextInt(aantalRekeningen - 1)) % aantalRekeningen;
+                        Bedrag bedrag = Bedrag.vanCenten(random.nextInt(1, 5000));
+                        try {
+                            if (rekeningDAO.overschrijven(rekeningnummers[van], rekeningnummers[naar], bedrag)
+                                    == Overschrijving.GELUKT) {
+                                gelukt.incrementAndGet();
+                            } else {
+                                geweigerd.incrementAndGet();
+                            }
+                        } catch (Exception ex) {
+                            fouten.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(duurSeconden + 60L, TimeUnit.SECONDS);
+            double seconden = (System.nanoTime() - start) / 1e9;
+
+            Bedrag totaal = Bedrag.NUL;
+            for (String rekeningnummer : rekeningnummers) {
+                totaal = totaal.plus(rekeningDAO.zoekRekening(rekeningnummer).getSaldo());
+            }
+            Bedrag verwacht = Bedrag.vanCenten(STARTSALDO.getCenten() * aantalRekeningen);
+
+            System.out.printf("threads=%d rekeningen=%d duur=%.1fs%n", aantalThreads, aantalRekeningen, seconden);
+            System.out.printf("overschrijvingen: %d gelukt, %d geweigerd, %d fouten%n",
+                    gelukt.get(), geweigerd.get(), fouten.get());
+            System.out.printf("doorvoer: %.1f overschrijvingen/s%n", gelukt.get() / seconden);
+            System.out.println("som saldi: " + totaal + " (verwacht " + verwacht + ")"
+                    + (totaal.compareTo(verwacht) == 0 ? "" : " -> FOUT"));
+            System.out.println(ConnectionManager.getPoolStatistieken());
+        } finally {
+            for (String rekeningnummer : rekeningnummers) {
+                if (rekeningnummer != null) {
+                    Removals.removeRekening(rekeningnummer);
+                }
+            }
+            Removals.removeKlant(klant.getId());
+            ConnectionManager.sluitPool();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.benchmark.data.Testdata;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Bedrag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet het opvragen en instellen van het saldo van een Rekening:
+ * - de som van getSaldo() over alle rekeningen, zoals een overzicht van de
+ * rekeningen van een klant
+ * - setSaldo met de BigDecimal die JDBC teruggeeft, zoals bij het lezen uit
+ * de databank
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RekeningBenchmark {
+
+    private static final int AANTAL = 1024;
+
+    private ArrayList<Rekening> rekeningen;
+    private BigDecimal[] saldiUitDatabank;
+
+    @Setup
+    public void setUp() {
+        Testdata data = new Testdata();
+        rekeningen = data.rekeningen(AANTAL, 100);
+        saldiUitDatabank = new BigDecimal[AANTAL];
+        for (int i = 0; i < AANTAL; i++) {
+            saldiUitDatabank[i] = data.saldo();
+        }
+    }
+
+    @Benchmark
+    public Bedrag totaalSaldo() {
+        Bedrag totaal = Bedrag.NUL;
+        for (Rekening rekening : rekeningen) {
+            totaal = totaal.plus(rekening.getSaldo());
+        }
+        return totaal;
+    }
+
+    @Benchmark
+    public Bedrag setSaldoUitDatabank() {
+        Rekening rekening = rekeningen.get(0);
+        for (BigDecimal saldo : saldiUitDatabank) {
+            rekening.setSaldo(saldo);
+        }
+        return rekening.getSaldo();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RekeningBenchmark.class.getSimpleName())
+                .parent(new CommandLineOptions(args))
+                .build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.benchmark.data.Testdata;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.extra.RekeningnummerReferentie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergelijkt de oorspronkelijke controle van een rekeningnummer (indexOf,
+ * substring, toUpperCase en Long.parseLong) met de controle teken per teken
+ * in Rekeningnummer, op geldige nummers zoals RekeningDAO ze per rij uit een
+ * ResultSet leest.
+ * <p>
+ * Uitvoeren via benchmarks.jar (zie README.md) of de main-methode, bv. met
+ * -prof gc om te zien dat de nieuwe controle enkel het Rekeningnummer zelf
+ * aanmaakt.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RekeningnummerBenchmark {
+
+    private static final int AANTAL = 1024;
+
+    private String[] rekeningnummers;
+
+    @Setup
+    public void setUp() {
+        Testdata data = new Testdata();
+        rekeningnummers = new String[AANTAL];
+        for (int i = 0; i < AANTAL; i++) {
+            rekeningnummers[i] = data.rekeningnummer();
+        }
+    }
+
+    @Benchmark
+    public void oudeControle(Blackhole bh) {
+        for (String nr : rekeningnummers) {
+            bh.consume(RekeningnummerReferentie.controleer(nr));
+        }
+    }
+
+    @Benchmark
+    public void nieuweControle(Blackhole bh) throws ApplicationException {
+        for (String nr : rekeningnummers) {
+            bh.consume(new Rekeningnummer(nr));
+        }
+    }
+
+    @Benchmark
+    public int hashCodeVerpakt() throws ApplicationException {
+        int som = 0;
+        for (String nr : rekeningnummers) {
+            som += new Rekeningnummer(nr).hashCode();
+        }
+        return som;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RekeningnummerBenchmark.class.getSimpleName())
+                .parent(new CommandLineOptions(args))
+                .build()).run();
+    }
+}
@@ -0,0 +1,323 @@
+package be.vives.ti.benchmark.belasting;
+
+import be.vives.ti.DAO.GeheugenDatabank;
+import be.vives.ti.DAO.KlantDAO;
+import be.vives.ti.DAO.KlantGeheugenDAO;
+import be.vives.ti.DAO.KlantRepository;
+import be.vives.ti.DAO.RekeningDAO;
+import be.vives.ti.DAO.RekeningGeheugenDAO;
+import be.vives.ti.DAO.RekeningGrootboekDAO;
+import be.vives.ti.DAO.RekeningRepository;
+import be.vives.ti.DAO.RekeningShardDAO;
+import be.vives.ti.DAO.connect.ConnectionManager;
+import be.vives.ti.DAO.metriek.DAOMetrieken;
+import be.vives.ti.benchmark.data.Testdata;
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.extra.Rekeningnummers;
+import be.vives.ti.service.KlantService;
+import be.vives.ti.service.RekeningService;
+import be.vives.ti.service.RekeningSloten;
+
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Belastingtest van de DAO- en servicelaag tegen een embedded databank.
+ * <p>
+ * - het schema uit de migraties (database/migraties) wordt aangemaakt in de
+ * databank uit DB.properties van de benchmarks (H2 in het geheugen, MySQL-modus)
+ * - de databank wordt gevuld met klanten en rekeningen uit Testdata
+ * - N threads voeren een gemengde werklast uit via KlantService en
+ * RekeningService: klant en rekening opzoeken, storten, opnemen en een
+ * nieuwe klant met rekening toevoegen
+ * - na het opwarmen wordt per bewerking de doorvoer en de verdeling van de
+ * duur (p50, p90, p99, p99.9, max) gemeten
+ * <p>
+ * Argumenten (allemaal optioneel, in deze volgorde): aantal threads, aantal
+ * klanten, aantal rekeningen, meetduur in seconden, opwarmduur in seconden
+ * en het aandeel per bewerking in procent als lijst, bv. 25,25,20,20,10
+ * (volgorde zoals in Bewerking).
+ * <p>
+ * Met -Dbelasting.geheugen=true gebruiken de services KlantGeheugenDAO en
+ * RekeningGeheugenDAO in plaats van de databank: zo wordt de servicelaag
+ * zonder JDBC gemeten (bv. voor capaciteitssimulaties). Met
+ * -Dbelasting.grootboek=map komen de klanten en rekeningen in een
+ * RekeningGrootboekDAO in die map; -Dbelasting.forceren=true forceert
+ * dan elke wijziging naar schijf. Het grootboek moet leeg zijn (een nieuwe map).
+ * Met -Dbelasting.shards=n gaan de saldowijzigingen van RekeningService via
+ * een RekeningShardDAO met n shards (in elke modus). Met
+ * -Dbelasting.sloten=n (een macht van 2) gebruikt RekeningService
+ * RekeningSloten met n sloten; de wachttijden op de sloten worden op het
+ * einde getoond.
+ */
+public class Belastingtest {
+
+    // nieuwe rekeningnummers buiten het bereik van de testdata: per thread 10^8 nummers
+    private static final long NIEUW_REKENINGNUMMER_BASIS = 900_000_000_000L;
+
+    private final int aantalThreads;
+    private final int[] aandelen;
+    private final KlantService klantService;
+    private final RekeningService rekeningService;
+    // null zonder -Dbelasting.shards
+    private final RekeningShardDAO shardDAO;
+    // null zonder -Dbelasting.sloten
+    private final RekeningSloten sloten;
+    // false voor de DAO's in het geheugen of het grootboek
+    private final boolean databank;
+    private int aantalKlanten;
+    private String[] rekeningnummers;
+
+    // OPWARMEN -> METEN -> STOPPEN, gelezen door alle threads
+    private volatile int fase;
+    private static final int OPWARMEN = 0;
+    private static final int METEN = 1;
+    private static final int STOPPEN = 2;
+
+    /**
+     * @param klantDAO    null om KlantDAO en RekeningDAO (de databank) te gebruiken
+     * @param rekeningDAO de rekeningen bij klantDAO
+     */
+    private Belastingtest(int aantalThreads, int[] aandelen, KlantRepository klantDAO, RekeningRepository rekeningDAO) {
+        this.aantalThreads = aantalThreads;
+        this.aandelen = aandelen;
+        this.databank = klantDAO == null;
+        RekeningRepository opslag = databank ? new RekeningDAO() : rekeningDAO;
+        int shards = Integer.getInteger("belasting.shards", 0);
+        this.shardDAO = shards > 0 ? new RekeningShardDAO(opslag, shards) : null;
+        int aantalSloten = Integer.getInteger("belasting.sloten", 0);
+        this.sloten = aantalSloten > 0 ? new RekeningSloten(aantalSloten) : null;
+        this.rekeningService = new RekeningService(shardDAO != null ? shardDAO : opslag, sloten);
+        this.klantService = new KlantService(databank ? new KlantDAO() : klantDAO);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int aantalThreads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int aantalKlanten = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int aantalRekeningen = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        int duurSeconden = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        int opwarmSeconden = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        int[] aandelen = args.length > 5 ? leesAandelen(args[5]) : standaardAandelen();
+
+        KlantRepository klantDAO = null;
+        RekeningRepository rekeningDAO = null;
+        String grootboek = System.getProperty("belasting.grootboek");
+        if (grootboek != null) {
+            RekeningGrootboekDAO grootboekDAO = new RekeningGrootboekDAO(Paths.get(grootboek),
+                    Boolean.getBoolean("belasting.forceren"), aantalRekeningen);
+            klantDAO = grootboekDAO.getKlantDAO();
+            rekeningDAO = grootboekDAO;
+        } else if (Boolean.getBoolean("belasting.geheugen")) {
+            GeheugenDatabank geheugen = new GeheugenDatabank();
+            klantDAO = new KlantGeheugenDAO(geheugen);
+            rekeningDAO = new RekeningGeheugenDAO(geheugen);
+        }
+        Belastingtest test = new Belastingtest(aantalThreads, aandelen, klantDAO, rekeningDAO);
+        try {
+            long start = System.nanoTime();
+            test.aantalKlanten = aantalKlanten;
+            test.rekeningnummers = klantDAO == null
+                    ? EmbeddedDatabank.vul(new Testdata(), aantalKlanten, aantalRekeningen)
+                    : EmbeddedDatabank.vul(new Testdata(), klantDAO, rekeningDAO, aantalKlanten, aantalRekeningen);
+            System.out.printf("Databank gevuld met %d klanten en %d rekeningen in %d ms%n",
+                    aantalKlanten, aantalRekeningen, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            EnumMap<Bewerking, Latenties> resultaat = test.uitvoeren(opwarmSeconden, duurSeconden);
+            druk(resultaat, aantalThreads, duurSeconden);
+            if (test.sloten != null) {
+                System.out.println(test.sloten);
+            }
+            if (!test.databank) {
+                return;
+            }
+            System.out.println(ConnectionManager.getPoolStatistieken());
+            System.out.println(KlantDAO.getCacheStatistieken());
+            System.out.println(RekeningDAO.getCacheStatistieken());
+            if (DAOMetrieken.isActief()) {
+                System.out.println(DAOMetrieken.getOverzicht());
+            }
+        } finally {
+            if (test.shardDAO != null) {
+                test.shardDAO.close();
+            }
+            ConnectionManager.sluitPool();
+            if (rekeningDAO instanceof RekeningGrootboekDAO) {
+                ((RekeningGrootboekDAO) rekeningDAO).close();
+            }
+        }
+    }
+
+    private EnumMap<Bewerking, Latenties> uitvoeren(int opwarmSeconden, int duurSeconden) throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(aantalThreads);
+        List<Future<EnumMap<Bewerking, Latenties>>> werkers = new ArrayList<>();
+        fase = OPWARMEN;
+        for (int t = 0; t < aantalThreads; t++) {
+            int threadnummer = t;
+            werkers.add(threads.submit(() -> werk(threadnummer)));
+        }
+        TimeUnit.SECONDS.sleep(opwarmSeconden);
+        fase = METEN;
+        TimeUnit.SECONDS.sleep(duurSeconden);
+        fase = STOPPEN;
+        threads.shutdown();
+
+        EnumMap<Bewerking, Latenties> totaal = nieuweLatenties();
+        for (Future<EnumMap<Bewerking, Latenties>> werker : werkers) {
+            for (Bewerking bewerking : Bewerking.values()) {
+                totaal.get(bewerking).voegToe(werker.get().get(bewerking));
+            }
+        }
+        return totaal;
+    }
+
+    private EnumMap<Bewerking, Latenties> werk(int threadnummer) {
+        EnumMap<Bewerking, Latenties> latenties = nieuweLatenties();
+        Testdata data = new Testdata(Testdata.STANDAARD_SEED + 1 + threadnummer);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long nieuweKlanten = 0;
+        int huidigeFase;
+        while ((huidigeFase = fase) != STOPPEN) {
+            Bewerking bewerking = kies(random.nextInt(100));
+            long start = System.nanoTime();
+            boolean fout = false;
+            boolean geweigerd = false;
+            try {
+                switch (bewerking) {
+                    case ZOEK_KLANT:
+                        klantService.zoekKlant(1 + random.nextInt(aantalKlanten));
+                        break;
+                    case ZOEK_REKENING:
+                        rekeningService.zoekRekening(willekeurigeRekening(random));
+                        break;
+                    case STORTEN:
+                        rekeningService.stortenRekening(willekeurigeRekening(random), bedrag(random));
+                        break;
+                    case OPNEMEN:
+                        rekeningService.opnemenRekening(willekeurigeRekening(random), bedrag(random));
+                        break;
+                    default:
+                        nieuweKlant(data, threadnummer, nieuweKlanten++);
+                }
+            } catch (ApplicationException e) {
+                // bv. saldo te klein of rekening gesloten: een normaal antwoord van de bank
+                geweigerd = true;
+            } catch (DBException e) {
+                fout = true;
+            }
+            long duur = System.nanoTime() - start;
+            if (huidigeFase == METEN) {
+                Latenties l = latenties.get(bewerking);
+                if (fout) {
+                    l.fout();
+                } else {
+                    if (geweigerd) {
+                        l.geweigerd();
+                    }
+                    l.meet(duur);
+                }
+            }
+        }
+        return latenties;
+    }
+
+    // onboarding: een nieuwe klant en een eerste rekening voor die klant
+    private void nieuweKlant(Testdata data, int threadnummer, long volgnummer)
+            throws ApplicationException, DBException {
+        Klant klant = data.klant(null);
+        klant.setStatus(null);
+        // naam en adres uniek maken, anders weigert toevoegenKlant een bestaande klant
+        klant.setAdres(klant.getAdres() + " bus " + threadnummer + "." + volgnummer);
+        Integer id = klantService.toevoegenKlant(klant);
+
+        Rekening rekening = new Rekening();
+        rekening.setRekeningnummer(new Rekeningnummer(
+                Rekeningnummers.maak(NIEUW_REKENINGNUMMER_BASIS + threadnummer * 100_000_000L + volgnummer)));
+        rekening.setEigenaar(id);
+        rekeningService.toevoegenRekening(rekening);
+    }
+
+    private String willekeurigeRekening(ThreadLocalRandom random) {
+        return rekeningnummers[random.nextInt(rekeningnummers.length)];
+    }
+
+    // bedrag tussen 0,01 en 250,00 euro
+    private static BigDecimal bedrag(ThreadLocalRandom random) {
+        return BigDecimal.valueOf(1 + random.nextInt(25_000), 2);
+    }
+
+    private Bewerking kies(int getal) {
+        int grens = 0;
+        for (Bewerking bewerking : Bewerking.values()) {
+            grens += aandelen[bewerking.ordinal()];
+            if (getal < grens) {
+                return bewerking;
+            }
+        }
+        return Bewerking.ZOEK_KLANT;
+    }
+
+    private static EnumMap<Bewerking, Latenties> nieuweLatenties() {
+        EnumMap<Bewerking, Latenties> latenties = new EnumMap<>(Bewerking.class);
+        for (Bewerking bewerking : Bewerking.values()) {
+            latenties.put(bewerking, new Latenties());
+        }
+        return latenties;
+    }
+
+    private static int[] standaardAandelen() {
+        int[] aandelen = new int[Bewerking.values().length];
+        for (Bewerking bewerking : Bewerking.values()) {
+            aandelen[bewerking.ordinal()] = bewerking.getStandaardAandeel();
+        }
+        return aandelen;
+    }
+
+    private static int[] leesAandelen(String lijst) {
+        String[] delen = lijst.split(",");
+        if (delen.length != Bewerking.values().length) {
+            throw new IllegalArgumentException("Geef een aandeel op voor elke bewerking: " + lijst);
+        }
+        int[] aandelen = new int[delen.length];
+        int som = 0;
+        for (int i = 0; i < delen.length; i++) {
+            aandelen[i] = Integer.parseInt(delen[i].trim());
+            som += aandelen[i];
+        }
+        if (som != 100) {
+            throw new IllegalArgumentException("De aandelen moeten samen 100 zijn: " + lijst);
+        }
+        return aandelen;
+    }
+
+    private static void druk(EnumMap<Bewerking, Latenties> resultaat, int aantalThreads, int duurSeconden) {
+        System.out.printf("%nResultaat na %d s met %d threads (duur in µs)%n", duurSeconden, aantalThreads);
+        System.out.printf("%-14s %10s %10s %10s %8s %9s %9s %9s %9s %9s%n",
+                "bewerking", "aantal", "per s", "geweigerd", "fouten", "p50", "p90", "p99", "p99.9", "max");
+        Latenties totaal = new Latenties();
+        for (Bewerking bewerking : Bewerking.values()) {
+            Latenties l = resultaat.get(bewerking);
+            drukRegel(bewerking.name(), l, duurSeconden);
+            totaal.voegToe(l);
+        }
+        drukRegel("TOTAAL", totaal, duurSeconden);
+    }
+
+    private static void drukRegel(String naam, Latenties l, int duurSeconden) {
+        System.out.printf("%-14s %10d %10.1f %10d %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                naam, l.getAantal(), (double) l.getAantal() / duurSeconden, l.getGeweigerd(), l.getFouten(),
+                l.percentiel(50) / 1000.0, l.percentiel(90) / 1000.0, l.percentiel(99) / 1000.0,
+                l.percentiel(99.9) / 1000.0, l.maximum() / 1000.0);
+    }
+}
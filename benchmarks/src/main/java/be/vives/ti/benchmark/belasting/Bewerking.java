@@ -0,0 +1,24 @@
+package be.vives.ti.benchmark.belasting;
+
+/**
+ * Soorten bewerkingen in de belastingtest, met hun standaardaandeel (in
+ * procent) in de gemengde werklast.
+ */
+enum Bewerking {
+
+    ZOEK_KLANT(25),
+    ZOEK_REKENING(25),
+    STORTEN(20),
+    OPNEMEN(20),
+    NIEUWE_KLANT(10);
+
+    private final int standaardAandeel;
+
+    Bewerking(int standaardAandeel) {
+        this.standaardAandeel = standaardAandeel;
+    }
+
+    int getStandaardAandeel() {
+        return standaardAandeel;
+    }
+}
@@ -0,0 +1,114 @@
+package be.vives.ti.benchmark.belasting;
+
+import be.vives.ti.DAO.KlantRepository;
+import be.vives.ti.DAO.RekeningRepository;
+import be.vives.ti.DAO.connect.ConnectionManager;
+import be.vives.ti.benchmark.data.Testdata;
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Vult de databank uit DB.properties (in de benchmarks een H2-databank in het
+ * geheugen) met testdata. Alles gebeurt via de ConnectionManager van de bank,
+ * die bij de eerste connectie de schemamigraties toepast, zodat de DAO's
+ * daarna dezelfde databank met hetzelfde schema gebruiken.
+ */
+class EmbeddedDatabank {
+
+    private static final int BATCHGROOTTE = 1000;
+
+    /**
+     * Voegt klanten en rekeningen toe in batches. De klanten krijgen in een
+     * nieuwe databank de id's 1 tot en met aantalKlanten; de rekeningen
+     * worden willekeurig over die klanten verdeeld.
+     *
+     * @return de rekeningnummers van de toegevoegde rekeningen
+     * @throws DBException wanneer het toevoegen mislukt
+     */
+    static String[] vul(Testdata data, int aantalKlanten, int aantalRekeningen) throws DBException {
+        String[] rekeningnummers = new String[aantalRekeningen];
+        try (Connection conn = ConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "insert into klant(naam, voornaam, adres, postcode, gemeente, status) values(?,?,?,?,?,?)")) {
+                for (int i = 1; i <= aantalKlanten; i++) {
+                    Klant klant = data.klant(i);
+                    stmt.setString(1, klant.getNaam());
+                    stmt.setString(2, klant.getVoornaam());
+                    stmt.setString(3, klant.getAdres());
+                    stmt.setString(4, klant.getPostcode());
+                    stmt.setString(5, klant.getGemeente());
+                    stmt.setString(6, klant.getStatus().toString());
+                    stmt.addBatch();
+                    if (i % BATCHGROOTTE == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "insert into rekening(rekeningnummer, saldo, status, eigenaar) values(?,?,?,?)")) {
+                for (int i = 0; i < aantalRekeningen; i++) {
+                    Rekening rekening = data.rekening(1 + i % aantalKlanten);
+                    rekeningnummers[i] = rekening.getRekeningnummer().getRekeningnummer();
+                    stmt.setString(1, rekeningnummers[i]);
+                    stmt.setBigDecimal(2, rekening.getSaldo().toBigDecimal().abs());
+                    stmt.setString(3, rekening.getStatus().toString());
+                    stmt.setInt(4, rekening.getEigenaar());
+                    stmt.addBatch();
+                    if ((i + 1) % BATCHGROOTTE == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            conn.commit();
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in vul" + sqlEx);
+        }
+        return rekeningnummers;
+    }
+
+    /**
+     * Voegt dezelfde klanten en rekeningen als vul toe via de repositories,
+     * bv. KlantGeheugenDAO en RekeningGeheugenDAO.
+     *
+     * @return de rekeningnummers van de toegevoegde rekeningen
+     * @throws DBException wanneer het toevoegen mislukt
+     */
+    static String[] vul(Testdata data, KlantRepository klantDAO, RekeningRepository rekeningDAO,
+                        int aantalKlanten, int aantalRekeningen) throws DBException {
+        String[] rekeningnummers = new String[aantalRekeningen];
+        for (int i = 1; i <= aantalKlanten; i++) {
+            Klant klant = data.klant(i);
+            Integer id = klantDAO.toevoegenKlant(klant);
+            // nog zonder rekeningen, dus het uitschrijven lukt altijd
+            if (klant.getStatus() == KlantStatus.UITGESCHREVEN) {
+                klantDAO.verwijderKlant(id);
+            }
+        }
+        try {
+            for (int i = 0; i < aantalRekeningen; i++) {
+                Rekening rekening = data.rekening(1 + i % aantalKlanten);
+                rekeningnummers[i] = rekening.getRekeningnummer().getRekeningnummer();
+                rekening.setSaldo(Bedrag.van(rekening.getSaldo().toBigDecimal().abs()));
+                rekeningDAO.toevoegenRekening(rekening);
+                if (rekening.getStatus() == RekeningStatus.GESLOTEN) {
+                    rekeningDAO.verwijderRekening(rekeningnummers[i]);
+                }
+            }
+        } catch (ApplicationException ae) {
+            throw new DBException("Fout in vul: " + ae.getMessage());
+        }
+        return rekeningnummers;
+    }
+}
@@ -0,0 +1,91 @@
+package be.vives.ti.benchmark.belasting;
+
+import java.util.Arrays;
+
+/**
+ * Verzamelt de duur (in nanoseconden) van alle uitgevoerde bewerkingen van
+ * één soort. Elke thread vult zijn eigen Latenties zonder synchronisatie;
+ * na afloop worden ze samengevoegd en gesorteerd om exacte percentielen te
+ * berekenen.
+ */
+class Latenties {
+
+    private long[] metingen = new long[1024];
+    private int aantal;
+    private long geweigerd;
+    private long fouten;
+    private boolean gesorteerd;
+
+    void meet(long nanos) {
+        if (aantal == metingen.length) {
+            metingen = Arrays.copyOf(metingen, aantal * 2);
+        }
+        metingen[aantal++] = nanos;
+        gesorteerd = false;
+    }
+
+    // de bewerking werd geweigerd door een regel van de bank (ApplicationException)
+    void geweigerd() {
+        geweigerd++;
+    }
+
+    // de bewerking mislukte door een fout in de databank (DBException)
+    void fout() {
+        fouten++;
+    }
+
+    /**
+     * voegt de metingen van een andere thread toe
+     */
+    void voegToe(Latenties ander) {
+        if (aantal + ander.aantal > metingen.length) {
+            metingen = Arrays.copyOf(metingen, aantal + ander.aantal);
+        }
+        System.arraycopy(ander.metingen, 0, metingen, aantal, ander.aantal);
+        aantal += ander.aantal;
+        gesorteerd = false;
+        geweigerd += ander.geweigerd;
+        fouten += ander.fouten;
+    }
+
+    int getAantal() {
+        return aantal;
+    }
+
+    long getGeweigerd() {
+        return geweigerd;
+    }
+
+    long getFouten() {
+        return fouten;
+    }
+
+    /**
+     * @param percentiel bv. 99.9
+     * @return duur in nanoseconden waaronder dat percentage van de metingen
+     * valt (nearest rank), 0 zonder metingen
+     */
+    long percentiel(double percentiel) {
+        if (aantal == 0) {
+            return 0;
+        }
+        sorteer();
+        int rang = (int) Math.ceil(percentiel / 100.0 * aantal);
+        return metingen[Math.max(0, Math.min(aantal, rang) - 1)];
+    }
+
+    long maximum() {
+        if (aantal == 0) {
+            return 0;
+        }
+        sorteer();
+        return metingen[aantal - 1];
+    }
+
+    private void sorteer() {
+        if (!gesorteerd) {
+            Arrays.sort(metingen, 0, aantal);
+            gesorteerd = true;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package be.vives.ti.benchmark.data;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Een ResultSet over rijen in het geheugen, om de mapping in de DAO's te meten
+ * zonder databank. Enkel next, findColumn, getString, getInt, getBigDecimal,
+ * wasNull en close worden ondersteund; kolommen worden op label opgezocht,
+ * ongevoelig voor hoofdletters, zoals bij de MySQL-driver.
+ * <p>
+ * De ResultSet is een dynamische proxy: elke oproep kost wat extra, maar
+ * dat is voor elke mapping dezelfde vaste kost.
+ */
+public class RijenResultSet implements InvocationHandler {
+
+    private final HashMap<String, Integer> kolommen = new HashMap<>();
+    private final Object[][] rijen;
+    private final ResultSet resultSet;
+    private int huidig = -1;
+    private boolean laatsteNull;
+
+    /**
+     * @param kolommen kolomlabels
+     * @param rijen    per rij een waarde per kolom (String, Integer of BigDecimal)
+     */
+    public RijenResultSet(String[] kolommen, Object[][] rijen) {
+        for (int i = 0; i < kolommen.length; i++) {
+            this.kolommen.put(kolommen[i].toLowerCase(Locale.ROOT), i);
+        }
+        this.rijen = rijen;
+        this.resultSet = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, this);
+    }
+
+    public ResultSet getResultSet() {
+        return resultSet;
+    }
+
+    /**
+     * zet de cursor terug voor de eerste rij, zodat dezelfde rijen opnieuw
+     * gelezen kunnen worden
+     */
+    public void terugzetten() {
+        huidig = -1;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+        switch (method.getName()) {
+            case "next":
+                huidig++;
+                return huidig < rijen.length;
+            case "findColumn":
+                return kolom(args[0]) + 1;
+            case "getString":
+                Object waarde = waarde(args[0]);
+                return waarde == null ? null : waarde.toString();
+            case "getInt":
+                Object getal = waarde(args[0]);
+                return getal == null ? 0 : ((Number) getal).intValue();
+            case "getBigDecimal":
+                return waarde(args[0]);
+            case "wasNull":
+                return laatsteNull;
+            case "close":
+                return null;
+            case "isClosed":
+                return false;
+            default:
+                throw new SQLException("Niet ondersteund in RijenResultSet: " + method.getName());
+        }
+    }
+
+    private Object waarde(Object kolom) throws SQLException {
+        if (huidig < 0 || huidig >= rijen.length) {
+            throw new SQLException("Geen huidige rij");
+        }
+        int index = kolom instanceof Integer ? (Integer) kolom - 1 : kolom(kolom);
+        Object waarde = rijen[huidig][index];
+        laatsteNull = waarde == null;
+        return waarde;
+    }
+
+    private int kolom(Object label) throws SQLException {
+        Integer index = kolommen.get(((String) label).toLowerCase(Locale.ROOT));
+        if (index == null) {
+            throw new SQLException("Onbekende kolom: " + label);
+        }
+        return index;
+    }
+}
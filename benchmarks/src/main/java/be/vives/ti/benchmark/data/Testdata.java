@@ -0,0 +1,152 @@
+package be.vives.ti.benchmark.data;
+
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.extra.Rekeningnummers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Maakt realistische testdata voor de benchmarks: Vlaamse en Nederlandse
+ * namen (met tussenvoegsels zoals "Van den" en veel gemeenschappelijke
+ * familienamen, zodat KlantComparator ook op voornaam moet vergelijken),
+ * adressen met Belgische postcodes en geldige Belgische rekeningnummers.
+ * <p>
+ * Met dezelfde seed levert een Testdata altijd dezelfde reeks op, zodat
+ * resultaten van verschillende runs vergelijkbaar zijn.
+ */
+public class Testdata {
+
+    public static final long STANDAARD_SEED = 42L;
+
+    private static final String[] FAMILIENAMEN = {
+            "Peeters", "Janssens", "Maes", "Jacobs", "Mertens", "Willems", "Claes", "Goossens", "Wouters",
+            "De Smet", "Dubois", "Lambert", "Dupont", "Martens", "De Vos", "Hermans", "Michiels", "Desmet",
+            "De Clercq", "Vermeulen", "Van Damme", "Van den Bossche", "Van de Velde", "Van Dyck", "Verstraete",
+            "De Jong", "Jansen", "De Vries", "Van den Berg", "Van Dijk", "Bakker", "Visser", "Smit", "Meijer",
+            "De Boer", "Mulder", "De Groot", "Bos", "Vos", "Peters", "Hendriks", "Van Leeuwen", "Dekker"
+    };
+
+    private static final String[] VOORNAMEN = {
+            "Noah", "Arthur", "Louis", "Jules", "Lucas", "Liam", "Adam", "Victor", "Finn", "Mats", "Jan", "Pieter",
+            "Wout", "Lars", "Sem", "Daan", "Bram", "Olivia", "Emma", "Louise", "Mila", "Ella", "Nora", "Julie",
+            "Anna", "Lotte", "Fien", "Marie", "Sofie", "An", "Els", "Katrien", "Saar", "Tess", "Lieke", "Fleur"
+    };
+
+    private static final String[] STRATEN = {
+            "Kerkstraat", "Stationsstraat", "Molenstraat", "Nieuwstraat", "Schoolstraat", "Dorpsstraat",
+            "Beekstraat", "Kapelstraat", "Veldstraat", "Markt", "Doorniksesteenweg", "Sint-Jorisstraat"
+    };
+
+    private static final String[][] GEMEENTEN = {
+            {"8500", "Kortrijk"}, {"8000", "Brugge"}, {"9000", "Gent"}, {"2000", "Antwerpen"},
+            {"3000", "Leuven"}, {"1000", "Brussel"}, {"8800", "Roeselare"}, {"8900", "Ieper"},
+            {"3500", "Hasselt"}, {"2800", "Mechelen"}, {"9300", "Aalst"}, {"8400", "Oostende"}
+    };
+
+    private final Random random;
+    private final Set<Long> gebruikteNummers = new HashSet<>();
+
+    public Testdata() {
+        this(STANDAARD_SEED);
+    }
+
+    public Testdata(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public String naam() {
+        return kies(FAMILIENAMEN);
+    }
+
+    public String voornaam() {
+        return kies(VOORNAMEN);
+    }
+
+    public String adres() {
+        return kies(STRATEN) + " " + (1 + random.nextInt(250));
+    }
+
+    /**
+     * @return een nieuw, geldig rekeningnummer BEaa bbbb cccc dddd; binnen
+     * één Testdata komt elk nummer maar één keer voor
+     */
+    public String rekeningnummer() {
+        long volgnummer;
+        do {
+            volgnummer = (random.nextLong() >>> 1) % 1_000_000_000_000L;
+        } while (!gebruikteNummers.add(volgnummer));
+        return Rekeningnummers.maak(volgnummer);
+    }
+
+    /**
+     * @return saldo tussen -500,00 en 25.000,00 euro met 2 decimalen
+     */
+    public BigDecimal saldo() {
+        return BigDecimal.valueOf(random.nextInt(2_550_000) - 50_000, 2);
+    }
+
+    /**
+     * @param id id van de klant, null voor een nieuwe klant
+     */
+    public Klant klant(Integer id) {
+        String[] gemeente = GEMEENTEN[random.nextInt(GEMEENTEN.length)];
+        Klant klant = new Klant();
+        klant.setId(id);
+        klant.setNaam(naam());
+        klant.setVoornaam(voornaam());
+        klant.setAdres(adres());
+        klant.setPostcode(gemeente[0]);
+        klant.setGemeente(gemeente[1]);
+        klant.setStatus(random.nextInt(10) == 0 ? KlantStatus.UITGESCHREVEN : KlantStatus.INGESCHREVEN);
+        return klant;
+    }
+
+    /**
+     * @return aantal klanten met id 1 tot en met aantal
+     */
+    public ArrayList<Klant> klanten(int aantal) {
+        ArrayList<Klant> klanten = new ArrayList<>(aantal);
+        for (int i = 1; i <= aantal; i++) {
+            klanten.add(klant(i));
+        }
+        return klanten;
+    }
+
+    public Rekening rekening(int eigenaar) {
+        Rekening rekening = new Rekening();
+        try {
+            rekening.setRekeningnummer(new Rekeningnummer(rekeningnummer()));
+        } catch (ApplicationException e) {
+            // Rekeningnummers.maak levert enkel geldige nummers
+            throw new IllegalStateException(e);
+        }
+        rekening.setSaldo(saldo());
+        rekening.setStatus(random.nextInt(20) == 0 ? RekeningStatus.GESLOTEN : RekeningStatus.OPEN);
+        rekening.setEigenaar(eigenaar);
+        return rekening;
+    }
+
+    /**
+     * @return aantal rekeningen, verdeeld over eigenaars 1 tot en met aantalKlanten
+     */
+    public ArrayList<Rekening> rekeningen(int aantal, int aantalKlanten) {
+        ArrayList<Rekening> rekeningen = new ArrayList<>(aantal);
+        for (int i = 0; i < aantal; i++) {
+            rekeningen.add(rekening(1 + random.nextInt(aantalKlanten)));
+        }
+        return rekeningen;
+    }
+
+    private String kies(String[] waarden) {
+        return waarden[random.nextInt(waarden.length)];
+    }
+}
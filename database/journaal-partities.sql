@@ -0,0 +1,14 @@
+-- enkel voor MySQL: het journaal per maand partitioneren (zie migratie V3).
+-- Eén keer uitvoeren na de migratie, daarna maandelijks een partitie
+-- toevoegen door p_toekomst te splitsen, bv.
+--   ALTER TABLE JOURNAAL REORGANIZE PARTITION p_toekomst INTO (
+--     PARTITION p202701 VALUES LESS THAN (202702),
+--     PARTITION p_toekomst VALUES LESS THAN MAXVALUE);
+-- Oude maanden kunnen zo gearchiveerd worden met EXCHANGE PARTITION of
+-- verwijderd met DROP PARTITION, zonder de rest van de tabel te raken.
+ALTER TABLE JOURNAAL PARTITION BY RANGE (periode) (
+  PARTITION p202610 VALUES LESS THAN (202611),
+  PARTITION p202611 VALUES LESS THAN (202612),
+  PARTITION p202612 VALUES LESS THAN (202701),
+  PARTITION p_toekomst VALUES LESS THAN MAXVALUE
+);
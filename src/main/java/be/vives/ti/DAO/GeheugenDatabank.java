@@ -0,0 +1,221 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.databag.Journaalregel;
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.JournaalSoort;
+import be.vives.ti.exception.DBException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * De tabellen klant en rekening in het geheugen, gedeeld door
+ * KlantGeheugenDAO en RekeningGeheugenDAO (bv. voor testen en
+ * capaciteitssimulaties zonder MySQL).
+ * <p>
+ * - klanten op id, rekeningen op rekeningnummer, rekeningen per eigenaar en
+ * klanten op naam, voornaam, adres, postcode en gemeente (bestaatKlant)
+ * staan elk in een concurrente index
+ * - de opgeslagen Klant- en Rekening-objecten worden nooit gewijzigd, enkel
+ * vervangen; naar buiten gaan altijd kopieën
+ * - tekst wordt hoofdletterongevoelig vergeleken, zoals in de databank
+ * - alle wijzigingen gebeuren onder één slot, zodat een conditionele wijziging
+ * (verrekenen, overschrijven, uitschrijven, ...) ondeelbaar is; lezers
+ * gebruiken de indexen zonder slot en zien elke klant of rekening in zijn
+ * geheel, maar een lijst die tijdens een wijziging overlopen wordt, kan
+ * al een deel van de wijziging bevatten
+ * - elke saldowijziging komt onder hetzelfde slot in het journaal van de
+ * rekening, zoals in de transactie van RekeningDAO
+ * - de beperkingen van het schema (verplichte kolommen, lengtes, unieke
+ * rekeningnummers, bestaande eigenaar) geven een DBException, zoals een
+ * fout uit de databank
+ */
+public class GeheugenDatabank {
+
+    // gesorteerd op naam, voornaam en id, zoals de zoekopdrachten van KlantDAO
+    static final Comparator<Klant> VOLGORDE = Comparator
+            .comparing((Klant klant) -> klein(klant.getNaam()))
+            .thenComparing(klant -> klein(klant.getVoornaam()))
+            .thenComparing(Klant::getId);
+
+    final Object slot = new Object();
+
+    final ConcurrentHashMap<Integer, Klant> klanten = new ConcurrentHashMap<>();
+    final ConcurrentSkipListSet<Klant> klantVolgorde = new ConcurrentSkipListSet<>(VOLGORDE);
+    final ConcurrentHashMap<List<String>, Set<Integer>> klantenOpSleutel = new ConcurrentHashMap<>();
+    private int laatsteId;
+
+    // sleutel: rekeningnummer in hoofdletters
+    final ConcurrentSkipListMap<String, Rekening> rekeningen = new ConcurrentSkipListMap<>();
+    final ConcurrentHashMap<Integer, NavigableSet<String>> rekeningenPerEigenaar = new ConcurrentHashMap<>();
+
+    // per rekening (sleutel zoals in rekeningen) de journaalregels op volgnummer
+    final ConcurrentHashMap<String, ConcurrentSkipListMap<Long, Journaalregel>> journaal = new ConcurrentHashMap<>();
+    private long laatsteVolgnummer;
+
+    /**
+     * Verwijdert alle klanten en rekeningen; de id's beginnen opnieuw bij 1.
+     */
+    public void leegmaken() {
+        synchronized (slot) {
+            journaal.clear();
+            laatsteVolgnummer = 0;
+            rekeningenPerEigenaar.clear();
+            rekeningen.clear();
+            klantenOpSleutel.clear();
+            klantVolgorde.clear();
+            klanten.clear();
+            laatsteId = 0;
+        }
+    }
+
+    // --- klanten (enkel oproepen onder slot) ---
+
+    int volgendId() {
+        return ++laatsteId;
+    }
+
+    void bewaarKlant(Klant oud, Klant nieuw) {
+        if (oud != null) {
+            klantVolgorde.remove(oud);
+            Set<Integer> ids = klantenOpSleutel.get(sleutel(oud));
+            if (ids != null) {
+                ids.remove(oud.getId());
+                if (ids.isEmpty()) {
+                    klantenOpSleutel.remove(sleutel(oud));
+                }
+            }
+        }
+        klanten.put(nieuw.getId(), nieuw);
+        klantVolgorde.add(nieuw);
+        klantenOpSleutel.computeIfAbsent(sleutel(nieuw), s -> ConcurrentHashMap.newKeySet()).add(nieuw.getId());
+    }
+
+    /**
+     * Zet een bewaarde klant terug met zijn eigen id, bv. bij het herspelen
+     * van een logboek (zie RekeningGrootboekDAO).
+     */
+    void herstelKlant(Klant klant) {
+        synchronized (slot) {
+            bewaarKlant(klanten.get(klant.getId()), klant);
+            laatsteId = Math.max(laatsteId, klant.getId());
+        }
+    }
+
+    /**
+     * Controleert de kolommen van de tabel klant (NOT NULL en lengte).
+     */
+    static void controleerKlant(Klant klant, String methode) throws DBException {
+        controleerKolom(klant.getNaam(), "naam", 50, methode);
+        controleerKolom(klant.getVoornaam(), "voornaam", 50, methode);
+        controleerKolom(klant.getAdres(), "adres", 100, methode);
+        controleerKolom(klant.getPostcode(), "postcode", 10, methode);
+        controleerKolom(klant.getGemeente(), "gemeente", 50, methode);
+    }
+
+    private static void controleerKolom(String waarde, String kolom, int lengte, String methode)
+            throws DBException {
+        if (waarde == null) {
+            throw new DBException("Fout in " + methode + ": kolom " + kolom + " mag niet null zijn");
+        }
+        if (waarde.length() > lengte) {
+            throw new DBException("Fout in " + methode + ": waarde te lang voor kolom " + kolom);
+        }
+    }
+
+    /**
+     * @return naam, voornaam, adres, postcode en gemeente zonder hoofdletters,
+     * null wanneer een ervan ontbreekt (dan bestaat de klant nooit)
+     */
+    static List<String> sleutel(Klant klant) {
+        if (klant.getNaam() == null || klant.getVoornaam() == null || klant.getAdres() == null
+                || klant.getPostcode() == null || klant.getGemeente() == null) {
+            return null;
+        }
+        return Arrays.asList(klein(klant.getNaam()), klein(klant.getVoornaam()), klein(klant.getAdres()),
+                klein(klant.getPostcode()), klein(klant.getGemeente()));
+    }
+
+    private static String klein(String tekst) {
+        return tekst == null ? "" : tekst.toLowerCase(Locale.ROOT);
+    }
+
+    // --- rekeningen ---
+
+    static String sleutel(String rekeningnummer) {
+        return rekeningnummer.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * @return de sleutels van de rekeningen van de eigenaar, gesorteerd
+     */
+    NavigableSet<String> rekeningenVan(int eigenaar) {
+        NavigableSet<String> sleutels = rekeningenPerEigenaar.get(eigenaar);
+        return sleutels == null ? Collections.emptyNavigableSet() : sleutels;
+    }
+
+    // enkel oproepen onder slot
+    void bewaarRekening(Rekening rekening) {
+        String sleutel = sleutel(rekening.getRekeningnummer().getRekeningnummer());
+        rekeningen.put(sleutel, rekening);
+        rekeningenPerEigenaar.computeIfAbsent(rekening.getEigenaar(), e -> new ConcurrentSkipListSet<>())
+                .add(sleutel);
+    }
+
+    // enkel oproepen onder slot, met de rekening zoals ze na de wijziging bewaard werd
+    void journaliseren(Rekening rekening, JournaalSoort soort, Bedrag verschil) {
+        Journaalregel regel = new Journaalregel();
+        regel.setVolgnummer(++laatsteVolgnummer);
+        regel.setRekeningnummer(rekening.getRekeningnummer().getRekeningnummer());
+        regel.setSoort(soort);
+        regel.setVerschil(verschil);
+        regel.setSaldo(rekening.getSaldo());
+        regel.setTijdstip(LocalDateTime.now());
+        journaal.computeIfAbsent(sleutel(regel.getRekeningnummer()), s -> new ConcurrentSkipListMap<>())
+                .put(regel.getVolgnummer(), regel);
+    }
+
+    static Klant kopieer(Klant klant) {
+        Klant kopie = new Klant();
+        kopie.setId(klant.getId());
+        kopie.setNaam(klant.getNaam());
+        kopie.setVoornaam(klant.getVoornaam());
+        kopie.setAdres(klant.getAdres());
+        kopie.setPostcode(klant.getPostcode());
+        kopie.setGemeente(klant.getGemeente());
+        kopie.setStatus(klant.getStatus());
+        return kopie;
+    }
+
+    static Rekening kopieer(Rekening rekening) {
+        Rekening kopie = new Rekening();
+        // Rekeningnummer en Bedrag zijn onwijzigbaar en mogen gedeeld worden
+        kopie.setRekeningnummer(rekening.getRekeningnummer());
+        kopie.setSaldo(rekening.getSaldo());
+        kopie.setStatus(rekening.getStatus());
+        kopie.setEigenaar(rekening.getEigenaar());
+        return kopie;
+    }
+
+    static Journaalregel kopieer(Journaalregel regel) {
+        Journaalregel kopie = new Journaalregel();
+        kopie.setVolgnummer(regel.getVolgnummer());
+        kopie.setRekeningnummer(regel.getRekeningnummer());
+        kopie.setSoort(regel.getSoort());
+        kopie.setVerschil(regel.getVerschil());
+        kopie.setSaldo(regel.getSaldo());
+        kopie.setTijdstip(regel.getTijdstip());
+        return kopie;
+    }
+}
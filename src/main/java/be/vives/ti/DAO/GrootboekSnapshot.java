@@ -0,0 +1,213 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.DAO.grootboek.Logboek;
+import be.vives.ti.DAO.grootboek.Saldotabel;
+import be.vives.ti.databag.Klant;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot van een RekeningGrootboekDAO: alle klanten en rekeningen zoals ze
+ * waren op een positie in het logboek, zodat bij het openen enkel het
+ * logboek vanaf die positie herspeeld moet worden.
+ * <p>
+ * - fuzzy checkpoint: de positie wordt onder de sloten vastgelegd, daarna
+ * worden de klanten en de rekeningen (per stuk van de Saldotabel, telkens
+ * kort onder het slot) gekopieerd terwijl er gewoon verder gewijzigd wordt;
+ * een rekening kan zo al een saldo van na de positie hebben, maar herspelen
+ * vanaf de positie overschrijft het saldo toch met het saldo na elke mutatie
+ * - het logboek wordt tot de positie geforceerd vóór de snapshot ernaar
+ * verwijst; het logboek zelf wordt niet ingekort, het is ook het journaal
+ * - formaat: kop (herkenning, positie in het logboek, laatste volgnummer,
+ * aantal rekeningen bij het begin), records (KLANT of REKENING, zie
+ * RekeningGrootboekDAO en KlantGrootboekDAO), EINDE en een CRC32 over alles
+ * ervoor
+ * - de snapshot wordt naast de vorige geschreven, naar schijf geforceerd en
+ * pas dan in één keer (atomic move) in de plaats gezet: er is altijd een
+ * volledige snapshot of geen
+ */
+final class GrootboekSnapshot {
+
+    static final String BESTAND = "grootboek.snapshot";
+
+    private static final Logger LOGGER = Logger.getLogger(GrootboekSnapshot.class.getName());
+
+    private static final long HERKENNING = 0x47524f4f54534e31L; // "GROOTSN1"
+    private static final int KOP = 8 + 8 + 8 + 4;
+    private static final byte EINDE = 0;
+    private static final byte KLANT = 1;
+    private static final byte REKENING = 2;
+
+    // aantal plaatsen van de Saldotabel dat onder één keer het slot gekopieerd wordt
+    private static final int STUK = 4096;
+
+    private GrootboekSnapshot() {
+    }
+
+    /**
+     * Schrijft een snapshot in de map van het grootboek. Eén snapshot
+     * tegelijk (zie RekeningGrootboekDAO.snapshot).
+     */
+    static void schrijven(RekeningGrootboekDAO grootboek, Path map) throws IOException {
+        long logpositie;
+        long volgnummer;
+        int aantal;
+        // beide sloten: een klant staat in het logboek vóór hij in de databank staat
+        synchronized (grootboek.slot) {
+            synchronized (grootboek.klantendatabank.slot) {
+                logpositie = grootboek.logboek.getGeschreven();
+                volgnummer = grootboek.laatsteVolgnummer;
+                aantal = grootboek.tabel.getAantal();
+            }
+        }
+        grootboek.logboek.forceer();
+
+        Path tijdelijk = map.resolve(BESTAND + ".tmp");
+        try (FileOutputStream bestand = new FileOutputStream(tijdelijk.toFile())) {
+            CRC32 controle = new CRC32();
+            DataOutputStream uit = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(bestand, 1 << 16), controle));
+            uit.writeLong(HERKENNING);
+            uit.writeLong(logpositie);
+            uit.writeLong(volgnummer);
+            uit.writeInt(aantal);
+
+            // een opgeslagen Klant wordt nooit gewijzigd, enkel vervangen
+            ByteBuffer klant = ByteBuffer.allocate(KlantGrootboekDAO.KLANTBREEDTE);
+            for (Klant opgeslagen : grootboek.klantendatabank.klanten.values()) {
+                klant.clear();
+                KlantGrootboekDAO.schrijf(klant, opgeslagen);
+                uit.writeByte(KLANT);
+                uit.write(klant.array(), 0, klant.position());
+            }
+
+            schrijvenRekeningen(grootboek, uit);
+            uit.writeByte(EINDE);
+            uit.flush();
+            // de CRC zelf telt niet mee
+            new DataOutputStream(bestand).writeLong(controle.getValue());
+            bestand.getFD().sync();
+        }
+        Files.move(tijdelijk, map.resolve(BESTAND), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void schrijvenRekeningen(RekeningGrootboekDAO grootboek, DataOutputStream uit)
+            throws IOException {
+        long[] sleutels = new long[STUK];
+        long[] saldi = new long[STUK];
+        int[] eigenaars = new int[STUK];
+        boolean[] open = new boolean[STUK];
+        int capaciteit = -1;
+        int plaats = 0;
+        while (true) {
+            int aantal = 0;
+            synchronized (grootboek.slot) {
+                Saldotabel tabel = grootboek.tabel;
+                if (tabel.getCapaciteit() != capaciteit) {
+                    // de tabel is intussen verdubbeld en alles staat op een andere plaats: opnieuw van
+                    // voor af aan, een rekening die zo twee keer in de snapshot komt, wordt bij het laden
+                    // gewoon overschreven
+                    capaciteit = tabel.getCapaciteit();
+                    plaats = 0;
+                }
+                if (plaats >= capaciteit) {
+                    break;
+                }
+                for (int tot = Math.min(plaats + STUK, capaciteit); plaats < tot; plaats++) {
+                    long sleutel = tabel.getSleutel(plaats);
+                    if (sleutel != 0) {
+                        sleutels[aantal] = sleutel;
+                        saldi[aantal] = tabel.getSaldo(plaats);
+                        eigenaars[aantal] = tabel.getEigenaar(plaats);
+                        open[aantal] = tabel.isOpen(plaats);
+                        aantal++;
+                    }
+                }
+            }
+            for (int i = 0; i < aantal; i++) {
+                uit.writeByte(REKENING);
+                uit.writeLong(sleutels[i]);
+                uit.writeInt(eigenaars[i]);
+                uit.writeLong(saldi[i]);
+                uit.writeBoolean(open[i]);
+            }
+        }
+    }
+
+    /**
+     * Laadt de snapshot in de map, als die er is, in een grootboek dat nog
+     * leeg is.
+     *
+     * @return de positie in het logboek waarvan herspeeld moet worden;
+     * Logboek.BEGIN zonder snapshot of wanneer de snapshot beschadigd is
+     * (dan wordt het hele logboek herspeeld)
+     * @throws IOException wanneer de snapshot niet gelezen kan worden
+     */
+    static long laden(RekeningGrootboekDAO grootboek, Path map) throws IOException {
+        Path pad = map.resolve(BESTAND);
+        if (!Files.exists(pad)) {
+            return Logboek.BEGIN;
+        }
+        try (FileChannel kanaal = FileChannel.open(pad, StandardOpenOption.READ)) {
+            long grootte = kanaal.size();
+            if (grootte < KOP + 1 + 8 || grootte > Integer.MAX_VALUE) {
+                LOGGER.log(Level.WARNING, "Snapshot " + pad + " heeft een ongeldige grootte, het hele logboek wordt herspeeld");
+                return Logboek.BEGIN;
+            }
+            MappedByteBuffer inhoud = kanaal.map(FileChannel.MapMode.READ_ONLY, 0, grootte);
+            int einde = (int) grootte - 8;
+            ByteBuffer gecontroleerd = inhoud.duplicate();
+            gecontroleerd.limit(einde);
+            CRC32 controle = new CRC32();
+            controle.update(gecontroleerd);
+            if (inhoud.getLong(0) != HERKENNING || inhoud.getLong(einde) != controle.getValue()) {
+                LOGGER.log(Level.WARNING, "Snapshot " + pad + " is beschadigd, het hele logboek wordt herspeeld");
+                return Logboek.BEGIN;
+            }
+
+            long logpositie = inhoud.getLong(8);
+            grootboek.laatsteVolgnummer = inhoud.getLong(16);
+            Saldotabel tabel = grootboek.tabel;
+            tabel.reserveer(inhoud.getInt(24));
+            inhoud.position(KOP);
+            while (true) {
+                byte soort = inhoud.get();
+                if (soort == KLANT) {
+                    grootboek.klantendatabank.herstelKlant(KlantGrootboekDAO.lees(inhoud));
+                } else if (soort == REKENING) {
+                    long sleutel = inhoud.getLong();
+                    int eigenaar = inhoud.getInt();
+                    long saldo = inhoud.getLong();
+                    boolean open = inhoud.get() != 0;
+                    int plaats = tabel.zoek(sleutel);
+                    if (plaats < 0) {
+                        plaats = tabel.voegToe(sleutel, eigenaar, saldo);
+                        grootboek.registreerEigenaar(eigenaar, sleutel);
+                    } else {
+                        tabel.setSaldo(plaats, saldo);
+                    }
+                    tabel.setOpen(plaats, open);
+                } else if (soort == EINDE) {
+                    return logpositie;
+                } else {
+                    throw new IOException("Onbekend record in snapshot " + pad + ": " + soort);
+                }
+            }
+        }
+    }
+}
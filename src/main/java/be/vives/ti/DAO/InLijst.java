@@ -0,0 +1,72 @@
+package be.vives.ti.DAO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Hulpmethodes voor zoekopdrachten op veel sleutels tegelijk met een
+ * IN-lijst ("where id in (?, ?, ...)").
+ * <p>
+ * - de sleutels worden verdeeld in stukken van hoogstens MAXIMUM, zodat een
+ * statement nooit te veel parameters krijgt
+ * - elk stuk wordt opgevuld tot een macht van twee door de laatste sleutel
+ * te herhalen; zo zijn er maar een handvol verschillende statements en
+ * blijven ze bruikbaar in de statement-cache van de driver en de DB
+ */
+final class InLijst {
+
+    // maximaal aantal sleutels in één IN-lijst
+    static final int MAXIMUM = 512;
+
+    private InLijst() {
+    }
+
+    /**
+     * Verdeelt de sleutels in stukken voor opeenvolgende queries. Dubbels en
+     * null worden weggelaten; de volgorde van de eerste keer blijft behouden.
+     *
+     * @param sleutels de gezochte sleutels (mag null zijn)
+     * @return de opgevulde stukken, leeg wanneer er niets te zoeken is
+     */
+    static <T> List<List<T>> verdelen(Collection<T> sleutels) {
+        if (sleutels == null) {
+            return Collections.emptyList();
+        }
+        LinkedHashSet<T> uniek = new LinkedHashSet<>(sleutels);
+        uniek.remove(null);
+        List<T> lijst = new ArrayList<>(uniek);
+        List<List<T>> stukken = new ArrayList<>();
+        for (int van = 0; van < lijst.size(); van += MAXIMUM) {
+            stukken.add(opvullen(lijst.subList(van, Math.min(van + MAXIMUM, lijst.size()))));
+        }
+        return stukken;
+    }
+
+    /**
+     * @return "(?, ?, ...)" met evenveel vraagtekens als sleutels in het stuk
+     */
+    static String parameters(List<?> stuk) {
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < stuk.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(")").toString();
+    }
+
+    private static <T> List<T> opvullen(List<T> stuk) {
+        int grootte = 1;
+        while (grootte < stuk.size()) {
+            grootte *= 2;
+        }
+        List<T> opgevuld = new ArrayList<>(grootte);
+        opgevuld.addAll(stuk);
+        T laatste = stuk.get(stuk.size() - 1);
+        while (opgevuld.size() < grootte) {
+            opgevuld.add(laatste);
+        }
+        return opgevuld;
+    }
+}
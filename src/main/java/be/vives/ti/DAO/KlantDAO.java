@@ -1,23 +1,52 @@
 package be.vives.ti.DAO;
 
+import be.vives.ti.DAO.cache.CacheStatistieken;
+import be.vives.ti.DAO.cache.LeesCache;
 import be.vives.ti.DAO.connect.ConnectionManager;
+import be.vives.ti.DAO.connect.DBProp;
 import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.KlantOverzicht;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
 import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.datatype.Uitschrijving;
 import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Bevat alle functionaliteit op de DAO-tabel klant. - schrappen van een
  * klant - toevoegen van een klant - wijzigen van klant - zoeken van alle
  * klanten gesorteerd op naam, voornaam - zoeken van alle ingeschreven klanten
  * gesorteerd op naam, voornaam - zoeken van alle uitgeschreven klanten
- * gesorteerd op naam, voornaam - zoeken van een klant op id - zoeken van een
- * klant op naam, voornaam, adres, postcode en gemeente
+ * gesorteerd op naam, voornaam - zoeken van een klant op id (met cache) -
+ * zoeken van veel klanten tegelijk op id - zoeken van een klant met zijn
+ * open rekeningen (één query) -
+ * zoeken van een klant op naam, voornaam, adres, postcode en gemeente -
+ * toevoegen van een batch klanten - alle klanten één voor één overlopen -
+ * klanten per pagina opvragen
  */
-public class KlantDAO {
+public class KlantDAO implements KlantRepository {
+
+    // aantal klanten dat samen in één transactie (en één JDBC-batch) toegevoegd wordt
+    private static final int BATCHGROOTTE = 500;
+
+    // cache voor zoekKlant, gedeeld door alle KlantDAO's (zie getCache)
+    private static volatile LeesCache<Integer, Klant> cache;
 
     /**
      * Zoekt adhv een id een klant op. Wanneer geen klant werd gevonden, wordt
@@ -28,50 +57,203 @@ public class KlantDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public Klant zoekKlant(Integer id) throws DBException {
         if (id != null) {
-            Klant returnKlant = null;
-            // connectie tot stand brengen (en automatisch sluiten)
-            try (Connection conn = ConnectionManager.getConnection()) {
-                // preparedStatement opstellen (en automatisch sluiten)
-                try (PreparedStatement stmt = conn.prepareStatement(
-                    "select id"
-                        + " , naam"
-                        + " , voornaam"
-                        + " , adres"
-                        + " , postcode"
-                        + " , gemeente"
-                        + " , status "
-                        + " from klant "
-                        + " where id = ?")) {
+            return getCache().zoek(id, this::zoekKlantInDatabase);
+        }
+        return null;
+    }
+
+    /**
+     * Zoekt de klant op in de databank (zonder cache).
+     */
+    private Klant zoekKlantInDatabase(Integer id) throws DBException {
+        Klant returnKlant = null;
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("KlantDAO.zoekKlant")) {
+            // preparedStatement opstellen (en automatisch sluiten)
+            try (PreparedStatement stmt = conn.prepareStatement(
+                "select id"
+                    + " , naam"
+                    + " , voornaam"
+                    + " , adres"
+                    + " , postcode"
+                    + " , gemeente"
+                    + " , status "
+                    + " from klant "
+                    + " where id = ?")) {
 
-                    // parameters invullen in query
-                    stmt.setInt(1, id);
+                // parameters invullen in query
+                stmt.setInt(1, id);
 
-                    // execute voert het SQL-statement uit
-                    stmt.execute();
-                    // result opvragen (en automatisch sluiten)
-                    try (ResultSet r = stmt.getResultSet()) {
-                        // van de klant uit de DAO een Klant-object maken
-                        // er werd een klant gevonden
-                        if (r.next()) {
-                            returnKlant = getKlantUitDatabase(r);
-                        }
-                        return returnKlant;
-                    } catch (SQLException sqlEx) {
-                        throw new DBException("SQL-exception in zoekKlant "
-                            + "- resultset" + sqlEx);
+                // execute voert het SQL-statement uit
+                stmt.execute();
+                // result opvragen (en automatisch sluiten)
+                try (ResultSet r = stmt.getResultSet()) {
+                    // van de klant uit de DAO een Klant-object maken
+                    // er werd een klant gevonden
+                    if (r.next()) {
+                        returnKlant = getKlantUitDatabase(r);
                     }
+                    return returnKlant;
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in zoekKlant "
-                        + "- statement" + sqlEx);
+                        + "- resultset" + sqlEx);
                 }
             } catch (SQLException sqlEx) {
                 throw new DBException("SQL-exception in zoekKlant "
-                    + "- connection" + sqlEx);
+                    + "- statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in zoekKlant "
+                + "- connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Zoekt meerdere klanten tegelijk op adhv hun id, bv. voor een rapport.
+     * In plaats van één query per klant gebeurt er één query per
+     * InLijst.MAXIMUM id's, allemaal op dezelfde connectie. De cache van
+     * zoekKlant wordt niet gebruikt.
+     *
+     * @param ids id's van de klanten die gezocht worden (dubbels en null
+     *            worden genegeerd)
+     * @return per gevonden id, in de volgorde van ids, de klant; id's die niet
+     * gevonden werden, komen niet voor
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    @Override
+    public Map<Integer, Klant> zoekKlanten(Collection<Integer> ids) throws DBException {
+        HashMap<Integer, Klant> gevonden = new HashMap<>();
+        List<List<Integer>> stukken = InLijst.verdelen(ids);
+        if (!stukken.isEmpty()) {
+            // connectie tot stand brengen (en automatisch sluiten)
+            try (Connection conn = ConnectionManager.getConnection("KlantDAO.zoekKlanten")) {
+                for (List<Integer> stuk : stukken) {
+                    // preparedStatement opstellen (en automatisch sluiten)
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "select id"
+                                    + " , naam"
+                                    + " , voornaam"
+                                    + " , adres"
+                                    + " , postcode"
+                                    + " , gemeente"
+                                    + " , status "
+                                    + " from klant "
+                                    + " where id in " + InLijst.parameters(stuk))) {
+                        for (int i = 0; i < stuk.size(); i++) {
+                            stmt.setInt(i + 1, stuk.get(i));
+                        }
+                        // result opvragen (en automatisch sluiten)
+                        try (ResultSet r = stmt.executeQuery()) {
+                            for (Klant klant : getKlantenUitDatabase(r)) {
+                                gevonden.put(klant.getId(), klant);
+                            }
+                        } catch (SQLException sqlEx) {
+                            throw new DBException("SQL-exception in zoekKlanten "
+                                    + "- resultset" + sqlEx);
+                        }
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in zoekKlanten "
+                                + "- statement" + sqlEx);
+                    }
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in zoekKlanten "
+                        + "- connection" + sqlEx);
             }
         }
-        return null;
+
+        Map<Integer, Klant> klanten = new LinkedHashMap<>();
+        if (ids != null) {
+            for (Integer id : ids) {
+                Klant klant = gevonden.get(id);
+                if (klant != null) {
+                    klanten.put(id, klant);
+                }
+            }
+        }
+        return klanten;
+    }
+
+    /**
+     * Zoekt een klant samen met zijn open rekeningen op, met één query (een
+     * left join, zodat ook een klant zonder rekeningen gevonden wordt) op één
+     * connectie. De cache van zoekKlant wordt niet gebruikt: het overzicht
+     * toont altijd de saldo's uit de databank.
+     *
+     * @param id id van de klant die gezocht wordt (kan null zijn)
+     * @return de klant met zijn open rekeningen, gesorteerd op rekeningnummer,
+     * null indien de klant niet werd gevonden.
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    @Override
+    public KlantOverzicht zoekKlantOverzicht(Integer id) throws DBException {
+        if (id == null) {
+            return null;
+        }
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("KlantDAO.zoekKlantOverzicht")) {
+            // preparedStatement opstellen (en automatisch sluiten)
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select k.id"
+                            + " , k.naam"
+                            + " , k.voornaam"
+                            + " , k.adres"
+                            + " , k.postcode"
+                            + " , k.gemeente"
+                            + " , k.status"
+                            + " , r.rekeningnummer"
+                            + " , r.saldo "
+                            + " from klant k "
+                            + " left join rekening r "
+                            + "   on r.eigenaar = k.id "
+                            + "  and r.status = ? "
+                            + " where k.id = ? "
+                            + " order by r.rekeningnummer")) {
+                stmt.setString(1, RekeningStatus.OPEN.toString());
+                stmt.setInt(2, id);
+                // result opvragen (en automatisch sluiten)
+                try (ResultSet r = stmt.executeQuery()) {
+                    // één rij per rekening, de klant staat op elke rij
+                    Klant klant = null;
+                    ArrayList<Rekening> rekeningen = new ArrayList<>();
+                    while (r.next()) {
+                        if (klant == null) {
+                            klant = getKlantUitDatabase(r);
+                        }
+                        String rekeningnummer = r.getString("rekeningnummer");
+                        // zonder open rekeningen is er één rij met null
+                        if (rekeningnummer != null) {
+                            Rekening rekening = new Rekening();
+                            rekening.setRekeningnummer(new Rekeningnummer(rekeningnummer));
+                            rekening.setSaldo(r.getBigDecimal("saldo"));
+                            rekening.setStatus(RekeningStatus.OPEN);
+                            rekening.setEigenaar(id);
+                            rekeningen.add(rekening);
+                        }
+                    }
+                    return klant == null ? null : new KlantOverzicht(klant, rekeningen);
+                } catch (ApplicationException ae) {
+                    //wanneer bij het zoeken in de DB de constructor van rekeningnummer een exception gooit,
+                    // dan zat er een foutief rekeningnummer in de DB. De gebruiker kan dit onmogelijk
+                    // oplossen, dus DBException
+                    throw new DBException("Databasefout: fout rekeningnummer gevonden.");
+                } catch (SQLException sqlEx) {
+                    throw new DBException("SQL-exception in zoekKlantOverzicht "
+                            + "- resultset" + sqlEx);
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in zoekKlantOverzicht "
+                        + "- statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in zoekKlantOverzicht "
+                    + "- connection" + sqlEx);
+        }
     }
 
     /**
@@ -84,10 +266,11 @@ public class KlantDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public boolean bestaatKlant(Klant klant) throws DBException {
         if (klant != null) {
             // connectie tot stand brengen (en automatisch sluiten)
-            try (Connection conn = ConnectionManager.getConnection()) {
+            try (Connection conn = ConnectionManager.getConnection("KlantDAO.bestaatKlant")) {
                 // preparedStatement opstellen (en automatisch sluiten)
                 try (PreparedStatement stmt = conn.prepareStatement(
                         "select id"
@@ -142,7 +325,7 @@ public class KlantDAO {
     private ArrayList<Klant> zoekKlantMetStatus(KlantStatus klantStatus) throws DBException {
         if (klantStatus != null) {
             // connectie tot stand brengen (en automatisch sluiten)
-            try (Connection conn = ConnectionManager.getConnection()) {
+            try (Connection conn = ConnectionManager.getConnection("KlantDAO.zoekKlantMetStatus")) {
 
                 // preparedStatement opstellen (en automatisch sluiten)
                 try (PreparedStatement stmt = conn.
@@ -188,6 +371,7 @@ public class KlantDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public ArrayList<Klant> zoekIngeschrevenKlanten() throws DBException {
         return zoekKlantMetStatus(KlantStatus.INGESCHREVEN);
     }
@@ -199,6 +383,7 @@ public class KlantDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public ArrayList<Klant> zoekUitgeschrevenKlanten() throws DBException {
         return zoekKlantMetStatus(KlantStatus.UITGESCHREVEN);
 
@@ -211,10 +396,11 @@ public class KlantDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public ArrayList<Klant> zoekAlleKlanten() throws DBException {
 
         // connectie tot stand brengen (en automatisch sluiten)
-        try (Connection conn = ConnectionManager.getConnection()) {
+        try (Connection conn = ConnectionManager.getConnection("KlantDAO.zoekAlleKlanten")) {
             // preparedStatement opstellen (en automatisch sluiten)
             try (PreparedStatement stmt = conn.prepareStatement(
                     "select id"
@@ -247,36 +433,242 @@ public class KlantDAO {
     }
 
     /**
-     * Schrijft de klant met meegegeven id uit.
+     * Overloopt alle klanten, gesorteerd op naam, voornaam, zonder ze allemaal
+     * in het geheugen te laden. De rijen worden per fetchSize (zie
+     * DB.properties) via een cursor opgehaald en pas omgezet naar een Klant
+     * wanneer de verwerker eraan toe is. De connectie wordt gesloten zodra
+     * alle rijen verwerkt zijn of de verwerker stopt.
      *
-     * @param id id van de klant die uitgeschreven moet worden
+     * @param verwerker verwerkt elke klant; geeft false terug om te stoppen
      * @throws DBException Exception die duidt op een verkeerde
-     *                     installatie van de DAO of een fout in de query.
+     *                     installatie van de DAO of een fout in de query,
+     *                     of een fout van de verwerker.
      */
-    // OPM: parameter van type Integer (aangezien id in Klant null kan zijn
-    // laten we dit hier ook best toe (voor wanneer id uit Klant wordt gelezen))
-    public void verwijderKlant(Integer id) throws DBException {
-        if (id != null) {
+    @Override
+    public void verwerkAlleKlanten(Verwerker<Klant> verwerker) throws DBException {
+        if (verwerker != null) {
             // connectie tot stand brengen (en automatisch sluiten)
-            try (Connection conn = ConnectionManager.getConnection()) {
+            try (Connection conn = ConnectionManager.getConnection("KlantDAO.verwerkAlleKlanten")) {
                 // preparedStatement opstellen (en automatisch sluiten)
+                // forward-only en read-only: de rijen kunnen gestreamd worden
                 try (PreparedStatement stmt = conn.prepareStatement(
-                        "update klant "
-                                + " set status = ? "
-                                + " where id = ?")) {
-                    stmt.setString(1, KlantStatus.UITGESCHREVEN.toString());
-                    stmt.setInt(2, id);
-                    stmt.execute();
+                        "select id"
+                                + " , naam"
+                                + " , voornaam"
+                                + " , adres"
+                                + " , postcode"
+                                + " , gemeente"
+                                + " , status "
+                                + " from klant "
+                                + " order by naam"
+                                + "        , voornaam",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    stmt.setFetchSize(DBProp.getFetchSize());
+                    // result opvragen (en automatisch sluiten)
+                    try (ResultSet r = stmt.executeQuery()) {
+                        boolean doorgaan = true;
+                        while (doorgaan && r.next()) {
+                            doorgaan = verwerker.verwerk(getKlantUitDatabase(r));
+                        }
+                    } catch (SQLException sqlEx) {
+                        throw new DBException(
+                                "SQL-exception in verwerkAlleKlanten - resultset" + sqlEx);
+                    }
                 } catch (SQLException sqlEx) {
-                    throw new DBException("SQL-exception in verwijderKlant - statement" + sqlEx);
+                    throw new DBException("SQL-exception in verwerkAlleKlanten - statement" + sqlEx);
                 }
             } catch (SQLException sqlEx) {
                 throw new DBException(
-                        "SQL-exception in verwijderKlant - connection" + sqlEx);
+                        "SQL-exception in verwerkAlleKlanten - connection" + sqlEx);
             }
         }
     }
 
+    /**
+     * Geeft één pagina van alle klanten terug, gesorteerd op naam, voornaam
+     * (en id, zodat de volgorde eenduidig is). Zie zoekKlantenPagina met status.
+     *
+     * @param vanaf         volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte maximaal aantal klanten op de pagina
+     * @return pagina met klanten en de sleutel voor de volgende pagina
+     * @throws DBException          Exception die duidt op een verkeerde
+     *                              installatie van de DAO of een fout in de query.
+     * @throws ApplicationException wanneer de sleutel vanaf ongeldig is
+     */
+    @Override
+    public Pagina<Klant> zoekKlantenPagina(String vanaf, int paginagrootte)
+            throws DBException, ApplicationException {
+        return zoekKlantenPagina(null, vanaf, paginagrootte);
+    }
+
+    /**
+     * Geeft één pagina van de klanten met een meegegeven KlantStatus terug,
+     * gesorteerd op naam, voornaam en id.
+     * De volgende pagina wordt niet met een offset opgevraagd, maar vanaf de
+     * sleutel (naam, voornaam, id) van de laatste klant op deze pagina
+     * (keyset-paginering). De databank kan zo rechtstreeks naar de juiste
+     * plaats in de index springen, ongeacht hoe ver er gebladerd wordt, en er
+     * worden geen klanten overgeslagen of dubbel getoond wanneer er
+     * tussendoor klanten toegevoegd worden.
+     *
+     * @param klantStatus   de status waaraan de klanten moeten voldoen, null voor alle klanten
+     * @param vanaf         volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte maximaal aantal klanten op de pagina
+     * @return pagina met klanten en de sleutel voor de volgende pagina
+     * @throws DBException          Exception die duidt op een verkeerde
+     *                              installatie van de DAO of een fout in de query.
+     * @throws ApplicationException wanneer de sleutel vanaf ongeldig is
+     */
+    @Override
+    public Pagina<Klant> zoekKlantenPagina(KlantStatus klantStatus, String vanaf, int paginagrootte)
+            throws DBException, ApplicationException {
+        String naam = null;
+        String voornaam = null;
+        int id = 0;
+        if (vanaf != null) {
+            String[] sleutel = PaginaSleutel.lees(vanaf, 3);
+            naam = sleutel[0];
+            voornaam = sleutel[1];
+            try {
+                id = Integer.parseInt(sleutel[2]);
+            } catch (NumberFormatException ex) {
+                throw new ApplicationException(ApplicationExceptionType.PAGINA_SLEUTEL_ONGELDIG.getMessage());
+            }
+        }
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("KlantDAO.zoekKlantenPagina")) {
+            // preparedStatement opstellen (en automatisch sluiten)
+            // de voorwaarde naam >= ? laat de databank een bereik in de index gebruiken
+            // er wordt één klant meer opgehaald om te weten of er een volgende pagina is
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select id"
+                            + " , naam"
+                            + " , voornaam"
+                            + " , adres"
+                            + " , postcode"
+                            + " , gemeente"
+                            + " , status "
+                            + " from klant "
+                            + " where 1 = 1 "
+                            + (klantStatus == null ? "" : " and status = ? ")
+                            + (vanaf == null ? "" : " and naam >= ? "
+                            + "   and (naam > ? or voornaam > ? or (voornaam = ? and id > ?)) ")
+                            + " order by naam"
+                            + "        , voornaam"
+                            + "        , id"
+                            + " limit ?")) {
+                int index = 1;
+                if (klantStatus != null) {
+                    stmt.setString(index++, klantStatus.toString());
+                }
+                if (vanaf != null) {
+                    stmt.setString(index++, naam);
+                    stmt.setString(index++, naam);
+                    stmt.setString(index++, voornaam);
+                    stmt.setString(index++, voornaam);
+                    stmt.setInt(index++, id);
+                }
+                stmt.setInt(index, paginagrootte + 1);
+                stmt.execute();
+                // result opvragen (en automatisch sluiten)
+                try (ResultSet r = stmt.getResultSet()) {
+                    Pagina<Klant> pagina = new Pagina<>();
+                    pagina.setItems(getKlantenUitDatabase(r));
+                    ArrayList<Klant> klanten = pagina.getItems();
+                    if (klanten.size() > paginagrootte) {
+                        klanten.remove(paginagrootte);
+                        Klant laatste = klanten.get(paginagrootte - 1);
+                        pagina.setVolgendePagina(PaginaSleutel.maak(
+                                laatste.getNaam(), laatste.getVoornaam(), laatste.getId().toString()));
+                    }
+                    return pagina;
+                } catch (SQLException sqlEx) {
+                    throw new DBException(
+                            "SQL-exception in zoekKlantenPagina - resultset" + sqlEx);
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in zoekKlantenPagina - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in zoekKlantenPagina - connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Schrijft de klant met meegegeven id uit, maar enkel wanneer hij nog
+     * ingeschreven is en geen open rekeningen meer heeft. De controle en het
+     * wijzigen van de status gebeuren samen in één statement, zodat er
+     * tussendoor geen rekening geopend kan worden. Lukt het niet, dan wordt
+     * de reden op dezelfde connectie opgezocht.
+     *
+     * @param id id van de klant die uitgeschreven moet worden
+     * @return GELUKT of de reden waarom de klant niet uitgeschreven werd
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    // OPM: parameter van type Integer (aangezien id in Klant null kan zijn
+    // laten we dit hier ook best toe (voor wanneer id uit Klant wordt gelezen))
+    @Override
+    public Uitschrijving verwijderKlant(Integer id) throws DBException {
+        if (id == null) {
+            return Uitschrijving.KLANT_BESTAAT_NIET;
+        }
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("KlantDAO.verwijderKlant")) {
+            // preparedStatement opstellen (en automatisch sluiten)
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "update klant "
+                            + " set status = ? "
+                            + " where id = ?"
+                            + "   and status = ?"
+                            + "   and not exists (select 1 "
+                            + "                     from rekening "
+                            + "                    where rekening.eigenaar = klant.id"
+                            + "                      and rekening.status = ?)")) {
+                stmt.setString(1, KlantStatus.UITGESCHREVEN.toString());
+                stmt.setInt(2, id);
+                stmt.setString(3, KlantStatus.INGESCHREVEN.toString());
+                stmt.setString(4, RekeningStatus.OPEN.toString());
+
+                if (stmt.executeUpdate() == 1) {
+                    return Uitschrijving.GELUKT;
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in verwijderKlant - statement" + sqlEx);
+            }
+            // niets gewijzigd: reden opzoeken op dezelfde connectie
+            return bepaalRedenNietUitgeschreven(conn, id);
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in verwijderKlant - connection" + sqlEx);
+        } finally {
+            verwijderUitCache(id);
+        }
+    }
+
+    private Uitschrijving bepaalRedenNietUitgeschreven(Connection conn, int id) throws DBException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "select status "
+                        + " from klant "
+                        + " where id = ?")) {
+            stmt.setInt(1, id);
+            stmt.execute();
+            try (ResultSet r = stmt.getResultSet()) {
+                if (!r.next()) {
+                    return Uitschrijving.KLANT_BESTAAT_NIET;
+                }
+                if (KlantStatus.UITGESCHREVEN.toString().equals(r.getString("status"))) {
+                    return Uitschrijving.KLANT_UITGESCHREVEN;
+                }
+                // klant bestaat en is ingeschreven, dus heeft hij nog open rekeningen
+                return Uitschrijving.KLANT_HEEFT_NOG_REKENINGEN;
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in bepaalRedenNietUitgeschreven" + sqlEx);
+        }
+    }
+
     /**
      * Voegt een klant toe. Het id wordt automatisch gegenereerd door de
      * DAO
@@ -287,12 +679,13 @@ public class KlantDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public Integer toevoegenKlant(Klant klant) throws DBException {
         if (klant != null) {
             Integer primaryKey = null;
 
             // connectie tot stand brengen (en automatisch sluiten)
-            try (Connection conn = ConnectionManager.getConnection()) {
+            try (Connection conn = ConnectionManager.getConnection("KlantDAO.toevoegenKlant")) {
                 // preparedStatement opstellen (en automatisch sluiten)
                 try (PreparedStatement stmt = conn.prepareStatement(
                         "insert into klant(naam"
@@ -329,6 +722,174 @@ public class KlantDAO {
         }
     }
 
+    /**
+     * Voegt een lijst klanten toe, bv. bij de migratie van de klanten van een
+     * kantoor. Een klant die al bestaat (zelfde naam, voornaam, adres,
+     * postcode en gemeente), in de DB of eerder in de lijst, wordt niet
+     * toegevoegd; net als in de DB worden hoofdletters en kleine letters niet
+     * onderscheiden. Per stuk van BATCHGROOTTE klanten gebeurt één query om
+     * bestaande klanten op te sporen en één JDBC-batch om toe te voegen. Alle
+     * stukken vormen samen één transactie: bij een fout is er geen enkele
+     * klant toegevoegd en mag de lijst opnieuw aangeboden worden.
+     *
+     * @param klanten de klanten die toegevoegd moeten worden
+     * @return per klant (in dezelfde volgorde) het gegenereerde id, of null
+     * indien de klant al bestond of geen klant opgegeven werd.
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    @Override
+    public ArrayList<Integer> toevoegenKlanten(List<Klant> klanten) throws DBException {
+        ArrayList<Integer> ids = new ArrayList<>();
+        if (klanten == null || klanten.isEmpty()) {
+            return ids;
+        }
+        // klanten die al eerder in de lijst voorkwamen
+        HashSet<List<String>> gezien = new HashSet<>();
+
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("KlantDAO.toevoegenKlanten")) {
+            conn.setAutoCommit(false);
+            try {
+                for (int van = 0; van < klanten.size(); van += BATCHGROOTTE) {
+                    List<Klant> stuk = klanten.subList(van, Math.min(van + BATCHGROOTTE, klanten.size()));
+                    ids.addAll(toevoegenStuk(conn, stuk, gezien));
+                }
+                // pas op het einde: anders gaan bij een fout de ids van de eerdere stukken verloren
+                conn.commit();
+            } catch (SQLException sqlEx) {
+                conn.rollback();
+                throw new DBException("SQL-exception in toevoegenKlanten - statement" + sqlEx);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in toevoegenKlanten "
+                    + "- connection" + sqlEx);
+        }
+        return ids;
+    }
+
+    private ArrayList<Integer> toevoegenStuk(Connection conn, List<Klant> stuk, HashSet<List<String>> gezien)
+            throws SQLException {
+        // dubbels binnen de lijst wegfilteren
+        HashMap<List<String>, Klant> nieuw = new HashMap<>();
+        ArrayList<List<String>> sleutels = new ArrayList<>();
+        for (Klant klant : stuk) {
+            List<String> sleutel = klant == null ? null : getSleutel(klant);
+            sleutels.add(sleutel);
+            if (sleutel != null && gezien.add(sleutel)) {
+                nieuw.put(sleutel, klant);
+            }
+        }
+
+        // klanten die al in de DB zitten wegfilteren (één query)
+        nieuw.keySet().removeAll(zoekBestaandeSleutels(conn, nieuw.keySet()));
+
+        // overblijvende klanten in één batch toevoegen, in de volgorde van de lijst
+        HashMap<List<String>, Integer> gegenereerd = new HashMap<>();
+        if (!nieuw.isEmpty()) {
+            ArrayList<List<String>> volgorde = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "insert into klant(naam"
+                            + " , voornaam"
+                            + " , adres"
+                            + " , postcode"
+                            + " , gemeente"
+                            + " , status"
+                            + " ) values(?,?,?,?,?,?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (List<String> sleutel : sleutels) {
+                    Klant klant = sleutel == null ? null : nieuw.remove(sleutel);
+                    if (klant != null) {
+                        stmt.setString(1, klant.getNaam());
+                        stmt.setString(2, klant.getVoornaam());
+                        stmt.setString(3, klant.getAdres());
+                        stmt.setString(4, klant.getPostcode());
+                        stmt.setString(5, klant.getGemeente());
+                        stmt.setString(6, KlantStatus.INGESCHREVEN.toString());
+                        stmt.addBatch();
+                        volgorde.add(sleutel);
+                    }
+                }
+                stmt.executeBatch();
+
+                // de gegenereerde sleutels komen in dezelfde volgorde als de batch
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    int i = 0;
+                    while (generatedKeys.next() && i < volgorde.size()) {
+                        gegenereerd.put(volgorde.get(i++), generatedKeys.getInt(1));
+                    }
+                }
+            }
+        }
+
+        ArrayList<Integer> ids = new ArrayList<>();
+        for (List<String> sleutel : sleutels) {
+            // enkel de eerste klant met deze sleutel krijgt het id
+            ids.add(sleutel == null ? null : gegenereerd.remove(sleutel));
+        }
+        return ids;
+    }
+
+    private HashSet<List<String>> zoekBestaandeSleutels(Connection conn, Set<List<String>> sleutels)
+            throws SQLException {
+        HashSet<List<String>> bestaand = new HashSet<>();
+        if (sleutels.isEmpty()) {
+            return bestaand;
+        }
+        // de gezochte klanten als afgeleide tabel meegeven, zodat de DB vergelijkt
+        // op dezelfde manier als in bestaatKlant (bv. hoofdletterongevoelig);
+        // met cast, want niet elke DB (bv. H2) leidt het type van een losse ? af
+        ArrayList<List<String>> gezocht = new ArrayList<>(sleutels);
+        StringBuilder sql = new StringBuilder("select g.nr "
+                + " from (");
+        for (int i = 0; i < gezocht.size(); i++) {
+            sql.append(i == 0
+                    ? "select cast(? as int) as nr"
+                    + " , cast(? as varchar(50)) as naam"
+                    + " , cast(? as varchar(50)) as voornaam"
+                    + " , cast(? as varchar(100)) as adres"
+                    + " , cast(? as varchar(10)) as postcode"
+                    + " , cast(? as varchar(50)) as gemeente"
+                    : " union all select ?, ?, ?, ?, ?, ?");
+        }
+        sql.append(") g "
+                + " where exists (select 1 "
+                + "                 from klant k "
+                + "                where k.naam = g.naam "
+                + "                  and k.voornaam = g.voornaam "
+                + "                  and k.adres = g.adres "
+                + "                  and k.postcode = g.postcode "
+                + "                  and k.gemeente = g.gemeente)");
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (int i = 0; i < gezocht.size(); i++) {
+                stmt.setInt(index++, i);
+                for (String waarde : gezocht.get(i)) {
+                    stmt.setString(index++, waarde);
+                }
+            }
+            try (ResultSet r = stmt.executeQuery()) {
+                while (r.next()) {
+                    bestaand.add(gezocht.get(r.getInt("nr")));
+                }
+            }
+        }
+        return bestaand;
+    }
+
+    // naam, voornaam, adres, postcode en gemeente bepalen samen of een klant al bestaat (zie bestaatKlant);
+    // in hoofdletters, want de DB vergelijkt hoofdletterongevoelig
+    private List<String> getSleutel(Klant klant) {
+        return Arrays.asList(hoofdletters(klant.getNaam()), hoofdletters(klant.getVoornaam()),
+                hoofdletters(klant.getAdres()), hoofdletters(klant.getPostcode()), hoofdletters(klant.getGemeente()));
+    }
+
+    private static String hoofdletters(String tekst) {
+        return tekst == null ? null : tekst.toUpperCase(Locale.ROOT);
+    }
+
     /**
      * Wijzigt een klant adhv zijn id.
      *
@@ -336,11 +897,12 @@ public class KlantDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public void wijzigenKlant(Klant klant) throws DBException, ApplicationException {
         if (klant != null) {
 
             // connectie tot stand brengen (en automatisch sluiten)
-            try (Connection conn = ConnectionManager.getConnection()) {
+            try (Connection conn = ConnectionManager.getConnection("KlantDAO.wijzigenKlant")) {
                 // preparedStatement opstellen (en automatisch sluiten)
                 try (PreparedStatement stmt = conn.
                         prepareStatement("update klant "
@@ -364,10 +926,70 @@ public class KlantDAO {
             } catch (SQLException sqlEx) {
                 throw new DBException(
                         "SQL-exception in wijzigenKlant - connection" + sqlEx);
+            } finally {
+                verwijderUitCache(klant.getId());
             }
         }
     }
 
+    /**
+     * @return statistieken van de cache van zoekKlant (voor monitoring)
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static CacheStatistieken getCacheStatistieken() throws DBException {
+        return getCache().getStatistieken();
+    }
+
+    /**
+     * Schakelt de cache van zoekKlant aan of uit (standaard volgens
+     * cacheActief in DB.properties).
+     *
+     * @param actief true om de cache te gebruiken
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static void setCacheActief(boolean actief) throws DBException {
+        getCache().setActief(actief);
+    }
+
+    private static LeesCache<Integer, Klant> getCache() throws DBException {
+        LeesCache<Integer, Klant> bestaand = cache;
+        if (bestaand != null) {
+            return bestaand;
+        }
+        return maakCache();
+    }
+
+    private static synchronized LeesCache<Integer, Klant> maakCache() throws DBException {
+        if (cache == null) {
+            cache = new LeesCache<>("klant", DBProp.isCacheActief(), DBProp.getCacheMaximum(),
+                    DBProp.getCacheTtl(), KlantDAO::kopieer);
+        }
+        return cache;
+    }
+
+    /**
+     * Verwijdert een klant uit de cache nadat ze gewijzigd werd. Zolang de
+     * cache nog niet aangemaakt is, zit de klant er ook niet in.
+     */
+    private static void verwijderUitCache(Integer id) {
+        LeesCache<Integer, Klant> bestaand = cache;
+        if (bestaand != null && id != null) {
+            bestaand.verwijder(id);
+        }
+    }
+
+    private static Klant kopieer(Klant klant) {
+        Klant kopie = new Klant();
+        kopie.setId(klant.getId());
+        kopie.setNaam(klant.getNaam());
+        kopie.setVoornaam(klant.getVoornaam());
+        kopie.setAdres(klant.getAdres());
+        kopie.setPostcode(klant.getPostcode());
+        kopie.setGemeente(klant.getGemeente());
+        kopie.setStatus(klant.getStatus());
+        return kopie;
+    }
+
     private ArrayList<Klant> getKlantenUitDatabase(ResultSet r) throws SQLException {
         ArrayList<Klant> klanten = new ArrayList<>();
         while (r.next()) {
@@ -377,7 +999,8 @@ public class KlantDAO {
         return klanten;
     }
 
-    private Klant getKlantUitDatabase(ResultSet r) throws SQLException {
+    // package-private zodat de benchmarks de mapping apart kunnen meten
+    Klant getKlantUitDatabase(ResultSet r) throws SQLException {
         Klant klant = new Klant();
         klant.setId(r.getInt("id"));
         klant.setNaam(r.getString("naam"));
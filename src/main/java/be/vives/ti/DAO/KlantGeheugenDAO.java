@@ -0,0 +1,289 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.KlantOverzicht;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.datatype.Uitschrijving;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * KlantRepository in het geheugen (zie GeheugenDatabank), met dezelfde regels
+ * als KlantDAO, bv. voor testen en capaciteitssimulaties zonder MySQL.
+ * Er is geen cache: elke opzoeking is al een opzoeking in een index.
+ */
+public class KlantGeheugenDAO implements KlantRepository {
+
+    private final GeheugenDatabank databank;
+
+    /**
+     * @param databank de klanten en rekeningen, gedeeld met RekeningGeheugenDAO
+     */
+    public KlantGeheugenDAO(GeheugenDatabank databank) {
+        this.databank = databank;
+    }
+
+    @Override
+    public Klant zoekKlant(Integer id) {
+        if (id != null) {
+            Klant klant = databank.klanten.get(id);
+            return klant == null ? null : GeheugenDatabank.kopieer(klant);
+        }
+        return null;
+    }
+
+    @Override
+    public Map<Integer, Klant> zoekKlanten(Collection<Integer> ids) {
+        Map<Integer, Klant> klanten = new LinkedHashMap<>();
+        if (ids != null) {
+            for (Integer id : ids) {
+                Klant klant = zoekKlant(id);
+                if (klant != null) {
+                    klanten.put(id, klant);
+                }
+            }
+        }
+        return klanten;
+    }
+
+    @Override
+    public KlantOverzicht zoekKlantOverzicht(Integer id) {
+        Klant klant = zoekKlant(id);
+        if (klant == null) {
+            return null;
+        }
+        ArrayList<Rekening> rekeningen = new ArrayList<>();
+        for (String sleutel : databank.rekeningenVan(id)) {
+            Rekening rekening = databank.rekeningen.get(sleutel);
+            if (rekening != null && rekening.getStatus() == RekeningStatus.OPEN) {
+                rekeningen.add(rekening);
+            }
+        }
+        // KlantOverzicht maakt zelf kopieën
+        return new KlantOverzicht(klant, rekeningen);
+    }
+
+    @Override
+    public boolean bestaatKlant(Klant klant) {
+        if (klant != null) {
+            List<String> sleutel = GeheugenDatabank.sleutel(klant);
+            return sleutel != null && databank.klantenOpSleutel.containsKey(sleutel);
+        }
+        // geen klant opgegeven
+        return false;
+    }
+
+    private ArrayList<Klant> zoekKlantMetStatus(KlantStatus klantStatus) {
+        ArrayList<Klant> klanten = new ArrayList<>();
+        for (Klant klant : databank.klantVolgorde) {
+            if (klantStatus == null || klant.getStatus() == klantStatus) {
+                klanten.add(GeheugenDatabank.kopieer(klant));
+            }
+        }
+        return klanten;
+    }
+
+    @Override
+    public ArrayList<Klant> zoekIngeschrevenKlanten() {
+        return zoekKlantMetStatus(KlantStatus.INGESCHREVEN);
+    }
+
+    @Override
+    public ArrayList<Klant> zoekUitgeschrevenKlanten() {
+        return zoekKlantMetStatus(KlantStatus.UITGESCHREVEN);
+    }
+
+    @Override
+    public ArrayList<Klant> zoekAlleKlanten() {
+        return zoekKlantMetStatus(null);
+    }
+
+    @Override
+    public void verwerkAlleKlanten(Verwerker<Klant> verwerker) throws DBException {
+        if (verwerker != null) {
+            for (Klant klant : databank.klantVolgorde) {
+                if (!verwerker.verwerk(GeheugenDatabank.kopieer(klant))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Pagina<Klant> zoekKlantenPagina(String vanaf, int paginagrootte) throws ApplicationException {
+        return zoekKlantenPagina(null, vanaf, paginagrootte);
+    }
+
+    /**
+     * Zoals in KlantDAO keyset-paginering: de volgende pagina begint net na
+     * (naam, voornaam, id) van de laatste klant, hier rechtstreeks in de
+     * gesorteerde index.
+     */
+    @Override
+    public Pagina<Klant> zoekKlantenPagina(KlantStatus klantStatus, String vanaf, int paginagrootte)
+            throws ApplicationException {
+        Set<Klant> klanten = databank.klantVolgorde;
+        if (vanaf != null) {
+            String[] sleutel = PaginaSleutel.lees(vanaf, 3);
+            Klant laatste = new Klant();
+            laatste.setNaam(sleutel[0]);
+            laatste.setVoornaam(sleutel[1]);
+            try {
+                laatste.setId(Integer.parseInt(sleutel[2]));
+            } catch (NumberFormatException ex) {
+                throw new ApplicationException(ApplicationExceptionType.PAGINA_SLEUTEL_ONGELDIG.getMessage());
+            }
+            klanten = databank.klantVolgorde.tailSet(laatste, false);
+        }
+        // er wordt één klant meer opgehaald om te weten of er een volgende pagina is
+        ArrayList<Klant> items = new ArrayList<>();
+        for (Klant klant : klanten) {
+            if (items.size() > paginagrootte) {
+                break;
+            }
+            if (klantStatus == null || klant.getStatus() == klantStatus) {
+                items.add(GeheugenDatabank.kopieer(klant));
+            }
+        }
+        Pagina<Klant> pagina = new Pagina<>();
+        pagina.setItems(items);
+        if (items.size() > paginagrootte) {
+            items.remove(paginagrootte);
+            Klant laatste = items.get(paginagrootte - 1);
+            pagina.setVolgendePagina(PaginaSleutel.maak(
+                    laatste.getNaam(), laatste.getVoornaam(), laatste.getId().toString()));
+        }
+        return pagina;
+    }
+
+    /**
+     * De controles en het wijzigen van de status gebeuren onder het slot van
+     * de databank, zodat er tussendoor geen rekening geopend kan worden.
+     */
+    @Override
+    public Uitschrijving verwijderKlant(Integer id) throws DBException {
+        if (id == null) {
+            return Uitschrijving.KLANT_BESTAAT_NIET;
+        }
+        synchronized (databank.slot) {
+            Klant klant = databank.klanten.get(id);
+            if (klant == null) {
+                return Uitschrijving.KLANT_BESTAAT_NIET;
+            }
+            if (klant.getStatus() == KlantStatus.UITGESCHREVEN) {
+                return Uitschrijving.KLANT_UITGESCHREVEN;
+            }
+            if (heeftOpenRekeningen(id)) {
+                return Uitschrijving.KLANT_HEEFT_NOG_REKENINGEN;
+            }
+            Klant uitgeschreven = GeheugenDatabank.kopieer(klant);
+            uitgeschreven.setStatus(KlantStatus.UITGESCHREVEN);
+            bewaarKlant(klant, uitgeschreven);
+            return Uitschrijving.GELUKT;
+        }
+    }
+
+    // onder slot
+    boolean heeftOpenRekeningen(int id) {
+        for (String sleutel : databank.rekeningenVan(id)) {
+            if (databank.rekeningen.get(sleutel).getStatus() == RekeningStatus.OPEN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Integer toevoegenKlant(Klant klant) throws DBException {
+        if (klant != null) {
+            GeheugenDatabank.controleerKlant(klant, "toevoegenKlant");
+            synchronized (databank.slot) {
+                return bewaarNieuweKlant(klant);
+            }
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Zoals in KlantDAO: klanten die al bestaan of eerder in de lijst
+     * voorkwamen (hoofdletterongevoelig) worden overgeslagen. Alle klanten
+     * worden gecontroleerd vóór er één toegevoegd wordt: een ongeldige klant
+     * laat de hele lijst mislukken.
+     */
+    @Override
+    public ArrayList<Integer> toevoegenKlanten(List<Klant> klanten) throws DBException {
+        ArrayList<Integer> ids = new ArrayList<>();
+        if (klanten == null || klanten.isEmpty()) {
+            return ids;
+        }
+        // klanten die al eerder in de lijst voorkwamen
+        HashSet<List<String>> gezien = new HashSet<>();
+        ArrayList<Klant> nieuw = new ArrayList<>();
+        synchronized (databank.slot) {
+            for (Klant klant : klanten) {
+                if (klant == null) {
+                    nieuw.add(null);
+                    continue;
+                }
+                // zonder sleutel ontbreekt een kolom: controleerKlant faalt hieronder
+                List<String> sleutel = GeheugenDatabank.sleutel(klant);
+                if (sleutel != null && (!gezien.add(sleutel) || databank.klantenOpSleutel.containsKey(sleutel))) {
+                    nieuw.add(null);
+                } else {
+                    GeheugenDatabank.controleerKlant(klant, "toevoegenKlanten");
+                    nieuw.add(klant);
+                }
+            }
+            for (Klant klant : nieuw) {
+                ids.add(klant == null ? null : bewaarNieuweKlant(klant));
+            }
+        }
+        return ids;
+    }
+
+    // enkel oproepen onder slot
+    private Integer bewaarNieuweKlant(Klant klant) throws DBException {
+        Klant opgeslagen = GeheugenDatabank.kopieer(klant);
+        opgeslagen.setId(databank.volgendId());
+        opgeslagen.setStatus(KlantStatus.INGESCHREVEN);
+        bewaarKlant(null, opgeslagen);
+        return opgeslagen.getId();
+    }
+
+    /**
+     * Elke nieuwe of gewijzigde klant passeert hier, onder het slot van de
+     * databank (zie KlantGrootboekDAO).
+     */
+    void bewaarKlant(Klant oud, Klant nieuw) throws DBException {
+        databank.bewaarKlant(oud, nieuw);
+    }
+
+    @Override
+    public void wijzigenKlant(Klant klant) throws DBException {
+        if (klant != null && klant.getId() != null) {
+            synchronized (databank.slot) {
+                Klant oud = databank.klanten.get(klant.getId());
+                if (oud != null) {
+                    GeheugenDatabank.controleerKlant(klant, "wijzigenKlant");
+                    Klant gewijzigd = GeheugenDatabank.kopieer(klant);
+                    // de status wordt niet gewijzigd, zoals in KlantDAO
+                    gewijzigd.setStatus(oud.getStatus());
+                    bewaarKlant(oud, gewijzigd);
+                }
+            }
+        }
+    }
+}
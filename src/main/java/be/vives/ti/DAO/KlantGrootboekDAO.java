@@ -0,0 +1,123 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.KlantOverzicht;
+import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.Uitschrijving;
+import be.vives.ti.exception.DBException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * De klanten van een RekeningGrootboekDAO (zie getKlantDAO): een
+ * KlantGeheugenDAO waarvan elke nieuwe of gewijzigde klant ook als record in
+ * het logboek van het grootboek komt, zodat klanten en rekeningen samen
+ * herspeeld en in één snapshot bewaard worden.
+ * <p>
+ * - het record bevat de hele klant en wordt geschreven vóór de klant in het
+ * geheugen bewaard wordt, onder het slot van de databank; de methode keert
+ * pas terug wanneer het record bewaard is
+ * - uitschrijven gebeurt onder het slot van het grootboek, zodat er
+ * tussendoor geen rekening geopend kan worden
+ */
+public class KlantGrootboekDAO extends KlantGeheugenDAO {
+
+    // soort, id, status en vijf teksten van hoogstens 100 tekens (UTF-8: hoogstens 3 bytes per char)
+    static final int KLANTBREEDTE = 1 + 4 + 1 + 5 * (2 + 3 * 100);
+
+    private final RekeningGrootboekDAO grootboek;
+
+    // enkel onder het slot van de databank
+    private final ByteBuffer uit = ByteBuffer.allocate(KLANTBREEDTE);
+
+    KlantGrootboekDAO(GeheugenDatabank databank, RekeningGrootboekDAO grootboek) {
+        super(databank);
+        this.grootboek = grootboek;
+    }
+
+    @Override
+    void bewaarKlant(Klant oud, Klant nieuw) throws DBException {
+        uit.clear();
+        uit.put(RekeningGrootboekDAO.KLANT);
+        schrijf(uit, nieuw);
+        uit.flip();
+        grootboek.schrijven(uit, "bewaarKlant");
+        super.bewaarKlant(oud, nieuw);
+    }
+
+    @Override
+    boolean heeftOpenRekeningen(int id) {
+        return grootboek.zoekAantalOpenRekeningen(id) > 0;
+    }
+
+    @Override
+    public KlantOverzicht zoekKlantOverzicht(Integer id) {
+        Klant klant = zoekKlant(id);
+        return klant == null ? null : new KlantOverzicht(klant, grootboek.zoekOpenRekeningen(id));
+    }
+
+    @Override
+    public Uitschrijving verwijderKlant(Integer id) throws DBException {
+        Uitschrijving resultaat;
+        synchronized (grootboek.slot) {
+            resultaat = super.verwijderKlant(id);
+        }
+        grootboek.bewaren("verwijderKlant");
+        return resultaat;
+    }
+
+    @Override
+    public Integer toevoegenKlant(Klant klant) throws DBException {
+        Integer id = super.toevoegenKlant(klant);
+        grootboek.bewaren("toevoegenKlant");
+        return id;
+    }
+
+    @Override
+    public ArrayList<Integer> toevoegenKlanten(List<Klant> klanten) throws DBException {
+        ArrayList<Integer> ids = super.toevoegenKlanten(klanten);
+        grootboek.bewaren("toevoegenKlanten");
+        return ids;
+    }
+
+    @Override
+    public void wijzigenKlant(Klant klant) throws DBException {
+        super.wijzigenKlant(klant);
+        grootboek.bewaren("wijzigenKlant");
+    }
+
+    // --- formaat, ook voor de snapshot ---
+
+    /**
+     * Schrijft id, status en de teksten (lengte als short, dan UTF-8).
+     */
+    static void schrijf(ByteBuffer doel, Klant klant) {
+        doel.putInt(klant.getId()).put((byte) klant.getStatus().ordinal());
+        for (String tekst : new String[]{klant.getNaam(), klant.getVoornaam(), klant.getAdres(),
+                klant.getPostcode(), klant.getGemeente()}) {
+            byte[] bytes = tekst.getBytes(StandardCharsets.UTF_8);
+            doel.putShort((short) bytes.length).put(bytes);
+        }
+    }
+
+    static Klant lees(ByteBuffer bron) {
+        Klant klant = new Klant();
+        klant.setId(bron.getInt());
+        klant.setStatus(KlantStatus.values()[bron.get()]);
+        klant.setNaam(leesTekst(bron));
+        klant.setVoornaam(leesTekst(bron));
+        klant.setAdres(leesTekst(bron));
+        klant.setPostcode(leesTekst(bron));
+        klant.setGemeente(leesTekst(bron));
+        return klant;
+    }
+
+    private static String leesTekst(ByteBuffer bron) {
+        byte[] bytes = new byte[bron.getShort()];
+        bron.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
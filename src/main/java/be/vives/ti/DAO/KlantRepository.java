@@ -0,0 +1,138 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.KlantOverzicht;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.Uitschrijving;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alle bewerkingen op de klanten, los van de manier van opslaan. KlantDAO
+ * werkt met de databank, KlantGeheugenDAO houdt alles in het geheugen (voor
+ * testen en simulaties). Beide volgen dezelfde regels; die staan hieronder en
+ * in KlantDAO in meer detail.
+ */
+public interface KlantRepository {
+
+    /**
+     * @param id id van de klant die gezocht wordt (kan null zijn)
+     * @return klant die gezocht wordt, null indien de klant niet werd gevonden.
+     * @throws DBException duidt op een fout in de opslag
+     */
+    Klant zoekKlant(Integer id) throws DBException;
+
+    /**
+     * @param ids id's van de klanten die gezocht worden (dubbels en null
+     *            worden genegeerd)
+     * @return per gevonden id, in de volgorde van ids, de klant
+     * @throws DBException duidt op een fout in de opslag
+     */
+    Map<Integer, Klant> zoekKlanten(Collection<Integer> ids) throws DBException;
+
+    /**
+     * @param id id van de klant die gezocht wordt (kan null zijn)
+     * @return de klant met zijn open rekeningen, gesorteerd op rekeningnummer,
+     * null indien de klant niet werd gevonden.
+     * @throws DBException duidt op een fout in de opslag
+     */
+    KlantOverzicht zoekKlantOverzicht(Integer id) throws DBException;
+
+    /**
+     * @param klant klant die gezocht moet worden (naam, voornaam, adres,
+     *              postcode, gemeente)
+     * @return true indien er een klant met dezelfde naam, voornaam, adres,
+     * postcode en gemeente bestaat
+     * @throws DBException duidt op een fout in de opslag
+     */
+    boolean bestaatKlant(Klant klant) throws DBException;
+
+    /**
+     * @return alle ingeschreven klanten, gesorteerd op naam, voornaam
+     * @throws DBException duidt op een fout in de opslag
+     */
+    ArrayList<Klant> zoekIngeschrevenKlanten() throws DBException;
+
+    /**
+     * @return alle uitgeschreven klanten, gesorteerd op naam, voornaam
+     * @throws DBException duidt op een fout in de opslag
+     */
+    ArrayList<Klant> zoekUitgeschrevenKlanten() throws DBException;
+
+    /**
+     * @return alle klanten, gesorteerd op naam, voornaam
+     * @throws DBException duidt op een fout in de opslag
+     */
+    ArrayList<Klant> zoekAlleKlanten() throws DBException;
+
+    /**
+     * Overloopt alle klanten, gesorteerd op naam, voornaam.
+     *
+     * @param verwerker verwerkt elke klant; geeft false terug om te stoppen
+     * @throws DBException duidt op een fout in de opslag of van de verwerker
+     */
+    void verwerkAlleKlanten(Verwerker<Klant> verwerker) throws DBException;
+
+    /**
+     * @param vanaf         volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte maximaal aantal klanten op de pagina
+     * @return pagina met klanten, gesorteerd op naam, voornaam en id
+     * @throws DBException          duidt op een fout in de opslag
+     * @throws ApplicationException wanneer de sleutel vanaf ongeldig is
+     */
+    Pagina<Klant> zoekKlantenPagina(String vanaf, int paginagrootte) throws DBException, ApplicationException;
+
+    /**
+     * @param klantStatus   de status waaraan de klanten moeten voldoen, null voor alle klanten
+     * @param vanaf         volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte maximaal aantal klanten op de pagina
+     * @return pagina met klanten, gesorteerd op naam, voornaam en id
+     * @throws DBException          duidt op een fout in de opslag
+     * @throws ApplicationException wanneer de sleutel vanaf ongeldig is
+     */
+    Pagina<Klant> zoekKlantenPagina(KlantStatus klantStatus, String vanaf, int paginagrootte)
+            throws DBException, ApplicationException;
+
+    /**
+     * Schrijft een ingeschreven klant zonder open rekeningen uit, in één
+     * ondeelbare stap.
+     *
+     * @param id id van de klant die uitgeschreven moet worden
+     * @return GELUKT of de reden waarom de klant niet uitgeschreven werd
+     * @throws DBException duidt op een fout in de opslag
+     */
+    Uitschrijving verwijderKlant(Integer id) throws DBException;
+
+    /**
+     * @param klant de klant die toegevoegd moet worden (status INGESCHREVEN)
+     * @return gegenereerd id van de klant, null indien geen klant werd opgegeven
+     * @throws DBException duidt op een fout in de opslag, bv. een verplicht
+     *                     veld dat niet ingevuld is
+     */
+    Integer toevoegenKlant(Klant klant) throws DBException;
+
+    /**
+     * @param klanten de klanten die toegevoegd moeten worden; een klant die al
+     *                bestaat (in de opslag of eerder in de lijst) wordt overgeslagen
+     * @return per klant (in dezelfde volgorde) het gegenereerde id, of null
+     * @throws DBException duidt op een fout in de opslag
+     */
+    ArrayList<Integer> toevoegenKlanten(List<Klant> klanten) throws DBException;
+
+    /**
+     * Wijzigt naam, voornaam, adres, postcode en gemeente van de klant met
+     * hetzelfde id.
+     *
+     * @param klant klant die gewijzigd moet worden
+     * @throws DBException          duidt op een fout in de opslag
+     * @throws ApplicationException wordt niet gegooid door de bestaande
+     *                              implementaties
+     */
+    void wijzigenKlant(Klant klant) throws DBException, ApplicationException;
+}
@@ -0,0 +1,55 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Zet de sleutelwaarden van de laatste rij van een pagina om naar een
+ * ondoorzichtige tekst (en terug), waarmee de volgende pagina opgevraagd
+ * wordt. Elke waarde wordt apart Base64-gecodeerd, zodat ze eender welk
+ * teken mag bevatten.
+ */
+class PaginaSleutel {
+
+    private static final String SCHEIDING = ".";
+
+    private PaginaSleutel() {
+    }
+
+    static String maak(String... waarden) {
+        StringBuilder sleutel = new StringBuilder();
+        for (String waarde : waarden) {
+            if (sleutel.length() > 0) {
+                sleutel.append(SCHEIDING);
+            }
+            sleutel.append(Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(waarde.getBytes(StandardCharsets.UTF_8)));
+        }
+        return sleutel.toString();
+    }
+
+    /**
+     * @param sleutel sleutel gemaakt door maak
+     * @param aantal  aantal waarden dat de sleutel moet bevatten
+     * @return de waarden uit de sleutel
+     * @throws ApplicationException wanneer de sleutel niet geldig is
+     */
+    static String[] lees(String sleutel, int aantal) throws ApplicationException {
+        String[] delen = sleutel.split("\\" + SCHEIDING, -1);
+        if (delen.length != aantal) {
+            throw new ApplicationException(ApplicationExceptionType.PAGINA_SLEUTEL_ONGELDIG.getMessage());
+        }
+        try {
+            String[] waarden = new String[aantal];
+            for (int i = 0; i < aantal; i++) {
+                waarden[i] = new String(Base64.getUrlDecoder().decode(delen[i]), StandardCharsets.UTF_8);
+            }
+            return waarden;
+        } catch (IllegalArgumentException ex) {
+            throw new ApplicationException(ApplicationExceptionType.PAGINA_SLEUTEL_ONGELDIG.getMessage());
+        }
+    }
+}
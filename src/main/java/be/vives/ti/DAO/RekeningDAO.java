@@ -1,9 +1,20 @@
 package be.vives.ti.DAO;
 
+import be.vives.ti.DAO.cache.CacheStatistieken;
+import be.vives.ti.DAO.cache.LeesCache;
 import be.vives.ti.DAO.connect.ConnectionManager;
+import be.vives.ti.DAO.connect.DBProp;
+import be.vives.ti.databag.Journaalregel;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.Pagina;
 import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Afsluiting;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.JournaalSoort;
+import be.vives.ti.datatype.Overschrijving;
 import be.vives.ti.datatype.RekeningStatus;
 import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.datatype.SaldoWijziging;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
@@ -13,17 +24,48 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Bevat alle functionaliteit op de DAO-tabel rekening. - zoeken van alle
- * rekeningen van een bepaalde klant - zoeken van alle open rekeningen van een
- * bepaalde klant - zoeken van alle gesloten rekeningen van een bepaalde klant -
- * zoeken van het aantal open rekeningen van een bepaalde klant - zoeken van een
- * rekening adhv rekeningnummer - wijzigen van een rekening - toevoegen van een
- * rekening - schrappen op een rekening
+ * rekeningen van een bepaalde klant - zoeken van de rekeningen van veel
+ * klanten of rekeningnummers tegelijk - alle rekeningen (van een bepaalde klant)
+ * één voor één overlopen - rekeningen per pagina opvragen - zoeken van alle
+ * open rekeningen van een bepaalde klant - zoeken van alle gesloten rekeningen
+ * van een bepaalde klant - zoeken van het aantal open rekeningen van een
+ * bepaalde klant - zoeken van een rekening adhv rekeningnummer (met cache) -
+ * wijzigen van een rekening - verrekenen van een bedrag op het saldo van een
+ * rekening - verrekenen van een batch mutaties - overschrijven tussen twee
+ * rekeningen - toevoegen van een rekening - schrappen op een rekening -
+ * elke saldowijziging in het journaal schrijven (in dezelfde transactie) -
+ * het journaal van een rekening per pagina opvragen
  */
-public class RekeningDAO {
+public class RekeningDAO implements RekeningRepository {
+
+    private static final Logger LOGGER = Logger.getLogger(RekeningDAO.class.getName());
+
+    // aantal keer dat een transactie geprobeerd wordt bij een deadlock of lock-time-out
+    private static final int MAX_POGINGEN = 5;
+    // aantal mutaties dat samen in één transactie (en één JDBC-batch) verwerkt wordt
+    private static final int BATCHGROOTTE = 1000;
+
+    // cache voor zoekRekening, gedeeld door alle RekeningDAO's (zie getCache)
+    private static volatile LeesCache<String, Rekening> cache;
 
     /**
      * Zoekt adhv van het rekeningnummer een rekening op. Wanneer geen rekening
@@ -36,45 +78,53 @@ public class RekeningDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public Rekening zoekRekening(String rekeningnummer) throws DBException {
         if (rekeningnummer != null) {
-            Rekening returnRekening = null;
-            // connectie tot stand brengen (en automatisch sluiten)
-            try (Connection conn = ConnectionManager.getConnection()) {
-                // preparedStatement opstellen (en automatisch sluiten)
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "select rekeningnummer"
-                                + " , saldo"
-                                + " , status"
-                                + " , eigenaar "
-                                + " from rekening "
-                                + " where rekeningnummer = ?")) {
-                    stmt.setString(1, rekeningnummer);
-                    stmt.execute();
-                    // result opvragen (en automatisch sluiten)
-                    try (ResultSet r = stmt.getResultSet()) {
-                        // er werd een rekeningnummer gevonden
-                        if (r.next()) {
-                            returnRekening = getRekeningUitDatabase(r);
-                        } // er werd geen rekeningnummer gevonden
-                        return returnRekening;
-                    } catch (ApplicationException ae) {
-                        //wanneer bij het zoeken in de DB de constructor van rekeningnummer een exception gooit,
-                        // dan zat er een foutief rekeningnummer in de DB. De gebruiker kan dit onmogelijk
-                        // oplossen, dus DBException
-                        throw new DBException("Databasefout: fout rekeningnummer gevonden.");
-                    } catch (SQLException sqlEx) {
-                        throw new DBException("SQL-exception in zoekRekening - resultset" + sqlEx);
-                    }
+            return getCache().zoek(cacheSleutel(rekeningnummer), sleutel -> zoekRekeningInDatabase(rekeningnummer));
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Zoekt de rekening op in de databank (zonder cache).
+     */
+    private Rekening zoekRekeningInDatabase(String rekeningnummer) throws DBException {
+        Rekening returnRekening = null;
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("RekeningDAO.zoekRekening")) {
+            // preparedStatement opstellen (en automatisch sluiten)
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select rekeningnummer"
+                            + " , saldo"
+                            + " , status"
+                            + " , eigenaar "
+                            + " from rekening "
+                            + " where rekeningnummer = ?")) {
+                stmt.setString(1, rekeningnummer);
+                stmt.execute();
+                // result opvragen (en automatisch sluiten)
+                try (ResultSet r = stmt.getResultSet()) {
+                    // er werd een rekeningnummer gevonden
+                    if (r.next()) {
+                        returnRekening = getRekeningUitDatabase(r);
+                    } // er werd geen rekeningnummer gevonden
+                    return returnRekening;
+                } catch (ApplicationException ae) {
+                    //wanneer bij het zoeken in de DB de constructor van rekeningnummer een exception gooit,
+                    // dan zat er een foutief rekeningnummer in de DB. De gebruiker kan dit onmogelijk
+                    // oplossen, dus DBException
+                    throw new DBException("Databasefout: fout rekeningnummer gevonden.");
                 } catch (SQLException sqlEx) {
-                    throw new DBException("SQL-exception in zoekRekening - statement" + sqlEx);
+                    throw new DBException("SQL-exception in zoekRekening - resultset" + sqlEx);
                 }
             } catch (SQLException sqlEx) {
-                throw new DBException(
-                        "SQL-exception in zoekRekening - connection" + sqlEx);
+                throw new DBException("SQL-exception in zoekRekening - statement" + sqlEx);
             }
-        } else {
-            return null;
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in zoekRekening - connection" + sqlEx);
         }
     }
 
@@ -90,7 +140,7 @@ public class RekeningDAO {
     private ArrayList<Rekening> zoekRekeningMetStatus(RekeningStatus rekeningStatus, int eigenaar) throws DBException {
         if (rekeningStatus != null) {
             // connectie tot stand brengen (en automatisch sluiten)
-            try (Connection conn = ConnectionManager.getConnection()) {
+            try (Connection conn = ConnectionManager.getConnection("RekeningDAO.zoekRekeningMetStatus")) {
                 // preparedStatement opstellen (en automatisch sluiten)
                 try (PreparedStatement stmt = conn.
                     prepareStatement(
@@ -138,6 +188,7 @@ public class RekeningDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public ArrayList<Rekening> zoekGeslotenRekeningen(int eigenaar) throws DBException {
         return zoekRekeningMetStatus(RekeningStatus.GESLOTEN, eigenaar);
     }
@@ -150,6 +201,7 @@ public class RekeningDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public ArrayList<Rekening> zoekOpenRekeningen(int eigenaar) throws DBException {
         return zoekRekeningMetStatus(RekeningStatus.OPEN, eigenaar);
     }
@@ -162,9 +214,10 @@ public class RekeningDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public int zoekAantalOpenRekeningen(int eigenaar) throws DBException {
         // connectie tot stand brengen (en automatisch sluiten)
-        try (Connection conn = ConnectionManager.getConnection()) {
+        try (Connection conn = ConnectionManager.getConnection("RekeningDAO.zoekAantalOpenRekeningen")) {
             int aantal = 0;
             // preparedStatement opstellen (en automatisch sluiten)
             try (PreparedStatement stmt = conn.
@@ -208,9 +261,10 @@ public class RekeningDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public ArrayList<Rekening> zoekAlleRekeningen(int eigenaar) throws DBException {
         // connectie tot stand brengen (en automatisch sluiten)
-        try (Connection conn = ConnectionManager.getConnection()) {
+        try (Connection conn = ConnectionManager.getConnection("RekeningDAO.zoekAlleRekeningen")) {
 
             // preparedStatement opstellen (en automatisch sluiten)
             try (PreparedStatement stmt = conn.prepareStatement(
@@ -247,36 +301,447 @@ public class RekeningDAO {
     }
 
     /**
-     * Sluit een rekening met meegegeven rekeningnummer.
+     * Geeft de rekeningen van meerdere klanten tegelijk terug, bv. voor een
+     * rapport over alle klanten. In plaats van één query per klant gebeurt er
+     * één query per InLijst.MAXIMUM klanten, allemaal op dezelfde connectie.
      *
-     * @param rekeningnummer rekeningnummer van de rekening die gesloten moet
-     *                       worden.
+     * @param eigenaars de eigenaars van de rekeningen die gezocht worden
+     *                  (dubbels en null worden genegeerd)
+     * @return per eigenaar, in de volgorde van eigenaars, de lijst van al zijn
+     * rekeningen; een lege lijst voor een eigenaar zonder rekeningen
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
-    public void verwijderRekening(String rekeningnummer) throws DBException {
-        if (rekeningnummer != null) {
+    @Override
+    public Map<Integer, ArrayList<Rekening>> zoekRekeningenVanKlanten(Collection<Integer> eigenaars)
+            throws DBException {
+        Map<Integer, ArrayList<Rekening>> rekeningen = new LinkedHashMap<>();
+        if (eigenaars != null) {
+            for (Integer eigenaar : eigenaars) {
+                if (eigenaar != null) {
+                    rekeningen.put(eigenaar, new ArrayList<>());
+                }
+            }
+        }
+        for (Rekening rekening : zoekRekeningenIn("zoekRekeningenVanKlanten", "eigenaar", eigenaars)) {
+            rekeningen.get(rekening.getEigenaar()).add(rekening);
+        }
+        return rekeningen;
+    }
+
+    /**
+     * Zoekt meerdere rekeningen tegelijk op adhv hun rekeningnummer, met één
+     * query per InLijst.MAXIMUM rekeningnummers. De cache van zoekRekening
+     * wordt niet gebruikt.
+     *
+     * @param rekeningnummers rekeningnummers van de rekeningen die gezocht
+     *                        worden (dubbels en null worden genegeerd)
+     * @return per gevonden rekeningnummer (zoals opgegeven, in de volgorde van
+     * rekeningnummers) de rekening; rekeningnummers die niet gevonden werden,
+     * komen niet voor
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    @Override
+    public Map<String, Rekening> zoekRekeningen(Collection<String> rekeningnummers) throws DBException {
+        // de databank vergelijkt hoofdletterongevoelig (zie cacheSleutel)
+        HashMap<String, Rekening> gevonden = new HashMap<>();
+        for (Rekening rekening : zoekRekeningenIn("zoekRekeningen", "rekeningnummer", rekeningnummers)) {
+            gevonden.put(cacheSleutel(rekening.getRekeningnummer().getRekeningnummer()), rekening);
+        }
+        Map<String, Rekening> rekeningen = new LinkedHashMap<>();
+        if (rekeningnummers != null) {
+            for (String rekeningnummer : rekeningnummers) {
+                Rekening rekening = rekeningnummer == null ? null : gevonden.get(cacheSleutel(rekeningnummer));
+                if (rekening != null) {
+                    rekeningen.put(rekeningnummer, rekening);
+                }
+            }
+        }
+        return rekeningen;
+    }
+
+    /**
+     * Zoekt de rekeningen waarvan de kolom een van de sleutels bevat, per stuk
+     * van de IN-lijst (zie InLijst) op één connectie.
+     */
+    private ArrayList<Rekening> zoekRekeningenIn(String methode, String kolom, Collection<?> sleutels)
+            throws DBException {
+        ArrayList<Rekening> rekeningen = new ArrayList<>();
+        List<? extends List<?>> stukken = InLijst.verdelen(sleutels);
+        if (stukken.isEmpty()) {
+            return rekeningen;
+        }
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("RekeningDAO." + methode)) {
+            for (List<?> stuk : stukken) {
+                // preparedStatement opstellen (en automatisch sluiten)
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "select rekeningnummer"
+                                + " , saldo"
+                                + " , status"
+                                + " , eigenaar "
+                                + " from rekening "
+                                + " where " + kolom + " in " + InLijst.parameters(stuk))) {
+                    for (int i = 0; i < stuk.size(); i++) {
+                        stmt.setObject(i + 1, stuk.get(i));
+                    }
+                    // result opvragen (en automatisch sluiten)
+                    try (ResultSet r = stmt.executeQuery()) {
+                        rekeningen.addAll(getRekeningenUitDatabase(r));
+                    } catch (ApplicationException ae) {
+                        //wanneer bij het zoeken in de DB de constructor van rekeningnummer een exception gooit,
+                        // dan zat er een foutief rekeningnummer in de DAO. De gebruiker kan dit onmogelijk
+                        // oplossen, dus DBException
+                        throw new DBException("Databasefout: fout rekeningnummer gevonden.");
+                    } catch (SQLException sqlEx) {
+                        throw new DBException(
+                                "SQL-exception in " + methode + " - resultset" + sqlEx);
+                    }
+                } catch (SQLException sqlEx) {
+                    throw new DBException(
+                            "SQL-exception in " + methode + " - statement" + sqlEx);
+                }
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in " + methode + " - connection" + sqlEx);
+        }
+        return rekeningen;
+    }
+
+    /**
+     * Overloopt alle rekeningen, gesorteerd op rekeningnummer, zonder ze
+     * allemaal in het geheugen te laden (zie verwerkRekeningen).
+     *
+     * @param verwerker verwerkt elke rekening; geeft false terug om te stoppen
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query,
+     *                     of een fout van de verwerker.
+     */
+    @Override
+    public void verwerkAlleRekeningen(Verwerker<Rekening> verwerker) throws DBException {
+        verwerkRekeningen(null, verwerker);
+    }
+
+    /**
+     * Overloopt alle rekeningen van een bepaalde klant, gesorteerd op
+     * rekeningnummer, zonder ze allemaal in het geheugen te laden (zie
+     * verwerkRekeningen).
+     *
+     * @param eigenaar  de eigenaar van de rekeningen die overlopen worden
+     * @param verwerker verwerkt elke rekening; geeft false terug om te stoppen
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query,
+     *                     of een fout van de verwerker.
+     */
+    @Override
+    public void verwerkAlleRekeningen(int eigenaar, Verwerker<Rekening> verwerker) throws DBException {
+        verwerkRekeningen(eigenaar, verwerker);
+    }
+
+    /**
+     * De rijen worden per fetchSize (zie DB.properties) via een cursor
+     * opgehaald en pas omgezet naar een Rekening wanneer de verwerker eraan
+     * toe is. De connectie wordt gesloten zodra alle rijen verwerkt zijn of
+     * de verwerker stopt.
+     */
+    private void verwerkRekeningen(Integer eigenaar, Verwerker<Rekening> verwerker) throws DBException {
+        if (verwerker != null) {
             // connectie tot stand brengen (en automatisch sluiten)
-            try (Connection conn = ConnectionManager.getConnection()) {
+            try (Connection conn = ConnectionManager.getConnection("RekeningDAO.verwerkAlleRekeningen")) {
                 // preparedStatement opstellen (en automatisch sluiten)
-                try (PreparedStatement stmt = conn.
-                        prepareStatement(
-                                "update rekening "
-                                        + " set status = ? "
-                                        + " where rekeningnummer = ?")) {
+                // forward-only en read-only: de rijen kunnen gestreamd worden
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "select rekeningnummer"
+                                + " , saldo"
+                                + " , status"
+                                + " , eigenaar "
+                                + " from rekening "
+                                + (eigenaar == null ? "" : " where eigenaar = ? ")
+                                + " order by rekeningnummer",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    if (eigenaar != null) {
+                        stmt.setInt(1, eigenaar);
+                    }
+                    stmt.setFetchSize(DBProp.getFetchSize());
+                    // result opvragen (en automatisch sluiten)
+                    try (ResultSet r = stmt.executeQuery()) {
+                        boolean doorgaan = true;
+                        while (doorgaan && r.next()) {
+                            doorgaan = verwerker.verwerk(getRekeningUitDatabase(r));
+                        }
+                    } catch (ApplicationException ae) {
+                        //wanneer bij het zoeken in de DB de constructor van rekeningnummer een exception gooit,
+                        // dan zat er een foutief rekeningnummer in de DAO. De gebruiker kan dit onmogelijk
+                        // oplossen, dus DBException
+                        throw new DBException("Databasefout: fout rekeningnummer gevonden.");
+                    } catch (SQLException sqlEx) {
+                        throw new DBException(
+                                "SQL-exception in verwerkRekeningen - resultset" + sqlEx);
+                    }
+                } catch (SQLException sqlEx) {
+                    throw new DBException(
+                            "SQL-exception in verwerkRekeningen - statement" + sqlEx);
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException(
+                        "SQL-exception in verwerkRekeningen - connection" + sqlEx);
+            }
+        }
+    }
 
-                    stmt.setString(1, RekeningStatus.GESLOTEN.toString());
-                    stmt.setString(2, rekeningnummer);
-                    stmt.execute();
+    /**
+     * Geeft één pagina van alle rekeningen terug, gesorteerd op
+     * rekeningnummer (zie zoekRekeningenPagina).
+     *
+     * @param vanaf         volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte maximaal aantal rekeningen op de pagina
+     * @return pagina met rekeningen en de sleutel voor de volgende pagina
+     * @throws DBException          Exception die duidt op een verkeerde
+     *                              installatie van de DAO of een fout in de query.
+     * @throws ApplicationException wanneer de sleutel vanaf ongeldig is
+     */
+    @Override
+    public Pagina<Rekening> zoekRekeningenPagina(String vanaf, int paginagrootte)
+            throws DBException, ApplicationException {
+        return zoekRekeningenPagina(null, vanaf, paginagrootte);
+    }
+
+    /**
+     * Geeft één pagina van de rekeningen van een bepaalde klant terug,
+     * gesorteerd op rekeningnummer (zie zoekRekeningenPagina).
+     *
+     * @param eigenaar      de eigenaar van de rekeningen die gezocht worden
+     * @param vanaf         volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte maximaal aantal rekeningen op de pagina
+     * @return pagina met rekeningen en de sleutel voor de volgende pagina
+     * @throws DBException          Exception die duidt op een verkeerde
+     *                              installatie van de DAO of een fout in de query.
+     * @throws ApplicationException wanneer de sleutel vanaf ongeldig is
+     */
+    @Override
+    public Pagina<Rekening> zoekRekeningenPagina(int eigenaar, String vanaf, int paginagrootte)
+            throws DBException, ApplicationException {
+        return zoekRekeningenPagina(Integer.valueOf(eigenaar), vanaf, paginagrootte);
+    }
+
+    /**
+     * De volgende pagina wordt niet met een offset opgevraagd, maar vanaf het
+     * rekeningnummer van de laatste rekening op deze pagina
+     * (keyset-paginering), zodat de databank rechtstreeks naar de juiste
+     * plaats in de primaire sleutel kan springen.
+     */
+    private Pagina<Rekening> zoekRekeningenPagina(Integer eigenaar, String vanaf, int paginagrootte)
+            throws DBException, ApplicationException {
+        String vanafRekeningnummer = vanaf == null ? null : PaginaSleutel.lees(vanaf, 1)[0];
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("RekeningDAO.zoekRekeningenPagina")) {
+            // preparedStatement opstellen (en automatisch sluiten)
+            // er wordt één rekening meer opgehaald om te weten of er een volgende pagina is
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select rekeningnummer"
+                            + " , saldo"
+                            + " , status"
+                            + " , eigenaar "
+                            + " from rekening "
+                            + " where 1 = 1 "
+                            + (eigenaar == null ? "" : " and eigenaar = ? ")
+                            + (vanafRekeningnummer == null ? "" : " and rekeningnummer > ? ")
+                            + " order by rekeningnummer"
+                            + " limit ?")) {
+                int index = 1;
+                if (eigenaar != null) {
+                    stmt.setInt(index++, eigenaar);
+                }
+                if (vanafRekeningnummer != null) {
+                    stmt.setString(index++, vanafRekeningnummer);
+                }
+                stmt.setInt(index, paginagrootte + 1);
+                stmt.execute();
+                // result opvragen (en automatisch sluiten)
+                try (ResultSet r = stmt.getResultSet()) {
+                    Pagina<Rekening> pagina = new Pagina<>();
+                    pagina.setItems(getRekeningenUitDatabase(r));
+                    ArrayList<Rekening> rekeningen = pagina.getItems();
+                    if (rekeningen.size() > paginagrootte) {
+                        rekeningen.remove(paginagrootte);
+                        pagina.setVolgendePagina(PaginaSleutel.maak(
+                                rekeningen.get(paginagrootte - 1).getRekeningnummer().getRekeningnummer()));
+                    }
+                    return pagina;
+                } catch (ApplicationException ae) {
+                    //wanneer bij het zoeken in de DB de constructor van rekeningnummer een exception gooit,
+                    // dan zat er een foutief rekeningnummer in de DAO. De gebruiker kan dit onmogelijk
+                    // oplossen, dus DBException
+                    throw new DBException("Databasefout: fout rekeningnummer gevonden.");
                 } catch (SQLException sqlEx) {
-                    throw new DBException("SQL-exception in verwijderRekening" + sqlEx);
+                    throw new DBException(
+                            "SQL-exception in zoekRekeningenPagina - resultset" + sqlEx);
                 }
             } catch (SQLException sqlEx) {
                 throw new DBException(
-                        "SQL-exception in verwijderRekening - connection" + sqlEx);
+                        "SQL-exception in zoekRekeningenPagina - statement" + sqlEx);
             }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in zoekRekeningenPagina - connection" + sqlEx);
         }
+    }
 
+    /**
+     * Geeft één pagina uit het journaal van een rekening terug, gesorteerd op
+     * volgnummer (de oudste wijziging eerst). Zoals bij de rekeningen wordt de
+     * volgende pagina opgevraagd vanaf het volgnummer van de laatste regel
+     * (keyset-paginering), zodat de databank rechtstreeks naar de juiste
+     * plaats in de index (rekeningnummer, volgnummer) kan springen, ook voor
+     * een rekening met een lange geschiedenis.
+     *
+     * @param rekeningnummer rekeningnummer van de rekening
+     * @param vanaf          volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte  maximaal aantal regels op de pagina
+     * @return pagina met journaalregels en de sleutel voor de volgende pagina
+     * @throws DBException          Exception die duidt op een verkeerde
+     *                              installatie van de DAO of een fout in de query.
+     * @throws ApplicationException wanneer de sleutel vanaf ongeldig is
+     */
+    @Override
+    public Pagina<Journaalregel> zoekJournaalPagina(String rekeningnummer, String vanaf, int paginagrootte)
+            throws DBException, ApplicationException {
+        Pagina<Journaalregel> pagina = new Pagina<>();
+        if (rekeningnummer == null) {
+            return pagina;
+        }
+        long vanafVolgnummer = 0;
+        if (vanaf != null) {
+            try {
+                vanafVolgnummer = Long.parseLong(PaginaSleutel.lees(vanaf, 1)[0]);
+            } catch (NumberFormatException ex) {
+                throw new ApplicationException(ApplicationExceptionType.PAGINA_SLEUTEL_ONGELDIG.getMessage());
+            }
+        }
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("RekeningDAO.zoekJournaalPagina")) {
+            // preparedStatement opstellen (en automatisch sluiten)
+            // er wordt één regel meer opgehaald om te weten of er een volgende pagina is
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select volgnummer"
+                            + " , rekeningnummer"
+                            + " , soort"
+                            + " , verschil"
+                            + " , saldo"
+                            + " , tijdstip "
+                            + " from journaal "
+                            + " where rekeningnummer = ? "
+                            + "   and volgnummer > ? "
+                            + " order by volgnummer"
+                            + " limit ?")) {
+                stmt.setString(1, rekeningnummer);
+                stmt.setLong(2, vanafVolgnummer);
+                stmt.setInt(3, paginagrootte + 1);
+                // result opvragen (en automatisch sluiten)
+                try (ResultSet r = stmt.executeQuery()) {
+                    ArrayList<Journaalregel> regels = new ArrayList<>();
+                    while (r.next()) {
+                        Journaalregel regel = new Journaalregel();
+                        regel.setVolgnummer(r.getLong("volgnummer"));
+                        regel.setRekeningnummer(r.getString("rekeningnummer"));
+                        regel.setSoort(JournaalSoort.valueOf(r.getString("soort")));
+                        regel.setVerschil(Bedrag.van(r.getBigDecimal("verschil")));
+                        regel.setSaldo(Bedrag.van(r.getBigDecimal("saldo")));
+                        regel.setTijdstip(r.getTimestamp("tijdstip").toLocalDateTime());
+                        regels.add(regel);
+                    }
+                    pagina.setItems(regels);
+                    if (regels.size() > paginagrootte) {
+                        regels.remove(paginagrootte);
+                        pagina.setVolgendePagina(PaginaSleutel.maak(
+                                Long.toString(regels.get(paginagrootte - 1).getVolgnummer())));
+                    }
+                    return pagina;
+                } catch (SQLException sqlEx) {
+                    throw new DBException(
+                            "SQL-exception in zoekJournaalPagina - resultset" + sqlEx);
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException(
+                        "SQL-exception in zoekJournaalPagina - statement" + sqlEx);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in zoekJournaalPagina - connection" + sqlEx);
+        }
+    }
+
+    /**
+     * Sluit een rekening met meegegeven rekeningnummer, maar enkel wanneer ze
+     * open is en haar saldo nul is. De controle en het wijzigen van de status
+     * gebeuren samen in één statement, zodat er tussendoor geen geld gestort
+     * kan worden. Lukt het niet, dan wordt de reden op dezelfde connectie
+     * opgezocht.
+     *
+     * @param rekeningnummer rekeningnummer van de rekening die gesloten moet
+     *                       worden.
+     * @return GELUKT of de reden waarom de rekening niet gesloten werd
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    @Override
+    public Afsluiting verwijderRekening(String rekeningnummer) throws DBException {
+        if (rekeningnummer == null) {
+            return Afsluiting.REKENING_BESTAAT_NIET;
+        }
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("RekeningDAO.verwijderRekening")) {
+            // preparedStatement opstellen (en automatisch sluiten)
+            try (PreparedStatement stmt = conn.
+                    prepareStatement(
+                            "update rekening "
+                                    + " set status = ? "
+                                    + " where rekeningnummer = ?"
+                                    + "   and status = ?"
+                                    + "   and saldo = 0")) {
+
+                stmt.setString(1, RekeningStatus.GESLOTEN.toString());
+                stmt.setString(2, rekeningnummer);
+                stmt.setString(3, RekeningStatus.OPEN.toString());
+
+                if (stmt.executeUpdate() == 1) {
+                    return Afsluiting.GELUKT;
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in verwijderRekening" + sqlEx);
+            }
+            // niets gewijzigd: reden opzoeken op dezelfde connectie
+            return bepaalRedenNietGesloten(conn, rekeningnummer);
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in verwijderRekening - connection" + sqlEx);
+        } finally {
+            verwijderUitCache(rekeningnummer);
+        }
+    }
+
+    private Afsluiting bepaalRedenNietGesloten(Connection conn, String rekeningnummer) throws DBException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "select status "
+                        + " from rekening "
+                        + " where rekeningnummer = ?")) {
+            stmt.setString(1, rekeningnummer);
+            stmt.execute();
+            try (ResultSet r = stmt.getResultSet()) {
+                if (!r.next()) {
+                    return Afsluiting.REKENING_BESTAAT_NIET;
+                }
+                if (RekeningStatus.GESLOTEN.toString().equals(r.getString("status"))) {
+                    return Afsluiting.REKENING_GESLOTEN;
+                }
+                // rekening bestaat en is open, dus is het saldo niet nul
+                return Afsluiting.SALDO_NIET_NUL;
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in bepaalRedenNietGesloten" + sqlEx);
+        }
     }
 
     /**
@@ -286,10 +751,11 @@ public class RekeningDAO {
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
+    @Override
     public void toevoegenRekening(Rekening rekening) throws DBException, ApplicationException {
         if (rekening != null) {
             // connectie tot stand brengen (en automatisch sluiten)
-            try (Connection conn = ConnectionManager.getConnection()) {
+            try (Connection conn = ConnectionManager.getConnection("RekeningDAO.toevoegenRekening")) {
                 // preparedStatement opstellen (en automatisch sluiten)
                 try (PreparedStatement stmt = conn.
                         prepareStatement("insert into rekening("
@@ -309,8 +775,8 @@ public class RekeningDAO {
                     } else {
                         throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
                     }
-                    // als het saldo null is, zal setBigDecimal dit opvangen. Er is dus geen controle nodig
-                    stmt.setBigDecimal(2, rekening.getSaldo());
+                    // het saldo van een Rekening is nooit null (standaard Bedrag.NUL)
+                    stmt.setBigDecimal(2, rekening.getSaldo().toBigDecimal());
                     stmt.setString(3, RekeningStatus.OPEN.toString());
                     stmt.setInt(4, rekening.getEigenaar());
                     stmt.execute();
@@ -326,35 +792,683 @@ public class RekeningDAO {
     }
 
     /**
-     * Wijzigt een het saldo van een rekening
+     * Wijzigt een het saldo van een rekening. Het verschil met het vorige
+     * saldo komt als CORRECTIE in het journaal, in dezelfde transactie.
      *
      * @param rekeningnummer rekeningnumer van rekening waarvan saldo gewijzigd moet worden
      * @param nieuwSaldo     nieuw saldo voor de rekening
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
-    public void wijzigenSaldoRekening(String rekeningnummer, BigDecimal nieuwSaldo) throws DBException {
+    @Override
+    public void wijzigenSaldoRekening(String rekeningnummer, Bedrag nieuwSaldo) throws DBException {
         if ((rekeningnummer != null) && (nieuwSaldo != null)) {
             // connectie tot stand brengen (en automatisch sluiten)
-            try (Connection conn = ConnectionManager.getConnection()) {
+            try (Connection conn = ConnectionManager.getConnection("RekeningDAO.wijzigenSaldoRekening")) {
+                conn.setAutoCommit(false);
+                try {
+                    // vorig saldo lezen en de rij vergrendelen tot de commit
+                    Journaalregel regel = null;
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "select rekeningnummer"
+                                    + " , saldo "
+                                    + " from rekening "
+                                    + " where rekeningnummer = ? "
+                                    + " for update")) {
+                        stmt.setString(1, rekeningnummer);
+                        try (ResultSet r = stmt.executeQuery()) {
+                            if (r.next()) {
+                                regel = maakJournaalregel(r.getString("rekeningnummer"), JournaalSoort.CORRECTIE,
+                                        nieuwSaldo.min(Bedrag.van(r.getBigDecimal("saldo"))), nieuwSaldo);
+                            }
+                        }
+                    }
+                    if (regel != null) {
+                        try (PreparedStatement stmt = conn.
+                                prepareStatement("update rekening "
+                                        + " set saldo =? "
+                                        + " where rekeningnummer = ?")) {
+
+                            stmt.setBigDecimal(1, nieuwSaldo.toBigDecimal());
+                            stmt.setString(2, rekeningnummer);
+
+                            stmt.execute();
+                        }
+                        toevoegenJournaal(conn, Collections.singletonList(regel));
+                    }
+                    conn.commit();
+                } catch (SQLException sqlEx) {
+                    conn.rollback();
+                    throw new DBException("SQL-exception in wijzigenSaldoRekening" + sqlEx);
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException sqlEx) {
+                throw new DBException(
+                        "SQL-exception in wijzigenSaldoRekening - connection" + sqlEx);
+            } finally {
+                verwijderUitCache(rekeningnummer);
+            }
+        }
+    }
+
+    /**
+     * Telt een (positief of negatief) bedrag op bij het saldo van een open
+     * rekening. Dit gebeurt in één conditioneel statement in de DB, zodat
+     * gelijktijdige stortingen en opnames op dezelfde rekening elkaar niet
+     * kunnen overschrijven. Het saldo mag hierdoor niet negatief worden.
+     * Enkel wanneer de wijziging niet doorgaat, wordt de reden opgezocht.
+     * Een gelukte wijziging komt in dezelfde transactie in het journaal,
+     * met het nieuwe saldo zoals de update het achterliet.
+     *
+     * @param rekeningnummer rekeningnummer van de rekening waarvan het saldo gewijzigd moet worden
+     * @param verschil       bedrag dat bij het saldo opgeteld wordt (negatief bij een opname)
+     * @return GELUKT indien het saldo gewijzigd werd, anders de reden waarom niet
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    @Override
+    public SaldoWijziging verrekenenSaldoRekening(String rekeningnummer, Bedrag verschil) throws DBException {
+        if ((rekeningnummer == null) || (verschil == null)) {
+            return SaldoWijziging.REKENING_BESTAAT_NIET;
+        }
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("RekeningDAO.verrekenenSaldoRekening")) {
+            conn.setAutoCommit(false);
+            try {
                 // preparedStatement opstellen (en automatisch sluiten)
                 try (PreparedStatement stmt = conn.
                         prepareStatement("update rekening "
-                                + " set saldo =? "
-                                + " where rekeningnummer = ?")) {
+                                + " set saldo = saldo + ? "
+                                + " where rekeningnummer = ?"
+                                + "   and status = ?"
+                                + "   and saldo + ? >= 0")) {
 
-                    stmt.setBigDecimal(1, nieuwSaldo);
+                    BigDecimal bedrag = verschil.toBigDecimal();
+                    stmt.setBigDecimal(1, bedrag);
                     stmt.setString(2, rekeningnummer);
+                    stmt.setString(3, RekeningStatus.OPEN.toString());
+                    stmt.setBigDecimal(4, bedrag);
 
-                    stmt.execute();
+                    if (stmt.executeUpdate() == 1) {
+                        // het nieuwe saldo rechtstreeks uit de (vergrendelde) rij overnemen
+                        try (PreparedStatement journaal = conn.prepareStatement(
+                                "insert into journaal(periode"
+                                        + " , rekeningnummer"
+                                        + " , soort"
+                                        + " , verschil"
+                                        + " , saldo"
+                                        + " , tijdstip) "
+                                        + " select ?, rekeningnummer, ?, ?, saldo, ? "
+                                        + " from rekening "
+                                        + " where rekeningnummer = ?")) {
+                            LocalDateTime nu = LocalDateTime.now();
+                            journaal.setInt(1, periode(nu));
+                            journaal.setString(2, soort(verschil).toString());
+                            journaal.setBigDecimal(3, bedrag);
+                            journaal.setTimestamp(4, Timestamp.valueOf(nu));
+                            journaal.setString(5, rekeningnummer);
+                            journaal.execute();
+                        }
+                        conn.commit();
+                        return SaldoWijziging.GELUKT;
+                    }
+                    conn.rollback();
                 } catch (SQLException sqlEx) {
-                    throw new DBException("SQL-exception in wijzigenSaldoRekening" + sqlEx);
+                    conn.rollback();
+                    throw new DBException("SQL-exception in verrekenenSaldoRekening - statement" + sqlEx);
                 }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            // niets gewijzigd: reden opzoeken op dezelfde connectie
+            return bepaalRedenSaldoNietGewijzigd(conn, rekeningnummer);
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in verrekenenSaldoRekening - connection" + sqlEx);
+        } finally {
+            verwijderUitCache(rekeningnummer);
+        }
+    }
+
+    private SaldoWijziging bepaalRedenSaldoNietGewijzigd(Connection conn, String rekeningnummer) throws DBException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "select status "
+                        + " from rekening "
+                        + " where rekeningnummer = ?")) {
+            stmt.setString(1, rekeningnummer);
+            stmt.execute();
+            try (ResultSet r = stmt.getResultSet()) {
+                if (!r.next()) {
+                    return SaldoWijziging.REKENING_BESTAAT_NIET;
+                }
+                if (RekeningStatus.GESLOTEN.toString().equals(r.getString("status"))) {
+                    return SaldoWijziging.REKENING_GESLOTEN;
+                }
+                // rekening bestaat en is open, dus was het saldo ontoereikend
+                return SaldoWijziging.SALDO_ONTOEREIKEND;
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in bepaalRedenSaldoNietGewijzigd" + sqlEx);
+        }
+    }
+
+    /**
+     * Verrekent een lijst mutaties (positief = storting, negatief = opname)
+     * met dezelfde regels als verrekenenSaldoRekening. De mutaties worden in
+     * stukken van BATCHGROOTTE verwerkt: elk stuk is één JDBC-batch in één
+     * transactie. Mutaties op dezelfde rekening worden in volgorde
+     * toegepast. Meldt de driver voor de batch niet hoeveel rijen elke
+     * update wijzigde (SUCCESS_NO_INFO), dan wordt het stuk teruggedraaid en
+     * per mutatie uitgevoerd. Wordt een stuk door een deadlock of
+     * lock-time-out teruggedraaid, dan wordt het opnieuw geprobeerd. Bij een
+     * andere fout blijven de eerder verwerkte stukken behouden: hun
+     * resultaten worden teruggegeven en de mutaties van het mislukte stuk en
+     * alle stukken erna krijgen NIET_UITGEVOERD, zodat enkel die opnieuw
+     * aangeboden moeten worden.
+     *
+     * @param mutaties mutaties die verrekend moeten worden
+     * @return per mutatie (in dezelfde volgorde) GELUKT of de reden waarom niet
+     * @throws DBException wanneer het eerste stuk mislukt (er is dan niets
+     *                     gewijzigd), of bij een verkeerde installatie van de
+     *                     DAO.
+     */
+    @Override
+    public ArrayList<SaldoWijziging> verrekenenSaldoRekeningen(List<Mutatie> mutaties) throws DBException {
+        ArrayList<SaldoWijziging> resultaten = new ArrayList<>();
+        if (mutaties == null || mutaties.isEmpty()) {
+            return resultaten;
+        }
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("RekeningDAO.verrekenenSaldoRekeningen")) {
+            conn.setAutoCommit(false);
+            try {
+                for (int van = 0; van < mutaties.size(); van += BATCHGROOTTE) {
+                    List<Mutatie> stuk = mutaties.subList(van, Math.min(van + BATCHGROOTTE, mutaties.size()));
+                    try {
+                        resultaten.addAll(verrekenenStuk(conn, stuk));
+                    } catch (DBException | SQLException ex) {
+                        if (van == 0) {
+                            throw ex;
+                        }
+                        // de vorige stukken zijn al gecommit: hun resultaten gelden, de rest is niet uitgevoerd
+                        LOGGER.log(Level.WARNING, "verrekenenSaldoRekeningen onderbroken na " + van + " van "
+                                + mutaties.size() + " mutaties: " + ex);
+                        while (resultaten.size() < mutaties.size()) {
+                            resultaten.add(SaldoWijziging.NIET_UITGEVOERD);
+                        }
+                        break;
+                    }
+                }
+            } finally {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException sqlEx) {
+                    // de gecommitte stukken gelden; een verbroken connectie wordt door de pool vervangen
+                    LOGGER.log(Level.WARNING, "setAutoCommit na verrekenenSaldoRekeningen mislukt: " + sqlEx);
+                }
+            }
+            return resultaten;
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in verrekenenSaldoRekeningen - connection" + sqlEx);
+        } finally {
+            for (Mutatie mutatie : mutaties) {
+                if (mutatie != null) {
+                    verwijderUitCache(mutatie.getRekeningnummer());
+                }
+            }
+        }
+    }
+
+    private ArrayList<SaldoWijziging> verrekenenStuk(Connection conn, List<Mutatie> stuk)
+            throws SQLException, DBException {
+        for (int poging = 1; ; poging++) {
+            try {
+                ArrayList<SaldoWijziging> resultaten = verrekenenStukInTransactie(conn, stuk);
+                conn.commit();
+                return resultaten;
             } catch (SQLException sqlEx) {
-                throw new DBException(
-                        "SQL-exception in wijzigenSaldoRekening - connection" + sqlEx);
+                conn.rollback();
+                if (!isOpnieuwProberen(sqlEx) || poging >= MAX_POGINGEN) {
+                    throw new DBException("SQL-exception in verrekenenSaldoRekeningen - statement" + sqlEx);
+                }
+                wachtVoorNieuwePoging(poging);
+            }
+        }
+    }
+
+    private ArrayList<SaldoWijziging> verrekenenStukInTransactie(Connection conn, List<Mutatie> stuk)
+            throws SQLException {
+        ArrayList<SaldoWijziging> resultaten = new ArrayList<>();
+        int[] aantallen = uitvoerenStuk(conn, stuk, true);
+        for (int aantal : aantallen) {
+            if (aantal == Statement.SUCCESS_NO_INFO) {
+                // de driver meldt niet of de voorwaardelijke update een rij wijzigde:
+                // het stuk terugdraaien en per mutatie opnieuw, met een aantal per update
+                conn.rollback();
+                aantallen = uitvoerenStuk(conn, stuk, false);
+                break;
+            }
+        }
+
+        // reden opzoeken voor alle mislukte mutaties samen (één query)
+        ArrayList<String> mislukt = new ArrayList<>();
+        for (int i = 0; i < stuk.size(); i++) {
+            if (aantallen[i] == 0 && stuk.get(i).getRekeningnummer() != null && stuk.get(i).getBedrag() != null) {
+                mislukt.add(stuk.get(i).getRekeningnummer());
+            }
+        }
+        HashMap<String, String> statussen = zoekStatussen(conn, mislukt);
+
+        for (int i = 0; i < stuk.size(); i++) {
+            if (aantallen[i] > 0) {
+                resultaten.add(SaldoWijziging.GELUKT);
+            } else if (aantallen[i] == Statement.EXECUTE_FAILED) {
+                resultaten.add(SaldoWijziging.NIET_UITGEVOERD);
+            } else {
+                String status = stuk.get(i).getRekeningnummer() == null || stuk.get(i).getBedrag() == null ? null
+                        : statussen.get(cacheSleutel(stuk.get(i).getRekeningnummer()));
+                if (status == null) {
+                    resultaten.add(SaldoWijziging.REKENING_BESTAAT_NIET);
+                } else if (RekeningStatus.GESLOTEN.toString().equals(status)) {
+                    resultaten.add(SaldoWijziging.REKENING_GESLOTEN);
+                } else {
+                    resultaten.add(SaldoWijziging.SALDO_ONTOEREIKEND);
+                }
+            }
+        }
+        journaliserenStuk(conn, stuk, resultaten);
+        return resultaten;
+    }
+
+    /**
+     * Voert de voorwaardelijke updates van een stuk uit, als één JDBC-batch
+     * of per mutatie, en geeft per mutatie het aantal gewijzigde rijen (of
+     * Statement.EXECUTE_FAILED / SUCCESS_NO_INFO bij een batch).
+     */
+    private static int[] uitvoerenStuk(Connection conn, List<Mutatie> stuk, boolean alsBatch) throws SQLException {
+        int[] aantallen = new int[stuk.size()];
+        try (PreparedStatement stmt = conn.
+                prepareStatement("update rekening "
+                        + " set saldo = saldo + ? "
+                        + " where rekeningnummer = ?"
+                        + "   and status = ?"
+                        + "   and saldo + ? >= 0")) {
+            for (int i = 0; i < stuk.size(); i++) {
+                Mutatie mutatie = stuk.get(i);
+                // een onvolledige mutatie krijgt een rekeningnummer dat nooit bestaat,
+                // zodat ze de volgorde van de batch behoudt maar niets wijzigt
+                boolean volledig = mutatie.getRekeningnummer() != null && mutatie.getBedrag() != null;
+                BigDecimal bedrag = volledig ? mutatie.getBedrag().toBigDecimal() : BigDecimal.ZERO;
+                stmt.setBigDecimal(1, bedrag);
+                stmt.setString(2, volledig ? mutatie.getRekeningnummer() : "");
+                stmt.setString(3, RekeningStatus.OPEN.toString());
+                stmt.setBigDecimal(4, bedrag);
+                if (alsBatch) {
+                    stmt.addBatch();
+                } else {
+                    aantallen[i] = stmt.executeUpdate();
+                }
+            }
+            if (alsBatch) {
+                aantallen = stmt.executeBatch();
+            }
+        }
+        return aantallen;
+    }
+
+    /**
+     * Voegt een journaalregel toe voor elke gelukte mutatie van het stuk. De
+     * rijen zijn vergrendeld door de updates, dus het huidige saldo is het
+     * saldo na de laatste mutatie op die rekening; het saldo na de vorige
+     * mutaties wordt van daaruit teruggerekend. Zo volstaat één query en één
+     * batch, ook wanneer een rekening meermaals in het stuk voorkomt.
+     */
+    private void journaliserenStuk(Connection conn, List<Mutatie> stuk, List<SaldoWijziging> resultaten)
+            throws SQLException {
+        ArrayList<String> gelukt = new ArrayList<>();
+        for (int i = 0; i < stuk.size(); i++) {
+            if (resultaten.get(i) == SaldoWijziging.GELUKT) {
+                gelukt.add(stuk.get(i).getRekeningnummer());
             }
         }
+        if (gelukt.isEmpty()) {
+            return;
+        }
+        HashMap<String, Journaalregel> huidig = zoekHuidigeSaldi(conn, gelukt);
+        Journaalregel[] regels = new Journaalregel[stuk.size()];
+        for (int i = stuk.size() - 1; i >= 0; i--) {
+            Journaalregel stand = resultaten.get(i) == SaldoWijziging.GELUKT
+                    ? huidig.get(cacheSleutel(stuk.get(i).getRekeningnummer())) : null;
+            if (stand != null) {
+                Bedrag verschil = stuk.get(i).getBedrag();
+                regels[i] = maakJournaalregel(stand.getRekeningnummer(), soort(verschil), verschil, stand.getSaldo());
+                stand.setSaldo(stand.getSaldo().min(verschil));
+            }
+        }
+        ArrayList<Journaalregel> inVolgorde = new ArrayList<>();
+        for (Journaalregel regel : regels) {
+            if (regel != null) {
+                inVolgorde.add(regel);
+            }
+        }
+        toevoegenJournaal(conn, inVolgorde);
+    }
+
+    // per rekeningnummer (cacheSleutel) het rekeningnummer zoals opgeslagen en het huidige saldo
+    private HashMap<String, Journaalregel> zoekHuidigeSaldi(Connection conn, List<String> rekeningnummers)
+            throws SQLException {
+        HashMap<String, Journaalregel> saldi = new HashMap<>();
+        for (List<String> stuk : InLijst.verdelen(rekeningnummers)) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select rekeningnummer"
+                            + " , saldo "
+                            + " from rekening "
+                            + " where rekeningnummer in " + InLijst.parameters(stuk))) {
+                for (int i = 0; i < stuk.size(); i++) {
+                    stmt.setString(i + 1, stuk.get(i));
+                }
+                try (ResultSet r = stmt.executeQuery()) {
+                    while (r.next()) {
+                        Journaalregel stand = new Journaalregel();
+                        stand.setRekeningnummer(r.getString("rekeningnummer"));
+                        stand.setSaldo(Bedrag.van(r.getBigDecimal("saldo")));
+                        saldi.put(cacheSleutel(stand.getRekeningnummer()), stand);
+                    }
+                }
+            }
+        }
+        return saldi;
+    }
+
+    // per rekeningnummer (cacheSleutel) de status
+    private HashMap<String, String> zoekStatussen(Connection conn, List<String> rekeningnummers) throws SQLException {
+        HashMap<String, String> statussen = new HashMap<>();
+        for (List<String> stuk : InLijst.verdelen(rekeningnummers)) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "select rekeningnummer"
+                            + " , status "
+                            + " from rekening "
+                            + " where rekeningnummer in " + InLijst.parameters(stuk))) {
+                for (int i = 0; i < stuk.size(); i++) {
+                    stmt.setString(i + 1, stuk.get(i));
+                }
+                try (ResultSet r = stmt.executeQuery()) {
+                    while (r.next()) {
+                        statussen.put(cacheSleutel(r.getString("rekeningnummer")), r.getString("status"));
+                    }
+                }
+            }
+        }
+        return statussen;
+    }
+
+    /**
+     * Schrijft een bedrag over van de ene rekening naar de andere. Het
+     * debiteren en crediteren gebeurt in één transactie. Beide rijen worden
+     * vergrendeld in de volgorde van hun rekeningnummer, zodat twee
+     * gelijktijdige overschrijvingen tussen dezelfde rekeningen (in
+     * omgekeerde richting) geen deadlock veroorzaken. Bij een deadlock of
+     * lock-time-out wordt de transactie opnieuw geprobeerd.
+     *
+     * @param vanRekeningnummer  rekeningnummer van de rekening die gedebiteerd wordt
+     * @param naarRekeningnummer rekeningnummer van de rekening die gecrediteerd wordt
+     * @param bedrag             bedrag dat overgeschreven wordt (positief)
+     * @return GELUKT indien overgeschreven werd, anders de reden waarom niet
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    @Override
+    public Overschrijving overschrijven(String vanRekeningnummer, String naarRekeningnummer, Bedrag bedrag)
+            throws DBException {
+        if (vanRekeningnummer == null) {
+            return Overschrijving.VAN_REKENING_BESTAAT_NIET;
+        }
+        if (naarRekeningnummer == null) {
+            return Overschrijving.NAAR_REKENING_BESTAAT_NIET;
+        }
+        // connectie tot stand brengen (en automatisch sluiten)
+        try (Connection conn = ConnectionManager.getConnection("RekeningDAO.overschrijven")) {
+            conn.setAutoCommit(false);
+            try {
+                for (int poging = 1; ; poging++) {
+                    try {
+                        Overschrijving resultaat = overschrijvenInTransactie(conn, vanRekeningnummer,
+                                naarRekeningnummer, bedrag);
+                        if (resultaat == Overschrijving.GELUKT) {
+                            conn.commit();
+                        } else {
+                            conn.rollback();
+                        }
+                        return resultaat;
+                    } catch (SQLException sqlEx) {
+                        conn.rollback();
+                        if (!isOpnieuwProberen(sqlEx) || poging >= MAX_POGINGEN) {
+                            throw new DBException("SQL-exception in overschrijven - statement" + sqlEx);
+                        }
+                        wachtVoorNieuwePoging(poging);
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException(
+                    "SQL-exception in overschrijven - connection" + sqlEx);
+        } finally {
+            verwijderUitCache(vanRekeningnummer);
+            verwijderUitCache(naarRekeningnummer);
+        }
+    }
+
+    private Overschrijving overschrijvenInTransactie(Connection conn, String vanRekeningnummer,
+                                                     String naarRekeningnummer, Bedrag bedrag)
+            throws SQLException {
+        // rijen altijd in dezelfde volgorde vergrendelen om deadlocks te vermijden; zoals de databank
+        // hoofdletterongevoelig, anders vergrendelen "be.." en "BE.." in een andere volgorde
+        boolean vanEerst = cacheSleutel(vanRekeningnummer).compareTo(cacheSleutel(naarRekeningnummer)) <= 0;
+        String eerste = vanEerst ? vanRekeningnummer : naarRekeningnummer;
+        String tweede = vanEerst ? naarRekeningnummer : vanRekeningnummer;
+
+        Bedrag[] saldi = new Bedrag[2];
+        String[] statussen = new String[2];
+        String[] opgeslagen = new String[2];
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "select rekeningnummer"
+                        + " , status"
+                        + " , saldo "
+                        + " from rekening "
+                        + " where rekeningnummer = ? "
+                        + " for update")) {
+            String[] rekeningnummers = {eerste, tweede};
+            for (int i = 0; i < rekeningnummers.length; i++) {
+                stmt.setString(1, rekeningnummers[i]);
+                try (ResultSet r = stmt.executeQuery()) {
+                    if (r.next()) {
+                        opgeslagen[i] = r.getString("rekeningnummer");
+                        statussen[i] = r.getString("status");
+                        saldi[i] = Bedrag.van(r.getBigDecimal("saldo"));
+                    }
+                }
+            }
+        }
+        int van = vanEerst ? 0 : 1;
+        int naar = 1 - van;
+
+        if (statussen[van] == null) {
+            return Overschrijving.VAN_REKENING_BESTAAT_NIET;
+        }
+        if (!RekeningStatus.OPEN.toString().equals(statussen[van])) {
+            return Overschrijving.VAN_REKENING_GESLOTEN;
+        }
+        if (statussen[naar] == null) {
+            return Overschrijving.NAAR_REKENING_BESTAAT_NIET;
+        }
+        if (!RekeningStatus.OPEN.toString().equals(statussen[naar])) {
+            return Overschrijving.NAAR_REKENING_GESLOTEN;
+        }
+        if (saldi[van].compareTo(bedrag) < 0) {
+            return Overschrijving.SALDO_ONTOEREIKEND;
+        }
+
+        // debiteren en crediteren in één batch (één round trip)
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "update rekening "
+                        + " set saldo = saldo + ? "
+                        + " where rekeningnummer = ?")) {
+            stmt.setBigDecimal(1, bedrag.negatief().toBigDecimal());
+            stmt.setString(2, vanRekeningnummer);
+            stmt.addBatch();
+            stmt.setBigDecimal(1, bedrag.toBigDecimal());
+            stmt.setString(2, naarRekeningnummer);
+            stmt.addBatch();
+            stmt.executeBatch();
+        }
+
+        // één journaalregel per rekening, in dezelfde transactie
+        Bedrag saldoVan = saldi[van].min(bedrag);
+        Bedrag saldoNaar = cacheSleutel(vanRekeningnummer).equals(cacheSleutel(naarRekeningnummer))
+                ? saldoVan.plus(bedrag) : saldi[naar].plus(bedrag);
+        toevoegenJournaal(conn, Arrays.asList(
+                maakJournaalregel(opgeslagen[van], JournaalSoort.OVERSCHRIJVING, bedrag.negatief(), saldoVan),
+                maakJournaalregel(opgeslagen[naar], JournaalSoort.OVERSCHRIJVING, bedrag, saldoNaar)));
+        return Overschrijving.GELUKT;
+    }
+
+    private static Journaalregel maakJournaalregel(String rekeningnummer, JournaalSoort soort, Bedrag verschil,
+                                                   Bedrag saldo) {
+        Journaalregel regel = new Journaalregel();
+        regel.setRekeningnummer(rekeningnummer);
+        regel.setSoort(soort);
+        regel.setVerschil(verschil);
+        regel.setSaldo(saldo);
+        regel.setTijdstip(LocalDateTime.now());
+        return regel;
+    }
+
+    private static JournaalSoort soort(Bedrag verschil) {
+        return verschil.isNegatief() ? JournaalSoort.OPNAME : JournaalSoort.STORTING;
+    }
+
+    // jaar * 100 + maand: de sleutel voor de partities van het journaal
+    private static int periode(LocalDateTime tijdstip) {
+        return tijdstip.getYear() * 100 + tijdstip.getMonthValue();
+    }
+
+    /**
+     * Voegt journaalregels toe in één JDBC-batch, op de connectie (en dus in
+     * de transactie) van de saldowijziging. Het volgnummer wordt door de
+     * databank gegeven.
+     */
+    private static void toevoegenJournaal(Connection conn, List<Journaalregel> regels) throws SQLException {
+        if (regels.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into journaal(periode"
+                        + " , rekeningnummer"
+                        + " , soort"
+                        + " , verschil"
+                        + " , saldo"
+                        + " , tijdstip"
+                        + " ) values(?,?,?,?,?,?)")) {
+            for (Journaalregel regel : regels) {
+                stmt.setInt(1, periode(regel.getTijdstip()));
+                stmt.setString(2, regel.getRekeningnummer());
+                stmt.setString(3, regel.getSoort().toString());
+                stmt.setBigDecimal(4, regel.getVerschil().toBigDecimal());
+                stmt.setBigDecimal(5, regel.getSaldo().toBigDecimal());
+                stmt.setTimestamp(6, Timestamp.valueOf(regel.getTijdstip()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Een deadlock (SQLState 40001) of lock-time-out (MySQL-foutcode 1205)
+     * is van voorbijgaande aard: de transactie mag opnieuw geprobeerd worden.
+     */
+    private static boolean isOpnieuwProberen(SQLException sqlEx) {
+        return sqlEx instanceof SQLTransientException
+                || "40001".equals(sqlEx.getSQLState())
+                || sqlEx.getErrorCode() == 1205
+                || sqlEx.getErrorCode() == 1213;
+    }
+
+    private static void wachtVoorNieuwePoging(int poging) throws DBException {
+        try {
+            // willekeurige, oplopende wachttijd zodat concurrerende transacties uit elkaar lopen
+            Thread.sleep(ThreadLocalRandom.current().nextInt(5, 20) * (long) poging);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DBException("Nieuwe poging van de transactie onderbroken.");
+        }
+    }
+
+    /**
+     * @return statistieken van de cache van zoekRekening (voor monitoring)
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static CacheStatistieken getCacheStatistieken() throws DBException {
+        return getCache().getStatistieken();
+    }
+
+    /**
+     * Schakelt de cache van zoekRekening aan of uit (standaard volgens
+     * cacheActief in DB.properties).
+     *
+     * @param actief true om de cache te gebruiken
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static void setCacheActief(boolean actief) throws DBException {
+        getCache().setActief(actief);
+    }
+
+    private static LeesCache<String, Rekening> getCache() throws DBException {
+        LeesCache<String, Rekening> bestaand = cache;
+        if (bestaand != null) {
+            return bestaand;
+        }
+        return maakCache();
+    }
+
+    private static synchronized LeesCache<String, Rekening> maakCache() throws DBException {
+        if (cache == null) {
+            cache = new LeesCache<>("rekening", DBProp.isCacheActief(), DBProp.getCacheMaximum(),
+                    DBProp.getCacheTtl(), RekeningDAO::kopieer);
+        }
+        return cache;
+    }
+
+    /**
+     * Verwijdert een rekening uit de cache nadat ze gewijzigd werd (ook
+     * wanneer de wijziging mislukte: ze kan toch doorgevoerd zijn).
+     */
+    private static void verwijderUitCache(String rekeningnummer) {
+        LeesCache<String, Rekening> bestaand = cache;
+        if (bestaand != null && rekeningnummer != null) {
+            bestaand.verwijder(cacheSleutel(rekeningnummer));
+        }
+    }
+
+    /**
+     * De databank vergelijkt rekeningnummers hoofdletterongevoelig; de cache
+     * moet "be.." en "BE.." dus als dezelfde rekening zien.
+     */
+    private static String cacheSleutel(String rekeningnummer) {
+        return rekeningnummer.toUpperCase(Locale.ROOT);
+    }
+
+    private static Rekening kopieer(Rekening rekening) {
+        Rekening kopie = new Rekening();
+        // Rekeningnummer en Bedrag zijn onwijzigbaar en mogen gedeeld worden
+        kopie.setRekeningnummer(rekening.getRekeningnummer());
+        kopie.setSaldo(rekening.getSaldo());
+        kopie.setStatus(rekening.getStatus());
+        kopie.setEigenaar(rekening.getEigenaar());
+        return kopie;
     }
 
     private ArrayList<Rekening> getRekeningenUitDatabase(ResultSet r) throws SQLException, ApplicationException {
@@ -366,7 +1480,8 @@ public class RekeningDAO {
         return rekeningen;
     }
 
-    private Rekening getRekeningUitDatabase(ResultSet r) throws SQLException, ApplicationException {
+    // package-private zodat de benchmarks de mapping apart kunnen meten
+    Rekening getRekeningUitDatabase(ResultSet r) throws SQLException, ApplicationException {
         Rekening rekening = new Rekening();
         rekening.setRekeningnummer(new Rekeningnummer(r.getString("rekeningnummer")));
         rekening.setSaldo(r.getBigDecimal("saldo"));
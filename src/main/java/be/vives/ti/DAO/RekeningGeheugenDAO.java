@@ -0,0 +1,371 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.databag.Journaalregel;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Afsluiting;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.JournaalSoort;
+import be.vives.ti.datatype.Overschrijving;
+import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.datatype.SaldoWijziging;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * RekeningRepository in het geheugen (zie GeheugenDatabank), met dezelfde
+ * regels als RekeningDAO, bv. voor testen en capaciteitssimulaties zonder
+ * MySQL. Rekeningen worden altijd gesorteerd op rekeningnummer teruggegeven.
+ */
+public class RekeningGeheugenDAO implements RekeningRepository {
+
+    private final GeheugenDatabank databank;
+
+    /**
+     * @param databank de klanten en rekeningen, gedeeld met KlantGeheugenDAO
+     */
+    public RekeningGeheugenDAO(GeheugenDatabank databank) {
+        this.databank = databank;
+    }
+
+    @Override
+    public Rekening zoekRekening(String rekeningnummer) {
+        if (rekeningnummer != null) {
+            Rekening rekening = databank.rekeningen.get(GeheugenDatabank.sleutel(rekeningnummer));
+            return rekening == null ? null : GeheugenDatabank.kopieer(rekening);
+        } else {
+            return null;
+        }
+    }
+
+    private ArrayList<Rekening> zoekRekeningMetStatus(RekeningStatus rekeningStatus, int eigenaar) {
+        ArrayList<Rekening> rekeningen = new ArrayList<>();
+        for (String sleutel : databank.rekeningenVan(eigenaar)) {
+            Rekening rekening = databank.rekeningen.get(sleutel);
+            if (rekening != null && (rekeningStatus == null || rekening.getStatus() == rekeningStatus)) {
+                rekeningen.add(GeheugenDatabank.kopieer(rekening));
+            }
+        }
+        return rekeningen;
+    }
+
+    @Override
+    public ArrayList<Rekening> zoekGeslotenRekeningen(int eigenaar) {
+        return zoekRekeningMetStatus(RekeningStatus.GESLOTEN, eigenaar);
+    }
+
+    @Override
+    public ArrayList<Rekening> zoekOpenRekeningen(int eigenaar) {
+        return zoekRekeningMetStatus(RekeningStatus.OPEN, eigenaar);
+    }
+
+    @Override
+    public int zoekAantalOpenRekeningen(int eigenaar) {
+        int aantal = 0;
+        for (String sleutel : databank.rekeningenVan(eigenaar)) {
+            Rekening rekening = databank.rekeningen.get(sleutel);
+            if (rekening != null && rekening.getStatus() == RekeningStatus.OPEN) {
+                aantal++;
+            }
+        }
+        return aantal;
+    }
+
+    @Override
+    public ArrayList<Rekening> zoekAlleRekeningen(int eigenaar) {
+        return zoekRekeningMetStatus(null, eigenaar);
+    }
+
+    @Override
+    public Map<Integer, ArrayList<Rekening>> zoekRekeningenVanKlanten(Collection<Integer> eigenaars) {
+        Map<Integer, ArrayList<Rekening>> rekeningen = new LinkedHashMap<>();
+        if (eigenaars != null) {
+            for (Integer eigenaar : eigenaars) {
+                if (eigenaar != null && !rekeningen.containsKey(eigenaar)) {
+                    rekeningen.put(eigenaar, zoekAlleRekeningen(eigenaar));
+                }
+            }
+        }
+        return rekeningen;
+    }
+
+    @Override
+    public Map<String, Rekening> zoekRekeningen(Collection<String> rekeningnummers) {
+        Map<String, Rekening> rekeningen = new LinkedHashMap<>();
+        if (rekeningnummers != null) {
+            for (String rekeningnummer : rekeningnummers) {
+                Rekening rekening = zoekRekening(rekeningnummer);
+                if (rekening != null) {
+                    rekeningen.put(rekeningnummer, rekening);
+                }
+            }
+        }
+        return rekeningen;
+    }
+
+    @Override
+    public void verwerkAlleRekeningen(Verwerker<Rekening> verwerker) throws DBException {
+        if (verwerker != null) {
+            for (Rekening rekening : databank.rekeningen.values()) {
+                if (!verwerker.verwerk(GeheugenDatabank.kopieer(rekening))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void verwerkAlleRekeningen(int eigenaar, Verwerker<Rekening> verwerker) throws DBException {
+        if (verwerker != null) {
+            for (String sleutel : databank.rekeningenVan(eigenaar)) {
+                Rekening rekening = databank.rekeningen.get(sleutel);
+                if (rekening != null && !verwerker.verwerk(GeheugenDatabank.kopieer(rekening))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Pagina<Rekening> zoekRekeningenPagina(String vanaf, int paginagrootte) throws ApplicationException {
+        String vanafSleutel = vanaf == null ? null : GeheugenDatabank.sleutel(PaginaSleutel.lees(vanaf, 1)[0]);
+        Collection<String> sleutels = vanafSleutel == null
+                ? databank.rekeningen.keySet()
+                : databank.rekeningen.tailMap(vanafSleutel, false).keySet();
+        return maakPagina(sleutels, paginagrootte);
+    }
+
+    @Override
+    public Pagina<Rekening> zoekRekeningenPagina(int eigenaar, String vanaf, int paginagrootte)
+            throws ApplicationException {
+        String vanafSleutel = vanaf == null ? null : GeheugenDatabank.sleutel(PaginaSleutel.lees(vanaf, 1)[0]);
+        Collection<String> sleutels = vanafSleutel == null
+                ? databank.rekeningenVan(eigenaar)
+                : databank.rekeningenVan(eigenaar).tailSet(vanafSleutel, false);
+        return maakPagina(sleutels, paginagrootte);
+    }
+
+    private Pagina<Rekening> maakPagina(Collection<String> sleutels, int paginagrootte) {
+        // er wordt één rekening meer opgehaald om te weten of er een volgende pagina is
+        ArrayList<Rekening> items = new ArrayList<>();
+        for (String sleutel : sleutels) {
+            if (items.size() > paginagrootte) {
+                break;
+            }
+            Rekening rekening = databank.rekeningen.get(sleutel);
+            if (rekening != null) {
+                items.add(GeheugenDatabank.kopieer(rekening));
+            }
+        }
+        Pagina<Rekening> pagina = new Pagina<>();
+        pagina.setItems(items);
+        if (items.size() > paginagrootte) {
+            items.remove(paginagrootte);
+            pagina.setVolgendePagina(PaginaSleutel.maak(
+                    items.get(paginagrootte - 1).getRekeningnummer().getRekeningnummer()));
+        }
+        return pagina;
+    }
+
+    @Override
+    public Pagina<Journaalregel> zoekJournaalPagina(String rekeningnummer, String vanaf, int paginagrootte)
+            throws ApplicationException {
+        Pagina<Journaalregel> pagina = new Pagina<>();
+        if (rekeningnummer == null) {
+            return pagina;
+        }
+        long vanafVolgnummer = 0;
+        if (vanaf != null) {
+            try {
+                vanafVolgnummer = Long.parseLong(PaginaSleutel.lees(vanaf, 1)[0]);
+            } catch (NumberFormatException ex) {
+                throw new ApplicationException(ApplicationExceptionType.PAGINA_SLEUTEL_ONGELDIG.getMessage());
+            }
+        }
+        NavigableMap<Long, Journaalregel> regels = databank.journaal.get(GeheugenDatabank.sleutel(rekeningnummer));
+        // er wordt één regel meer opgehaald om te weten of er een volgende pagina is
+        ArrayList<Journaalregel> items = new ArrayList<>();
+        if (regels != null) {
+            for (Journaalregel regel : regels.tailMap(vanafVolgnummer, false).values()) {
+                if (items.size() > paginagrootte) {
+                    break;
+                }
+                items.add(GeheugenDatabank.kopieer(regel));
+            }
+        }
+        pagina.setItems(items);
+        if (items.size() > paginagrootte) {
+            items.remove(paginagrootte);
+            pagina.setVolgendePagina(PaginaSleutel.maak(Long.toString(items.get(paginagrootte - 1).getVolgnummer())));
+        }
+        return pagina;
+    }
+
+    // zoals in RekeningDAO: enkel een open rekening met saldo nul, onder het slot gecontroleerd
+    @Override
+    public Afsluiting verwijderRekening(String rekeningnummer) {
+        if (rekeningnummer == null) {
+            return Afsluiting.REKENING_BESTAAT_NIET;
+        }
+        synchronized (databank.slot) {
+            Rekening rekening = databank.rekeningen.get(GeheugenDatabank.sleutel(rekeningnummer));
+            if (rekening == null) {
+                return Afsluiting.REKENING_BESTAAT_NIET;
+            }
+            if (rekening.getStatus() == RekeningStatus.GESLOTEN) {
+                return Afsluiting.REKENING_GESLOTEN;
+            }
+            if (!rekening.getSaldo().isNul()) {
+                return Afsluiting.SALDO_NIET_NUL;
+            }
+            Rekening gesloten = GeheugenDatabank.kopieer(rekening);
+            gesloten.setStatus(RekeningStatus.GESLOTEN);
+            databank.bewaarRekening(gesloten);
+            return Afsluiting.GELUKT;
+        }
+    }
+
+    /**
+     * Zoals in RekeningDAO: een ontbrekend rekeningnummer geeft een
+     * ApplicationException; een bestaand rekeningnummer of een eigenaar die
+     * niet bestaat (de primaire en vreemde sleutel in de databank) geeft een
+     * DBException.
+     */
+    @Override
+    public void toevoegenRekening(Rekening rekening) throws DBException, ApplicationException {
+        if (rekening != null) {
+            if (rekening.getRekeningnummer() == null) {
+                throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
+            }
+            synchronized (databank.slot) {
+                String sleutel = GeheugenDatabank.sleutel(rekening.getRekeningnummer().getRekeningnummer());
+                if (databank.rekeningen.containsKey(sleutel)) {
+                    throw new DBException("Fout in toevoegenRekening: rekeningnummer bestaat al");
+                }
+                if (!databank.klanten.containsKey(rekening.getEigenaar())) {
+                    throw new DBException("Fout in toevoegenRekening: eigenaar bestaat niet");
+                }
+                Rekening nieuw = GeheugenDatabank.kopieer(rekening);
+                nieuw.setStatus(RekeningStatus.OPEN);
+                databank.bewaarRekening(nieuw);
+            }
+        }
+    }
+
+    @Override
+    public void wijzigenSaldoRekening(String rekeningnummer, Bedrag nieuwSaldo) {
+        if ((rekeningnummer != null) && (nieuwSaldo != null)) {
+            synchronized (databank.slot) {
+                Rekening rekening = databank.rekeningen.get(GeheugenDatabank.sleutel(rekeningnummer));
+                if (rekening != null) {
+                    Rekening gewijzigd = GeheugenDatabank.kopieer(rekening);
+                    gewijzigd.setSaldo(nieuwSaldo);
+                    databank.bewaarRekening(gewijzigd);
+                    databank.journaliseren(gewijzigd, JournaalSoort.CORRECTIE, nieuwSaldo.min(rekening.getSaldo()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public SaldoWijziging verrekenenSaldoRekening(String rekeningnummer, Bedrag verschil) {
+        if ((rekeningnummer == null) || (verschil == null)) {
+            return SaldoWijziging.REKENING_BESTAAT_NIET;
+        }
+        synchronized (databank.slot) {
+            return verrekenen(rekeningnummer, verschil);
+        }
+    }
+
+    /**
+     * De hele lijst wordt onder één keer het slot verrekend: geen enkele
+     * andere wijziging komt ertussen.
+     */
+    @Override
+    public ArrayList<SaldoWijziging> verrekenenSaldoRekeningen(List<Mutatie> mutaties) {
+        ArrayList<SaldoWijziging> resultaten = new ArrayList<>();
+        if (mutaties == null || mutaties.isEmpty()) {
+            return resultaten;
+        }
+        synchronized (databank.slot) {
+            for (Mutatie mutatie : mutaties) {
+                if (mutatie == null || mutatie.getRekeningnummer() == null || mutatie.getBedrag() == null) {
+                    resultaten.add(SaldoWijziging.REKENING_BESTAAT_NIET);
+                } else {
+                    resultaten.add(verrekenen(mutatie.getRekeningnummer(), mutatie.getBedrag()));
+                }
+            }
+        }
+        return resultaten;
+    }
+
+    // enkel oproepen onder slot
+    private SaldoWijziging verrekenen(String rekeningnummer, Bedrag verschil) {
+        Rekening rekening = databank.rekeningen.get(GeheugenDatabank.sleutel(rekeningnummer));
+        if (rekening == null) {
+            return SaldoWijziging.REKENING_BESTAAT_NIET;
+        }
+        if (rekening.getStatus() != RekeningStatus.OPEN) {
+            return SaldoWijziging.REKENING_GESLOTEN;
+        }
+        Bedrag nieuwSaldo = rekening.getSaldo().plus(verschil);
+        if (nieuwSaldo.isNegatief()) {
+            return SaldoWijziging.SALDO_ONTOEREIKEND;
+        }
+        Rekening gewijzigd = GeheugenDatabank.kopieer(rekening);
+        gewijzigd.setSaldo(nieuwSaldo);
+        databank.bewaarRekening(gewijzigd);
+        databank.journaliseren(gewijzigd, verschil.isNegatief() ? JournaalSoort.OPNAME : JournaalSoort.STORTING,
+                verschil);
+        return SaldoWijziging.GELUKT;
+    }
+
+    @Override
+    public Overschrijving overschrijven(String vanRekeningnummer, String naarRekeningnummer, Bedrag bedrag) {
+        if (vanRekeningnummer == null) {
+            return Overschrijving.VAN_REKENING_BESTAAT_NIET;
+        }
+        if (naarRekeningnummer == null) {
+            return Overschrijving.NAAR_REKENING_BESTAAT_NIET;
+        }
+        synchronized (databank.slot) {
+            Rekening van = databank.rekeningen.get(GeheugenDatabank.sleutel(vanRekeningnummer));
+            Rekening naar = databank.rekeningen.get(GeheugenDatabank.sleutel(naarRekeningnummer));
+            if (van == null) {
+                return Overschrijving.VAN_REKENING_BESTAAT_NIET;
+            }
+            if (van.getStatus() != RekeningStatus.OPEN) {
+                return Overschrijving.VAN_REKENING_GESLOTEN;
+            }
+            if (naar == null) {
+                return Overschrijving.NAAR_REKENING_BESTAAT_NIET;
+            }
+            if (naar.getStatus() != RekeningStatus.OPEN) {
+                return Overschrijving.NAAR_REKENING_GESLOTEN;
+            }
+            if (van.getSaldo().compareTo(bedrag) < 0) {
+                return Overschrijving.SALDO_ONTOEREIKEND;
+            }
+            // eerst debiteren, dan crediteren: naar een zelfde rekening blijft het saldo gelijk
+            Rekening gedebiteerd = GeheugenDatabank.kopieer(van);
+            gedebiteerd.setSaldo(van.getSaldo().min(bedrag));
+            databank.bewaarRekening(gedebiteerd);
+            databank.journaliseren(gedebiteerd, JournaalSoort.OVERSCHRIJVING, bedrag.negatief());
+            Rekening gecrediteerd = GeheugenDatabank.kopieer(databank.rekeningen.get(
+                    GeheugenDatabank.sleutel(naarRekeningnummer)));
+            gecrediteerd.setSaldo(gecrediteerd.getSaldo().plus(bedrag));
+            databank.bewaarRekening(gecrediteerd);
+            databank.journaliseren(gecrediteerd, JournaalSoort.OVERSCHRIJVING, bedrag);
+            return Overschrijving.GELUKT;
+        }
+    }
+}
@@ -0,0 +1,899 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.DAO.grootboek.Journaalindex;
+import be.vives.ti.DAO.grootboek.Logboek;
+import be.vives.ti.DAO.grootboek.Saldotabel;
+import be.vives.ti.databag.Journaalregel;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Afsluiting;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.JournaalSoort;
+import be.vives.ti.datatype.Overschrijving;
+import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.datatype.SaldoWijziging;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * RekeningRepository zonder databank: de rekeningen staan in een Saldotabel
+ * buiten de heap en elke wijziging komt in een Logboek (een memory-mapped
+ * bestand), bv. voor simulaties met veel saldowijzigingen.
+ * <p>
+ * - een wijziging wordt eerst als één record in het logboek geschreven en
+ * pas daarna in de tabel doorgevoerd, onder één slot; de methode keert pas
+ * terug wanneer het record bewaard is (group commit, zie Logboek)
+ * - een record met saldowijzigingen bevat het saldo erna, zodat herspelen
+ * het saldo gewoon overschrijft; het is meteen het journaal van de rekening
+ * - bij het openen wordt de toestand opgebouwd uit de laatste snapshot (zie
+ * GrootboekSnapshot en snapshot) en het logboek vanaf de positie van de
+ * snapshot; zonder snapshot wordt het hele logboek herspeeld
+ * - de posities van de mutaties per rekening (het journaal) staan in een
+ * Journaalindex buiten de heap; die van vóór de snapshot worden daarna in
+ * een eigen thread ingelezen (zie isJournaalVolledig)
+ * - enkel rekeningnummers in de vorm BEaa bbbb cccc dddd (BE mag in kleine
+ * letters): de sleutel is Rekeningnummer.verpak; teruggegeven rekeningen
+ * hebben altijd BE in hoofdletters
+ * - het grootboek heeft zijn eigen klanten (getKlantDAO), die mee in het
+ * logboek en de snapshot komen
+ * - er is geen gesorteerde index over alle rekeningen: een pagina of het
+ * overlopen van alle rekeningen doorloopt de hele tabel; per eigenaar zijn
+ * de rekeningen wel gesorteerd bijgehouden
+ */
+public class RekeningGrootboekDAO implements RekeningRepository, Closeable {
+
+    static final String LOGBESTAND = "grootboek.log";
+    static final int REGIOGROOTTE = 64 * 1024 * 1024;
+
+    private static final Logger LOGGER = Logger.getLogger(RekeningGrootboekDAO.class.getName());
+
+    // aantal mutaties per record, zoals de stukken van RekeningDAO
+    private static final int BATCHGROOTTE = 1000;
+
+    // soorten records in het logboek
+    private static final byte NIEUWE_REKENING = 1;
+    private static final byte GESLOTEN = 2;
+    private static final byte MUTATIES = 3;
+    static final byte KLANT = 4;
+
+    // een mutatie: volgnummer, rekening, soort, verschil, saldo erna, tijdstip
+    private static final int MUTATIEBREEDTE = 8 + 8 + 1 + 8 + 8 + 8;
+    // soort en aantal vóór de mutaties
+    private static final int MUTATIEKOP = 1 + 4;
+
+    private static final long[] GEEN_REKENINGEN = new long[0];
+
+    private final Path map;
+    final GeheugenDatabank klantendatabank = new GeheugenDatabank();
+    private final KlantGrootboekDAO klanten = new KlantGrootboekDAO(klantendatabank, this);
+    final Object slot = new Object();
+    final Saldotabel tabel;
+    // per eigenaar de verpakte rekeningnummers, gesorteerd; een array wordt vervangen, nooit gewijzigd
+    private final HashMap<Integer, long[]> perEigenaar = new HashMap<>();
+    // per rekening de posities van haar mutaties in het logboek, sinds de snapshot en ervoor
+    private final Journaalindex journaal = new Journaalindex();
+    private Journaalindex journaalVoorSnapshot;
+    private volatile boolean journaalVolledig = true;
+    long laatsteVolgnummer;
+    final Logboek logboek;
+
+    private final Object snapshotslot = new Object();
+    private ScheduledExecutorService snapshots;
+    private volatile boolean gesloten;
+
+    // enkel onder slot: het record dat opgebouwd wordt
+    private final ByteBuffer uit = ByteBuffer.allocate(MUTATIEKOP + BATCHGROOTTE * MUTATIEBREEDTE);
+    private final int[] plaatsen = new int[BATCHGROOTTE];
+    private final long[] vorigeSaldi = new long[BATCHGROOTTE];
+    private int aantalMutaties;
+
+    /**
+     * Opent het grootboek in een map: de laatste snapshot wordt geladen en
+     * het logboek vanaf daar herspeeld.
+     *
+     * @param map      map voor het logboek en de snapshot (wordt aangemaakt
+     *                 indien nodig)
+     * @param forceren true om elke wijziging naar schijf te forceren vóór de
+     *                 methode terugkeert, false om dat aan het
+     *                 besturingssysteem over te laten (overleeft het stoppen
+     *                 van het proces, niet het uitvallen van de machine)
+     * @throws DBException wanneer het logboek of de snapshot niet geopend kan
+     *                     worden
+     */
+    public RekeningGrootboekDAO(Path map, boolean forceren) throws DBException {
+        this(map, forceren, 1024);
+    }
+
+    /**
+     * @param verwachtAantal aantal rekeningen waarvoor de tabel meteen plaats
+     *                       maakt
+     */
+    public RekeningGrootboekDAO(Path map, boolean forceren, int verwachtAantal) throws DBException {
+        this.map = map;
+        this.tabel = new Saldotabel(verwachtAantal);
+        long vanaf;
+        try {
+            Files.createDirectories(map);
+            vanaf = GrootboekSnapshot.laden(this, map);
+            this.logboek = Logboek.openen(map.resolve(LOGBESTAND), REGIOGROOTTE, forceren, vanaf, this::herspelen);
+        } catch (IOException ex) {
+            throw new DBException("IO-exception in RekeningGrootboekDAO - logboek " + ex);
+        }
+        if (vanaf > Logboek.BEGIN) {
+            journaalVolledig = false;
+            Thread indexeren = new Thread(() -> indexerenJournaal(vanaf), "grootboek-journaal");
+            indexeren.setDaemon(true);
+            indexeren.start();
+        }
+    }
+
+    /**
+     * @return de klanten van dit grootboek
+     */
+    public KlantRepository getKlantDAO() {
+        return klanten;
+    }
+
+    // bij het openen, nog zonder andere threads
+    private void herspelen(long positie, ByteBuffer inhoud) {
+        byte soort = inhoud.get(0);
+        if (soort == NIEUWE_REKENING) {
+            long verpakt = inhoud.getLong(1);
+            if (tabel.zoek(verpakt) < 0) {
+                int plaats = tabel.voegToe(verpakt, inhoud.getInt(9), inhoud.getLong(13));
+                registreerEigenaar(tabel.getEigenaar(plaats), verpakt);
+            }
+        } else if (soort == GESLOTEN) {
+            int plaats = tabel.zoek(inhoud.getLong(1));
+            if (plaats >= 0) {
+                tabel.setOpen(plaats, false);
+            }
+        } else if (soort == MUTATIES) {
+            int aantal = inhoud.getInt(1);
+            for (int i = 0; i < aantal; i++) {
+                int begin = MUTATIEKOP + i * MUTATIEBREEDTE;
+                long verpakt = inhoud.getLong(begin + 8);
+                int plaats = tabel.zoek(verpakt);
+                if (plaats >= 0) {
+                    tabel.setSaldo(plaats, inhoud.getLong(begin + 25));
+                }
+                journaal.voegToe(verpakt, positie + begin);
+                laatsteVolgnummer = Math.max(laatsteVolgnummer, inhoud.getLong(begin));
+            }
+        } else if (soort == KLANT) {
+            inhoud.position(1);
+            klantendatabank.herstelKlant(KlantGrootboekDAO.lees(inhoud));
+        }
+    }
+
+    /**
+     * Leest de posities van de mutaties vóór de snapshot in een eigen
+     * Journaalindex, die zoekJournaalPagina vóór de andere doorloopt.
+     */
+    private void indexerenJournaal(long tot) {
+        Journaalindex eerder = new Journaalindex();
+        try {
+            logboek.lezen(Logboek.BEGIN, tot, (positie, inhoud) -> {
+                if (gesloten) {
+                    throw new IllegalStateException("grootboek is gesloten");
+                }
+                if (inhoud.get(0) == MUTATIES) {
+                    int aantal = inhoud.getInt(1);
+                    for (int i = 0; i < aantal; i++) {
+                        int begin = MUTATIEKOP + i * MUTATIEBREEDTE;
+                        eerder.voegToe(inhoud.getLong(begin + 8), positie + begin);
+                    }
+                }
+            });
+        } catch (IOException | RuntimeException ex) {
+            if (!gesloten) {
+                LOGGER.log(Level.WARNING, "Journaal van vóór de snapshot niet ingelezen: " + ex);
+            }
+            return;
+        }
+        synchronized (slot) {
+            journaalVoorSnapshot = eerder;
+            journaalVolledig = true;
+        }
+    }
+
+    /**
+     * @return false zolang het journaal van vóór de snapshot nog ingelezen
+     * wordt; zoekJournaalPagina geeft tot dan enkel de mutaties erna
+     */
+    public boolean isJournaalVolledig() {
+        return journaalVolledig;
+    }
+
+    // --- snapshots ---
+
+    /**
+     * Schrijft een snapshot van alle klanten en rekeningen, terwijl er gewoon
+     * verder gewijzigd kan worden (zie GrootboekSnapshot). Bij het volgende
+     * openen wordt enkel het logboek van daarna herspeeld.
+     *
+     * @throws DBException wanneer de snapshot niet geschreven kan worden; de
+     *                     vorige snapshot blijft dan gelden
+     */
+    public void snapshot() throws DBException {
+        synchronized (snapshotslot) {
+            if (gesloten) {
+                throw new DBException("Fout in snapshot: grootboek is gesloten");
+            }
+            try {
+                GrootboekSnapshot.schrijven(this, map);
+            } catch (IOException ex) {
+                throw new DBException("IO-exception in snapshot - snapshot " + ex);
+            }
+        }
+    }
+
+    /**
+     * Neemt voortaan om de zoveel tijd een snapshot, in een eigen thread, tot
+     * close. Een mislukte snapshot wordt gelogd; de volgende wordt gewoon
+     * geprobeerd.
+     */
+    public synchronized void periodiekeSnapshots(long periode, TimeUnit eenheid) {
+        if (snapshots == null && !gesloten) {
+            snapshots = Executors.newSingleThreadScheduledExecutor(taak -> {
+                Thread thread = new Thread(taak, "grootboek-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshots.scheduleWithFixedDelay(() -> {
+                try {
+                    snapshot();
+                } catch (DBException ex) {
+                    if (!gesloten) {
+                        LOGGER.log(Level.WARNING, "Periodieke snapshot mislukt: " + ex);
+                    }
+                }
+            }, periode, periode, eenheid);
+        }
+    }
+
+    /**
+     * Stopt de periodieke snapshots (een lopende snapshot wordt afgewerkt) en
+     * sluit het logboek; daarna is het grootboek niet meer bruikbaar.
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService periodiek;
+        synchronized (this) {
+            gesloten = true;
+            periodiek = snapshots;
+        }
+        if (periodiek != null) {
+            periodiek.shutdown();
+        }
+        synchronized (snapshotslot) {
+            synchronized (slot) {
+                logboek.close();
+            }
+        }
+    }
+
+    // --- lezen ---
+
+    // enkel onder slot
+    private int zoekPlaats(String rekeningnummer) {
+        // zoek geeft -1 voor NIET_VERPAKT
+        return rekeningnummer == null ? -1 : tabel.zoek(Rekeningnummer.verpak(rekeningnummer));
+    }
+
+    // enkel onder slot
+    private Rekening maakRekening(int plaats) {
+        Rekening rekening = new Rekening();
+        rekening.setRekeningnummer(Rekeningnummer.vanVerpakt(tabel.getSleutel(plaats)));
+        rekening.setSaldo(Bedrag.vanCenten(tabel.getSaldo(plaats)));
+        rekening.setEigenaar(tabel.getEigenaar(plaats));
+        rekening.setStatus(tabel.isOpen(plaats) ? RekeningStatus.OPEN : RekeningStatus.GESLOTEN);
+        return rekening;
+    }
+
+    @Override
+    public Rekening zoekRekening(String rekeningnummer) {
+        synchronized (slot) {
+            int plaats = zoekPlaats(rekeningnummer);
+            return plaats < 0 ? null : maakRekening(plaats);
+        }
+    }
+
+    private ArrayList<Rekening> zoekRekeningMetStatus(RekeningStatus rekeningStatus, int eigenaar) {
+        ArrayList<Rekening> rekeningen = new ArrayList<>();
+        synchronized (slot) {
+            for (long verpakt : rekeningenVan(eigenaar)) {
+                Rekening rekening = maakRekening(tabel.zoek(verpakt));
+                if (rekeningStatus == null || rekening.getStatus() == rekeningStatus) {
+                    rekeningen.add(rekening);
+                }
+            }
+        }
+        return rekeningen;
+    }
+
+    @Override
+    public ArrayList<Rekening> zoekGeslotenRekeningen(int eigenaar) {
+        return zoekRekeningMetStatus(RekeningStatus.GESLOTEN, eigenaar);
+    }
+
+    @Override
+    public ArrayList<Rekening> zoekOpenRekeningen(int eigenaar) {
+        return zoekRekeningMetStatus(RekeningStatus.OPEN, eigenaar);
+    }
+
+    @Override
+    public int zoekAantalOpenRekeningen(int eigenaar) {
+        int aantal = 0;
+        synchronized (slot) {
+            for (long verpakt : rekeningenVan(eigenaar)) {
+                if (tabel.isOpen(tabel.zoek(verpakt))) {
+                    aantal++;
+                }
+            }
+        }
+        return aantal;
+    }
+
+    @Override
+    public ArrayList<Rekening> zoekAlleRekeningen(int eigenaar) {
+        return zoekRekeningMetStatus(null, eigenaar);
+    }
+
+    @Override
+    public Map<Integer, ArrayList<Rekening>> zoekRekeningenVanKlanten(Collection<Integer> eigenaars) {
+        Map<Integer, ArrayList<Rekening>> rekeningen = new LinkedHashMap<>();
+        if (eigenaars != null) {
+            for (Integer eigenaar : eigenaars) {
+                if (eigenaar != null && !rekeningen.containsKey(eigenaar)) {
+                    rekeningen.put(eigenaar, zoekAlleRekeningen(eigenaar));
+                }
+            }
+        }
+        return rekeningen;
+    }
+
+    @Override
+    public Map<String, Rekening> zoekRekeningen(Collection<String> rekeningnummers) {
+        Map<String, Rekening> rekeningen = new LinkedHashMap<>();
+        if (rekeningnummers != null) {
+            for (String rekeningnummer : rekeningnummers) {
+                Rekening rekening = zoekRekening(rekeningnummer);
+                if (rekening != null) {
+                    rekeningen.put(rekeningnummer, rekening);
+                }
+            }
+        }
+        return rekeningen;
+    }
+
+    /**
+     * De rekeningnummers worden eerst allemaal verzameld en gesorteerd; de
+     * verwerker krijgt elke rekening zoals ze op dat moment is.
+     */
+    @Override
+    public void verwerkAlleRekeningen(Verwerker<Rekening> verwerker) throws DBException {
+        if (verwerker != null) {
+            long[] sleutels;
+            synchronized (slot) {
+                sleutels = new long[tabel.getAantal()];
+                int aantal = 0;
+                for (int plaats = 0; plaats < tabel.getCapaciteit(); plaats++) {
+                    if (tabel.getSleutel(plaats) != 0) {
+                        sleutels[aantal++] = tabel.getSleutel(plaats);
+                    }
+                }
+            }
+            Arrays.sort(sleutels);
+            verwerken(sleutels, verwerker);
+        }
+    }
+
+    @Override
+    public void verwerkAlleRekeningen(int eigenaar, Verwerker<Rekening> verwerker) throws DBException {
+        if (verwerker != null) {
+            long[] sleutels;
+            synchronized (slot) {
+                sleutels = rekeningenVan(eigenaar);
+            }
+            verwerken(sleutels, verwerker);
+        }
+    }
+
+    // de verwerker wordt buiten het slot opgeroepen
+    private void verwerken(long[] sleutels, Verwerker<Rekening> verwerker) throws DBException {
+        for (long verpakt : sleutels) {
+            Rekening rekening;
+            synchronized (slot) {
+                rekening = maakRekening(tabel.zoek(verpakt));
+            }
+            if (!verwerker.verwerk(rekening)) {
+                return;
+            }
+        }
+    }
+
+    private static long leesVanaf(String vanaf) throws ApplicationException {
+        if (vanaf == null) {
+            return 0;
+        }
+        long verpakt = Rekeningnummer.verpak(PaginaSleutel.lees(vanaf, 1)[0]);
+        if (verpakt == Rekeningnummer.NIET_VERPAKT) {
+            throw new ApplicationException(ApplicationExceptionType.PAGINA_SLEUTEL_ONGELDIG.getMessage());
+        }
+        return verpakt;
+    }
+
+    /**
+     * Overloopt de hele tabel en houdt de paginagrootte + 1 kleinste
+     * rekeningnummers na vanaf bij.
+     */
+    @Override
+    public Pagina<Rekening> zoekRekeningenPagina(String vanaf, int paginagrootte) throws ApplicationException {
+        long vanafSleutel = leesVanaf(vanaf);
+        ArrayList<Rekening> items = new ArrayList<>();
+        synchronized (slot) {
+            // grootste bovenaan, zodat die als eerste weg moet
+            PriorityQueue<Long> kleinste = new PriorityQueue<>((a, b) -> Long.compare(b, a));
+            for (int plaats = 0; plaats < tabel.getCapaciteit(); plaats++) {
+                long sleutel = tabel.getSleutel(plaats);
+                if (sleutel > vanafSleutel) {
+                    if (kleinste.size() <= paginagrootte) {
+                        kleinste.add(sleutel);
+                    } else if (sleutel < kleinste.peek()) {
+                        kleinste.poll();
+                        kleinste.add(sleutel);
+                    }
+                }
+            }
+            long[] sleutels = new long[kleinste.size()];
+            for (int i = sleutels.length - 1; i >= 0; i--) {
+                sleutels[i] = kleinste.poll();
+            }
+            for (long sleutel : sleutels) {
+                items.add(maakRekening(tabel.zoek(sleutel)));
+            }
+        }
+        return maakPagina(items, paginagrootte);
+    }
+
+    @Override
+    public Pagina<Rekening> zoekRekeningenPagina(int eigenaar, String vanaf, int paginagrootte)
+            throws ApplicationException {
+        long vanafSleutel = leesVanaf(vanaf);
+        // er wordt één rekening meer opgehaald om te weten of er een volgende pagina is
+        ArrayList<Rekening> items = new ArrayList<>();
+        synchronized (slot) {
+            for (long verpakt : rekeningenVan(eigenaar)) {
+                if (items.size() > paginagrootte) {
+                    break;
+                }
+                if (verpakt > vanafSleutel) {
+                    items.add(maakRekening(tabel.zoek(verpakt)));
+                }
+            }
+        }
+        return maakPagina(items, paginagrootte);
+    }
+
+    private static Pagina<Rekening> maakPagina(ArrayList<Rekening> items, int paginagrootte) {
+        Pagina<Rekening> pagina = new Pagina<>();
+        pagina.setItems(items);
+        if (items.size() > paginagrootte) {
+            items.remove(paginagrootte);
+            pagina.setVolgendePagina(PaginaSleutel.maak(
+                    items.get(paginagrootte - 1).getRekeningnummer().getRekeningnummer()));
+        }
+        return pagina;
+    }
+
+    @Override
+    public Pagina<Journaalregel> zoekJournaalPagina(String rekeningnummer, String vanaf, int paginagrootte)
+            throws ApplicationException {
+        Pagina<Journaalregel> pagina = new Pagina<>();
+        long vanafVolgnummer = 0;
+        if (vanaf != null) {
+            try {
+                vanafVolgnummer = Long.parseLong(PaginaSleutel.lees(vanaf, 1)[0]);
+            } catch (NumberFormatException ex) {
+                throw new ApplicationException(ApplicationExceptionType.PAGINA_SLEUTEL_ONGELDIG.getMessage());
+            }
+        }
+        long verpakt = rekeningnummer == null ? Rekeningnummer.NIET_VERPAKT : Rekeningnummer.verpak(rekeningnummer);
+        // er wordt één regel meer opgehaald om te weten of er een volgende pagina is
+        ArrayList<Journaalregel> items = new ArrayList<>();
+        LongPredicate toevoegen = positie -> {
+            items.add(leesJournaalregel(positie));
+            return items.size() <= paginagrootte;
+        };
+        synchronized (slot) {
+            // de volgnummers van vóór de snapshot zijn allemaal kleiner
+            if (journaalVoorSnapshot == null
+                    || journaalVoorSnapshot.doorlopen(verpakt, vanafVolgnummer, this::leesVolgnummer, toevoegen)) {
+                journaal.doorlopen(verpakt, vanafVolgnummer, this::leesVolgnummer, toevoegen);
+            }
+        }
+        pagina.setItems(items);
+        if (items.size() > paginagrootte) {
+            items.remove(paginagrootte);
+            pagina.setVolgendePagina(PaginaSleutel.maak(Long.toString(items.get(paginagrootte - 1).getVolgnummer())));
+        }
+        return pagina;
+    }
+
+    private long leesVolgnummer(long positie) {
+        return logboek.lees(positie, 8).getLong(0);
+    }
+
+    private Journaalregel leesJournaalregel(long positie) {
+        ByteBuffer mutatie = logboek.lees(positie, MUTATIEBREEDTE);
+        Journaalregel regel = new Journaalregel();
+        regel.setVolgnummer(mutatie.getLong(0));
+        regel.setRekeningnummer(Rekeningnummer.vanVerpakt(mutatie.getLong(8)).getRekeningnummer());
+        regel.setSoort(JournaalSoort.values()[mutatie.get(16)]);
+        regel.setVerschil(Bedrag.vanCenten(mutatie.getLong(17)));
+        regel.setSaldo(Bedrag.vanCenten(mutatie.getLong(25)));
+        regel.setTijdstip(LocalDateTime.ofInstant(Instant.ofEpochMilli(mutatie.getLong(33)), ZoneId.systemDefault()));
+        return regel;
+    }
+
+    // --- wijzigen ---
+
+    // zoals in RekeningDAO: enkel een open rekening met saldo nul, onder het slot gecontroleerd
+    @Override
+    public Afsluiting verwijderRekening(String rekeningnummer) throws DBException {
+        long positie;
+        synchronized (slot) {
+            int plaats = zoekPlaats(rekeningnummer);
+            if (plaats < 0) {
+                return Afsluiting.REKENING_BESTAAT_NIET;
+            }
+            if (!tabel.isOpen(plaats)) {
+                return Afsluiting.REKENING_GESLOTEN;
+            }
+            if (tabel.getSaldo(plaats) != 0) {
+                return Afsluiting.SALDO_NIET_NUL;
+            }
+            uit.clear();
+            uit.put(GESLOTEN).putLong(tabel.getSleutel(plaats));
+            positie = schrijven("verwijderRekening");
+            tabel.setOpen(plaats, false);
+        }
+        bewaren(positie, "verwijderRekening");
+        return Afsluiting.GELUKT;
+    }
+
+    /**
+     * Zoals in RekeningDAO: een ontbrekend rekeningnummer geeft een
+     * ApplicationException; een bestaand rekeningnummer of een eigenaar die
+     * niet bestaat geeft een DBException, net als een rekeningnummer dat niet
+     * verpakt kan worden.
+     */
+    @Override
+    public void toevoegenRekening(Rekening rekening) throws DBException, ApplicationException {
+        if (rekening != null) {
+            if (rekening.getRekeningnummer() == null) {
+                throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
+            }
+            long verpakt = Rekeningnummer.verpak(rekening.getRekeningnummer().getRekeningnummer());
+            if (verpakt == Rekeningnummer.NIET_VERPAKT) {
+                throw new DBException("Fout in toevoegenRekening: rekeningnummer niet in de vorm BEaa bbbb cccc dddd");
+            }
+            long saldo = rekening.getSaldo() == null ? 0 : rekening.getSaldo().getCenten();
+            long positie;
+            synchronized (slot) {
+                // onder het slot: uitschrijven (KlantGrootboekDAO) neemt hetzelfde slot
+                if (klanten.zoekKlant(rekening.getEigenaar()) == null) {
+                    throw new DBException("Fout in toevoegenRekening: eigenaar bestaat niet");
+                }
+                if (tabel.zoek(verpakt) >= 0) {
+                    throw new DBException("Fout in toevoegenRekening: rekeningnummer bestaat al");
+                }
+                uit.clear();
+                uit.put(NIEUWE_REKENING).putLong(verpakt).putInt(rekening.getEigenaar()).putLong(saldo);
+                positie = schrijven("toevoegenRekening");
+                tabel.voegToe(verpakt, rekening.getEigenaar(), saldo);
+                registreerEigenaar(rekening.getEigenaar(), verpakt);
+            }
+            bewaren(positie, "toevoegenRekening");
+        }
+    }
+
+    @Override
+    public void wijzigenSaldoRekening(String rekeningnummer, Bedrag nieuwSaldo) throws DBException {
+        if ((rekeningnummer != null) && (nieuwSaldo != null)) {
+            long positie;
+            synchronized (slot) {
+                int plaats = zoekPlaats(rekeningnummer);
+                if (plaats < 0) {
+                    return;
+                }
+                long verschil = aftrekken(nieuwSaldo.getCenten(), tabel.getSaldo(plaats), "wijzigenSaldoRekening");
+                beginMutaties();
+                voegMutatieToe(plaats, JournaalSoort.CORRECTIE, verschil, nieuwSaldo.getCenten());
+                positie = schrijvenMutaties("wijzigenSaldoRekening");
+            }
+            bewaren(positie, "wijzigenSaldoRekening");
+        }
+    }
+
+    @Override
+    public SaldoWijziging verrekenenSaldoRekening(String rekeningnummer, Bedrag verschil) throws DBException {
+        if ((rekeningnummer == null) || (verschil == null)) {
+            return SaldoWijziging.REKENING_BESTAAT_NIET;
+        }
+        long positie;
+        synchronized (slot) {
+            beginMutaties();
+            SaldoWijziging resultaat = verrekenen(rekeningnummer, verschil, "verrekenenSaldoRekening");
+            if (resultaat != SaldoWijziging.GELUKT) {
+                return resultaat;
+            }
+            positie = schrijvenMutaties("verrekenenSaldoRekening");
+        }
+        bewaren(positie, "verrekenenSaldoRekening");
+        return SaldoWijziging.GELUKT;
+    }
+
+    /**
+     * Zoals in RekeningDAO per stuk van BATCHGROOTTE mutaties: elk stuk is
+     * één record in het logboek, onder één keer het slot. Er wordt één keer
+     * gewacht tot alle stukken bewaard zijn.
+     * <p>
+     * Een stuk dat niet verrekend kan worden (bv. een saldo dat te groot
+     * wordt), wordt helemaal teruggezet. Is dat het eerste stuk, dan volgt
+     * een DBException; anders blijven de vorige stukken verrekend en krijgen
+     * de mutaties vanaf dat stuk NIET_UITGEVOERD.
+     */
+    @Override
+    public ArrayList<SaldoWijziging> verrekenenSaldoRekeningen(List<Mutatie> mutaties) throws DBException {
+        ArrayList<SaldoWijziging> resultaten = new ArrayList<>();
+        if (mutaties == null || mutaties.isEmpty()) {
+            return resultaten;
+        }
+        long positie = -1;
+        for (int van = 0; van < mutaties.size(); van += BATCHGROOTTE) {
+            List<Mutatie> stuk = mutaties.subList(van, Math.min(van + BATCHGROOTTE, mutaties.size()));
+            try {
+                synchronized (slot) {
+                    beginMutaties();
+                    try {
+                        for (Mutatie mutatie : stuk) {
+                            if (mutatie == null || mutatie.getRekeningnummer() == null
+                                    || mutatie.getBedrag() == null) {
+                                resultaten.add(SaldoWijziging.REKENING_BESTAAT_NIET);
+                            } else {
+                                resultaten.add(verrekenen(mutatie.getRekeningnummer(), mutatie.getBedrag(),
+                                        "verrekenenSaldoRekeningen"));
+                            }
+                        }
+                    } catch (DBException | RuntimeException ex) {
+                        terugzetten();
+                        throw ex;
+                    }
+                    if (aantalMutaties > 0) {
+                        positie = schrijvenMutaties("verrekenenSaldoRekeningen");
+                    }
+                }
+            } catch (DBException | RuntimeException ex) {
+                if (van == 0) {
+                    throw ex instanceof DBException ? (DBException) ex
+                            : new DBException("Fout in verrekenenSaldoRekeningen: " + ex);
+                }
+                LOGGER.log(Level.WARNING, "verrekenenSaldoRekeningen onderbroken na " + van + " van "
+                        + mutaties.size() + " mutaties: " + ex);
+                resultaten.subList(van, resultaten.size()).clear();
+                while (resultaten.size() < mutaties.size()) {
+                    resultaten.add(SaldoWijziging.NIET_UITGEVOERD);
+                }
+                break;
+            }
+        }
+        if (positie >= 0) {
+            bewaren(positie, "verrekenenSaldoRekeningen");
+        }
+        return resultaten;
+    }
+
+    // enkel onder slot, na beginMutaties
+    private SaldoWijziging verrekenen(String rekeningnummer, Bedrag verschil, String methode) throws DBException {
+        int plaats = zoekPlaats(rekeningnummer);
+        if (plaats < 0) {
+            return SaldoWijziging.REKENING_BESTAAT_NIET;
+        }
+        if (!tabel.isOpen(plaats)) {
+            return SaldoWijziging.REKENING_GESLOTEN;
+        }
+        long nieuwSaldo = optellen(tabel.getSaldo(plaats), verschil.getCenten(), methode);
+        if (nieuwSaldo < 0) {
+            return SaldoWijziging.SALDO_ONTOEREIKEND;
+        }
+        voegMutatieToe(plaats, verschil.isNegatief() ? JournaalSoort.OPNAME : JournaalSoort.STORTING,
+                verschil.getCenten(), nieuwSaldo);
+        return SaldoWijziging.GELUKT;
+    }
+
+    @Override
+    public Overschrijving overschrijven(String vanRekeningnummer, String naarRekeningnummer, Bedrag bedrag)
+            throws DBException {
+        if (vanRekeningnummer == null) {
+            return Overschrijving.VAN_REKENING_BESTAAT_NIET;
+        }
+        if (naarRekeningnummer == null) {
+            return Overschrijving.NAAR_REKENING_BESTAAT_NIET;
+        }
+        long positie;
+        synchronized (slot) {
+            int van = zoekPlaats(vanRekeningnummer);
+            int naar = zoekPlaats(naarRekeningnummer);
+            if (van < 0) {
+                return Overschrijving.VAN_REKENING_BESTAAT_NIET;
+            }
+            if (!tabel.isOpen(van)) {
+                return Overschrijving.VAN_REKENING_GESLOTEN;
+            }
+            if (naar < 0) {
+                return Overschrijving.NAAR_REKENING_BESTAAT_NIET;
+            }
+            if (!tabel.isOpen(naar)) {
+                return Overschrijving.NAAR_REKENING_GESLOTEN;
+            }
+            if (tabel.getSaldo(van) < bedrag.getCenten()) {
+                return Overschrijving.SALDO_ONTOEREIKEND;
+            }
+            // beide saldi vóór er iets gewijzigd wordt (van en naar kunnen dezelfde rekening zijn)
+            long vanSaldo = aftrekken(tabel.getSaldo(van), bedrag.getCenten(), "overschrijven");
+            long naarSaldo = optellen(van == naar ? vanSaldo : tabel.getSaldo(naar), bedrag.getCenten(),
+                    "overschrijven");
+            // beide kanten in één record: na een crash is de overschrijving helemaal of helemaal niet gebeurd
+            beginMutaties();
+            voegMutatieToe(van, JournaalSoort.OVERSCHRIJVING, -bedrag.getCenten(), vanSaldo);
+            voegMutatieToe(naar, JournaalSoort.OVERSCHRIJVING, bedrag.getCenten(), naarSaldo);
+            positie = schrijvenMutaties("overschrijven");
+        }
+        bewaren(positie, "overschrijven");
+        return Overschrijving.GELUKT;
+    }
+
+    // --- records ---
+
+    // enkel onder slot
+    private void beginMutaties() {
+        uit.clear();
+        uit.put(MUTATIES).putInt(0);
+        aantalMutaties = 0;
+    }
+
+    // een saldo in centen past in een long; anders wordt er niets gewijzigd
+    private static long optellen(long saldo, long verschil, String methode) throws DBException {
+        try {
+            return Math.addExact(saldo, verschil);
+        } catch (ArithmeticException ex) {
+            throw new DBException("Fout in " + methode + ": saldo te groot");
+        }
+    }
+
+    private static long aftrekken(long saldo, long verschil, String methode) throws DBException {
+        try {
+            return Math.subtractExact(saldo, verschil);
+        } catch (ArithmeticException ex) {
+            throw new DBException("Fout in " + methode + ": saldo te groot");
+        }
+    }
+
+    /**
+     * Voegt een mutatie toe aan het record en voert ze meteen door in de
+     * tabel, zodat een volgende mutatie op dezelfde rekening in hetzelfde
+     * record van het nieuwe saldo vertrekt. Mislukt het schrijven, dan
+     * worden de saldi teruggezet (terugzetten). Enkel onder slot.
+     */
+    private void voegMutatieToe(int plaats, JournaalSoort soort, long verschil, long saldo) {
+        uit.putLong(laatsteVolgnummer + aantalMutaties + 1)
+                .putLong(tabel.getSleutel(plaats))
+                .put((byte) soort.ordinal())
+                .putLong(verschil)
+                .putLong(saldo)
+                .putLong(System.currentTimeMillis());
+        plaatsen[aantalMutaties] = plaats;
+        vorigeSaldi[aantalMutaties] = tabel.getSaldo(plaats);
+        aantalMutaties++;
+        tabel.setSaldo(plaats, saldo);
+    }
+
+    // enkel onder slot: de mutaties van het record dat niet geschreven wordt
+    private void terugzetten() {
+        for (int i = aantalMutaties - 1; i >= 0; i--) {
+            tabel.setSaldo(plaatsen[i], vorigeSaldi[i]);
+        }
+        aantalMutaties = 0;
+    }
+
+    // enkel onder slot, met minstens één mutatie
+    private long schrijvenMutaties(String methode) throws DBException {
+        uit.putInt(1, aantalMutaties);
+        long positie;
+        try {
+            positie = schrijven(methode);
+        } catch (DBException ex) {
+            terugzetten();
+            throw ex;
+        }
+        for (int i = 0; i < aantalMutaties; i++) {
+            journaal.voegToe(tabel.getSleutel(plaatsen[i]), positie + MUTATIEKOP + i * MUTATIEBREEDTE);
+        }
+        laatsteVolgnummer += aantalMutaties;
+        return positie;
+    }
+
+    // enkel onder slot
+    private long schrijven(String methode) throws DBException {
+        uit.flip();
+        return schrijven(uit, methode);
+    }
+
+    // ook voor KlantGrootboekDAO, onder het slot van zijn databank
+    long schrijven(ByteBuffer record, String methode) throws DBException {
+        try {
+            return logboek.toevoegen(record);
+        } catch (IOException ex) {
+            throw new DBException("IO-exception in " + methode + " - logboek " + ex);
+        }
+    }
+
+    // wacht tot alles wat tot nu toe geschreven is, bewaard is (KlantGrootboekDAO)
+    void bewaren(String methode) throws DBException {
+        bewaren(logboek.getGeschreven() - 1, methode);
+    }
+
+    // buiten het slot, zodat andere threads intussen hun records kunnen toevoegen
+    private void bewaren(long positie, String methode) throws DBException {
+        try {
+            logboek.wachtTotBewaard(positie);
+        } catch (IOException ex) {
+            throw new DBException("IO-exception in " + methode + " - logboek " + ex);
+        }
+    }
+
+    // --- indexen (enkel onder slot of bij het herspelen) ---
+
+    private long[] rekeningenVan(int eigenaar) {
+        long[] sleutels = perEigenaar.get(eigenaar);
+        return sleutels == null ? GEEN_REKENINGEN : sleutels;
+    }
+
+    void registreerEigenaar(int eigenaar, long verpakt) {
+        long[] oud = rekeningenVan(eigenaar);
+        int plaats = -Arrays.binarySearch(oud, verpakt) - 1;
+        long[] nieuw = new long[oud.length + 1];
+        System.arraycopy(oud, 0, nieuw, 0, plaats);
+        nieuw[plaats] = verpakt;
+        System.arraycopy(oud, plaats, nieuw, plaats + 1, oud.length - plaats);
+        perEigenaar.put(eigenaar, nieuw);
+    }
+}
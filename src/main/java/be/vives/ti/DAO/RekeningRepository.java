@@ -0,0 +1,194 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.databag.Journaalregel;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Afsluiting;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.Overschrijving;
+import be.vives.ti.datatype.SaldoWijziging;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alle bewerkingen op de rekeningen, los van de manier van opslaan.
+ * RekeningDAO werkt met de databank, RekeningGeheugenDAO houdt alles in het
+ * geheugen (voor testen en simulaties). Beide volgen dezelfde regels; die
+ * staan hieronder en in RekeningDAO in meer detail.
+ */
+public interface RekeningRepository {
+
+    /**
+     * @param rekeningnummer rekeningnummer van de rekening die gezocht moet
+     *                       worden (hoofdletterongevoelig)
+     * @return rekening die gezocht wordt, null indien de rekening niet werd
+     * gevonden.
+     * @throws DBException duidt op een fout in de opslag
+     */
+    Rekening zoekRekening(String rekeningnummer) throws DBException;
+
+    /**
+     * @param eigenaar de eigenaar van de rekeningen die gezocht worden
+     * @return lijst van rekeningen van de klant die gesloten zijn
+     * @throws DBException duidt op een fout in de opslag
+     */
+    ArrayList<Rekening> zoekGeslotenRekeningen(int eigenaar) throws DBException;
+
+    /**
+     * @param eigenaar de eigenaar van de rekeningen die gezocht worden
+     * @return lijst van rekeningen van de klant die open zijn
+     * @throws DBException duidt op een fout in de opslag
+     */
+    ArrayList<Rekening> zoekOpenRekeningen(int eigenaar) throws DBException;
+
+    /**
+     * @param eigenaar de eigenaar van de rekeningen die geteld worden
+     * @return aantal rekeningen van de klant die nog open staan
+     * @throws DBException duidt op een fout in de opslag
+     */
+    int zoekAantalOpenRekeningen(int eigenaar) throws DBException;
+
+    /**
+     * @param eigenaar de eigenaar van de rekeningen die gezocht worden
+     * @return lijst van alle rekeningen van de klant, leeg indien geen
+     * @throws DBException duidt op een fout in de opslag
+     */
+    ArrayList<Rekening> zoekAlleRekeningen(int eigenaar) throws DBException;
+
+    /**
+     * @param eigenaars de eigenaars van de rekeningen die gezocht worden
+     *                  (dubbels en null worden genegeerd)
+     * @return per eigenaar, in de volgorde van eigenaars, de lijst van al zijn
+     * rekeningen; een lege lijst voor een eigenaar zonder rekeningen
+     * @throws DBException duidt op een fout in de opslag
+     */
+    Map<Integer, ArrayList<Rekening>> zoekRekeningenVanKlanten(Collection<Integer> eigenaars) throws DBException;
+
+    /**
+     * @param rekeningnummers rekeningnummers van de rekeningen die gezocht
+     *                        worden (dubbels en null worden genegeerd)
+     * @return per gevonden rekeningnummer (zoals opgegeven) de rekening
+     * @throws DBException duidt op een fout in de opslag
+     */
+    Map<String, Rekening> zoekRekeningen(Collection<String> rekeningnummers) throws DBException;
+
+    /**
+     * Overloopt alle rekeningen, gesorteerd op rekeningnummer.
+     *
+     * @param verwerker verwerkt elke rekening; geeft false terug om te stoppen
+     * @throws DBException duidt op een fout in de opslag of van de verwerker
+     */
+    void verwerkAlleRekeningen(Verwerker<Rekening> verwerker) throws DBException;
+
+    /**
+     * Overloopt alle rekeningen van een klant, gesorteerd op rekeningnummer.
+     *
+     * @param eigenaar  de eigenaar van de rekeningen die overlopen worden
+     * @param verwerker verwerkt elke rekening; geeft false terug om te stoppen
+     * @throws DBException duidt op een fout in de opslag of van de verwerker
+     */
+    void verwerkAlleRekeningen(int eigenaar, Verwerker<Rekening> verwerker) throws DBException;
+
+    /**
+     * @param vanaf         volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte maximaal aantal rekeningen op de pagina
+     * @return pagina met rekeningen, gesorteerd op rekeningnummer
+     * @throws DBException          duidt op een fout in de opslag
+     * @throws ApplicationException wanneer de sleutel vanaf ongeldig is
+     */
+    Pagina<Rekening> zoekRekeningenPagina(String vanaf, int paginagrootte) throws DBException, ApplicationException;
+
+    /**
+     * @param eigenaar      de eigenaar van de rekeningen die gezocht worden
+     * @param vanaf         volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte maximaal aantal rekeningen op de pagina
+     * @return pagina met rekeningen, gesorteerd op rekeningnummer
+     * @throws DBException          duidt op een fout in de opslag
+     * @throws ApplicationException wanneer de sleutel vanaf ongeldig is
+     */
+    Pagina<Rekening> zoekRekeningenPagina(int eigenaar, String vanaf, int paginagrootte)
+            throws DBException, ApplicationException;
+
+    /**
+     * Elke gelukte saldowijziging (verrekenen, overschrijven, wijzigen) komt
+     * samen met de wijziging in het journaal, met het saldo erna.
+     *
+     * @param rekeningnummer rekeningnummer van de rekening
+     * @param vanaf          volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte  maximaal aantal regels op de pagina
+     * @return pagina met journaalregels van de rekening, gesorteerd op volgnummer
+     * @throws DBException          duidt op een fout in de opslag
+     * @throws ApplicationException wanneer de sleutel vanaf ongeldig is
+     */
+    Pagina<Journaalregel> zoekJournaalPagina(String rekeningnummer, String vanaf, int paginagrootte)
+            throws DBException, ApplicationException;
+
+    /**
+     * Sluit de rekening met meegegeven rekeningnummer, maar enkel wanneer ze
+     * open is en haar saldo nul is; de controle en het sluiten gebeuren samen.
+     *
+     * @param rekeningnummer rekeningnummer van de rekening die gesloten moet worden
+     * @return GELUKT of de reden waarom de rekening niet gesloten werd
+     * @throws DBException duidt op een fout in de opslag
+     */
+    Afsluiting verwijderRekening(String rekeningnummer) throws DBException;
+
+    /**
+     * Voegt een open rekening toe voor een bestaande klant.
+     *
+     * @param rekening rekening die moet worden toegevoegd
+     * @throws DBException          duidt op een fout in de opslag, bv. een
+     *                              bestaand rekeningnummer of een onbekende eigenaar
+     * @throws ApplicationException wanneer het rekeningnummer ontbreekt
+     */
+    void toevoegenRekening(Rekening rekening) throws DBException, ApplicationException;
+
+    /**
+     * Zet het saldo van een rekening, zonder controles.
+     *
+     * @param rekeningnummer rekeningnummer van de rekening
+     * @param nieuwSaldo     nieuw saldo voor de rekening
+     * @throws DBException duidt op een fout in de opslag
+     */
+    void wijzigenSaldoRekening(String rekeningnummer, Bedrag nieuwSaldo) throws DBException;
+
+    /**
+     * Telt een bedrag op bij het saldo van een open rekening, in één
+     * ondeelbare stap; het saldo wordt nooit negatief.
+     *
+     * @param rekeningnummer rekeningnummer van de rekening
+     * @param verschil       bedrag dat bij het saldo opgeteld wordt (negatief bij een opname)
+     * @return GELUKT indien het saldo gewijzigd werd, anders de reden waarom niet
+     * @throws DBException duidt op een fout in de opslag
+     */
+    SaldoWijziging verrekenenSaldoRekening(String rekeningnummer, Bedrag verschil) throws DBException;
+
+    /**
+     * Verrekent een lijst mutaties in volgorde, met dezelfde regels als
+     * verrekenenSaldoRekening.
+     *
+     * @param mutaties mutaties die verrekend moeten worden
+     * @return per mutatie (in dezelfde volgorde) GELUKT of de reden waarom niet
+     * @throws DBException duidt op een fout in de opslag
+     */
+    ArrayList<SaldoWijziging> verrekenenSaldoRekeningen(List<Mutatie> mutaties) throws DBException;
+
+    /**
+     * Schrijft een bedrag over tussen twee open rekeningen, in één ondeelbare
+     * stap.
+     *
+     * @param vanRekeningnummer  rekeningnummer van de rekening die gedebiteerd wordt
+     * @param naarRekeningnummer rekeningnummer van de rekening die gecrediteerd wordt
+     * @param bedrag             bedrag dat overgeschreven wordt (positief)
+     * @return GELUKT indien overgeschreven werd, anders de reden waarom niet
+     * @throws DBException duidt op een fout in de opslag
+     */
+    Overschrijving overschrijven(String vanRekeningnummer, String naarRekeningnummer, Bedrag bedrag)
+            throws DBException;
+}
@@ -0,0 +1,603 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.DAO.shard.Ringbuffer;
+import be.vives.ti.databag.Journaalregel;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Afsluiting;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.Overschrijving;
+import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.datatype.SaldoWijziging;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * RekeningRepository die de saldowijzigingen van een andere
+ * RekeningRepository (bv. RekeningDAO) per rekening door één thread laat
+ * uitvoeren, bv. om veel gelijktijdige stortingen en opnames met weinig
+ * transacties te verwerken: new RekeningService(new RekeningShardDAO(dao, 8)).
+ * <p>
+ * - elke rekening hoort bij één shard (hash van het rekeningnummer in
+ * hoofdletters); een shard heeft één thread die de opdrachten uit een
+ * Ringbuffer zonder sloten in volgorde afneemt, per batch van hoogstens
+ * BATCHGROOTTE
+ * - per shard staan de saldi van de laatst gebruikte rekeningen in het
+ * geheugen (ingeladen met één zoekRekeningen per batch); verrekenen wordt
+ * daar gecontroleerd en doorgevoerd, en de gelukte mutaties van de batch
+ * worden daarna samen bewaard met verrekenenSaldoRekeningen (write-behind
+ * per batch)
+ * - de oproeper krijgt zijn resultaat pas wanneer zijn batch bewaard is, en
+ * dan het resultaat van de opslag: wijkt dat af van het geheugen, dan wordt
+ * de rekening opnieuw ingeladen
+ * - zo zijn de wijzigingen van één rekening lineariseerbaar: ze worden in één
+ * volgorde uitgevoerd en een teruggegeven resultaat is bewaard
+ * - wijzigenSaldoRekening, verwijderRekening en overschrijven gaan ook via
+ * de shard (van de van-rekening), maar rechtstreeks naar de opslag, na het
+ * bewaren van wat al in de batch zat; bij een overschrijving naar een
+ * rekening in een andere shard wordt die rekening daar opnieuw ingeladen
+ * - opzoeken en toevoegen gaan rechtstreeks naar de opslag
+ * - de saldi in het geheugen gaan ervan uit dat alle saldowijzigingen via
+ * deze RekeningShardDAO gebeuren
+ */
+public class RekeningShardDAO implements RekeningRepository, Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(RekeningShardDAO.class.getName());
+
+    // aantal opdrachten per batch, zoals de stukken van RekeningDAO
+    static final int BATCHGROOTTE = 1000;
+    private static final int RINGGROOTTE = 8192;
+    private static final int REKENINGEN_PER_SHARD = 100_000;
+
+    private final RekeningRepository rekeningDAO;
+    private final Shard[] shards;
+    private volatile boolean gesloten;
+
+    /**
+     * @param rekeningDAO   de opslag
+     * @param aantalShards  aantal shards (en threads)
+     */
+    public RekeningShardDAO(RekeningRepository rekeningDAO, int aantalShards) {
+        this(rekeningDAO, aantalShards, REKENINGEN_PER_SHARD);
+    }
+
+    /**
+     * @param rekeningenPerShard aantal saldi dat een shard in het geheugen
+     *                           houdt; de langst niet gebruikte valt eruit
+     */
+    public RekeningShardDAO(RekeningRepository rekeningDAO, int aantalShards, int rekeningenPerShard) {
+        if (aantalShards < 1) {
+            throw new IllegalArgumentException("Minstens één shard nodig");
+        }
+        this.rekeningDAO = rekeningDAO;
+        this.shards = new Shard[aantalShards];
+        for (int i = 0; i < aantalShards; i++) {
+            shards[i] = new Shard(rekeningenPerShard);
+            shards[i].thread = new Thread(shards[i]::verwerken, "rekening-shard-" + i);
+            shards[i].thread.setDaemon(true);
+            shards[i].thread.start();
+        }
+    }
+
+    /**
+     * Werkt de opdrachten die al aangeboden zijn nog af en stopt de threads;
+     * een opdracht die pas daarna in een shard terechtkwam, krijgt een
+     * DBException.
+     */
+    @Override
+    public void close() {
+        gesloten = true;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.opruimen();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Shard shardVan(String sleutel) {
+        int h = sleutel.hashCode();
+        return shards[Math.floorMod(h ^ (h >>> 16), shards.length)];
+    }
+
+    // --- opzoeken en toevoegen: rechtstreeks ---
+
+    @Override
+    public Rekening zoekRekening(String rekeningnummer) throws DBException {
+        return rekeningDAO.zoekRekening(rekeningnummer);
+    }
+
+    @Override
+    public ArrayList<Rekening> zoekGeslotenRekeningen(int eigenaar) throws DBException {
+        return rekeningDAO.zoekGeslotenRekeningen(eigenaar);
+    }
+
+    @Override
+    public ArrayList<Rekening> zoekOpenRekeningen(int eigenaar) throws DBException {
+        return rekeningDAO.zoekOpenRekeningen(eigenaar);
+    }
+
+    @Override
+    public int zoekAantalOpenRekeningen(int eigenaar) throws DBException {
+        return rekeningDAO.zoekAantalOpenRekeningen(eigenaar);
+    }
+
+    @Override
+    public ArrayList<Rekening> zoekAlleRekeningen(int eigenaar) throws DBException {
+        return rekeningDAO.zoekAlleRekeningen(eigenaar);
+    }
+
+    @Override
+    public Map<Integer, ArrayList<Rekening>> zoekRekeningenVanKlanten(Collection<Integer> eigenaars)
+            throws DBException {
+        return rekeningDAO.zoekRekeningenVanKlanten(eigenaars);
+    }
+
+    @Override
+    public Map<String, Rekening> zoekRekeningen(Collection<String> rekeningnummers) throws DBException {
+        return rekeningDAO.zoekRekeningen(rekeningnummers);
+    }
+
+    @Override
+    public void verwerkAlleRekeningen(Verwerker<Rekening> verwerker) throws DBException {
+        rekeningDAO.verwerkAlleRekeningen(verwerker);
+    }
+
+    @Override
+    public void verwerkAlleRekeningen(int eigenaar, Verwerker<Rekening> verwerker) throws DBException {
+        rekeningDAO.verwerkAlleRekeningen(eigenaar, verwerker);
+    }
+
+    @Override
+    public Pagina<Rekening> zoekRekeningenPagina(String vanaf, int paginagrootte)
+            throws DBException, ApplicationException {
+        return rekeningDAO.zoekRekeningenPagina(vanaf, paginagrootte);
+    }
+
+    @Override
+    public Pagina<Rekening> zoekRekeningenPagina(int eigenaar, String vanaf, int paginagrootte)
+            throws DBException, ApplicationException {
+        return rekeningDAO.zoekRekeningenPagina(eigenaar, vanaf, paginagrootte);
+    }
+
+    @Override
+    public Pagina<Journaalregel> zoekJournaalPagina(String rekeningnummer, String vanaf, int paginagrootte)
+            throws DBException, ApplicationException {
+        return rekeningDAO.zoekJournaalPagina(rekeningnummer, vanaf, paginagrootte);
+    }
+
+    // een nieuwe rekening staat nog in geen enkele shard in het geheugen
+    @Override
+    public void toevoegenRekening(Rekening rekening) throws DBException, ApplicationException {
+        rekeningDAO.toevoegenRekening(rekening);
+    }
+
+    // --- wijzigen: via de shard van de rekening ---
+
+    @Override
+    public Afsluiting verwijderRekening(String rekeningnummer) throws DBException {
+        if (rekeningnummer == null) {
+            return Afsluiting.REKENING_BESTAAT_NIET;
+        }
+        return (Afsluiting) wachten(aanbieden(new Opdracht(Soort.VERWIJDEREN, rekeningnummer, null, null)),
+                "verwijderRekening");
+    }
+
+    @Override
+    public void wijzigenSaldoRekening(String rekeningnummer, Bedrag nieuwSaldo) throws DBException {
+        if ((rekeningnummer != null) && (nieuwSaldo != null)) {
+            wachten(aanbieden(new Opdracht(Soort.WIJZIGEN, rekeningnummer, null, nieuwSaldo)),
+                    "wijzigenSaldoRekening");
+        }
+    }
+
+    @Override
+    public SaldoWijziging verrekenenSaldoRekening(String rekeningnummer, Bedrag verschil) throws DBException {
+        if ((rekeningnummer == null) || (verschil == null)) {
+            return SaldoWijziging.REKENING_BESTAAT_NIET;
+        }
+        return (SaldoWijziging) wachten(aanbieden(new Opdracht(Soort.VERREKENEN, rekeningnummer, null, verschil)),
+                "verrekenenSaldoRekening");
+    }
+
+    /**
+     * Alle mutaties worden eerst aangeboden (elk aan de shard van zijn
+     * rekening) en dan wordt er op alle resultaten gewacht; de mutaties van
+     * één rekening worden in de volgorde van de lijst uitgevoerd.
+     * <p>
+     * Een mutatie die door een fout in de opslag niet uitgevoerd werd, krijgt
+     * NIET_UITGEVOERD; de andere mutaties zijn dan wel verrekend. Enkel
+     * wanneer geen enkele mutatie uitgevoerd kon worden, volgt een
+     * DBException.
+     */
+    @Override
+    public ArrayList<SaldoWijziging> verrekenenSaldoRekeningen(List<Mutatie> mutaties) throws DBException {
+        ArrayList<SaldoWijziging> resultaten = new ArrayList<>();
+        if (mutaties == null || mutaties.isEmpty()) {
+            return resultaten;
+        }
+        ArrayList<Opdracht> opdrachten = new ArrayList<>();
+        for (Mutatie mutatie : mutaties) {
+            if (mutatie == null || mutatie.getRekeningnummer() == null || mutatie.getBedrag() == null) {
+                opdrachten.add(null);
+            } else {
+                Opdracht opdracht = new Opdracht(Soort.VERREKENEN, mutatie.getRekeningnummer(), null,
+                        mutatie.getBedrag());
+                try {
+                    aanbieden(opdracht);
+                } catch (DBException ex) {
+                    // intussen gesloten: de vorige mutaties zijn al aangeboden
+                    opdracht.resultaat.completeExceptionally(ex);
+                }
+                opdrachten.add(opdracht);
+            }
+        }
+        DBException fout = null;
+        int mislukt = 0;
+        int uitgevoerd = 0;
+        for (Opdracht opdracht : opdrachten) {
+            if (opdracht == null) {
+                resultaten.add(SaldoWijziging.REKENING_BESTAAT_NIET);
+                continue;
+            }
+            try {
+                resultaten.add((SaldoWijziging) wachten(opdracht, "verrekenenSaldoRekeningen"));
+                uitgevoerd++;
+            } catch (DBException ex) {
+                if (fout == null) {
+                    fout = ex;
+                }
+                mislukt++;
+                resultaten.add(SaldoWijziging.NIET_UITGEVOERD);
+            }
+        }
+        if (fout != null) {
+            if (uitgevoerd == 0) {
+                throw fout;
+            }
+            LOGGER.log(Level.WARNING, mislukt + " van " + mutaties.size()
+                    + " mutaties niet uitgevoerd in verrekenenSaldoRekeningen: " + fout);
+        }
+        return resultaten;
+    }
+
+    @Override
+    public Overschrijving overschrijven(String vanRekeningnummer, String naarRekeningnummer, Bedrag bedrag)
+            throws DBException {
+        if (vanRekeningnummer == null) {
+            return Overschrijving.VAN_REKENING_BESTAAT_NIET;
+        }
+        if (naarRekeningnummer == null) {
+            return Overschrijving.NAAR_REKENING_BESTAAT_NIET;
+        }
+        return (Overschrijving) wachten(aanbieden(new Opdracht(Soort.OVERSCHRIJVEN, vanRekeningnummer,
+                naarRekeningnummer, bedrag)), "overschrijven");
+    }
+
+    private Opdracht aanbieden(Opdracht opdracht) throws DBException {
+        if (gesloten) {
+            throw new DBException("Fout in RekeningShardDAO: gesloten");
+        }
+        Shard shard = shardVan(opdracht.sleutel);
+        while (!shard.opdrachten.toevoegen(opdracht)) {
+            if (gesloten) {
+                throw new DBException("Fout in RekeningShardDAO: gesloten");
+            }
+            // buffer vol: de shard moet eerst bijwerken
+            LockSupport.unpark(shard.thread);
+            Thread.yield();
+        }
+        if (gesloten) {
+            // de thread kan al gestopt zijn zonder deze opdracht te zien
+            try {
+                shard.opruimen();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (shard.slaapt) {
+            LockSupport.unpark(shard.thread);
+        }
+        return opdracht;
+    }
+
+    private static Object wachten(Opdracht opdracht, String methode) throws DBException {
+        try {
+            return opdracht.resultaat.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DBException("Onderbroken in " + methode);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DBException) {
+                throw new DBException(e.getCause().getMessage());
+            }
+            throw new DBException("Fout in " + methode + ": " + e.getCause());
+        }
+    }
+
+    private enum Soort {
+        VERREKENEN, WIJZIGEN, VERWIJDEREN, OVERSCHRIJVEN
+    }
+
+    private static final class Opdracht {
+        final Soort soort;
+        final String rekeningnummer;
+        final String sleutel;
+        final String naar;
+        final Bedrag bedrag;
+        final CompletableFuture<Object> resultaat = new CompletableFuture<>();
+
+        Opdracht(Soort soort, String rekeningnummer, String naar, Bedrag bedrag) {
+            this.soort = soort;
+            this.rekeningnummer = rekeningnummer;
+            this.sleutel = GeheugenDatabank.sleutel(rekeningnummer);
+            this.naar = naar;
+            this.bedrag = bedrag;
+        }
+    }
+
+    // saldo van een rekening in het geheugen van een shard
+    private static final class Saldo {
+        long centen;
+        boolean open;
+    }
+
+    /**
+     * Eén shard: alles behalve opdrachten, ongeldig en slaapt is enkel voor de
+     * thread van de shard.
+     */
+    private final class Shard {
+        final Ringbuffer<Opdracht> opdrachten = new Ringbuffer<>(RINGGROOTTE);
+        // rekeningen die een andere shard gewijzigd heeft (overschrijving): opnieuw inladen
+        final ConcurrentLinkedQueue<String> ongeldig = new ConcurrentLinkedQueue<>();
+        volatile boolean slaapt;
+        Thread thread;
+
+        private final LinkedHashMap<String, Saldo> saldi;
+        private final ArrayList<Opdracht> batch = new ArrayList<>();
+        // in de batch: niet gevonden bij het inladen
+        private final HashSet<String> onbekend = new HashSet<>();
+        // gelukte mutaties die nog bewaard moeten worden, en de opdrachten die op het bewaren wachten
+        private final ArrayList<Mutatie> teBewaren = new ArrayList<>();
+        private final ArrayList<Opdracht> wachtend = new ArrayList<>();
+        private final ArrayList<Object> voorlopig = new ArrayList<>();
+
+        Shard(int maximum) {
+            saldi = new LinkedHashMap<String, Saldo>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Saldo> oudste) {
+                    return size() > maximum;
+                }
+            };
+        }
+
+        void verwerken() {
+            while (true) {
+                batch.clear();
+                opdrachten.afnemen(batch, BATCHGROOTTE);
+                // na het afnemen: een rekening die ongeldig werd vóór een opdracht aangeboden werd, is er zeker bij
+                for (String sleutel = ongeldig.poll(); sleutel != null; sleutel = ongeldig.poll()) {
+                    saldi.remove(sleutel);
+                }
+                if (batch.isEmpty()) {
+                    if (gesloten && opdrachten.isLeeg()) {
+                        return;
+                    }
+                    slaapt = true;
+                    if (opdrachten.isLeeg() && !gesloten) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                    }
+                    slaapt = false;
+                    continue;
+                }
+                inladen();
+                for (Opdracht opdracht : batch) {
+                    try {
+                        uitvoeren(opdracht);
+                    } catch (DBException | RuntimeException ex) {
+                        opdracht.resultaat.completeExceptionally(ex);
+                    }
+                }
+                bewaren();
+            }
+        }
+
+        /**
+         * Wacht tot de thread gestopt is (na close) en geeft de opdrachten
+         * die daarna nog in de buffer staan een DBException; synchronized:
+         * close en elke oproeper die na close nog iets aanbood, kunnen dit
+         * tegelijk doen.
+         */
+        synchronized void opruimen() throws InterruptedException {
+            thread.join();
+            ArrayList<Opdracht> rest = new ArrayList<>();
+            while (opdrachten.afnemen(rest, BATCHGROOTTE) > 0) {
+                for (Opdracht opdracht : rest) {
+                    opdracht.resultaat.completeExceptionally(new DBException("Fout in RekeningShardDAO: gesloten"));
+                }
+                rest.clear();
+            }
+        }
+
+        // de saldi van de rekeningen in de batch die nog niet in het geheugen staan, in één keer
+        private void inladen() {
+            onbekend.clear();
+            HashMap<String, String> nummers = new HashMap<>();
+            for (Opdracht opdracht : batch) {
+                if (opdracht.soort == Soort.VERREKENEN && !saldi.containsKey(opdracht.sleutel)) {
+                    nummers.putIfAbsent(opdracht.sleutel, opdracht.rekeningnummer);
+                }
+            }
+            if (nummers.isEmpty()) {
+                return;
+            }
+            try {
+                Map<String, Rekening> gevonden = rekeningDAO.zoekRekeningen(nummers.values());
+                for (Map.Entry<String, String> nummer : nummers.entrySet()) {
+                    Rekening rekening = gevonden.get(nummer.getValue());
+                    if (rekening == null) {
+                        onbekend.add(nummer.getKey());
+                    } else {
+                        saldi.put(nummer.getKey(), maakSaldo(rekening));
+                    }
+                }
+            } catch (DBException | RuntimeException ex) {
+                // dan per rekening bij het uitvoeren
+                onbekend.clear();
+            }
+        }
+
+        private void uitvoeren(Opdracht opdracht) throws DBException {
+            if (opdracht.soort == Soort.VERREKENEN) {
+                Saldo saldo = zoekSaldo(opdracht);
+                SaldoWijziging resultaat;
+                if (saldo == null) {
+                    resultaat = SaldoWijziging.REKENING_BESTAAT_NIET;
+                } else if (!saldo.open) {
+                    resultaat = SaldoWijziging.REKENING_GESLOTEN;
+                } else if (saldo.centen + opdracht.bedrag.getCenten() < 0) {
+                    resultaat = SaldoWijziging.SALDO_ONTOEREIKEND;
+                } else {
+                    saldo.centen = Math.addExact(saldo.centen, opdracht.bedrag.getCenten());
+                    Mutatie mutatie = new Mutatie();
+                    mutatie.setRekeningnummer(opdracht.rekeningnummer);
+                    mutatie.setBedrag(opdracht.bedrag);
+                    teBewaren.add(mutatie);
+                    // het resultaat komt van het bewaren
+                    resultaat = null;
+                }
+                wachtend.add(opdracht);
+                voorlopig.add(resultaat);
+                return;
+            }
+
+            // de andere opdrachten gaan rechtstreeks naar de opslag, na wat er al klaarstaat
+            bewaren();
+            if (opdracht.soort == Soort.WIJZIGEN) {
+                saldi.remove(opdracht.sleutel);
+                rekeningDAO.wijzigenSaldoRekening(opdracht.rekeningnummer, opdracht.bedrag);
+                opdracht.resultaat.complete(null);
+            } else if (opdracht.soort == Soort.VERWIJDEREN) {
+                saldi.remove(opdracht.sleutel);
+                // de stortingen die klaarstonden zijn bewaard: de opslag controleert het saldo
+                opdracht.resultaat.complete(rekeningDAO.verwijderRekening(opdracht.rekeningnummer));
+            } else {
+                String naar = GeheugenDatabank.sleutel(opdracht.naar);
+                Overschrijving resultaat;
+                try {
+                    resultaat = rekeningDAO.overschrijven(opdracht.rekeningnummer, opdracht.naar, opdracht.bedrag);
+                } catch (DBException | RuntimeException ex) {
+                    // de fout kan na de commit komen: beide rekeningen opnieuw inladen, zoals in bewaren
+                    vergeten(naar);
+                    saldi.remove(opdracht.sleutel);
+                    throw ex;
+                }
+                Saldo van = saldi.get(opdracht.sleutel);
+                if (resultaat != Overschrijving.GELUKT) {
+                    saldi.remove(opdracht.sleutel);
+                } else if (van != null) {
+                    van.centen -= opdracht.bedrag.getCenten();
+                }
+                if (resultaat == Overschrijving.GELUKT) {
+                    Shard ander = shardVan(naar);
+                    if (ander == this) {
+                        Saldo ontvanger = saldi.get(naar);
+                        if (ontvanger != null) {
+                            ontvanger.centen += opdracht.bedrag.getCenten();
+                        }
+                    } else {
+                        // vóór het resultaat: een volgende opdracht op die rekening ziet de overschrijving
+                        ander.ongeldig.add(naar);
+                    }
+                }
+                opdracht.resultaat.complete(resultaat);
+            }
+        }
+
+        // een rekening van deze of een andere shard opnieuw laten inladen
+        private void vergeten(String sleutel) {
+            Shard ander = shardVan(sleutel);
+            if (ander == this) {
+                saldi.remove(sleutel);
+            } else {
+                ander.ongeldig.add(sleutel);
+            }
+        }
+
+        private Saldo zoekSaldo(Opdracht opdracht) throws DBException {
+            Saldo saldo = saldi.get(opdracht.sleutel);
+            if (saldo == null && !onbekend.contains(opdracht.sleutel)) {
+                // uit het geheugen gevallen of niet ingeladen: eerst bewaren wat klaarstaat, dan opzoeken
+                bewaren();
+                Rekening rekening = rekeningDAO.zoekRekening(opdracht.rekeningnummer);
+                if (rekening == null) {
+                    onbekend.add(opdracht.sleutel);
+                } else {
+                    saldo = maakSaldo(rekening);
+                    saldi.put(opdracht.sleutel, saldo);
+                }
+            }
+            return saldo;
+        }
+
+        // bewaart de gelukte mutaties en geeft alle wachtende opdrachten hun resultaat
+        private void bewaren() {
+            try {
+                ArrayList<SaldoWijziging> bewaard = teBewaren.isEmpty() ? new ArrayList<>()
+                        : rekeningDAO.verrekenenSaldoRekeningen(teBewaren);
+                int volgende = 0;
+                for (int i = 0; i < wachtend.size(); i++) {
+                    Opdracht opdracht = wachtend.get(i);
+                    Object resultaat = voorlopig.get(i);
+                    if (resultaat == null) {
+                        resultaat = volgende < bewaard.size() ? bewaard.get(volgende) : null;
+                        volgende++;
+                        if (resultaat != SaldoWijziging.GELUKT) {
+                            // het geheugen klopte niet met de opslag
+                            saldi.remove(opdracht.sleutel);
+                        }
+                    }
+                    opdracht.resultaat.complete(resultaat);
+                }
+            } catch (DBException | RuntimeException ex) {
+                // wat wel bewaard werd, is niet gekend: alles opnieuw inladen
+                for (Opdracht opdracht : wachtend) {
+                    saldi.remove(opdracht.sleutel);
+                    opdracht.resultaat.completeExceptionally(ex);
+                }
+            } finally {
+                teBewaren.clear();
+                wachtend.clear();
+                voorlopig.clear();
+            }
+        }
+    }
+
+    private static Saldo maakSaldo(Rekening rekening) {
+        Saldo saldo = new Saldo();
+        saldo.centen = rekening.getSaldo().getCenten();
+        saldo.open = rekening.getStatus() == RekeningStatus.OPEN;
+        return saldo;
+    }
+}
@@ -0,0 +1,22 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.exception.DBException;
+
+/**
+ * Verwerkt de rijen van een query één voor één, terwijl ze uit de DB
+ * gelezen worden. Zo moet nooit de volledige tabel in het geheugen passen.
+ *
+ * @param <T> type van het object dat van elke rij gemaakt wordt
+ */
+@FunctionalInterface
+public interface Verwerker<T> {
+
+    /**
+     * Verwerkt één rij.
+     *
+     * @param item object gemaakt van de huidige rij
+     * @return true om door te gaan met de volgende rij, false om te stoppen
+     * @throws DBException wanneer de verwerking mislukt; het lezen stopt dan
+     */
+    boolean verwerk(T item) throws DBException;
+}
@@ -0,0 +1,94 @@
+package be.vives.ti.DAO.cache;
+
+/**
+ * Momentopname van de toestand van een LeesCache, bedoeld voor monitoring.
+ * - grootte: aantal rijen in de cache
+ * - hits: opzoekingen die uit de cache beantwoord werden
+ * - missers: opzoekingen die naar de databank gingen
+ * - verlopen: rijen verwijderd omdat hun tijd verstreken was
+ * - verdrongen: rijen verwijderd omdat de cache vol zat
+ * - verwijderd: rijen verwijderd omdat ze gewijzigd werden
+ */
+public class CacheStatistieken {
+
+    private final String naam;
+    private final boolean actief;
+    private final int grootte;
+    private final int maximum;
+    private final long aantalHits;
+    private final long aantalMissers;
+    private final long aantalVerlopen;
+    private final long aantalVerdrongen;
+    private final long aantalVerwijderd;
+
+    public CacheStatistieken(String naam, boolean actief, int grootte, int maximum, long aantalHits,
+                             long aantalMissers, long aantalVerlopen, long aantalVerdrongen,
+                             long aantalVerwijderd) {
+        this.naam = naam;
+        this.actief = actief;
+        this.grootte = grootte;
+        this.maximum = maximum;
+        this.aantalHits = aantalHits;
+        this.aantalMissers = aantalMissers;
+        this.aantalVerlopen = aantalVerlopen;
+        this.aantalVerdrongen = aantalVerdrongen;
+        this.aantalVerwijderd = aantalVerwijderd;
+    }
+
+    // getters
+    public String getNaam() {
+        return naam;
+    }
+
+    public boolean isActief() {
+        return actief;
+    }
+
+    public int getGrootte() {
+        return grootte;
+    }
+
+    public int getMaximum() {
+        return maximum;
+    }
+
+    public long getAantalHits() {
+        return aantalHits;
+    }
+
+    public long getAantalMissers() {
+        return aantalMissers;
+    }
+
+    public long getAantalVerlopen() {
+        return aantalVerlopen;
+    }
+
+    public long getAantalVerdrongen() {
+        return aantalVerdrongen;
+    }
+
+    public long getAantalVerwijderd() {
+        return aantalVerwijderd;
+    }
+
+    /**
+     * @return aandeel van de opzoekingen dat uit de cache beantwoord werd (0 - 1)
+     */
+    public double getHitRatio() {
+        long totaal = aantalHits + aantalMissers;
+        return totaal == 0 ? 0 : (double) aantalHits / totaal;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistieken {" + "naam=" + naam
+                + ", actief=" + actief
+                + ", grootte=" + grootte + "/" + maximum
+                + ", hits=" + aantalHits
+                + ", missers=" + aantalMissers
+                + ", verlopen=" + aantalVerlopen
+                + ", verdrongen=" + aantalVerdrongen
+                + ", verwijderd=" + aantalVerwijderd + '}';
+    }
+}
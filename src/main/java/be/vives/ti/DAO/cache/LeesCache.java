@@ -0,0 +1,207 @@
+package be.vives.ti.DAO.cache;
+
+import be.vives.ti.exception.DBException;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Begrensde read-through cache voor rijen die op hun sleutel opgezocht
+ * worden.
+ * - maximaal aantal elementen: de minst recent gebruikte wordt verdrongen (LRU)
+ * - elk element vervalt na een vaste tijd (TTL), zodat wijzigingen buiten
+ * deze applicatie om na die tijd zichtbaar worden
+ * - de DAO verwijdert een element zodra het in de databank gewijzigd wordt
+ * - de cache kan uitgeschakeld worden; dan wordt elke opzoeking doorgegeven
+ * <p>
+ * De databags zijn wijzigbaar, daarom wordt er een kopie bewaard en een kopie
+ * teruggegeven: de aanroeper kan het object aanpassen zonder de cache te
+ * wijzigen.
+ * <p>
+ * Een rij die geladen werd terwijl er een element verwijderd werd, wordt niet
+ * bewaard: ze kan al verouderd zijn.
+ *
+ * @param <K> type van de sleutel
+ * @param <V> type van de gecachete rij
+ */
+public class LeesCache<K, V> {
+
+    /**
+     * Haalt een rij op uit de databank wanneer ze niet in de cache zit.
+     */
+    @FunctionalInterface
+    public interface Lader<K, V> {
+        V laad(K sleutel) throws DBException;
+    }
+
+    private static class Element<V> {
+        private final V waarde;
+        private final long vervaltijd;
+
+        private Element(V waarde, long vervaltijd) {
+            this.waarde = waarde;
+            this.vervaltijd = vervaltijd;
+        }
+    }
+
+    private final String naam;
+    private final int maximum;
+    private final long ttlNanos;
+    private final UnaryOperator<V> kopie;
+    private final LongSupplier klok;
+
+    private final LinkedHashMap<K, Element<V>> elementen;
+    private volatile boolean actief;
+
+    // wordt verhoogd bij elke verwijdering (bewaakt door this)
+    private long generatie;
+
+    // tellers (bewaakt door this)
+    private long aantalHits;
+    private long aantalMissers;
+    private long aantalVerlopen;
+    private long aantalVerdrongen;
+    private long aantalVerwijderd;
+
+    /**
+     * @param naam      naam van de cache (voor logging en monitoring)
+     * @param actief    false om elke opzoeking rechtstreeks naar de databank te sturen
+     * @param maximum   maximaal aantal elementen in de cache
+     * @param ttlMillis aantal ms dat een element geldig blijft
+     * @param kopie     maakt een kopie van een rij
+     */
+    public LeesCache(String naam, boolean actief, int maximum, long ttlMillis, UnaryOperator<V> kopie) {
+        this(naam, actief, maximum, ttlMillis, kopie, System::nanoTime);
+    }
+
+    LeesCache(String naam, boolean actief, int maximum, long ttlMillis, UnaryOperator<V> kopie,
+              LongSupplier klok) {
+        if (maximum < 1 || ttlMillis < 0) {
+            throw new IllegalArgumentException("Ongeldige instellingen voor de cache " + naam);
+        }
+        this.naam = naam;
+        this.actief = actief;
+        this.maximum = maximum;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.kopie = kopie;
+        this.klok = klok;
+        // accessOrder = true: de minst recent gebruikte staat vooraan
+        this.elementen = new LinkedHashMap<K, Element<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Element<V>> oudste) {
+                if (size() > LeesCache.this.maximum) {
+                    aantalVerdrongen++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Zoekt een rij in de cache; wanneer ze er niet (meer) in zit, wordt ze
+     * met de lader opgehaald en bewaard. Een rij die niet bestaat (null)
+     * wordt niet bewaard.
+     *
+     * @param sleutel sleutel van de rij
+     * @param lader   haalt de rij op uit de databank
+     * @return kopie van de rij, null indien ze niet bestaat
+     * @throws DBException fout van de lader
+     */
+    public V zoek(K sleutel, Lader<K, V> lader) throws DBException {
+        if (!actief) {
+            return lader.laad(sleutel);
+        }
+        long generatieVoorLaden;
+        synchronized (this) {
+            Element<V> element = elementen.get(sleutel);
+            if (element != null) {
+                if (klok.getAsLong() - element.vervaltijd < 0) {
+                    aantalHits++;
+                    return kopie.apply(element.waarde);
+                }
+                elementen.remove(sleutel);
+                aantalVerlopen++;
+            }
+            aantalMissers++;
+            generatieVoorLaden = generatie;
+        }
+        // niet laden terwijl de cache vergrendeld is
+        V waarde = lader.laad(sleutel);
+        if (waarde != null) {
+            synchronized (this) {
+                if (actief && generatie == generatieVoorLaden) {
+                    elementen.put(sleutel, new Element<>(kopie.apply(waarde), klok.getAsLong() + ttlNanos));
+                }
+            }
+        }
+        return waarde;
+    }
+
+    /**
+     * Verwijdert een rij uit de cache, omdat ze in de databank gewijzigd werd
+     * (of gewijzigd kan zijn).
+     *
+     * @param sleutel sleutel van de rij
+     */
+    public synchronized void verwijder(K sleutel) {
+        generatie++;
+        if (elementen.remove(sleutel) != null) {
+            aantalVerwijderd++;
+        }
+    }
+
+    /**
+     * Verwijdert alle rijen uit de cache.
+     */
+    public synchronized void leegmaken() {
+        generatie++;
+        aantalVerwijderd += elementen.size();
+        elementen.clear();
+    }
+
+    /**
+     * Verwijdert de rijen waarvan de tijd verstreken is. Verlopen rijen
+     * worden ook bij het opzoeken verwijderd; dit maakt het geheugen vrij van
+     * rijen die niet meer opgezocht worden.
+     */
+    public synchronized void opruimen() {
+        long nu = klok.getAsLong();
+        Iterator<Element<V>> it = elementen.values().iterator();
+        while (it.hasNext()) {
+            if (nu - it.next().vervaltijd >= 0) {
+                it.remove();
+                aantalVerlopen++;
+            }
+        }
+    }
+
+    /**
+     * Schakelt de cache aan of uit. Bij het uitschakelen wordt de cache
+     * leeggemaakt, zodat er na het opnieuw inschakelen geen verouderde rijen
+     * teruggegeven worden.
+     *
+     * @param actief true om de cache te gebruiken
+     */
+    public synchronized void setActief(boolean actief) {
+        this.actief = actief;
+        if (!actief) {
+            leegmaken();
+        }
+    }
+
+    public boolean isActief() {
+        return actief;
+    }
+
+    /**
+     * @return momentopname van de tellers van de cache
+     */
+    public synchronized CacheStatistieken getStatistieken() {
+        return new CacheStatistieken(naam, actief, elementen.size(), maximum, aantalHits, aantalMissers,
+                aantalVerlopen, aantalVerdrongen, aantalVerwijderd);
+    }
+}
@@ -1,6 +1,10 @@
 package be.vives.ti.DAO.connect;
 
+import be.vives.ti.DAO.metriek.DAOMetrieken;
+import be.vives.ti.DAO.metriek.TraagQueryLog;
+import be.vives.ti.DAO.migratie.Migraties;
 import be.vives.ti.exception.DBException;
+import be.vives.ti.jfr.ConnectieEvent;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -8,21 +12,107 @@ import java.sql.SQLException;
 
 public class ConnectionManager {
 
+    private static volatile ConnectionPool pool;
+
     /**
-     * Levert een connectie naar de be.vives.DAO. Leest hiervoor uit het bestand
-     * DB.properties
+     * Levert een connectie naar de be.vives.DAO uit de connectiepool. De pool
+     * wordt bij de eerste oproep aangemaakt op basis van het bestand
+     * DB.properties; daarbij worden ook de schemamigraties toegepast (zie
+     * Migraties). Het sluiten van de connectie geeft ze terug aan de pool.
      *
      * @return connectie-object naar de be.vives.DAO
      * @throws DBException wanneer de be.vives.DAO niet toegankelijk is
      */
     public static Connection getConnection() throws DBException {
+        return getConnection(null);
+    }
 
+    /**
+     * Levert een connectie uit de connectiepool voor de opgegeven
+     * DAO-methode, zodat het gebruik ervan onder die naam gemeten kan worden
+     * (zie DAOMetrieken). Het verkrijgen wordt als ConnectieEvent aan de
+     * Flight Recorder gemeld.
+     *
+     * @param methode naam van de DAO-methode, bv. "KlantDAO.zoekKlant"
+     * @return connectie-object naar de be.vives.DAO
+     * @throws DBException wanneer de be.vives.DAO niet toegankelijk is
+     */
+    public static Connection getConnection(String methode) throws DBException {
+        ConnectieEvent event = ConnectieEvent.starten(methode);
         try {
-            //driver laden
-            Class.forName(DBProp.getDriver());
-            return DriverManager.getConnection(DBProp.getDbUrl(), DBProp.getLogin(), DBProp.getPaswoord());
-        } catch (ClassNotFoundException | SQLException ex) {
-            throw new DBException("Connectie met de be.vives.DAO mislukt: " + ex);
+            Connection conn = getPool().leenConnectie(methode);
+            event.gelukt();
+            return conn;
+        } catch (DBException | RuntimeException ex) {
+            event.mislukt(ex);
+            throw ex;
+        } finally {
+            event.afsluiten();
+        }
+    }
+
+    /**
+     * @return statistieken van de connectiepool (voor monitoring)
+     * @throws DBException wanneer de be.vives.DAO niet toegankelijk is
+     */
+    public static PoolStatistieken getPoolStatistieken() throws DBException {
+        return getPool().getStatistieken();
+    }
+
+    /**
+     * Sluit de connectiepool en alle vrije connecties. Een volgende oproep
+     * van getConnection maakt een nieuwe pool aan.
+     */
+    public static synchronized void sluitPool() {
+        DAOMetrieken.stoppen();
+        TraagQueryLog.stoppen();
+        if (pool != null) {
+            pool.sluiten();
+            pool = null;
+        }
+    }
+
+    private static ConnectionPool getPool() throws DBException {
+        ConnectionPool bestaand = pool;
+        if (bestaand != null) {
+            return bestaand;
+        }
+        return maakPool();
+    }
+
+    private static synchronized ConnectionPool maakPool() throws DBException {
+        if (pool == null) {
+            try {
+                //driver laden (eenmalig)
+                Class.forName(DBProp.getDriver());
+            } catch (ClassNotFoundException ex) {
+                throw new DBException("Connectie met de be.vives.DAO mislukt: " + ex);
+            }
+            String dbUrl = DBProp.getDbUrl();
+            String login = DBProp.getLogin();
+            String paswoord = DBProp.getPaswoord();
+            DAOMetrieken.configureren(DBProp.isMetriekenActief(), DBProp.getMetriekenLogInterval());
+            TraagQueryLog.configureren(DBProp.getTraagQueryDrempel(), DBProp.getTraagQueryBestand(),
+                    DBProp.getTraagQueryBestandGrootte(), DBProp.getTraagQueryAantalBestanden());
+            ConnectionPool nieuwePool = new ConnectionPool(
+                    () -> DriverManager.getConnection(dbUrl, login, paswoord),
+                    DBProp.getPoolMinimum(),
+                    DBProp.getPoolMaximum(),
+                    DBProp.getPoolIdleTimeout(),
+                    DBProp.getPoolUitleenTimeout(),
+                    DBProp.getPoolLekDrempel(),
+                    DBProp.getPoolValidatieTimeout());
+            if (DBProp.isMigratiesActief()) {
+                // schema op de laatste versie brengen voor de eerste DAO er gebruik van maakt
+                try (Connection conn = nieuwePool.leenConnectie("Migraties.toepassen")) {
+                    new Migraties().toepassen(conn);
+                } catch (SQLException | DBException ex) {
+                    nieuwePool.sluiten();
+                    throw new DBException("Schemamigratie mislukt: " + ex);
+                }
+            }
+            pool = nieuwePool;
         }
+        return pool;
     }
 }
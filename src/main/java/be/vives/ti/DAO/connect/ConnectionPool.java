@@ -0,0 +1,401 @@
+package be.vives.ti.DAO.connect;
+
+import be.vives.ti.DAO.metriek.DAOMetrieken;
+import be.vives.ti.DAO.metriek.Oproep;
+import be.vives.ti.exception.DBException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool van herbruikbare databaseconnecties. In plaats van bij elke
+ * DAO-oproep een nieuwe connectie op te bouwen (TCP + aanmelden), worden
+ * connecties na gebruik teruggegeven aan de pool en opnieuw uitgeleend.
+ * <p>
+ * - het aantal fysieke connecties ligt tussen een minimum en een maximum
+ * - connecties die te lang ongebruikt blijven, worden gesloten (tot het minimum)
+ * - een vrije connectie wordt gevalideerd voor ze uitgeleend wordt
+ * - wie langer dan de uitleen-time-out moet wachten, krijgt een DBException
+ * - connecties die te lang uitgeleend blijven, worden als lek gemeld
+ * <p>
+ * Een uitgeleende connectie sluiten (bv. via try-with-resources) geeft ze
+ * terug aan de pool, de fysieke connectie blijft open.
+ */
+public class ConnectionPool {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    /**
+     * Maakt een nieuwe fysieke connectie naar de databank.
+     */
+    public interface ConnectieFabriek {
+        Connection maakConnectie() throws SQLException;
+    }
+
+    private final ConnectieFabriek fabriek;
+    private final int minimum;
+    private final int maximum;
+    private final long idleTimeoutMillis;
+    private final long uitleenTimeoutMillis;
+    private final long lekDrempelMillis;
+    private final int validatieTimeoutSeconden;
+
+    // vrije connecties: de laatst teruggegeven connectie staat vooraan (LIFO),
+    // zodat de langst ongebruikte connecties achteraan staan en eerst gesloten worden
+    private final LinkedBlockingDeque<VrijeConnectie> vrij = new LinkedBlockingDeque<>();
+    // elke uitgeleende connectie neemt een vergunning, zo komen er nooit meer dan maximum in gebruik
+    private final Semaphore vergunningen;
+    private final Map<Connection, Uitlening> uitgeleend = new ConcurrentHashMap<>();
+    private final AtomicInteger aantalFysiek = new AtomicInteger();
+
+    private final AtomicLong aantalUitleningen = new AtomicLong();
+    private final AtomicLong aantalAangemaakt = new AtomicLong();
+    private final AtomicLong aantalGesloten = new AtomicLong();
+    private final AtomicLong aantalTimeouts = new AtomicLong();
+    private final AtomicLong aantalValidatieFouten = new AtomicLong();
+    private final AtomicLong aantalLekken = new AtomicLong();
+    private final AtomicLong totaleWachttijdNanos = new AtomicLong();
+
+    private final ScheduledExecutorService onderhoud;
+    private volatile boolean gesloten;
+
+    /**
+     * Maakt een pool aan en vult die op tot het minimum aantal connecties.
+     *
+     * @param fabriek                  maakt nieuwe fysieke connecties
+     * @param minimum                  aantal connecties dat altijd open blijft
+     * @param maximum                  maximaal aantal connecties
+     * @param idleTimeoutMillis        na hoeveel ms een ongebruikte connectie gesloten wordt
+     * @param uitleenTimeoutMillis     hoe lang maximaal gewacht wordt op een vrije connectie
+     * @param lekDrempelMillis         na hoeveel ms een uitgeleende connectie als lek gemeld
+     *                                 wordt (0 = geen lekdetectie)
+     * @param validatieTimeoutSeconden time-out voor de validatie van een vrije connectie
+     */
+    public ConnectionPool(ConnectieFabriek fabriek, int minimum, int maximum,
+                          long idleTimeoutMillis, long uitleenTimeoutMillis,
+                          long lekDrempelMillis, int validatieTimeoutSeconden) {
+        if (fabriek == null) {
+            throw new IllegalArgumentException("Er werd geen connectiefabriek opgegeven.");
+        }
+        if (minimum < 0 || maximum < 1 || minimum > maximum) {
+            throw new IllegalArgumentException("Ongeldige poolgrootte: minimum " + minimum
+                    + ", maximum " + maximum);
+        }
+        this.fabriek = fabriek;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.uitleenTimeoutMillis = uitleenTimeoutMillis;
+        this.lekDrempelMillis = lekDrempelMillis;
+        this.validatieTimeoutSeconden = validatieTimeoutSeconden;
+        this.vergunningen = new Semaphore(maximum, true);
+
+        aanvullenTotMinimum();
+
+        this.onderhoud = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connectionpool-onderhoud");
+            t.setDaemon(true);
+            return t;
+        });
+        long periode = Math.max(1000L, Math.min(idleTimeoutMillis / 2, 30000L));
+        onderhoud.scheduleWithFixedDelay(this::onderhoud, periode, periode, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Leent een connectie uit de pool. Is er geen vrije connectie en is het
+     * maximum bereikt, dan wordt gewacht tot er een teruggegeven wordt.
+     *
+     * @return connectie die na gebruik gesloten moet worden (geeft ze terug aan de pool)
+     * @throws DBException wanneer de pool gesloten is, er te lang gewacht
+     *                     werd of er geen nieuwe connectie gemaakt kon worden.
+     */
+    public Connection leenConnectie() throws DBException {
+        return leenConnectie(null);
+    }
+
+    /**
+     * Leent een connectie uit de pool voor de opgegeven DAO-methode. Wanneer
+     * de DAO-metrieken actief zijn, worden het verkrijgen van de connectie en
+     * het gebruik ervan onder die naam gemeten (zie DAOMetrieken).
+     *
+     * @param methode naam van de DAO-methode, bv. "KlantDAO.zoekKlant" (mag null zijn)
+     * @return connectie die na gebruik gesloten moet worden (geeft ze terug aan de pool)
+     * @throws DBException wanneer de pool gesloten is, er te lang gewacht
+     *                     werd of er geen nieuwe connectie gemaakt kon worden.
+     */
+    public Connection leenConnectie(String methode) throws DBException {
+        Oproep oproep = DAOMetrieken.start(methode);
+        if (gesloten) {
+            mislukt(oproep);
+            throw new DBException("Connectiepool is gesloten.");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!vergunningen.tryAcquire(uitleenTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                aantalTimeouts.incrementAndGet();
+                mislukt(oproep);
+                throw new DBException("Geen vrije connectie binnen " + uitleenTimeoutMillis
+                        + " ms (maximum " + maximum + " connecties in gebruik).");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            mislukt(oproep);
+            throw new DBException("Wachten op een vrije connectie werd onderbroken.");
+        }
+
+        try {
+            Connection fysiek = zoekGeldigeVrijeConnectie();
+            if (fysiek == null) {
+                fysiek = maakFysiekeConnectie();
+            }
+            totaleWachttijdNanos.addAndGet(System.nanoTime() - start);
+            aantalUitleningen.incrementAndGet();
+            if (oproep != null) {
+                oproep.connectieVerkregen();
+            }
+            return uitlenen(fysiek, oproep);
+        } catch (SQLException | RuntimeException ex) {
+            vergunningen.release();
+            mislukt(oproep);
+            throw new DBException("Connectie met de be.vives.DAO mislukt: " + ex);
+        }
+    }
+
+    private static void mislukt(Oproep oproep) {
+        if (oproep != null) {
+            oproep.mislukt();
+        }
+    }
+
+    /**
+     * @return momentopname van de toestand en tellers van de pool
+     */
+    public PoolStatistieken getStatistieken() {
+        long uitleningen = aantalUitleningen.get();
+        return new PoolStatistieken(
+                uitgeleend.size(),
+                vrij.size(),
+                aantalFysiek.get(),
+                vergunningen.getQueueLength(),
+                minimum,
+                maximum,
+                uitleningen,
+                aantalAangemaakt.get(),
+                aantalGesloten.get(),
+                aantalTimeouts.get(),
+                aantalValidatieFouten.get(),
+                aantalLekken.get(),
+                uitleningen == 0 ? 0 : totaleWachttijdNanos.get() / uitleningen / 1000);
+    }
+
+    /**
+     * Sluit de pool: alle vrije connecties worden gesloten, uitgeleende
+     * connecties worden gesloten wanneer ze teruggegeven worden.
+     */
+    public void sluiten() {
+        gesloten = true;
+        onderhoud.shutdownNow();
+        VrijeConnectie vc;
+        while ((vc = vrij.pollFirst()) != null) {
+            sluitFysiek(vc.fysiek);
+        }
+    }
+
+    /**
+     * Eén onderhoudsronde: te lang ongebruikte connecties sluiten, aanvullen
+     * tot het minimum en lekken melden. Wordt periodiek uitgevoerd.
+     */
+    void onderhoud() {
+        if (gesloten) {
+            return;
+        }
+        long nu = System.currentTimeMillis();
+
+        // langst ongebruikte connecties staan achteraan
+        Iterator<VrijeConnectie> it = vrij.descendingIterator();
+        while (it.hasNext() && aantalFysiek.get() > minimum) {
+            VrijeConnectie vc = it.next();
+            if (nu - vc.vrijSinds >= idleTimeoutMillis && vrij.removeFirstOccurrence(vc)) {
+                sluitFysiek(vc.fysiek);
+            }
+        }
+
+        aanvullenTotMinimum();
+
+        if (lekDrempelMillis > 0) {
+            for (Uitlening uitlening : uitgeleend.values()) {
+                if (!uitlening.gemeld && nu - uitlening.sinds >= lekDrempelMillis) {
+                    uitlening.gemeld = true;
+                    aantalLekken.incrementAndGet();
+                    LOGGER.log(Level.WARNING, "Mogelijk connectielek: connectie al "
+                            + (nu - uitlening.sinds) + " ms uitgeleend aan thread "
+                            + uitlening.thread + ", uitgeleend op:", uitlening.herkomst);
+                }
+            }
+        }
+    }
+
+    private Connection zoekGeldigeVrijeConnectie() {
+        VrijeConnectie vc;
+        while ((vc = vrij.pollFirst()) != null) {
+            if (isGeldig(vc.fysiek)) {
+                return vc.fysiek;
+            }
+            aantalValidatieFouten.incrementAndGet();
+            sluitFysiek(vc.fysiek);
+        }
+        return null;
+    }
+
+    private boolean isGeldig(Connection fysiek) {
+        try {
+            return !fysiek.isClosed() && fysiek.isValid(validatieTimeoutSeconden);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private Connection maakFysiekeConnectie() throws SQLException {
+        Connection fysiek = fabriek.maakConnectie();
+        aantalFysiek.incrementAndGet();
+        aantalAangemaakt.incrementAndGet();
+        return fysiek;
+    }
+
+    private void aanvullenTotMinimum() {
+        // enkel met een vrije vergunning, zodat het maximum nooit overschreden wordt
+        while (!gesloten && aantalFysiek.get() < minimum && vergunningen.tryAcquire()) {
+            try {
+                vrij.offerLast(new VrijeConnectie(maakFysiekeConnectie()));
+            } catch (SQLException ex) {
+                LOGGER.log(Level.WARNING, "Aanvullen van de connectiepool mislukt: " + ex);
+                return;
+            } finally {
+                vergunningen.release();
+            }
+        }
+    }
+
+    private Connection uitlenen(Connection fysiek, Oproep oproep) {
+        Uitlening uitlening = new Uitlening(fysiek, lekDrempelMillis > 0, oproep);
+        Connection proxy = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, uitlening);
+        uitgeleend.put(proxy, uitlening);
+        return proxy;
+    }
+
+    private void terugnemen(Connection proxy, Uitlening uitlening) {
+        uitgeleend.remove(proxy);
+        Connection fysiek = uitlening.fysiek;
+        try {
+            // openstaande transactie mag niet meegegeven worden aan de volgende gebruiker
+            if (!fysiek.isClosed() && !fysiek.getAutoCommit()) {
+                fysiek.rollback();
+                fysiek.setAutoCommit(true);
+            }
+            if (gesloten || fysiek.isClosed()) {
+                sluitFysiek(fysiek);
+            } else {
+                vrij.offerFirst(new VrijeConnectie(fysiek));
+            }
+        } catch (SQLException ex) {
+            sluitFysiek(fysiek);
+        } finally {
+            vergunningen.release();
+        }
+    }
+
+    private void sluitFysiek(Connection fysiek) {
+        aantalFysiek.decrementAndGet();
+        aantalGesloten.incrementAndGet();
+        try {
+            fysiek.close();
+        } catch (SQLException ex) {
+            LOGGER.log(Level.FINE, "Sluiten van connectie mislukt: " + ex);
+        }
+    }
+
+    private static final class VrijeConnectie {
+        private final Connection fysiek;
+        private final long vrijSinds = System.currentTimeMillis();
+
+        private VrijeConnectie(Connection fysiek) {
+            this.fysiek = fysiek;
+        }
+    }
+
+    /**
+     * Uitgeleende connectie: stuurt alle oproepen door naar de fysieke
+     * connectie, behalve close() (teruggeven aan de pool) en isClosed().
+     * Wordt de oproep gemeten, dan worden de statements die de connectie
+     * teruggeeft omhuld door de Oproep.
+     */
+    private final class Uitlening implements InvocationHandler {
+        private final Connection fysiek;
+        private final Oproep oproep;
+        private final long sinds = System.currentTimeMillis();
+        private final String thread = Thread.currentThread().getName();
+        private final Throwable herkomst;
+        // compareAndSet: bij gelijktijdige close wordt de connectie maar één keer teruggenomen
+        private final AtomicBoolean teruggegeven = new AtomicBoolean();
+        private volatile boolean gemeld;
+
+        private Uitlening(Connection fysiek, boolean herkomstBijhouden, Oproep oproep) {
+            this.fysiek = fysiek;
+            this.oproep = oproep;
+            this.herkomst = herkomstBijhouden ? new Throwable("uitgeleend") : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (teruggegeven.compareAndSet(false, true)) {
+                        if (oproep != null) {
+                            oproep.afgerond();
+                        }
+                        terugnemen((Connection) proxy, this);
+                    }
+                    return null;
+                case "isClosed":
+                    return teruggegeven.get() || fysiek.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PoolConnectie[" + fysiek + "]";
+                default:
+                    if (teruggegeven.get()) {
+                        throw new SQLException("Connectie werd al teruggegeven aan de pool.");
+                    }
+                    try {
+                        Object resultaat = method.invoke(fysiek, args);
+                        return oproep == null ? resultaat : oproep.omhullen(resultaat, args);
+                    } catch (InvocationTargetException ex) {
+                        if (oproep != null) {
+                            oproep.fout();
+                        }
+                        throw ex.getCause();
+                    }
+            }
+        }
+    }
+}
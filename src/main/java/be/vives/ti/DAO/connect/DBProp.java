@@ -6,31 +6,120 @@ import java.util.Properties;
 
 public class DBProp {
 
+    /**
+     * systeemeigenschap waarmee een ander properties-bestand op het classpath
+     * gekozen wordt, bv. -Dbank.dbProperties=/database/DB-h2.properties
+     */
+    public static final String BESTAND_EIGENSCHAP = "bank.dbProperties";
+    private static final String STANDAARD_BESTAND = "/database/DB.properties";
+
     private static String dbUrl;
     private static String driver;
     private static String login;
     private static String paswoord;
 
+    // instellingen van de connectiepool (met standaardwaarden indien niet opgegeven)
+    private static Integer poolMinimum;
+    private static Integer poolMaximum;
+    private static Integer poolIdleTimeout;
+    private static Integer poolUitleenTimeout;
+    private static Integer poolLekDrempel;
+    private static Integer poolValidatieTimeout;
+
+    // aantal rijen dat per keer opgehaald wordt bij het overlopen van grote tabellen
+    private static Integer fetchSize;
+
+    // instellingen van de cache voor zoekKlant en zoekRekening
+    private static Boolean cacheActief;
+    private static Integer cacheMaximum;
+    private static Integer cacheTtl;
+
+    // metrieken per DAO-methode (JMX en periodiek logbericht)
+    private static Boolean metriekenActief;
+    private static Integer metriekenLogInterval;
+
+    // log van trage statements (drempel in ms, 0 = uit), roterend bestand
+    private static Integer traagQueryDrempel;
+    private static String traagQueryBestand;
+    private static Integer traagQueryBestandGrootte;
+    private static Integer traagQueryAantalBestanden;
+
+    // schemamigraties automatisch toepassen bij het aanmaken van de pool
+    private static Boolean migratiesActief;
+
     /**
-     * Haalt de URL, driver paswoord en login uit het bestand DB.properties en
-     * vult deze in in de overeenkomstige velden
+     * Haalt de URL, driver paswoord en login en de instellingen van de
+     * connectiepool uit het bestand DB.properties en vult deze in in de
+     * overeenkomstige velden
      */
     private DBProp() throws DBException {
         Properties appProperties = new Properties();
         try {
-            appProperties.load(this.getClass().getResourceAsStream(
-                    "/database/DB.properties"));
+            String bestand = System.getProperty(BESTAND_EIGENSCHAP, STANDAARD_BESTAND);
+            try (java.io.InputStream in = this.getClass().getResourceAsStream(bestand)) {
+                if (in == null) {
+                    throw new java.io.IOException(bestand);
+                }
+                appProperties.load(in);
+            }
             dbUrl = appProperties.getProperty("dbUrl");
             driver = appProperties.getProperty("driver");
             login = appProperties.getProperty("login");
             paswoord = appProperties.getProperty("paswoord");
 
+            poolMinimum = leesGetal(appProperties, "poolMinimum", 2);
+            poolMaximum = leesGetal(appProperties, "poolMaximum", 10);
+            poolIdleTimeout = leesGetal(appProperties, "poolIdleTimeout", 300000);
+            poolUitleenTimeout = leesGetal(appProperties, "poolUitleenTimeout", 5000);
+            poolLekDrempel = leesGetal(appProperties, "poolLekDrempel", 60000);
+            poolValidatieTimeout = leesGetal(appProperties, "poolValidatieTimeout", 2);
+
+            fetchSize = leesGetal(appProperties, "fetchSize", 500);
+
+            cacheActief = leesJaNee(appProperties, "cacheActief", true);
+            cacheMaximum = leesGetal(appProperties, "cacheMaximum", 10000);
+            cacheTtl = leesGetal(appProperties, "cacheTtl", 30000);
+
+            metriekenActief = leesJaNee(appProperties, "metriekenActief", false);
+            metriekenLogInterval = leesGetal(appProperties, "metriekenLogInterval", 60);
+
+            traagQueryDrempel = leesGetal(appProperties, "traagQueryDrempel", 0);
+            traagQueryBestand = appProperties.getProperty("traagQueryBestand", "%h/eenvoudigebank-traag-%g.log").trim();
+            traagQueryBestandGrootte = leesGetal(appProperties, "traagQueryBestandGrootte", 10000000);
+            traagQueryAantalBestanden = leesGetal(appProperties, "traagQueryAantalBestanden", 5);
+
+            migratiesActief = leesJaNee(appProperties, "migratiesActief", true);
+
         } catch (java.io.IOException ex) {
             throw new DBException(
                     "Bestand (DB.properties) met gegevens over DB niet gevonden.");
         }
     }
 
+    private static int leesGetal(Properties appProperties, String sleutel, int standaard) throws DBException {
+        String waarde = appProperties.getProperty(sleutel);
+        if (waarde == null || waarde.trim().isEmpty()) {
+            return standaard;
+        }
+        try {
+            return Integer.parseInt(waarde.trim());
+        } catch (NumberFormatException ex) {
+            throw new DBException("Ongeldige waarde voor " + sleutel + " in DB.properties: " + waarde);
+        }
+    }
+
+    private static boolean leesJaNee(Properties appProperties, String sleutel, boolean standaard)
+            throws DBException {
+        String waarde = appProperties.getProperty(sleutel);
+        if (waarde == null || waarde.trim().isEmpty()) {
+            return standaard;
+        }
+        if ("true".equalsIgnoreCase(waarde.trim()) || "false".equalsIgnoreCase(waarde.trim())) {
+            return Boolean.parseBoolean(waarde.trim());
+        }
+        throw new DBException("Ongeldige waarde voor " + sleutel + " in DB.properties: " + waarde);
+    }
+
     /**
      * @return the dbUrl
      * @throws DBException wanneer DB.properties niet toegankelijk is
@@ -74,4 +163,221 @@ public class DBProp {
         }
         return paswoord;
     }
+
+    /**
+     * @return minimum aantal connecties in de pool
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getPoolMinimum() throws DBException {
+        if (poolMinimum == null) {
+            DBProp db = new DBProp();
+        }
+        return poolMinimum;
+    }
+
+    /**
+     * @return maximum aantal connecties in de pool
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getPoolMaximum() throws DBException {
+        if (poolMaximum == null) {
+            DBProp db = new DBProp();
+        }
+        return poolMaximum;
+    }
+
+    /**
+     * @return aantal ms waarna een ongebruikte connectie gesloten wordt
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getPoolIdleTimeout() throws DBException {
+        if (poolIdleTimeout == null) {
+            DBProp db = new DBProp();
+        }
+        return poolIdleTimeout;
+    }
+
+    /**
+     * @return aantal ms dat maximaal gewacht wordt op een vrije connectie
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getPoolUitleenTimeout() throws DBException {
+        if (poolUitleenTimeout == null) {
+            DBProp db = new DBProp();
+        }
+        return poolUitleenTimeout;
+    }
+
+    /**
+     * @return aantal ms waarna een uitgeleende connectie als lek gemeld wordt (0 = uit)
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getPoolLekDrempel() throws DBException {
+        if (poolLekDrempel == null) {
+            DBProp db = new DBProp();
+        }
+        return poolLekDrempel;
+    }
+
+    /**
+     * @return aantal seconden dat de validatie van een connectie mag duren
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getPoolValidatieTimeout() throws DBException {
+        if (poolValidatieTimeout == null) {
+            DBProp db = new DBProp();
+        }
+        return poolValidatieTimeout;
+    }
+
+    /**
+     * @return aantal rijen dat per keer opgehaald wordt bij het overlopen van grote tabellen
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getFetchSize() throws DBException {
+        if (fetchSize == null) {
+            DBProp db = new DBProp();
+        }
+        return fetchSize;
+    }
+
+    /**
+     * @return true indien zoekKlant en zoekRekening een cache gebruiken
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static boolean isCacheActief() throws DBException {
+        if (cacheActief == null) {
+            DBProp db = new DBProp();
+        }
+        return cacheActief;
+    }
+
+    /**
+     * @return maximaal aantal rijen per cache
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getCacheMaximum() throws DBException {
+        if (cacheMaximum == null) {
+            DBProp db = new DBProp();
+        }
+        return cacheMaximum;
+    }
+
+    /**
+     * @return aantal ms dat een rij in de cache geldig blijft
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getCacheTtl() throws DBException {
+        if (cacheTtl == null) {
+            DBProp db = new DBProp();
+        }
+        return cacheTtl;
+    }
+
+    /**
+     * @return true indien de DAO-methodes gemeten worden
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static boolean isMetriekenActief() throws DBException {
+        if (metriekenActief == null) {
+            DBProp db = new DBProp();
+        }
+        return metriekenActief;
+    }
+
+    /**
+     * @return om de hoeveel seconden de metrieken gelogd worden (0 = niet)
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getMetriekenLogInterval() throws DBException {
+        if (metriekenLogInterval == null) {
+            DBProp db = new DBProp();
+        }
+        return metriekenLogInterval;
+    }
+
+    /**
+     * @return aantal ms vanaf wanneer een statement in het TraagQueryLog komt (0 = uit)
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getTraagQueryDrempel() throws DBException {
+        if (traagQueryDrempel == null) {
+            DBProp db = new DBProp();
+        }
+        return traagQueryDrempel;
+    }
+
+    /**
+     * @return patroon van het logbestand (zoals bij java.util.logging.FileHandler)
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static String getTraagQueryBestand() throws DBException {
+        if (traagQueryBestand == null) {
+            DBProp db = new DBProp();
+        }
+        return traagQueryBestand;
+    }
+
+    /**
+     * @return maximum aantal bytes per logbestand voor er geroteerd wordt
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getTraagQueryBestandGrootte() throws DBException {
+        if (traagQueryBestandGrootte == null) {
+            DBProp db = new DBProp();
+        }
+        return traagQueryBestandGrootte;
+    }
+
+    /**
+     * @return aantal logbestanden dat bewaard wordt
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static int getTraagQueryAantalBestanden() throws DBException {
+        if (traagQueryAantalBestanden == null) {
+            DBProp db = new DBProp();
+        }
+        return traagQueryAantalBestanden;
+    }
+
+    /**
+     * @return true indien de schemamigraties automatisch toegepast worden
+     * @throws DBException wanneer DB.properties niet toegankelijk is
+     */
+    public static boolean isMigratiesActief() throws DBException {
+        if (migratiesActief == null) {
+            DBProp db = new DBProp();
+        }
+        return migratiesActief;
+    }
+
+    /**
+     * Vergeet de ingelezen instellingen, zodat ze bij de volgende oproep
+     * opnieuw gelezen worden (bv. na het wijzigen van BESTAND_EIGENSCHAP).
+     * Een bestaande connectiepool blijft de oude instellingen gebruiken tot
+     * ConnectionManager.sluitPool.
+     */
+    public static synchronized void herladen() {
+        dbUrl = null;
+        driver = null;
+        login = null;
+        paswoord = null;
+        poolMinimum = null;
+        poolMaximum = null;
+        poolIdleTimeout = null;
+        poolUitleenTimeout = null;
+        poolLekDrempel = null;
+        poolValidatieTimeout = null;
+        fetchSize = null;
+        cacheActief = null;
+        cacheMaximum = null;
+        cacheTtl = null;
+        metriekenActief = null;
+        metriekenLogInterval = null;
+        traagQueryDrempel = null;
+        traagQueryBestand = null;
+        traagQueryBestandGrootte = null;
+        traagQueryAantalBestanden = null;
+        migratiesActief = null;
+    }
 }
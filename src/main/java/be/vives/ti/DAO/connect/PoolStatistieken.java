@@ -0,0 +1,114 @@
+package be.vives.ti.DAO.connect;
+
+/**
+ * Momentopname van de toestand van een ConnectionPool, bedoeld voor
+ * monitoring.
+ * - actief: connecties die op dit moment uitgeleend zijn
+ * - vrij: connecties die klaarliggen om uitgeleend te worden
+ * - totaal: alle fysieke connecties naar de databank
+ * - wachtend: threads die wachten op een vrije connectie
+ * - tellers sinds het opstarten van de pool
+ */
+public class PoolStatistieken {
+
+    private final int actief;
+    private final int vrij;
+    private final int totaal;
+    private final int wachtend;
+    private final int minimum;
+    private final int maximum;
+    private final long aantalUitleningen;
+    private final long aantalAangemaakt;
+    private final long aantalGesloten;
+    private final long aantalTimeouts;
+    private final long aantalValidatieFouten;
+    private final long aantalLekken;
+    private final long gemiddeldeWachttijdMicros;
+
+    public PoolStatistieken(int actief, int vrij, int totaal, int wachtend, int minimum, int maximum,
+                            long aantalUitleningen, long aantalAangemaakt, long aantalGesloten,
+                            long aantalTimeouts, long aantalValidatieFouten, long aantalLekken,
+                            long gemiddeldeWachttijdMicros) {
+        this.actief = actief;
+        this.vrij = vrij;
+        this.totaal = totaal;
+        this.wachtend = wachtend;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.aantalUitleningen = aantalUitleningen;
+        this.aantalAangemaakt = aantalAangemaakt;
+        this.aantalGesloten = aantalGesloten;
+        this.aantalTimeouts = aantalTimeouts;
+        this.aantalValidatieFouten = aantalValidatieFouten;
+        this.aantalLekken = aantalLekken;
+        this.gemiddeldeWachttijdMicros = gemiddeldeWachttijdMicros;
+    }
+
+    // getters
+    public int getActief() {
+        return actief;
+    }
+
+    public int getVrij() {
+        return vrij;
+    }
+
+    public int getTotaal() {
+        return totaal;
+    }
+
+    public int getWachtend() {
+        return wachtend;
+    }
+
+    public int getMinimum() {
+        return minimum;
+    }
+
+    public int getMaximum() {
+        return maximum;
+    }
+
+    public long getAantalUitleningen() {
+        return aantalUitleningen;
+    }
+
+    public long getAantalAangemaakt() {
+        return aantalAangemaakt;
+    }
+
+    public long getAantalGesloten() {
+        return aantalGesloten;
+    }
+
+    public long getAantalTimeouts() {
+        return aantalTimeouts;
+    }
+
+    public long getAantalValidatieFouten() {
+        return aantalValidatieFouten;
+    }
+
+    public long getAantalLekken() {
+        return aantalLekken;
+    }
+
+    public long getGemiddeldeWachttijdMicros() {
+        return gemiddeldeWachttijdMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStatistieken {" + "actief=" + actief
+                + ", vrij=" + vrij
+                + ", totaal=" + totaal + "/" + maximum
+                + ", wachtend=" + wachtend
+                + ", uitleningen=" + aantalUitleningen
+                + ", aangemaakt=" + aantalAangemaakt
+                + ", gesloten=" + aantalGesloten
+                + ", timeouts=" + aantalTimeouts
+                + ", validatiefouten=" + aantalValidatieFouten
+                + ", lekken=" + aantalLekken
+                + ", gemiddeldeWachttijd=" + gemiddeldeWachttijdMicros + "µs}";
+    }
+}
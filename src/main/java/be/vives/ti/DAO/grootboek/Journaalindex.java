@@ -0,0 +1,223 @@
+package be.vives.ti.DAO.grootboek;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Per rekening de posities van haar mutaties in het logboek, buiten de heap:
+ * een hashtabel met open adressering (zoals Saldotabel) die per rekening
+ * naar een ketting van blokken met posities wijst.
+ * <p>
+ * - record in de tabel (24 bytes): verpakt rekeningnummer (long), adres van
+ * het eerste en van het laatste blok (long)
+ * - blok: adres van het volgende blok (long), capaciteit (int), aantal (int)
+ * en de posities (long); een volgend blok is dubbel zo groot, tot
+ * MAX_BLOK posities
+ * - de blokken staan na elkaar in stukken van 4 MB (direct ByteBuffers);
+ * een adres is het nummer van het stuk en de plaats erin, 0 is geen blok
+ * - posities worden enkel achteraan toegevoegd, in volgorde van volgnummer;
+ * zo kan doorlopen hele blokken overslaan
+ * - niet thread-safe: de gebruiker houdt alle toegang onder één slot
+ */
+public class Journaalindex {
+
+    private static final int RECORDBREEDTE = 24;
+    private static final int SLEUTEL = 0;
+    private static final int EERSTE = 8;
+    private static final int LAATSTE = 16;
+    private static final int MAX_CAPACITEIT = 1 << 26;
+
+    private static final int VOLGENDE = 0;
+    private static final int BLOKCAPACITEIT = 8;
+    private static final int BLOKAANTAL = 12;
+    private static final int BLOKKOP = 16;
+    private static final int EERSTE_BLOK = 4;
+    private static final int MAX_BLOK = 256;
+
+    private static final int STUKBITS = 22;
+    private static final int STUKGROOTTE = 1 << STUKBITS;
+
+    private ByteBuffer records;
+    private int capaciteit;
+    private int aantal;
+
+    private final ArrayList<ByteBuffer> stukken = new ArrayList<>();
+    // volgende vrije plaats in het laatste stuk
+    private int vrij;
+
+    public Journaalindex() {
+        maakRecords(16);
+    }
+
+    private void maakRecords(int nieuweCapaciteit) {
+        records = ByteBuffer.allocateDirect(nieuweCapaciteit * RECORDBREEDTE);
+        capaciteit = nieuweCapaciteit;
+    }
+
+    private int begin(long verpakt) {
+        long h = verpakt * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (capaciteit - 1);
+    }
+
+    // -1 wanneer de rekening nog geen posities heeft
+    private int zoek(long verpakt) {
+        if (verpakt <= 0) {
+            return -1;
+        }
+        for (int plaats = begin(verpakt); ; plaats = (plaats + 1) & (capaciteit - 1)) {
+            long sleutel = records.getLong(plaats * RECORDBREEDTE + SLEUTEL);
+            if (sleutel == verpakt) {
+                return plaats;
+            }
+            if (sleutel == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Voegt de positie van een mutatie van de rekening achteraan toe; het
+     * volgnummer moet groter zijn dan dat van de vorige positie van de
+     * rekening.
+     *
+     * @throws IllegalStateException wanneer de tabel niet meer kan groeien
+     */
+    public void voegToe(long verpakt, long positie) {
+        int plaats = zoek(verpakt);
+        if (plaats < 0) {
+            plaats = nieuweRekening(verpakt);
+        }
+        int record = plaats * RECORDBREEDTE;
+        long laatste = records.getLong(record + LAATSTE);
+        if (laatste == 0 || stuk(laatste).getInt(plaatsIn(laatste) + BLOKAANTAL)
+                == stuk(laatste).getInt(plaatsIn(laatste) + BLOKCAPACITEIT)) {
+            int grootte = laatste == 0 ? EERSTE_BLOK
+                    : Math.min(MAX_BLOK, stuk(laatste).getInt(plaatsIn(laatste) + BLOKCAPACITEIT) * 2);
+            long blok = nieuwBlok(grootte);
+            if (laatste == 0) {
+                records.putLong(record + EERSTE, blok);
+            } else {
+                stuk(laatste).putLong(plaatsIn(laatste) + VOLGENDE, blok);
+            }
+            records.putLong(record + LAATSTE, blok);
+            laatste = blok;
+        }
+        ByteBuffer stuk = stuk(laatste);
+        int blok = plaatsIn(laatste);
+        int gevuld = stuk.getInt(blok + BLOKAANTAL);
+        stuk.putLong(blok + BLOKKOP + gevuld * 8, positie);
+        stuk.putInt(blok + BLOKAANTAL, gevuld + 1);
+    }
+
+    private int nieuweRekening(long verpakt) {
+        if ((aantal + 1) * 4L > capaciteit * 3L) {
+            vergroot();
+        }
+        int plaats = begin(verpakt);
+        while (records.getLong(plaats * RECORDBREEDTE + SLEUTEL) != 0) {
+            plaats = (plaats + 1) & (capaciteit - 1);
+        }
+        records.putLong(plaats * RECORDBREEDTE + SLEUTEL, verpakt);
+        aantal++;
+        return plaats;
+    }
+
+    private void vergroot() {
+        if (capaciteit >= MAX_CAPACITEIT) {
+            throw new IllegalStateException("Journaalindex is vol: " + aantal + " rekeningen");
+        }
+        ByteBuffer oud = records;
+        int oudeCapaciteit = capaciteit;
+        maakRecords(capaciteit << 1);
+        for (int plaats = 0; plaats < oudeCapaciteit; plaats++) {
+            int van = plaats * RECORDBREEDTE;
+            long sleutel = oud.getLong(van + SLEUTEL);
+            if (sleutel != 0) {
+                int nieuw = begin(sleutel);
+                while (records.getLong(nieuw * RECORDBREEDTE + SLEUTEL) != 0) {
+                    nieuw = (nieuw + 1) & (capaciteit - 1);
+                }
+                int naar = nieuw * RECORDBREEDTE;
+                records.putLong(naar + SLEUTEL, sleutel);
+                records.putLong(naar + EERSTE, oud.getLong(van + EERSTE));
+                records.putLong(naar + LAATSTE, oud.getLong(van + LAATSTE));
+            }
+        }
+    }
+
+    // allocateDirect vult met nullen: geen volgend blok en nog geen posities
+    private long nieuwBlok(int grootte) {
+        int breedte = BLOKKOP + grootte * 8;
+        if (stukken.isEmpty() || vrij + breedte > STUKGROOTTE) {
+            stukken.add(ByteBuffer.allocateDirect(STUKGROOTTE));
+            // in het eerste stuk vanaf 8, zodat adres 0 vrij blijft
+            vrij = stukken.size() == 1 ? 8 : 0;
+        }
+        long adres = ((long) (stukken.size() - 1) << STUKBITS) | vrij;
+        stukken.get(stukken.size() - 1).putInt(vrij + BLOKCAPACITEIT, grootte);
+        vrij += breedte;
+        return adres;
+    }
+
+    private ByteBuffer stuk(long adres) {
+        return stukken.get((int) (adres >>> STUKBITS));
+    }
+
+    private static int plaatsIn(long adres) {
+        return (int) adres & (STUKGROOTTE - 1);
+    }
+
+    /**
+     * Geeft de posities van de rekening met een volgnummer groter dan vanaf,
+     * in volgorde, aan de verwerker tot die false teruggeeft.
+     *
+     * @param volgnummer geeft het volgnummer van de mutatie op een positie
+     * @return false wanneer de verwerker gestopt is
+     */
+    public boolean doorlopen(long verpakt, long vanaf, LongUnaryOperator volgnummer, LongPredicate verwerker) {
+        int plaats = zoek(verpakt);
+        if (plaats < 0) {
+            return true;
+        }
+        boolean gevonden = false;
+        for (long adres = records.getLong(plaats * RECORDBREEDTE + EERSTE); adres != 0; ) {
+            ByteBuffer stuk = stuk(adres);
+            int blok = plaatsIn(adres);
+            int gevuld = stuk.getInt(blok + BLOKAANTAL);
+            int i = 0;
+            if (!gevonden) {
+                if (volgnummer.applyAsLong(stuk.getLong(blok + BLOKKOP + (gevuld - 1) * 8)) <= vanaf) {
+                    // het hele blok ligt vóór vanaf
+                    adres = stuk.getLong(blok + VOLGENDE);
+                    continue;
+                }
+                int hoog = gevuld - 1;
+                while (i < hoog) {
+                    int midden = (i + hoog) >>> 1;
+                    if (volgnummer.applyAsLong(stuk.getLong(blok + BLOKKOP + midden * 8)) <= vanaf) {
+                        i = midden + 1;
+                    } else {
+                        hoog = midden;
+                    }
+                }
+                gevonden = true;
+            }
+            for (; i < gevuld; i++) {
+                if (!verwerker.test(stuk.getLong(blok + BLOKKOP + i * 8))) {
+                    return false;
+                }
+            }
+            adres = stuk.getLong(blok + VOLGENDE);
+        }
+        return true;
+    }
+
+    /**
+     * @return aantal rekeningen met minstens één positie
+     */
+    public int getAantal() {
+        return aantal;
+    }
+}
@@ -0,0 +1,379 @@
+package be.vives.ti.DAO.grootboek;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Een bestand waar records enkel achteraan aan toegevoegd worden, via
+ * memory mapping.
+ * <p>
+ * - het bestand bestaat uit regio's van vaste grootte die één voor één
+ * gemapt worden; de eerste regio begint met een kop (herkenning en
+ * regiogrootte)
+ * - record: lengte van de inhoud (int), CRC32 van de inhoud (int), inhoud;
+ * een record loopt nooit over de grens van een regio, een lengte -1 betekent
+ * dat de rest van de regio leeg is, een lengte 0 is het einde van het logboek
+ * - bij het openen worden de records vanaf een gegeven positie (standaard
+ * BEGIN) in volgorde teruggelezen; het eerste record dat niet volledig is of
+ * waarvan de CRC niet klopt (een onderbroken schrijfbewerking), is het einde:
+ * het wordt samen met alles erna gewist
+ * - de records vóór die positie kunnen later nog gelezen worden (lezen), bv.
+ * in een andere thread, terwijl er records toegevoegd worden
+ * - group commit: wie wacht tot zijn record op schijf staat, forceert ofwel
+ * zelf alles wat tot dan geschreven is, ofwel wacht hij op een andere thread
+ * die daar al mee bezig is; één force bewaart zo de records van alle threads
+ * die intussen iets toegevoegd hebben
+ * - zonder forceren blijft een record bewaard als het proces stopt (het staat
+ * al in de page cache van het besturingssysteem), maar niet bij stroomuitval
+ */
+public class Logboek implements Closeable {
+
+    /**
+     * Krijgt bij het openen elk bewaard record, in volgorde.
+     */
+    public interface Lezer {
+        /**
+         * @param positie positie van de inhoud in het bestand
+         * @param inhoud  de inhoud van het record (alleen lezen)
+         */
+        void lees(long positie, ByteBuffer inhoud);
+    }
+
+    private static final long HERKENNING = 0x47524f4f54424b31L; // "GROOTBK1"
+    private static final int BESTANDSKOP = 16;
+
+    /**
+     * Positie van het eerste record.
+     */
+    public static final long BEGIN = BESTANDSKOP;
+    private static final int RECORDKOP = 8;
+    private static final int REGIO_EINDE = -1;
+
+    private final FileChannel kanaal;
+    private final int regiogrootte;
+    private final boolean forceren;
+
+    // enkel gewijzigd onder schrijfslot; lezers nemen een duplicate
+    private volatile MappedByteBuffer[] regios;
+    private final Object schrijfslot = new Object();
+    private final CRC32 crc = new CRC32();
+    private volatile long geschreven;
+
+    private final Object bewaarslot = new Object();
+    private long bewaard;
+    private boolean bezig;
+    private volatile Throwable fout;
+
+    private Logboek(FileChannel kanaal, int regiogrootte, boolean forceren) {
+        this.kanaal = kanaal;
+        this.regiogrootte = regiogrootte;
+        this.forceren = forceren;
+    }
+
+    /**
+     * Opent (of maakt) een logboek en leest alle bewaarde records terug.
+     *
+     * @param bestand      het logbestand
+     * @param regiogrootte grootte van een regio in bytes voor een nieuw
+     *                     bestand; een bestaand bestand houdt zijn eigen grootte
+     * @param forceren     true om bij wachtTotBewaard de records ook naar
+     *                     schijf te forceren
+     * @param lezer        krijgt elk bewaard record, null om niets te lezen
+     * @return het logboek, klaar om records toe te voegen
+     * @throws IOException wanneer het bestand niet geopend kan worden of geen
+     *                     logboek is
+     */
+    public static Logboek openen(Path bestand, int regiogrootte, boolean forceren, Lezer lezer)
+            throws IOException {
+        return openen(bestand, regiogrootte, forceren, BEGIN, lezer);
+    }
+
+    /**
+     * Opent een logboek en leest enkel de records vanaf een positie terug,
+     * bv. na een snapshot van de toestand tot die positie. De records ervoor
+     * worden niet gecontroleerd.
+     *
+     * @param vanaf positie net na een record (getGeschreven op een eerder
+     *              moment), of BEGIN
+     * @throws IOException ook wanneer het bestand korter is dan vanaf
+     */
+    public static Logboek openen(Path bestand, int regiogrootte, boolean forceren, long vanaf, Lezer lezer)
+            throws IOException {
+        FileChannel kanaal = FileChannel.open(bestand,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int grootte = regiogrootte;
+            if (kanaal.size() >= BESTANDSKOP) {
+                ByteBuffer kop = ByteBuffer.allocate(BESTANDSKOP);
+                kanaal.read(kop, 0);
+                if (kop.getLong(0) != HERKENNING) {
+                    throw new IOException("Geen logboek: " + bestand);
+                }
+                grootte = kop.getInt(8);
+            } else if (regiogrootte < 1024) {
+                throw new IllegalArgumentException("Regiogrootte moet minstens 1024 bytes zijn");
+            }
+            if (vanaf < BEGIN || vanaf > Math.max(kanaal.size(), BEGIN)) {
+                throw new IOException("Logboek " + bestand + " heeft geen record op positie " + vanaf);
+            }
+            Logboek logboek = new Logboek(kanaal, grootte, forceren);
+            logboek.herstellen(vanaf, lezer);
+            return logboek;
+        } catch (IOException | RuntimeException ex) {
+            kanaal.close();
+            throw ex;
+        }
+    }
+
+    private void herstellen(long vanaf, Lezer lezer) throws IOException {
+        regios = new MappedByteBuffer[]{kanaal.map(FileChannel.MapMode.READ_WRITE, 0, regiogrootte)};
+        MappedByteBuffer eerste = regios[0];
+        if (eerste.getLong(0) != HERKENNING) {
+            eerste.putLong(0, HERKENNING);
+            eerste.putInt(8, regiogrootte);
+        }
+        while ((long) regios.length * regiogrootte < vanaf) {
+            voegRegioToe();
+        }
+        long positie = doorlopen(vanaf, Long.MAX_VALUE, crc, lezer);
+        // alles na het laatste geldige record wissen, zodat er nooit oude bytes achter een nieuw record staan
+        int regio = (int) (positie / regiogrootte);
+        MappedByteBuffer buffer = regios[regio];
+        for (int i = (int) (positie % regiogrootte); i < regiogrootte; i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        kanaal.truncate((long) (regio + 1) * regiogrootte);
+        geschreven = positie;
+        bewaard = positie;
+        if (forceren) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Leest de records van positie tot (uiterlijk) tot, tot het eerste dat
+     * niet geldig is.
+     *
+     * @return de positie net na het laatste geldige record
+     */
+    private long doorlopen(long positie, long tot, CRC32 controle, Lezer lezer) throws IOException {
+        while (positie < tot) {
+            int regio = (int) (positie / regiogrootte);
+            int offset = (int) (positie % regiogrootte);
+            if (regio == regios.length) {
+                // enkel bij het herstellen: verder dan getGeschreven wordt anders nooit gelezen
+                voegRegioToe();
+            }
+            ByteBuffer buffer = regios[regio];
+            int lengte = regiogrootte - offset >= RECORDKOP ? buffer.getInt(offset) : REGIO_EINDE;
+            if (lengte == REGIO_EINDE) {
+                positie = (long) (regio + 1) * regiogrootte;
+                continue;
+            }
+            if (lengte <= 0 || offset + RECORDKOP + lengte > regiogrootte
+                    || (int) crc(controle, buffer, offset + RECORDKOP, lengte) != buffer.getInt(offset + 4)) {
+                // einde van het logboek of een onderbroken schrijfbewerking
+                break;
+            }
+            if (lezer != null) {
+                lezer.lees(positie + RECORDKOP, alleenLezen(buffer, offset + RECORDKOP, lengte));
+            }
+            positie += RECORDKOP + lengte;
+        }
+        return positie;
+    }
+
+    /**
+     * Leest de records tussen twee posities, bv. de records vóór de positie
+     * waarvan het logboek geopend werd. Mag gelijktijdig met toevoegen.
+     *
+     * @param van   positie net na een record, of BEGIN
+     * @param tot   positie net na een later record, hoogstens getGeschreven
+     * @param lezer krijgt elk record, in volgorde
+     * @throws IOException wanneer een record onderweg niet geldig is
+     */
+    public void lezen(long van, long tot, Lezer lezer) throws IOException {
+        if (van < BEGIN || tot > geschreven) {
+            throw new IllegalArgumentException("Ongeldig bereik in het logboek: " + van + " - " + tot);
+        }
+        long positie = doorlopen(van, tot, new CRC32(), lezer);
+        if (positie < tot) {
+            throw new IOException("Ongeldig record in het logboek op positie " + positie);
+        }
+    }
+
+    private void voegRegioToe() throws IOException {
+        MappedByteBuffer[] nieuw = Arrays.copyOf(regios, regios.length + 1);
+        nieuw[regios.length] = kanaal.map(FileChannel.MapMode.READ_WRITE,
+                (long) regios.length * regiogrootte, regiogrootte);
+        regios = nieuw;
+    }
+
+    private static long crc(CRC32 controle, ByteBuffer buffer, int offset, int lengte) {
+        controle.reset();
+        controle.update(alleenLezen(buffer, offset, lengte));
+        return controle.getValue();
+    }
+
+    private static ByteBuffer alleenLezen(ByteBuffer buffer, int offset, int lengte) {
+        ByteBuffer inhoud = buffer.asReadOnlyBuffer();
+        inhoud.position(offset);
+        inhoud.limit(offset + lengte);
+        return inhoud.slice();
+    }
+
+    /**
+     * Voegt een record toe. Het record staat pas zeker op schijf na
+     * wachtTotBewaard.
+     *
+     * @param inhoud de inhoud, van position tot limit
+     * @return de positie van de inhoud in het bestand
+     * @throws IOException wanneer het logboek niet meer bruikbaar is of
+     *                     niet kan groeien
+     */
+    public long toevoegen(ByteBuffer inhoud) throws IOException {
+        int lengte = inhoud.remaining();
+        if (lengte <= 0 || RECORDKOP + lengte > regiogrootte - BESTANDSKOP) {
+            throw new IllegalArgumentException("Ongeldige lengte voor een record: " + lengte);
+        }
+        synchronized (schrijfslot) {
+            controleerFout();
+            long positie = geschreven;
+            int offset = (int) (positie % regiogrootte);
+            if (offset + RECORDKOP + lengte > regiogrootte) {
+                if (regiogrootte - offset >= RECORDKOP) {
+                    regios[(int) (positie / regiogrootte)].putInt(offset, REGIO_EINDE);
+                }
+                positie = (positie / regiogrootte + 1) * regiogrootte;
+                offset = 0;
+            }
+            int regio = (int) (positie / regiogrootte);
+            if (regio == regios.length) {
+                voegRegioToe();
+            }
+            MappedByteBuffer buffer = regios[regio];
+            ByteBuffer doel = buffer.duplicate();
+            doel.position(offset + RECORDKOP);
+            doel.put(inhoud.duplicate());
+            buffer.putInt(offset + 4, (int) crc(crc, buffer, offset + RECORDKOP, lengte));
+            buffer.putInt(offset, lengte);
+            geschreven = positie + RECORDKOP + lengte;
+            return positie + RECORDKOP;
+        }
+    }
+
+    /**
+     * Wacht tot het record met de inhoud op positie op schijf staat (group
+     * commit). Zonder forceren keert deze methode meteen terug.
+     *
+     * @param positie wat toevoegen teruggaf
+     * @throws IOException wanneer forceren mislukte; het logboek is daarna
+     *                     niet meer bruikbaar
+     */
+    public void wachtTotBewaard(long positie) throws IOException {
+        if (!forceren) {
+            controleerFout();
+            return;
+        }
+        bewaarTot(positie);
+    }
+
+    /**
+     * Forceert alles wat tot nu toe toegevoegd werd naar schijf, ook zonder
+     * forceren (bv. vóór een snapshot naar een positie in het logboek
+     * verwijst).
+     *
+     * @throws IOException wanneer forceren mislukte
+     */
+    public void forceer() throws IOException {
+        bewaarTot(geschreven - 1);
+    }
+
+    private void bewaarTot(long positie) throws IOException {
+        while (true) {
+            long van;
+            synchronized (bewaarslot) {
+                while (bezig && bewaard <= positie) {
+                    try {
+                        bewaarslot.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Onderbroken tijdens het wachten op het logboek");
+                    }
+                }
+                controleerFout();
+                if (bewaard > positie) {
+                    return;
+                }
+                bezig = true;
+                van = bewaard;
+            }
+            // alles wat intussen toegevoegd werd, gaat mee in deze force
+            long tot = geschreven;
+            Throwable probleem = null;
+            try {
+                MappedByteBuffer[] huidig = regios;
+                for (int regio = (int) (van / regiogrootte); regio <= (tot - 1) / regiogrootte; regio++) {
+                    huidig[regio].force();
+                }
+            } catch (RuntimeException | Error ex) {
+                probleem = ex;
+            }
+            synchronized (bewaarslot) {
+                bezig = false;
+                if (probleem == null) {
+                    bewaard = Math.max(bewaard, tot);
+                } else {
+                    fout = probleem;
+                }
+                bewaarslot.notifyAll();
+            }
+        }
+    }
+
+    private void controleerFout() throws IOException {
+        if (fout != null) {
+            throw new IOException("Logboek is niet meer bruikbaar", fout);
+        }
+    }
+
+    /**
+     * @param positie positie binnen de inhoud van een toegevoegd record
+     * @param lengte  aantal bytes (binnen hetzelfde record)
+     * @return de bytes, alleen lezen
+     */
+    public ByteBuffer lees(long positie, int lengte) {
+        return alleenLezen(regios[(int) (positie / regiogrootte)], (int) (positie % regiogrootte), lengte);
+    }
+
+    /**
+     * @return positie net na het laatste toegevoegde record
+     */
+    public long getGeschreven() {
+        return geschreven;
+    }
+
+    /**
+     * Forceert wat nog niet bewaard is (indien forceren) en sluit het bestand.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (forceren && fout == null) {
+                wachtTotBewaard(geschreven - 1);
+            }
+        } finally {
+            kanaal.close();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package be.vives.ti.DAO.grootboek;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Rekeningen buiten de heap: een hashtabel met open adressering in één
+ * direct ByteBuffer, met per rekening een record van vaste breedte.
+ * <p>
+ * - record (24 bytes): verpakt rekeningnummer (long), saldo in centen
+ * (long), eigenaar (int), open (byte) en 3 bytes opvulling
+ * - de sleutel is Rekeningnummer.getVerpakt(); 0 is nooit een geldig
+ * verpakt rekeningnummer (aa ligt tussen 02 en 98) en duidt een lege plaats aan
+ * - rekeningen worden enkel toegevoegd en gesloten, nooit verwijderd, zodat
+ * lineair zoeken zonder grafstenen volstaat
+ * - de tabel verdubbelt wanneer ze voor 3/4 gevuld is; een plaats blijft
+ * geldig tot de volgende voegToe
+ * - niet thread-safe: de gebruiker houdt alle toegang onder één slot
+ */
+public class Saldotabel {
+
+    static final int RECORDBREEDTE = 24;
+    private static final int SLEUTEL = 0;
+    private static final int SALDO = 8;
+    private static final int EIGENAAR = 16;
+    private static final int OPEN = 20;
+
+    // 2^26 records van 24 bytes past nog net in een ByteBuffer (index is een int)
+    private static final int MAX_CAPACITEIT = 1 << 26;
+
+    private ByteBuffer records;
+    private int capaciteit;
+    private int aantal;
+
+    /**
+     * @param verwachtAantal aantal rekeningen waarvoor meteen plaats gemaakt wordt
+     */
+    public Saldotabel(int verwachtAantal) {
+        int nodig = 16;
+        while (nodig < MAX_CAPACITEIT && nodig * 3L / 4 < verwachtAantal) {
+            nodig <<= 1;
+        }
+        maakRecords(nodig);
+    }
+
+    private void maakRecords(int nieuweCapaciteit) {
+        // allocateDirect vult met nullen: alle plaatsen zijn leeg
+        records = ByteBuffer.allocateDirect(nieuweCapaciteit * RECORDBREEDTE);
+        capaciteit = nieuweCapaciteit;
+    }
+
+    private int begin(long verpakt) {
+        long h = verpakt * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (capaciteit - 1);
+    }
+
+    /**
+     * @return de plaats van de rekening, -1 wanneer ze niet in de tabel staat
+     */
+    public int zoek(long verpakt) {
+        if (verpakt <= 0) {
+            return -1;
+        }
+        for (int plaats = begin(verpakt); ; plaats = (plaats + 1) & (capaciteit - 1)) {
+            long sleutel = records.getLong(plaats * RECORDBREEDTE + SLEUTEL);
+            if (sleutel == verpakt) {
+                return plaats;
+            }
+            if (sleutel == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Voegt een open rekening toe; de rekening mag nog niet in de tabel staan.
+     *
+     * @return de plaats van de nieuwe rekening
+     * @throws IllegalStateException wanneer de tabel niet meer kan groeien
+     */
+    public int voegToe(long verpakt, int eigenaar, long saldo) {
+        if ((aantal + 1) * 4L > capaciteit * 3L) {
+            vergroot();
+        }
+        int plaats = begin(verpakt);
+        while (records.getLong(plaats * RECORDBREEDTE + SLEUTEL) != 0) {
+            plaats = (plaats + 1) & (capaciteit - 1);
+        }
+        int positie = plaats * RECORDBREEDTE;
+        records.putLong(positie + SLEUTEL, verpakt);
+        records.putLong(positie + SALDO, saldo);
+        records.putInt(positie + EIGENAAR, eigenaar);
+        records.put(positie + OPEN, (byte) 1);
+        aantal++;
+        return plaats;
+    }
+
+    /**
+     * Maakt meteen plaats voor een aantal rekeningen in totaal, bv. vóór het
+     * laden van een snapshot, zodat de tabel onderweg niet telkens verdubbelt.
+     */
+    public void reserveer(int totaal) {
+        while (capaciteit < MAX_CAPACITEIT && capaciteit * 3L / 4 < totaal) {
+            vergroot();
+        }
+    }
+
+    private void vergroot() {
+        if (capaciteit >= MAX_CAPACITEIT) {
+            throw new IllegalStateException("Saldotabel is vol: " + aantal + " rekeningen");
+        }
+        ByteBuffer oud = records;
+        int oudeCapaciteit = capaciteit;
+        maakRecords(capaciteit << 1);
+        for (int plaats = 0; plaats < oudeCapaciteit; plaats++) {
+            int van = plaats * RECORDBREEDTE;
+            long sleutel = oud.getLong(van + SLEUTEL);
+            if (sleutel != 0) {
+                int nieuw = begin(sleutel);
+                while (records.getLong(nieuw * RECORDBREEDTE + SLEUTEL) != 0) {
+                    nieuw = (nieuw + 1) & (capaciteit - 1);
+                }
+                int naar = nieuw * RECORDBREEDTE;
+                records.putLong(naar + SLEUTEL, sleutel);
+                records.putLong(naar + SALDO, oud.getLong(van + SALDO));
+                records.putInt(naar + EIGENAAR, oud.getInt(van + EIGENAAR));
+                records.put(naar + OPEN, oud.get(van + OPEN));
+            }
+        }
+    }
+
+    public long getSleutel(int plaats) {
+        return records.getLong(plaats * RECORDBREEDTE + SLEUTEL);
+    }
+
+    public long getSaldo(int plaats) {
+        return records.getLong(plaats * RECORDBREEDTE + SALDO);
+    }
+
+    public void setSaldo(int plaats, long saldo) {
+        records.putLong(plaats * RECORDBREEDTE + SALDO, saldo);
+    }
+
+    public int getEigenaar(int plaats) {
+        return records.getInt(plaats * RECORDBREEDTE + EIGENAAR);
+    }
+
+    public boolean isOpen(int plaats) {
+        return records.get(plaats * RECORDBREEDTE + OPEN) != 0;
+    }
+
+    public void setOpen(int plaats, boolean open) {
+        records.put(plaats * RECORDBREEDTE + OPEN, (byte) (open ? 1 : 0));
+    }
+
+    /**
+     * @return aantal rekeningen in de tabel
+     */
+    public int getAantal() {
+        return aantal;
+    }
+
+    /**
+     * @return aantal plaatsen; elke plaats van 0 tot getCapaciteit() - 1 met
+     * getSleutel(plaats) != 0 bevat een rekening
+     */
+    public int getCapaciteit() {
+        return capaciteit;
+    }
+}
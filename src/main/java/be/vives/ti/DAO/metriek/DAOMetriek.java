@@ -0,0 +1,61 @@
+package be.vives.ti.DAO.metriek;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tellers en histogrammen van één DAO-methode (bv. "KlantDAO.zoekKlant").
+ */
+class DAOMetriek {
+
+    private final String naam;
+    private final LongAdder aantal = new LongAdder();
+    private final LongAdder fouten = new LongAdder();
+    private final Histogram totaal = new Histogram();
+    private final Histogram connectie = new Histogram();
+    private final Histogram uitvoeren = new Histogram();
+    private final Histogram mapping = new Histogram();
+
+    DAOMetriek(String naam) {
+        this.naam = naam;
+    }
+
+    void connectie(long nanos) {
+        connectie.registreer(nanos);
+    }
+
+    void uitvoeren(long nanos) {
+        uitvoeren.registreer(nanos);
+    }
+
+    void mapping(long nanos) {
+        mapping.registreer(nanos);
+    }
+
+    void afgerond(long nanos, boolean fout) {
+        aantal.increment();
+        if (fout) {
+            fouten.increment();
+        }
+        totaal.registreer(nanos);
+    }
+
+    // er kon geen connectie verkregen worden
+    void mislukt() {
+        aantal.increment();
+        fouten.increment();
+    }
+
+    void leegmaken() {
+        aantal.reset();
+        fouten.reset();
+        totaal.leegmaken();
+        connectie.leegmaken();
+        uitvoeren.leegmaken();
+        mapping.leegmaken();
+    }
+
+    MetriekStatistieken getStatistieken() {
+        return new MetriekStatistieken(naam, aantal.sum(), fouten.sum(), Verdeling.van(totaal),
+                Verdeling.van(connectie), Verdeling.van(uitvoeren), Verdeling.van(mapping));
+    }
+}
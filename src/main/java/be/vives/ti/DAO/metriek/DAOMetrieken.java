@@ -0,0 +1,203 @@
+package be.vives.ti.DAO.metriek;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Houdt per DAO-methode het aantal oproepen, het aantal fouten en de
+ * verdeling van de duur bij, apart voor het verkrijgen van de connectie,
+ * het uitvoeren van de statements en de mapping van de resultaten.
+ * <p>
+ * - een DAO-methode vraagt haar connectie aan met haar naam
+ * (ConnectionManager.getConnection("KlantDAO.zoekKlant")); de pool meet
+ * de rest
+ * - uitgeschakeld (standaard) geeft start null terug en worden connecties
+ * en statements niet omhuld: de enige kost is het lezen van twee vlaggen
+ * (metrieken en TraagQueryLog)
+ * - de metingen zijn op te vragen via JMX (be.vives.ti:type=DAOMetrieken)
+ * en worden periodiek gelogd
+ * <p>
+ * Instellingen in DB.properties: metriekenActief en metriekenLogInterval
+ * (seconden, 0 = niet loggen).
+ */
+public class DAOMetrieken {
+
+    private static final Logger LOGGER = Logger.getLogger(DAOMetrieken.class.getName());
+    private static final String ONBEKEND = "onbekend";
+    private static final String JMX_NAAM = "be.vives.ti:type=DAOMetrieken";
+
+    private static final ConcurrentHashMap<String, DAOMetriek> METRIEKEN = new ConcurrentHashMap<>();
+    private static volatile boolean actief;
+    private static boolean jmxGeregistreerd;
+    private static ScheduledExecutorService logplanner;
+
+    private DAOMetrieken() {
+    }
+
+    /**
+     * Start de meting van een DAO-oproep, vlak voor het aanvragen van een
+     * connectie.
+     *
+     * @param methode naam van de DAO-methode, bv. "KlantDAO.zoekKlant" (null = onbekend)
+     * @return de oproep, of null wanneer de metrieken en het TraagQueryLog
+     * uitgeschakeld zijn
+     */
+    public static Oproep start(String methode) {
+        boolean meten = actief;
+        if (!meten && !TraagQueryLog.isActief()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        String naam = methode == null ? ONBEKEND : methode;
+        DAOMetriek metriek = null;
+        if (meten) {
+            metriek = METRIEKEN.get(naam);
+            if (metriek == null) {
+                metriek = METRIEKEN.computeIfAbsent(naam, DAOMetriek::new);
+            }
+        }
+        return new Oproep(naam, metriek, start);
+    }
+
+    public static boolean isActief() {
+        return actief;
+    }
+
+    public static void setActief(boolean actief) {
+        DAOMetrieken.actief = actief;
+    }
+
+    /**
+     * @return per DAO-methode een momentopname, gesorteerd op naam
+     */
+    public static List<MetriekStatistieken> getStatistieken() {
+        List<MetriekStatistieken> statistieken = new ArrayList<>();
+        for (DAOMetriek metriek : METRIEKEN.values()) {
+            statistieken.add(metriek.getStatistieken());
+        }
+        statistieken.sort(Comparator.comparing(MetriekStatistieken::getNaam));
+        return statistieken;
+    }
+
+    /**
+     * @return één regel per DAO-methode die al opgeroepen werd
+     */
+    public static String getOverzicht() {
+        StringBuilder sb = new StringBuilder("DAO-metrieken (µs)");
+        for (MetriekStatistieken s : getStatistieken()) {
+            if (s.getAantal() > 0) {
+                sb.append(System.lineSeparator()).append(String.format(
+                        "%-45s aantal=%d fouten=%d totaal p50=%.1f p99=%.1f p999=%.1f max=%.1f"
+                                + " | connectie p99=%.1f | uitvoeren p50=%.1f p99=%.1f | mapping p50=%.1f p99=%.1f",
+                        s.getNaam(), s.getAantal(), s.getFouten(),
+                        s.getTotaal().getP50(), s.getTotaal().getP99(), s.getTotaal().getP999(),
+                        s.getTotaal().getMaximum(), s.getConnectie().getP99(),
+                        s.getUitvoeren().getP50(), s.getUitvoeren().getP99(),
+                        s.getMapping().getP50(), s.getMapping().getP99()));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * zet alle tellers en histogrammen terug op 0
+     */
+    public static void leegmaken() {
+        for (DAOMetriek metriek : METRIEKEN.values()) {
+            metriek.leegmaken();
+        }
+    }
+
+    /**
+     * Past de instellingen toe (bij het aanmaken van de connectiepool):
+     * registreert eenmalig de JMX-bean en plant het periodieke logbericht.
+     *
+     * @param actief              metrieken bijhouden
+     * @param logIntervalSeconden om de hoeveel seconden het overzicht gelogd wordt, 0 = niet
+     */
+    public static synchronized void configureren(boolean actief, int logIntervalSeconden) {
+        setActief(actief);
+        registreerJmx();
+        stoppen();
+        if (logIntervalSeconden > 0) {
+            logplanner = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "dao-metrieken");
+                thread.setDaemon(true);
+                return thread;
+            });
+            logplanner.scheduleAtFixedRate(DAOMetrieken::log,
+                    logIntervalSeconden, logIntervalSeconden, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * stopt het periodieke logbericht (bv. bij het sluiten van de pool)
+     */
+    public static synchronized void stoppen() {
+        if (logplanner != null) {
+            logplanner.shutdownNow();
+            logplanner = null;
+        }
+    }
+
+    private static void log() {
+        if (actief) {
+            LOGGER.info(getOverzicht());
+        }
+    }
+
+    private static void registreerJmx() {
+        if (jmxGeregistreerd) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName naam = new ObjectName(JMX_NAAM);
+            if (!server.isRegistered(naam)) {
+                server.registerMBean(new Beheer(), naam);
+            }
+            jmxGeregistreerd = true;
+        } catch (JMException ex) {
+            LOGGER.log(Level.WARNING, "Registreren van de DAO-metrieken in JMX mislukt: " + ex);
+        }
+    }
+
+    private static final class Beheer implements DAOMetriekenMXBean {
+
+        @Override
+        public boolean isActief() {
+            return DAOMetrieken.isActief();
+        }
+
+        @Override
+        public void setActief(boolean actief) {
+            DAOMetrieken.setActief(actief);
+        }
+
+        @Override
+        public List<MetriekStatistieken> getMetrieken() {
+            return DAOMetrieken.getStatistieken();
+        }
+
+        @Override
+        public String getOverzicht() {
+            return DAOMetrieken.getOverzicht();
+        }
+
+        @Override
+        public void leegmaken() {
+            DAOMetrieken.leegmaken();
+        }
+    }
+}
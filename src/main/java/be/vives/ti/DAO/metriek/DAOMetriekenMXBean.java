@@ -0,0 +1,20 @@
+package be.vives.ti.DAO.metriek;
+
+import java.util.List;
+
+/**
+ * Beheerinterface van de DAO-metrieken via JMX (bv. met JConsole onder
+ * be.vives.ti:type=DAOMetrieken).
+ */
+public interface DAOMetriekenMXBean {
+
+    boolean isActief();
+
+    void setActief(boolean actief);
+
+    List<MetriekStatistieken> getMetrieken();
+
+    String getOverzicht();
+
+    void leegmaken();
+}
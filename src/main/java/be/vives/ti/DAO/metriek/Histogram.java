@@ -0,0 +1,103 @@
+package be.vives.ti.DAO.metriek;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Verdeling van tijdsduren in nanoseconden, zonder locks bij te houden
+ * vanuit meerdere threads.
+ * <p>
+ * - waarden onder 16 ns worden exact geteld
+ * - daarboven is elke macht van 2 opgedeeld in 16 vakjes, zodat een
+ * percentiel hoogstens ongeveer 6% te hoog uitvalt
+ * - het maximum wordt exact bijgehouden
+ * - registreren maakt geen objecten aan
+ */
+public class Histogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_AANTAL = 1 << SUB_BITS;
+    private static final int AANTAL_VAKJES = SUB_AANTAL + (63 - SUB_BITS) * SUB_AANTAL;
+
+    private final AtomicLongArray vakjes = new AtomicLongArray(AANTAL_VAKJES);
+    private final AtomicLong aantal = new AtomicLong();
+    private final AtomicLong maximum = new AtomicLong();
+
+    /**
+     * @param nanos gemeten duur; negatieve waarden tellen als 0
+     */
+    public void registreer(long nanos) {
+        long waarde = Math.max(0, nanos);
+        vakjes.incrementAndGet(vakje(waarde));
+        aantal.incrementAndGet();
+        long huidig = maximum.get();
+        while (waarde > huidig && !maximum.compareAndSet(huidig, waarde)) {
+            huidig = maximum.get();
+        }
+    }
+
+    public long getAantal() {
+        return aantal.get();
+    }
+
+    public long getMaximum() {
+        return maximum.get();
+    }
+
+    /**
+     * @param percentiel bv. 99.9
+     * @return bovengrens van het vakje waarin het percentiel valt (nooit meer
+     * dan het maximum), 0 zonder metingen
+     */
+    public long percentiel(double percentiel) {
+        long totaal = 0;
+        long[] tellers = new long[AANTAL_VAKJES];
+        for (int i = 0; i < AANTAL_VAKJES; i++) {
+            tellers[i] = vakjes.get(i);
+            totaal += tellers[i];
+        }
+        if (totaal == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(percentiel / 100.0 * totaal));
+        long opgeteld = 0;
+        for (int i = 0; i < AANTAL_VAKJES; i++) {
+            opgeteld += tellers[i];
+            if (opgeteld >= rang) {
+                return Math.min(bovengrens(i), maximum.get());
+            }
+        }
+        return maximum.get();
+    }
+
+    /**
+     * zet alle tellers terug op 0
+     */
+    public void leegmaken() {
+        for (int i = 0; i < AANTAL_VAKJES; i++) {
+            vakjes.set(i, 0);
+        }
+        aantal.set(0);
+        maximum.set(0);
+    }
+
+    static int vakje(long waarde) {
+        if (waarde < SUB_AANTAL) {
+            return (int) waarde;
+        }
+        int macht = 63 - Long.numberOfLeadingZeros(waarde);
+        int verschuiving = macht - SUB_BITS;
+        int sub = (int) (waarde >>> verschuiving) - SUB_AANTAL;
+        return SUB_AANTAL + verschuiving * SUB_AANTAL + sub;
+    }
+
+    static long bovengrens(int vakje) {
+        if (vakje < SUB_AANTAL) {
+            return vakje;
+        }
+        int verschuiving = (vakje - SUB_AANTAL) / SUB_AANTAL;
+        long sub = (vakje - SUB_AANTAL) % SUB_AANTAL;
+        long ondergrens = (SUB_AANTAL + sub) << verschuiving;
+        return ondergrens + (1L << verschuiving) - 1;
+    }
+}
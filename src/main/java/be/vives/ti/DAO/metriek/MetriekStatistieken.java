@@ -0,0 +1,75 @@
+package be.vives.ti.DAO.metriek;
+
+/**
+ * Momentopname van de metingen van één DAO-methode, bedoeld voor
+ * monitoring (JMX en het periodieke logbericht).
+ * - aantal: afgeronde oproepen (connectie teruggegeven aan de pool)
+ * - fouten: oproepen waarbij een SQLException optrad of geen connectie
+ * verkregen werd
+ * - totaal: van het aanvragen van de connectie tot ze teruggegeven werd
+ * - connectie: wachten op een connectie uit de pool
+ * - uitvoeren: execute, executeQuery, executeUpdate en executeBatch
+ * - mapping: van het openen tot het sluiten van een ResultSet (rijen ophalen
+ * en omzetten naar objecten)
+ */
+public class MetriekStatistieken {
+
+    private final String naam;
+    private final long aantal;
+    private final long fouten;
+    private final Verdeling totaal;
+    private final Verdeling connectie;
+    private final Verdeling uitvoeren;
+    private final Verdeling mapping;
+
+    public MetriekStatistieken(String naam, long aantal, long fouten, Verdeling totaal, Verdeling connectie,
+                               Verdeling uitvoeren, Verdeling mapping) {
+        this.naam = naam;
+        this.aantal = aantal;
+        this.fouten = fouten;
+        this.totaal = totaal;
+        this.connectie = connectie;
+        this.uitvoeren = uitvoeren;
+        this.mapping = mapping;
+    }
+
+    // getters
+    public String getNaam() {
+        return naam;
+    }
+
+    public long getAantal() {
+        return aantal;
+    }
+
+    public long getFouten() {
+        return fouten;
+    }
+
+    public Verdeling getTotaal() {
+        return totaal;
+    }
+
+    public Verdeling getConnectie() {
+        return connectie;
+    }
+
+    public Verdeling getUitvoeren() {
+        return uitvoeren;
+    }
+
+    public Verdeling getMapping() {
+        return mapping;
+    }
+
+    @Override
+    public String toString() {
+        return "MetriekStatistieken {" + "naam=" + naam
+                + ", aantal=" + aantal
+                + ", fouten=" + fouten
+                + ", totaal=[" + totaal + "]"
+                + ", connectie=[" + connectie + "]"
+                + ", uitvoeren=[" + uitvoeren + "]"
+                + ", mapping=[" + mapping + "]}";
+    }
+}
@@ -0,0 +1,230 @@
+package be.vives.ti.DAO.metriek;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Eén gemeten DAO-oproep: van het aanvragen van een connectie bij de pool
+ * tot het teruggeven ervan. De pool laat alle objecten die de connectie
+ * teruggeeft via omhullen lopen; statements en resultsets worden dan
+ * omhuld zodat de tijd voor uitvoeren en mapping gemeten wordt en trage
+ * statements aan het TraagQueryLog gemeld worden.
+ * <p>
+ * Een Oproep bestaat enkel wanneer de metrieken of het TraagQueryLog
+ * actief zijn (zie DAOMetrieken.start) en wordt door één thread gebruikt.
+ */
+public final class Oproep {
+
+    private final String methode;
+    private final DAOMetriek metriek;
+    private final long start;
+    private boolean fout;
+
+    Oproep(String methode, DAOMetriek metriek, long start) {
+        this.methode = methode;
+        this.metriek = metriek;
+        this.start = start;
+    }
+
+    /**
+     * de pool heeft een connectie uitgeleend
+     */
+    public void connectieVerkregen() {
+        if (metriek != null) {
+            metriek.connectie(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * de pool kon geen connectie uitlenen
+     */
+    public void mislukt() {
+        if (metriek != null) {
+            metriek.mislukt();
+        }
+    }
+
+    /**
+     * er trad een SQLException op bij het gebruik van de connectie
+     */
+    public void fout() {
+        fout = true;
+    }
+
+    /**
+     * de connectie werd teruggegeven aan de pool
+     */
+    public void afgerond() {
+        if (metriek != null) {
+            metriek.afgerond(System.nanoTime() - start, fout);
+        }
+    }
+
+    /**
+     * @param resultaat object dat de connectie teruggaf
+     * @param args      argumenten van de oproep op de connectie (bij
+     *                  prepareStatement is het eerste de SQL-tekst)
+     * @return een gemeten statement, of resultaat zelf indien het geen statement is
+     */
+    public Object omhullen(Object resultaat, Object[] args) {
+        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+        if (resultaat instanceof CallableStatement) {
+            return maakProxy(CallableStatement.class, new GemetenStatement(resultaat, sql));
+        }
+        if (resultaat instanceof PreparedStatement) {
+            return maakProxy(PreparedStatement.class, new GemetenStatement(resultaat, sql));
+        }
+        if (resultaat instanceof Statement) {
+            return maakProxy(Statement.class, new GemetenStatement(resultaat, sql));
+        }
+        return resultaat;
+    }
+
+    private static Object maakProxy(Class<?> type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private Object doorsturen(Object doel, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(doel, args);
+        } catch (InvocationTargetException ex) {
+            fout = true;
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * meet execute..., onthoudt SQL en parameters voor het TraagQueryLog en
+     * omhult de resultsets die het statement teruggeeft
+     */
+    private final class GemetenStatement implements InvocationHandler {
+        private final Object statement;
+        private String sql;
+        private Object[] parameters = new Object[8];
+        private int aantalParameters;
+        private int batchgrootte;
+        // begin van het laatste execute, voor de resultset die erbij hoort
+        private long uitgevoerdOp;
+
+        private GemetenStatement(Object statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String naam = method.getName();
+            if (naam.startsWith("execute")) {
+                return uitvoeren(method, args);
+            }
+            if (naam.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                onthoudParameter((Integer) args[0], naam.equals("setNull") ? null : args[1]);
+            } else if (naam.equals("clearParameters")) {
+                aantalParameters = 0;
+            } else if (naam.equals("addBatch")) {
+                batchgrootte++;
+            } else if (naam.equals("clearBatch")) {
+                batchgrootte = 0;
+            }
+            Object resultaat = doorsturen(statement, method, args);
+            if (resultaat instanceof ResultSet) {
+                return maakProxy(ResultSet.class, new GemetenResultSet(resultaat, this, uitgevoerdOp));
+            }
+            return resultaat;
+        }
+
+        private Object uitvoeren(Method method, Object[] args) throws Throwable {
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                sql = (String) args[0];
+            }
+            long begin = System.nanoTime();
+            uitgevoerdOp = begin;
+            Object resultaat;
+            try {
+                resultaat = doorsturen(statement, method, args);
+            } finally {
+                if (metriek != null) {
+                    metriek.uitvoeren(System.nanoTime() - begin);
+                }
+            }
+            if (resultaat instanceof ResultSet) {
+                return maakProxy(ResultSet.class, new GemetenResultSet(resultaat, this, begin));
+            }
+            // updates: het aantal gewijzigde rijen is meteen gekend
+            if (resultaat instanceof Integer || resultaat instanceof Long) {
+                meldIndienTraag(System.nanoTime() - begin, ((Number) resultaat).longValue());
+            } else if (resultaat instanceof int[]) {
+                long som = 0;
+                for (int aantal : (int[]) resultaat) {
+                    som += Math.max(0, aantal);
+                }
+                meldIndienTraag(System.nanoTime() - begin, som);
+                batchgrootte = 0;
+            }
+            // execute() zonder resultset: de rijen worden gemeld bij getResultSet
+            return resultaat;
+        }
+
+        private void onthoudParameter(int index, Object waarde) {
+            if (index < 1 || index > 1000) {
+                return;
+            }
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = waarde;
+            aantalParameters = Math.max(aantalParameters, index);
+        }
+
+        private void meldIndienTraag(long nanos, long rijen) {
+            if (TraagQueryLog.isTraag(nanos)) {
+                TraagQueryLog.meld(methode, sql, Arrays.copyOf(parameters, aantalParameters),
+                        batchgrootte, nanos, rijen);
+            }
+        }
+    }
+
+    /**
+     * meet de tijd van het openen tot het sluiten van een resultset en telt
+     * de rijen
+     */
+    private final class GemetenResultSet implements InvocationHandler {
+        private final Object resultSet;
+        private final GemetenStatement statement;
+        private final long uitgevoerdOp;
+        private final long geopend = System.nanoTime();
+        private long rijen;
+        private boolean gesloten;
+
+        private GemetenResultSet(Object resultSet, GemetenStatement statement, long uitgevoerdOp) {
+            this.resultSet = resultSet;
+            this.statement = statement;
+            this.uitgevoerdOp = uitgevoerdOp;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String naam = method.getName();
+            if ("close".equals(naam) && !gesloten) {
+                gesloten = true;
+                long nu = System.nanoTime();
+                if (metriek != null) {
+                    metriek.mapping(nu - geopend);
+                }
+                statement.meldIndienTraag(nu - uitgevoerdOp, rijen);
+            }
+            Object resultaat = doorsturen(resultSet, method, args);
+            if ("next".equals(naam) && Boolean.TRUE.equals(resultaat)) {
+                rijen++;
+            }
+            return resultaat;
+        }
+    }
+}
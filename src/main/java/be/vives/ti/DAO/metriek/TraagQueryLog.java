@@ -0,0 +1,260 @@
+package be.vives.ti.DAO.metriek;
+
+import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.datatype.Rekeningnummer;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Log van trage statements. Elk statement van KlantDAO of RekeningDAO dat
+ * langer duurt dan de drempel (uitvoeren + overlopen van de resultset)
+ * komt met SQL-tekst, parameters, duur, aantal rijen, DAO-methode en de
+ * oproepende servicemethode in een roterend logbestand.
+ * <p>
+ * - de drempel 0 (standaard) schakelt het log uit
+ * - de DAO-thread zet een regel enkel in een begrensde wachtrij; een aparte
+ * daemonthread schrijft naar het bestand. Is de wachtrij vol, dan gaat de
+ * regel verloren (en wordt geteld) in plaats van de DAO-thread te laten wachten
+ * - parameters worden gemaskeerd: tekst (namen, adressen...) wordt vervangen
+ * door zijn lengte, van een rekeningnummer blijven enkel de laatste 4
+ * cijfers over. Getallen, bedragen, datums en statuswaarden blijven leesbaar
+ * - het bestand roteert zoals een java.util.logging.FileHandler (patroon
+ * met %h en %g, maximum grootte, aantal bestanden)
+ */
+public final class TraagQueryLog {
+
+    private static final Logger LOGGER = Logger.getLogger(TraagQueryLog.class.getName());
+
+    static final int WACHTRIJ = 10000;
+
+    private static final String ONBEKEND = "onbekend";
+    private static final String SERVICE_PAKKET = "be.vives.ti.service.";
+    private static final String DAO_PAKKET = "be.vives.ti.DAO.";
+
+    private static final Set<String> STATUSWAARDEN = new HashSet<>();
+
+    static {
+        for (KlantStatus status : KlantStatus.values()) {
+            STATUSWAARDEN.add(status.toString());
+        }
+        for (RekeningStatus status : RekeningStatus.values()) {
+            STATUSWAARDEN.add(status.toString());
+        }
+    }
+
+    private static volatile long drempelNanos;
+    private static volatile BlockingQueue<String> wachtrij;
+    private static Thread schrijver;
+    private static FileHandler bestand;
+
+    private static final AtomicLong aantalGemeld = new AtomicLong();
+    private static final AtomicLong aantalVerloren = new AtomicLong();
+
+    private TraagQueryLog() {
+    }
+
+    /**
+     * @return true indien trage statements gelogd worden
+     */
+    public static boolean isActief() {
+        return drempelNanos > 0;
+    }
+
+    static boolean isTraag(long nanos) {
+        long drempel = drempelNanos;
+        return drempel > 0 && nanos >= drempel;
+    }
+
+    /**
+     * Past de instellingen toe (bij het aanmaken van de connectiepool): opent
+     * het logbestand en start de schrijvende thread. Een vorig log wordt
+     * eerst gestopt.
+     *
+     * @param drempelMillis    aantal ms vanaf wanneer een statement gelogd wordt, 0 = uit
+     * @param patroon          patroon van het logbestand, bv. "%h/eenvoudigebank-traag-%g.log"
+     * @param grootte          maximum aantal bytes per bestand
+     * @param aantalBestanden  aantal bestanden dat bewaard wordt
+     */
+    public static synchronized void configureren(int drempelMillis, String patroon, int grootte,
+                                                 int aantalBestanden) {
+        stoppen();
+        if (drempelMillis <= 0) {
+            return;
+        }
+        try {
+            bestand = new FileHandler(patroon, Math.max(0, grootte), Math.max(1, aantalBestanden), true);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Openen van het TraagQueryLog " + patroon + " mislukt: " + ex);
+            return;
+        }
+        bestand.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage() + System.lineSeparator();
+            }
+        });
+        BlockingQueue<String> rij = new ArrayBlockingQueue<>(WACHTRIJ);
+        FileHandler doel = bestand;
+        schrijver = new Thread(() -> schrijven(rij, doel), "traag-query-log");
+        schrijver.setDaemon(true);
+        schrijver.start();
+        wachtrij = rij;
+        drempelNanos = TimeUnit.MILLISECONDS.toNanos(drempelMillis);
+    }
+
+    /**
+     * Stopt het log: wat nog in de wachtrij staat wordt weggeschreven en het
+     * bestand wordt gesloten.
+     */
+    public static synchronized void stoppen() {
+        drempelNanos = 0;
+        wachtrij = null;
+        if (schrijver != null) {
+            schrijver.interrupt();
+            try {
+                schrijver.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            schrijver = null;
+        }
+        if (bestand != null) {
+            bestand.close();
+            bestand = null;
+        }
+    }
+
+    /**
+     * @return aantal regels dat in de wachtrij gezet werd
+     */
+    public static long getAantalGemeld() {
+        return aantalGemeld.get();
+    }
+
+    /**
+     * @return aantal regels dat verloren ging omdat de wachtrij vol zat
+     */
+    public static long getAantalVerloren() {
+        return aantalVerloren.get();
+    }
+
+    /**
+     * Zet een traag statement in de wachtrij; wacht nooit.
+     */
+    static void meld(String methode, String sql, Object[] parameters, int batchgrootte, long nanos,
+                     long rijen) {
+        BlockingQueue<String> rij = wachtrij;
+        if (rij == null) {
+            return;
+        }
+        String regel = maakRegel(new Date(), methode, bepaalAanroeper(), sql, parameters, batchgrootte,
+                nanos, rijen);
+        if (rij.offer(regel)) {
+            aantalGemeld.incrementAndGet();
+        } else {
+            aantalVerloren.incrementAndGet();
+        }
+    }
+
+    static String maakRegel(Date tijdstip, String methode, String aanroeper, String sql, Object[] parameters,
+                            int batchgrootte, long nanos, long rijen) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(tijdstip))
+                .append(" duur=").append(String.format("%.3f", nanos / 1_000_000.0)).append("ms")
+                .append(" rijen=").append(rijen)
+                .append(" methode=").append(methode)
+                .append(" aanroeper=").append(aanroeper);
+        if (batchgrootte > 0) {
+            sb.append(" batch=").append(batchgrootte);
+        }
+        sb.append(" sql=").append(sql == null ? "?" : sql.replaceAll("\\s+", " ").trim())
+                .append(" parameters=[");
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(maskeer(parameters[i]));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * @return de parameter zoals hij in het log mag komen
+     */
+    static String maskeer(Object waarde) {
+        if (waarde == null) {
+            return "NULL";
+        }
+        if (waarde instanceof Number || waarde instanceof Boolean || waarde instanceof Date) {
+            return waarde.toString();
+        }
+        String tekst = waarde.toString();
+        if (STATUSWAARDEN.contains(tekst)) {
+            return tekst;
+        }
+        if (Rekeningnummer.isGeldig(tekst)) {
+            return tekst.substring(0, 2) + "** **** **** " + tekst.substring(tekst.length() - 4);
+        }
+        return "***(" + tekst.length() + ")";
+    }
+
+    /**
+     * @return de servicemethode die de DAO opriep, of anders de eerste
+     * methode buiten de DAO-laag
+     */
+    static String bepaalAanroeper() {
+        StackTraceElement eersteBuitenDAO = null;
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            String klasse = element.getClassName();
+            if (klasse.startsWith(SERVICE_PAKKET)) {
+                return korteNaam(element);
+            }
+            if (eersteBuitenDAO == null && !klasse.startsWith(DAO_PAKKET) && !klasse.startsWith("java.")
+                    && !klasse.startsWith("javax.") && !klasse.startsWith("sun.")
+                    && !klasse.startsWith("jdk.") && !klasse.startsWith("com.sun.proxy.")
+                    && !klasse.startsWith("$Proxy")) {
+                eersteBuitenDAO = element;
+            }
+        }
+        return eersteBuitenDAO == null ? ONBEKEND : korteNaam(eersteBuitenDAO);
+    }
+
+    private static String korteNaam(StackTraceElement element) {
+        String klasse = element.getClassName();
+        return klasse.substring(klasse.lastIndexOf('.') + 1) + "." + element.getMethodName();
+    }
+
+    private static void schrijven(BlockingQueue<String> rij, FileHandler doel) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                publiceer(doel, rij.take());
+            }
+        } catch (InterruptedException ex) {
+            // gestopt: de rest van de wachtrij nog wegschrijven
+        }
+        String regel;
+        while ((regel = rij.poll()) != null) {
+            publiceer(doel, regel);
+        }
+        doel.flush();
+    }
+
+    // FileHandler.publish schrijft de regel meteen door (flush)
+    private static void publiceer(FileHandler doel, String regel) {
+        doel.publish(new LogRecord(Level.WARNING, regel));
+    }
+}
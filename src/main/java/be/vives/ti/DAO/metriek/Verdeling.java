@@ -0,0 +1,55 @@
+package be.vives.ti.DAO.metriek;
+
+/**
+ * Momentopname van een Histogram, in microseconden.
+ */
+public class Verdeling {
+
+    private final long aantal;
+    private final double p50;
+    private final double p99;
+    private final double p999;
+    private final double maximum;
+
+    public Verdeling(long aantal, double p50, double p99, double p999, double maximum) {
+        this.aantal = aantal;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.maximum = maximum;
+    }
+
+    public static Verdeling van(Histogram histogram) {
+        return new Verdeling(histogram.getAantal(),
+                histogram.percentiel(50) / 1000.0,
+                histogram.percentiel(99) / 1000.0,
+                histogram.percentiel(99.9) / 1000.0,
+                histogram.getMaximum() / 1000.0);
+    }
+
+    // getters
+    public long getAantal() {
+        return aantal;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getP999() {
+        return p999;
+    }
+
+    public double getMaximum() {
+        return maximum;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.1f p99=%.1f p999=%.1f max=%.1fµs", aantal, p50, p99, p999, maximum);
+    }
+}
@@ -0,0 +1,238 @@
+package be.vives.ti.DAO.migratie;
+
+import be.vives.ti.exception.DBException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Brengt het schema van de databank automatisch op de laatste versie. De
+ * migraties zijn SQL-scripts op het classpath: /database/migraties/V1.sql,
+ * V2.sql, ... (zonder gaten). De eerste regel is een commentaarregel met de
+ * beschrijving.
+ * <p>
+ * - de toegepaste versies staan in de tabel schema_versie, samen met een
+ * controlegetal van het script
+ * - een databank die al met database/create.sql aangemaakt werd (tabel klant
+ * bestaat, schema_versie nog niet), krijgt V1 als basislijn en enkel de
+ * latere migraties
+ * - een script dat gewijzigd werd nadat het toegepast werd, geeft een
+ * DBException: een toegepaste migratie wijzig je niet, je voegt een nieuwe toe
+ * - MySQL voert DDL niet in een transactie uit; mislukt een script halverwege,
+ * dan moet het schema met de hand hersteld worden
+ * - starten twee toepassingen tegelijk, dan faalt de migratie bij één ervan;
+ * die gaat verder wanneer de andere de versie intussen geregistreerd heeft
+ */
+public class Migraties {
+
+    private static final Logger LOGGER = Logger.getLogger(Migraties.class.getName());
+
+    public static final String MAP = "/database/migraties/";
+
+    private final String map;
+
+    public Migraties() {
+        this(MAP);
+    }
+
+    // andere map met scripts, voor de testen
+    Migraties(String map) {
+        this.map = map;
+    }
+
+    /**
+     * Past alle migraties toe die nog niet in schema_versie staan.
+     *
+     * @param conn connectie naar de databank (in autocommit)
+     * @return aantal migraties dat toegepast werd
+     * @throws DBException wanneer een script niet gelezen of uitgevoerd kan
+     *                     worden, of wanneer een toegepast script gewijzigd werd
+     */
+    public int toepassen(Connection conn) throws DBException {
+        boolean nieuweVersietabel = !bestaatTabel(conn, "schema_versie");
+        maakVersietabel(conn);
+        if (nieuweVersietabel && bestaatTabel(conn, "klant")) {
+            // schema al aangemaakt met create.sql: V1 is de basislijn
+            String v1 = leesScript(1);
+            if (v1 != null) {
+                registreer(conn, 1, beschrijving(v1) + " (basislijn)", controlegetal(v1));
+            }
+        }
+
+        int aantal = 0;
+        Map<Integer, Long> toegepast = leesToegepast(conn);
+        for (int versie = 1; ; versie++) {
+            String script = leesScript(versie);
+            if (script == null) {
+                return aantal;
+            }
+            long controle = controlegetal(script);
+            Long bekend = toegepast.get(versie);
+            if (bekend != null) {
+                if (bekend != controle) {
+                    throw new DBException("Migratie V" + versie + " werd gewijzigd nadat ze toegepast werd");
+                }
+                continue;
+            }
+            try {
+                voerUit(conn, script);
+                registreer(conn, versie, beschrijving(script), controle);
+                LOGGER.info("Schemamigratie V" + versie + " toegepast: " + beschrijving(script));
+                aantal++;
+            } catch (DBException ex) {
+                // een andere toepassing kan dezelfde migratie net uitgevoerd hebben
+                toegepast = leesToegepast(conn);
+                if (!toegepast.containsKey(versie)) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param conn connectie naar de databank
+     * @return de hoogste toegepaste versie, 0 indien nog geen enkele
+     * @throws DBException duidt op een fout in de query
+     */
+    public int getVersie(Connection conn) throws DBException {
+        int versie = 0;
+        for (Integer v : leesToegepast(conn).keySet()) {
+            versie = Math.max(versie, v);
+        }
+        return versie;
+    }
+
+    private static boolean bestaatTabel(Connection conn, String tabel) throws DBException {
+        try {
+            DatabaseMetaData meta = conn.getMetaData();
+            String naam = tabel;
+            if (meta.storesUpperCaseIdentifiers()) {
+                naam = tabel.toUpperCase(Locale.ROOT);
+            } else if (meta.storesLowerCaseIdentifiers()) {
+                naam = tabel.toLowerCase(Locale.ROOT);
+            }
+            // '_' is een jokerteken in een zoekpatroon
+            String escape = meta.getSearchStringEscape();
+            String patroon = escape == null || escape.isEmpty() ? naam : naam.replace("_", escape + "_");
+            try (ResultSet r = meta.getTables(conn.getCatalog(), null, patroon, new String[]{"TABLE"})) {
+                while (r.next()) {
+                    if (naam.equalsIgnoreCase(r.getString("TABLE_NAME"))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in bestaatTabel" + sqlEx);
+        }
+    }
+
+    private static void maakVersietabel(Connection conn) throws DBException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("create table if not exists schema_versie ("
+                    + " versie int primary key,"
+                    + " beschrijving varchar(200) not null,"
+                    + " controlegetal bigint not null,"
+                    + " toegepast_op timestamp not null)");
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in maakVersietabel" + sqlEx);
+        }
+    }
+
+    private static Map<Integer, Long> leesToegepast(Connection conn) throws DBException {
+        Map<Integer, Long> toegepast = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet r = stmt.executeQuery("select versie, controlegetal from schema_versie")) {
+            while (r.next()) {
+                toegepast.put(r.getInt("versie"), r.getLong("controlegetal"));
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in leesToegepast" + sqlEx);
+        }
+        return toegepast;
+    }
+
+    private static void registreer(Connection conn, int versie, String beschrijving, long controle)
+            throws DBException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into schema_versie(versie, beschrijving, controlegetal, toegepast_op)"
+                        + " values(?,?,?,?)")) {
+            stmt.setInt(1, versie);
+            stmt.setString(2, beschrijving.length() > 200 ? beschrijving.substring(0, 200) : beschrijving);
+            stmt.setLong(3, controle);
+            stmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            stmt.execute();
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in registreer V" + versie + sqlEx);
+        }
+    }
+
+    private static void voerUit(Connection conn, String script) throws DBException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements(script)) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in migratie" + sqlEx);
+        }
+    }
+
+    /**
+     * @return de statements uit het script, zonder commentaarregels
+     */
+    static List<String> statements(String script) {
+        StringBuilder zonderCommentaar = new StringBuilder();
+        for (String regel : script.split("\r?\n")) {
+            if (!regel.trim().startsWith("--")) {
+                zonderCommentaar.append(regel).append('\n');
+            }
+        }
+        List<String> statements = new ArrayList<>();
+        for (String sql : zonderCommentaar.toString().split(";")) {
+            if (!sql.trim().isEmpty()) {
+                statements.add(sql.trim());
+            }
+        }
+        return statements;
+    }
+
+    static String beschrijving(String script) {
+        String eerste = script.split("\r?\n", 2)[0].trim();
+        return eerste.startsWith("--") ? eerste.substring(2).trim() : "";
+    }
+
+    // regeleinden gelijkgemaakt, zodat een checkout onder Windows hetzelfde getal geeft
+    static long controlegetal(String script) {
+        CRC32 crc = new CRC32();
+        crc.update(script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private String leesScript(int versie) throws DBException {
+        try (InputStream in = Migraties.class.getResourceAsStream(map + "V" + versie + ".sql")) {
+            if (in == null) {
+                return null;
+            }
+            Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name()).useDelimiter("\\A");
+            return scanner.hasNext() ? scanner.next() : "";
+        } catch (IOException ex) {
+            throw new DBException("Fout bij het lezen van migratie V" + versie + ": " + ex);
+        }
+    }
+}
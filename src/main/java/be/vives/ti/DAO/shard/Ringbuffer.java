@@ -0,0 +1,95 @@
+package be.vives.ti.DAO.shard;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Begrensde wachtrij zonder sloten voor veel producenten en één consument:
+ * een ringbuffer met per plaats een volgnummer (zoals de begrensde wachtrij
+ * van D. Vyukov).
+ * <p>
+ * - een producent reserveert een plaats met een compare-and-set op de staart,
+ * zet het item en geeft de plaats dan vrij door het volgnummer op te hogen;
+ * de consument neemt een item pas wanneer dat volgnummer klopt, zodat hij
+ * nooit een half geschreven plaats leest
+ * - de consument geeft een plaats terug door het volgnummer één ronde verder
+ * te zetten; een volle buffer weigert een nieuw item (toevoegen geeft false)
+ * - de items komen er in de volgorde van het reserveren uit; per producent is
+ * dat de volgorde van toevoegen
+ * - afnemen en isLeeg mogen enkel door de consument opgeroepen worden
+ */
+public class Ringbuffer<T> {
+
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray volgnummers;
+    private final int masker;
+    private final AtomicLong staart = new AtomicLong();
+    // enkel de consument
+    private long kop;
+
+    /**
+     * @param capaciteit aantal plaatsen, een macht van 2
+     */
+    public Ringbuffer(int capaciteit) {
+        if (capaciteit < 2 || Integer.bitCount(capaciteit) != 1) {
+            throw new IllegalArgumentException("Capaciteit moet een macht van 2 zijn: " + capaciteit);
+        }
+        items = new AtomicReferenceArray<>(capaciteit);
+        volgnummers = new AtomicLongArray(capaciteit);
+        for (int i = 0; i < capaciteit; i++) {
+            volgnummers.set(i, i);
+        }
+        masker = capaciteit - 1;
+    }
+
+    /**
+     * @return false wanneer de buffer vol is
+     */
+    public boolean toevoegen(T item) {
+        long positie = staart.get();
+        while (true) {
+            int plaats = (int) positie & masker;
+            long verschil = volgnummers.get(plaats) - positie;
+            if (verschil == 0) {
+                if (staart.compareAndSet(positie, positie + 1)) {
+                    items.lazySet(plaats, item);
+                    volgnummers.set(plaats, positie + 1);
+                    return true;
+                }
+                positie = staart.get();
+            } else if (verschil < 0) {
+                // de consument heeft deze plaats van de vorige ronde nog niet genomen
+                return false;
+            } else {
+                positie = staart.get();
+            }
+        }
+    }
+
+    /**
+     * Neemt de items die nu klaar staan, tot maximum.
+     *
+     * @return aantal genomen items (toegevoegd aan doel)
+     */
+    public int afnemen(List<? super T> doel, int maximum) {
+        int aantal = 0;
+        while (aantal < maximum) {
+            int plaats = (int) kop & masker;
+            if (volgnummers.get(plaats) != kop + 1) {
+                break;
+            }
+            doel.add(items.get(plaats));
+            items.lazySet(plaats, null);
+            volgnummers.set(plaats, kop + masker + 1);
+            kop++;
+            aantal++;
+        }
+        return aantal;
+    }
+
+    public boolean isLeeg() {
+        return volgnummers.get((int) kop & masker) != kop + 1;
+    }
+}
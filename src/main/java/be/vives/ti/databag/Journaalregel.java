@@ -0,0 +1,91 @@
+package be.vives.ti.databag;
+
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.JournaalSoort;
+
+import java.time.LocalDateTime;
+
+/**
+ * Databag-class Transportmiddel voor één regel uit het journaal: één
+ * wijziging van het saldo van één rekening
+ * - private datamembers
+ * - getters en setters
+ * - defaultconstructor
+ * - toString() (string-representatie van een Journaalregel-object)
+ * <p>
+ * Het volgnummer stijgt over alle rekeningen heen; per rekening geven de
+ * regels in volgorde van volgnummer de geschiedenis van het saldo.
+ */
+public class Journaalregel {
+
+    private long volgnummer;
+    private String rekeningnummer;
+    private JournaalSoort soort;
+    private Bedrag verschil = Bedrag.NUL;
+    // saldo van de rekening na deze wijziging
+    private Bedrag saldo = Bedrag.NUL;
+    private LocalDateTime tijdstip;
+
+    // constructor standaard aanwezig
+
+    // getters
+    public long getVolgnummer() {
+        return volgnummer;
+    }
+
+    public String getRekeningnummer() {
+        return rekeningnummer;
+    }
+
+    public JournaalSoort getSoort() {
+        return soort;
+    }
+
+    public Bedrag getVerschil() {
+        return verschil;
+    }
+
+    public Bedrag getSaldo() {
+        return saldo;
+    }
+
+    public LocalDateTime getTijdstip() {
+        return tijdstip;
+    }
+
+    //setters
+
+    public void setVolgnummer(long volgnummer) {
+        this.volgnummer = volgnummer;
+    }
+
+    public void setRekeningnummer(String rekeningnummer) {
+        this.rekeningnummer = rekeningnummer;
+    }
+
+    public void setSoort(JournaalSoort soort) {
+        this.soort = soort;
+    }
+
+    public void setVerschil(Bedrag verschil) {
+        this.verschil = verschil;
+    }
+
+    public void setSaldo(Bedrag saldo) {
+        this.saldo = saldo;
+    }
+
+    public void setTijdstip(LocalDateTime tijdstip) {
+        this.tijdstip = tijdstip;
+    }
+
+    @Override
+    public String toString() {
+        return "Journaalregel {" + "volgnummer=" + volgnummer
+                + ", rekeningnummer=" + rekeningnummer
+                + ", soort=" + soort
+                + ", verschil=" + verschil
+                + ", saldo=" + saldo
+                + ", tijdstip=" + tijdstip + '}';
+    }
+}
@@ -0,0 +1,90 @@
+package be.vives.ti.databag;
+
+import be.vives.ti.datatype.Bedrag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Onwijzigbaar overzicht van een klant met zijn open rekeningen, bv. voor het
+ * hoofdscherm
+ * - private final datamembers, enkel getters
+ * - het aantal rekeningen en het totale saldo worden bij het aanmaken berekend
+ * - toString() (string-representatie van een KlantOverzicht-object)
+ * <p>
+ * Klant en Rekening zelf zijn wijzigbaar: de constructor bewaart kopieën en de
+ * getters geven telkens nieuwe kopieën terug. Zo kan een overzicht gedeeld
+ * worden tussen schermen en threads zonder dat het verandert.
+ */
+public final class KlantOverzicht {
+
+    private final Klant klant;
+    private final List<Rekening> rekeningen;
+    private final Bedrag totaalSaldo;
+
+    /**
+     * @param klant      de klant
+     * @param rekeningen de open rekeningen van de klant
+     */
+    public KlantOverzicht(Klant klant, List<Rekening> rekeningen) {
+        this.klant = kopieer(klant);
+        ArrayList<Rekening> kopieen = new ArrayList<>(rekeningen.size());
+        Bedrag totaal = Bedrag.NUL;
+        for (Rekening rekening : rekeningen) {
+            kopieen.add(kopieer(rekening));
+            totaal = totaal.plus(rekening.getSaldo());
+        }
+        this.rekeningen = kopieen;
+        this.totaalSaldo = totaal;
+    }
+
+    // getters
+    public Klant getKlant() {
+        return kopieer(klant);
+    }
+
+    public ArrayList<Rekening> getRekeningen() {
+        ArrayList<Rekening> kopieen = new ArrayList<>(rekeningen.size());
+        for (Rekening rekening : rekeningen) {
+            kopieen.add(kopieer(rekening));
+        }
+        return kopieen;
+    }
+
+    public int getAantalRekeningen() {
+        return rekeningen.size();
+    }
+
+    public Bedrag getTotaalSaldo() {
+        return totaalSaldo;
+    }
+
+    private static Klant kopieer(Klant klant) {
+        Klant kopie = new Klant();
+        kopie.setId(klant.getId());
+        kopie.setNaam(klant.getNaam());
+        kopie.setVoornaam(klant.getVoornaam());
+        kopie.setAdres(klant.getAdres());
+        kopie.setPostcode(klant.getPostcode());
+        kopie.setGemeente(klant.getGemeente());
+        kopie.setStatus(klant.getStatus());
+        return kopie;
+    }
+
+    private static Rekening kopieer(Rekening rekening) {
+        Rekening kopie = new Rekening();
+        // Rekeningnummer en Bedrag zijn onwijzigbaar en mogen gedeeld worden
+        kopie.setRekeningnummer(rekening.getRekeningnummer());
+        kopie.setSaldo(rekening.getSaldo());
+        kopie.setStatus(rekening.getStatus());
+        kopie.setEigenaar(rekening.getEigenaar());
+        return kopie;
+    }
+
+    @Override
+    public String toString() {
+        return "KlantOverzicht {" + "klant=" + klant.getId()
+                + ", aantalRekeningen=" + rekeningen.size()
+                + ", totaalSaldo=" + totaalSaldo + '}';
+    }
+}
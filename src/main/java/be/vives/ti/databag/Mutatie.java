@@ -0,0 +1,45 @@
+package be.vives.ti.databag;
+
+import be.vives.ti.datatype.Bedrag;
+
+/**
+ * Databag-class Transportmiddel voor een saldomutatie in een batch
+ * - private datamembers
+ * - getters en setters
+ * - defaultconstructor
+ * - toString() (string-representatie van een Mutatie-object)
+ * <p>
+ * Een positief bedrag is een storting, een negatief bedrag een opname.
+ */
+public class Mutatie {
+
+    private String rekeningnummer;
+    private Bedrag bedrag;
+
+    // constructor standaard aanwezig
+
+    // getters
+    public String getRekeningnummer() {
+        return rekeningnummer;
+    }
+
+    public Bedrag getBedrag() {
+        return bedrag;
+    }
+
+    //setters
+
+    public void setRekeningnummer(String rekeningnummer) {
+        this.rekeningnummer = rekeningnummer;
+    }
+
+    public void setBedrag(Bedrag bedrag) {
+        this.bedrag = bedrag;
+    }
+
+    @Override
+    public String toString() {
+        return "Mutatie {" + "rekeningnummer=" + rekeningnummer
+                + ", bedrag=" + bedrag + '}';
+    }
+}
@@ -0,0 +1,54 @@
+package be.vives.ti.databag;
+
+/**
+ * Databag-class Transportmiddel voor het resultaat van één mutatie uit een
+ * batch
+ * - private datamembers
+ * - getters en setters
+ * - defaultconstructor
+ * - toString() (string-representatie van een MutatieResultaat-object)
+ * <p>
+ * Wanneer de mutatie niet uitgevoerd werd, bevat foutboodschap de reden.
+ */
+public class MutatieResultaat {
+
+    private Mutatie mutatie;
+    private boolean gelukt;
+    private String foutboodschap;
+
+    // constructor standaard aanwezig
+
+    // getters
+    public Mutatie getMutatie() {
+        return mutatie;
+    }
+
+    public boolean isGelukt() {
+        return gelukt;
+    }
+
+    public String getFoutboodschap() {
+        return foutboodschap;
+    }
+
+    //setters
+
+    public void setMutatie(Mutatie mutatie) {
+        this.mutatie = mutatie;
+    }
+
+    public void setGelukt(boolean gelukt) {
+        this.gelukt = gelukt;
+    }
+
+    public void setFoutboodschap(String foutboodschap) {
+        this.foutboodschap = foutboodschap;
+    }
+
+    @Override
+    public String toString() {
+        return "MutatieResultaat {" + "mutatie=" + mutatie
+                + ", gelukt=" + gelukt
+                + (gelukt ? "" : ", foutboodschap=" + foutboodschap) + '}';
+    }
+}
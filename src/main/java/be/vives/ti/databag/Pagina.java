@@ -0,0 +1,55 @@
+package be.vives.ti.databag;
+
+import java.util.ArrayList;
+
+/**
+ * Databag-class Transportmiddel voor één pagina van een lijst
+ * - private datamembers
+ * - getters en setters
+ * - defaultconstructor
+ * - toString() (string-representatie van een Pagina-object)
+ * <p>
+ * volgendePagina is de sleutel waarmee de volgende pagina opgevraagd wordt,
+ * null indien dit de laatste pagina is.
+ *
+ * @param <T> type van de elementen op de pagina
+ */
+public class Pagina<T> {
+
+    // grootste aantal elementen dat op één pagina opgevraagd mag worden
+    public static final int MAX_PAGINAGROOTTE = 1000;
+
+    private ArrayList<T> items = new ArrayList<>();
+    private String volgendePagina;
+
+    // constructor standaard aanwezig
+
+    // getters
+    public ArrayList<T> getItems() {
+        return items;
+    }
+
+    public String getVolgendePagina() {
+        return volgendePagina;
+    }
+
+    public boolean isLaatstePagina() {
+        return volgendePagina == null;
+    }
+
+    //setters
+
+    public void setItems(ArrayList<T> items) {
+        this.items = items;
+    }
+
+    public void setVolgendePagina(String volgendePagina) {
+        this.volgendePagina = volgendePagina;
+    }
+
+    @Override
+    public String toString() {
+        return "Pagina {" + "aantal=" + items.size()
+                + ", volgendePagina=" + volgendePagina + '}';
+    }
+}
@@ -1,10 +1,10 @@
 package be.vives.ti.databag;
 
+import be.vives.ti.datatype.Bedrag;
 import be.vives.ti.datatype.RekeningStatus;
 import be.vives.ti.datatype.Rekeningnummer;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 /**
  * Databag-class Transportmiddel voor een Rekening
@@ -16,9 +16,8 @@ import java.math.RoundingMode;
 public class Rekening {
 
     private Rekeningnummer rekeningnummer;
-    //BigDecimal is ideaal voor bedragen in een bepaalde munteenheid
-    //Het maakt afronden en tot op 2-decimalen afdrukken veel eenvoudiger en correcter
-    private BigDecimal saldo = BigDecimal.ZERO;
+    //Bedrag houdt het saldo bij in eurocent: altijd 2 decimalen, zonder afrondingsfouten
+    private Bedrag saldo = Bedrag.NUL;
     private RekeningStatus status;
     private int eigenaar;  //kan nooit null zijn, dus int
 
@@ -29,12 +28,8 @@ public class Rekening {
         return rekeningnummer;
     }
 
-    public BigDecimal getSaldo() {
-        if (saldo == null) {
-            return BigDecimal.ZERO;
-        } else {
-            return saldo.setScale(2, RoundingMode.HALF_UP);
-        }
+    public Bedrag getSaldo() {
+        return saldo;
     }
 
     public RekeningStatus getStatus() {
@@ -51,8 +46,13 @@ public class Rekening {
         this.rekeningnummer = rekeningnummer;
     }
 
+    public void setSaldo(Bedrag saldo) {
+        this.saldo = saldo == null ? Bedrag.NUL : saldo;
+    }
+
+    // afgerond op 2 decimalen (HALF_UP)
     public void setSaldo(BigDecimal saldo) {
-        this.saldo = saldo;
+        setSaldo(Bedrag.van(saldo));
     }
 
     public void setStatus(RekeningStatus status) {
@@ -0,0 +1,17 @@
+package be.vives.ti.datatype;
+
+/**
+ * Het resultaat van het sluiten van een rekening, dat in één statement in
+ * de DB uitgevoerd wordt
+ * - gelukt
+ * - rekening bestaat niet
+ * - rekening is al gesloten
+ * - saldo van de rekening is niet nul
+ */
+public enum Afsluiting {
+
+    GELUKT,
+    REKENING_BESTAAT_NIET,
+    REKENING_GESLOTEN,
+    SALDO_NIET_NUL
+}
@@ -0,0 +1,129 @@
+package be.vives.ti.datatype;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Van een geldbedrag in euro een type maken. Het bedrag wordt bijgehouden als
+ * een aantal eurocent in een long, zodat optellen en vergelijken geen
+ * objecten aanmaken zoals bij BigDecimal.
+ * <p>
+ * - een bedrag is onwijzigbaar: elke bewerking geeft een nieuw Bedrag
+ * - omzetten van een BigDecimal rondt af op 2 decimalen met HALF_UP, zoals
+ * vroeger setScale(2, RoundingMode.HALF_UP)
+ * - een bewerking die buiten het bereik van een long valt, gooit een
+ * ArithmeticException in plaats van stil over te lopen
+ */
+public final class Bedrag implements Comparable<Bedrag> {
+
+    public static final Bedrag NUL = new Bedrag(0);
+
+    private static final BigInteger MIN_CENTEN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MAX_CENTEN = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private final long centen;
+
+    private Bedrag(long centen) {
+        this.centen = centen;
+    }
+
+    /**
+     * @param centen bedrag in eurocent
+     * @return het overeenkomstige bedrag
+     */
+    public static Bedrag vanCenten(long centen) {
+        return centen == 0 ? NUL : new Bedrag(centen);
+    }
+
+    /**
+     * Zet een BigDecimal om naar een Bedrag, afgerond op 2 decimalen (HALF_UP).
+     *
+     * @param bedrag bedrag in euro
+     * @return het overeenkomstige bedrag, null indien bedrag null is
+     * @throws ArithmeticException wanneer het bedrag niet in een long past
+     */
+    public static Bedrag van(BigDecimal bedrag) {
+        if (bedrag == null) {
+            return null;
+        }
+        BigInteger centen = bedrag.setScale(2, RoundingMode.HALF_UP).unscaledValue();
+        if (centen.compareTo(MIN_CENTEN) < 0 || centen.compareTo(MAX_CENTEN) > 0) {
+            throw new ArithmeticException("Bedrag te groot: " + bedrag);
+        }
+        return vanCenten(centen.longValue());
+    }
+
+    public long getCenten() {
+        return centen;
+    }
+
+    /**
+     * @return het bedrag als BigDecimal met 2 decimalen (bv. voor JDBC)
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centen, 2);
+    }
+
+    /**
+     * @throws ArithmeticException wanneer de som niet in een long past
+     */
+    public Bedrag plus(Bedrag ander) {
+        return vanCenten(Math.addExact(centen, ander.centen));
+    }
+
+    /**
+     * @throws ArithmeticException wanneer het verschil niet in een long past
+     */
+    public Bedrag min(Bedrag ander) {
+        return vanCenten(Math.subtractExact(centen, ander.centen));
+    }
+
+    /**
+     * @throws ArithmeticException bij het kleinst mogelijke bedrag
+     */
+    public Bedrag negatief() {
+        return vanCenten(Math.negateExact(centen));
+    }
+
+    public boolean isNul() {
+        return centen == 0;
+    }
+
+    public boolean isPositief() {
+        return centen > 0;
+    }
+
+    public boolean isNegatief() {
+        return centen < 0;
+    }
+
+    @Override
+    public int compareTo(Bedrag ander) {
+        return Long.compare(centen, ander.centen);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Bedrag)) {
+            return false;
+        }
+        return centen == ((Bedrag) o).centen;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centen);
+    }
+
+    // zelfde weergave als de BigDecimal met 2 decimalen, bv. 12.50 of -0.05
+    @Override
+    public String toString() {
+        long euro = Math.abs(centen / 100);
+        long rest = Math.abs(centen % 100);
+        return (centen < 0 ? "-" : "") + euro + (rest < 10 ? ".0" : ".") + rest;
+    }
+}
@@ -0,0 +1,17 @@
+package be.vives.ti.datatype;
+
+/**
+ * Van de soort van een regel in het journaal
+ * - storting (positief verschil)
+ * - opname (negatief verschil)
+ * - overschrijving (één regel voor elk van beide rekeningen)
+ * - correctie (saldo rechtstreeks gewijzigd met wijzigenSaldoRekening)
+ * deze waarden moeten overeenkomen met de waarden in de DB
+ */
+public enum JournaalSoort {
+
+    STORTING,
+    OPNAME,
+    OVERSCHRIJVING,
+    CORRECTIE
+}
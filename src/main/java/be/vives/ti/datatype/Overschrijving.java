@@ -0,0 +1,18 @@
+package be.vives.ti.datatype;
+
+/**
+ * Het resultaat van een overschrijving tussen twee rekeningen
+ * - gelukt
+ * - rekening van de opdrachtgever bestaat niet of is gesloten
+ * - rekening van de begunstigde bestaat niet of is gesloten
+ * - saldo van de opdrachtgever is ontoereikend
+ */
+public enum Overschrijving {
+
+    GELUKT,
+    VAN_REKENING_BESTAAT_NIET,
+    VAN_REKENING_GESLOTEN,
+    NAAR_REKENING_BESTAAT_NIET,
+    NAAR_REKENING_GESLOTEN,
+    SALDO_ONTOEREIKEND
+}
@@ -20,10 +20,22 @@ import org.apache.commons.lang3.StringUtils;
  * bbbbccccdddd1114aa mod 97
  * Als de rest gelijk is aan 1, gaat het om een geldig Belgisch rekeningnummer
  * volgens de IBAN-regels.
+ * <p>
+ * De controle overloopt het rekeningnummer teken per teken zonder
+ * tussentijdse strings aan te maken. Een rekeningnummer in de standaardvorm
+ * (hoofdletters BE, 14 gewone cijfers) wordt daarnaast bijgehouden als één
+ * long aabbbbccccdddd, die gebruikt wordt voor equals en hashCode.
  */
 public class Rekeningnummer {
 
+    /**
+     * waarde van getVerpakt() voor een geldig rekeningnummer dat niet in de
+     * standaardvorm staat (bv. "be62 0016 6836 7361")
+     */
+    public static final long NIET_VERPAKT = -1L;
+
     private String rekeningnummer;
+    private long verpakt;
 
     /**
      * analyseert een rekeningnummer in stringvorm op geldigheid.
@@ -36,55 +48,223 @@ public class Rekeningnummer {
         if (StringUtils.isEmpty(rekeningnr)) {
             throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
         }
+        verpakt = controleer(rekeningnr);
+        rekeningnummer = rekeningnr;
+    }
 
-        int spatie1 = rekeningnr.indexOf(" ");
-        int spatie2 = rekeningnr.indexOf(" ", spatie1 + 1);
-        int spatie3 = rekeningnr.indexOf(" ", spatie2 + 1);
+    // voor een nummer dat al gecontroleerd werd (vanVerpakt)
+    private Rekeningnummer(String rekeningnr, long verpakt) {
+        this.rekeningnummer = rekeningnr;
+        this.verpakt = verpakt;
+    }
 
+    /**
+     * Verpakt een rekeningnummer zonder een Rekeningnummer of een exception
+     * aan te maken, bv. om het als sleutel te gebruiken. BE mag ook in kleine
+     * letters staan.
+     *
+     * @param rekeningnr rekeningnummer in stringvorm
+     * @return de verpakte waarde aabbbbccccdddd, of NIET_VERPAKT wanneer het
+     * rekeningnummer ongeldig is of niet de vorm BEaa bbbb cccc dddd heeft
+     */
+    public static long verpak(String rekeningnr) {
+        if (rekeningnr == null || rekeningnr.length() != 19) {
+            return NIET_VERPAKT;
+        }
+        try {
+            long verpakt = controleer(rekeningnr);
+            if (verpakt == NIET_VERPAKT && enkelCijfers(rekeningnr)) {
+                // geldig, maar be in kleine letters
+                verpakt = leesGetal(rekeningnr, 2, 4) * 1000000000000L + leesGetal(rekeningnr, 5, 9) * 100000000L
+                        + leesGetal(rekeningnr, 10, 14) * 10000L + leesGetal(rekeningnr, 15, 19);
+            }
+            return verpakt;
+        } catch (ApplicationException e) {
+            return NIET_VERPAKT;
+        }
+    }
+
+    /**
+     * Het omgekeerde van getVerpakt.
+     *
+     * @param verpakt een waarde die getVerpakt() of verpak() teruggaf (niet
+     *                NIET_VERPAKT)
+     * @return het rekeningnummer in de standaardvorm BEaa bbbb cccc dddd
+     */
+    public static Rekeningnummer vanVerpakt(long verpakt) {
+        char[] tekens = {'B', 'E', '0', '0', ' ', '0', '0', '0', '0', ' ', '0', '0', '0', '0', ' ', '0', '0', '0', '0'};
+        long rest = verpakt;
+        for (int i = tekens.length - 1; i >= 2; i--) {
+            if (tekens[i] != ' ') {
+                tekens[i] = (char) ('0' + rest % 10);
+                rest /= 10;
+            }
+        }
+        return new Rekeningnummer(new String(tekens), verpakt);
+    }
+
+    /**
+     * Gaat na of een rekeningnummer geldig is, zonder een Rekeningnummer of
+     * een exception aan te maken voor een geldig nummer.
+     *
+     * @param rekeningnr rekeningnummer in stringvorm
+     * @return true wanneer new Rekeningnummer(rekeningnr) zou lukken
+     */
+    public static boolean isGeldig(String rekeningnr) {
+        if (StringUtils.isEmpty(rekeningnr)) {
+            return false;
+        }
+        try {
+            controleer(rekeningnr);
+            return true;
+        } catch (ApplicationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Controleert het formaat en de mod 97-regel in één doorloop.
+     * <p>
+     * De regels zijn dezelfde als die van de vroegere controle met indexOf,
+     * substring en Long.parseLong:
+     * - spaties op positie 4, 9 en 14 en niet ervoor
+     * - de eerste twee tekens zijn B en E (hoofd- of kleine letter)
+     * - de groepen aa, bbbb, cccc en het restant na de derde spatie zijn
+     * getallen zoals Long.parseLong ze aanvaardt (met eventueel een teken +
+     * of - vooraan)
+     * - bbbbccccdddd1114aa mod 97 is 1, berekend met long-rekenkunde
+     *
+     * @return de verpakte waarde, of NIET_VERPAKT voor een geldig nummer
+     * buiten de standaardvorm
+     */
+    private static long controleer(String rekeningnr) throws ApplicationException {
+        int lengte = rekeningnr.length();
+        if (lengte < 15) {
+            throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage());
+        }
         // controleren of het formaat BExx xxxx xxxx xxxx klopt
-        if ((spatie1 == 4) && (spatie2 == 9) && (spatie3 == 14)) {
-            // plaatsen spaties kloppen
-            // testen het gaat om BE en getallen
-            try {
-
-                long deel2 = Long.parseLong(rekeningnr.substring(spatie1 + 1,
-                        spatie2));
-                long deel3 = Long.parseLong(rekeningnr.substring(spatie2 + 1,
-                        spatie3));
-                long deel4 = Long.parseLong(rekeningnr.substring(spatie3 + 1));
-
-                char B = rekeningnr.toUpperCase().charAt(0);
-                char E = rekeningnr.toUpperCase().charAt(1);
-
-                if (B == 'B' && E == 'E') {
-                    //B wordt opgezet naar 11
-                    //E wordt omgezet naar 14
-                    //de twee cijfers erachter moeten er nog aan vastgeplakt worden
-
-                    long deel1 = 111400L + Long.parseLong(rekeningnr.substring(2, 4));
-
-                    long geheel = deel2 * 100000000000000L + deel3 * 10000000000L + deel4 * 1000000L + deel1;
-
-                    if (geheel % 97 == 1) {
-                        rekeningnummer = rekeningnr;
-                    } else {
-                        throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG.getMessage());
-                    }
-                } else {
-                    throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage());
-                }
-            } catch (NumberFormatException p) {
+        for (int i = 0; i < 15; i++) {
+            boolean spatie = rekeningnr.charAt(i) == ' ';
+            if (spatie != (i == 4 || i == 9 || i == 14)) {
                 throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage());
             }
-        } else {
+        }
+        char b = rekeningnr.charAt(0);
+        char e = rekeningnr.charAt(1);
+        if ((b != 'B' && b != 'b') || (e != 'E' && e != 'e')) {
+            throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage());
+        }
+
+        long controle = leesGetal(rekeningnr, 2, 4);
+        long deel2 = leesGetal(rekeningnr, 5, 9);
+        long deel3 = leesGetal(rekeningnr, 10, 14);
+        long deel4 = leesGetal(rekeningnr, 15, lengte);
+
+        //B wordt opgezet naar 11
+        //E wordt omgezet naar 14
+        //de twee cijfers erachter moeten er nog aan vastgeplakt worden
+        long geheel = deel2 * 100000000000000L + deel3 * 10000000000L + deel4 * 1000000L + 111400L + controle;
+        if (geheel % 97 != 1) {
+            throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG.getMessage());
+        }
+
+        if (b == 'B' && e == 'E' && lengte == 19 && enkelCijfers(rekeningnr)) {
+            return controle * 1000000000000L + deel2 * 100000000L + deel3 * 10000L + deel4;
+        }
+        return NIET_VERPAKT;
+    }
+
+    /**
+     * Leest het getal tussen van (inclusief) en tot (exclusief) volgens
+     * dezelfde regels als Long.parseLong, zonder substring.
+     *
+     * @throws ApplicationException ongeldig formaat wanneer Long.parseLong
+     *                              een NumberFormatException zou gooien
+     */
+    private static long leesGetal(String s, int van, int tot) throws ApplicationException {
+        if (van >= tot) {
             throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage());
         }
+        int i = van;
+        boolean negatief = false;
+        long limiet = -Long.MAX_VALUE;
+        char eerste = s.charAt(i);
+        if (eerste < '0') {
+            if (eerste == '-') {
+                negatief = true;
+                limiet = Long.MIN_VALUE;
+            } else if (eerste != '+') {
+                throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage());
+            }
+            if (tot - van == 1) {
+                throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage());
+            }
+            i++;
+        }
+        // negatief opbouwen zoals Long.parseLong, zodat ook Long.MIN_VALUE past
+        long grens = limiet / 10;
+        long resultaat = 0;
+        while (i < tot) {
+            int cijfer = Character.digit(s.charAt(i++), 10);
+            if (cijfer < 0 || resultaat < grens) {
+                throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage());
+            }
+            resultaat *= 10;
+            if (resultaat < limiet + cijfer) {
+                throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage());
+            }
+            resultaat -= cijfer;
+        }
+        return negatief ? resultaat : -resultaat;
+    }
+
+    // standaardvorm: op de posities van aa, bbbb, cccc en dddd enkel 0-9
+    private static boolean enkelCijfers(String rekeningnr) {
+        for (int i = 2; i < 19; i++) {
+            if (i != 4 && i != 9 && i != 14) {
+                char c = rekeningnr.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     public String getRekeningnummer() {
         return rekeningnummer;
     }
 
+    /**
+     * @return het rekeningnummer als getal aabbbbccccdddd (controlecijfers en
+     * de 12 cijfers), of NIET_VERPAKT wanneer het niet in de standaardvorm
+     * BEaa bbbb cccc dddd staat
+     */
+    public long getVerpakt() {
+        return verpakt;
+    }
+
+    // twee nummers in standaardvorm worden op hun verpakte waarde vergeleken, andere op de tekst
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Rekeningnummer)) {
+            return false;
+        }
+        Rekeningnummer ander = (Rekeningnummer) o;
+        if (verpakt != NIET_VERPAKT && ander.verpakt != NIET_VERPAKT) {
+            return verpakt == ander.verpakt;
+        }
+        return rekeningnummer.equals(ander.rekeningnummer);
+    }
+
+    @Override
+    public int hashCode() {
+        return verpakt != NIET_VERPAKT ? Long.hashCode(verpakt) : rekeningnummer.hashCode();
+    }
+
     // nodig om het rekeningnummer in Stringvorm te kunnen tonen in de tabel
     public String toString() {
         return rekeningnummer;
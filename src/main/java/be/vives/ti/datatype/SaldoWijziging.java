@@ -0,0 +1,20 @@
+package be.vives.ti.datatype;
+
+/**
+ * Het resultaat van een saldowijziging die in één statement in de DB
+ * uitgevoerd wordt
+ * - gelukt
+ * - rekening bestaat niet
+ * - rekening is gesloten
+ * - saldo is ontoereikend voor de opname
+ * - niet uitgevoerd: een batch werd door een fout onderbroken vóór deze
+ * mutatie verwerkt werd; ze mag opnieuw aangeboden worden
+ */
+public enum SaldoWijziging {
+
+    GELUKT,
+    REKENING_BESTAAT_NIET,
+    REKENING_GESLOTEN,
+    SALDO_ONTOEREIKEND,
+    NIET_UITGEVOERD
+}
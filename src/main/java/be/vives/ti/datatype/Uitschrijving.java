@@ -0,0 +1,17 @@
+package be.vives.ti.datatype;
+
+/**
+ * Het resultaat van het uitschrijven van een klant, dat in één statement in
+ * de DB uitgevoerd wordt
+ * - gelukt
+ * - klant bestaat niet
+ * - klant is al uitgeschreven
+ * - klant heeft nog open rekeningen
+ */
+public enum Uitschrijving {
+
+    GELUKT,
+    KLANT_BESTAAT_NIET,
+    KLANT_UITGESCHREVEN,
+    KLANT_HEEFT_NOG_REKENINGEN
+}
@@ -21,6 +21,7 @@ public enum ApplicationExceptionType {
     KLANT_UITGESCHREVEN("De klant is uitgeschreven."),
     KLANT_MOET_INGESCHREVEN_ZIJN("De klant krijgt automatisch de status INGESCHREVEN."),
     KLANT_HEEFT_NOG_REKENINGEN("De klant heeft nog openstaande rekeningen."),
+    KLANTEN_LEEG("Er werden geen klanten opgegeven."),
 
     // ongeldige eigenschappen rekening
     REK_NULL("Er werd geen rekening opgegeven."),
@@ -37,7 +38,22 @@ public enum ApplicationExceptionType {
     REK_MOET_OPEN_ZIJN("De rekening krijgt automatisch de status OPEN."),
     REK_ONGELDIG_BEDRAG("Het bedrag moet getal zijn, eventueel met een decimale punt."),
     REK_REKNUMMER_ONGELDIG("Er werd geen geldig rekeningnummer opgegeven."),
-    REK_REKNUMMER_ONGELDIG_FORMAAT("Het formaat van de het rekeningnummer is ongeldig."),;
+    REK_REKNUMMER_ONGELDIG_FORMAAT("Het formaat van de het rekeningnummer is ongeldig."),
+
+    // ongeldige overschrijving
+    OVERSCHRIJVING_ZELFDE_REKENING("Er kan niet overgeschreven worden naar dezelfde rekening."),
+    OVERSCHRIJVING_BEGUNSTIGDE_BESTAAT_NIET("De rekening van de begunstigde werd niet gevonden."),
+    OVERSCHRIJVING_BEGUNSTIGDE_GESLOTEN("De rekening van de begunstigde werd al afgesloten."),
+
+    // ongeldige batch mutaties
+    MUTATIES_LEEG("Er werden geen mutaties opgegeven."),
+    MUTATIE_NULL("Er werd geen mutatie opgegeven."),
+    MUTATIE_BEDRAG_NUL("Het bedrag van een mutatie mag niet nul zijn."),
+    MUTATIE_NIET_UITGEVOERD("De mutatie werd door een fout niet uitgevoerd en mag opnieuw aangeboden worden."),
+
+    // ongeldige paginering
+    PAGINAGROOTTE_ONGELDIG("De paginagrootte moet tussen 1 en 1000 liggen."),
+    PAGINA_SLEUTEL_ONGELDIG("De sleutel voor de volgende pagina is ongeldig."),;
 
     private final String message;
 
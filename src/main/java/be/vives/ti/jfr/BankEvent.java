@@ -0,0 +1,71 @@
+package be.vives.ti.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Gemeenschappelijk deel van de Flight Recorder-events van de bank: de
+ * bewerking en haar uitkomst. De duur is de duur van het event zelf (van
+ * begin tot commit).
+ * <p>
+ * Gebruik:
+ * <pre>
+ * RekeningEvent event = RekeningEvent.starten(RekeningEvent.STORTEN, rekeningnummer, bedrag);
+ * try {
+ *     ...
+ *     event.gelukt();
+ * } catch (ApplicationException | DBException | RuntimeException ex) {
+ *     event.mislukt(ex);
+ *     throw ex;
+ * } finally {
+ *     event.afsluiten();
+ * }
+ * </pre>
+ * Staat het event niet aan in de opname, dan worden de velden niet ingevuld
+ * en schrijft afsluiten niets weg.
+ */
+abstract class BankEvent extends Event {
+
+    static final String GELUKT = "gelukt";
+    static final String ONVERWACHT = "onverwachte fout";
+
+    @Label("Bewerking")
+    String bewerking;
+
+    @Label("Gelukt")
+    boolean geslaagd;
+
+    @Label("Uitkomst")
+    String uitkomst;
+
+    /**
+     * de bewerking is gelukt
+     */
+    public void gelukt() {
+        geslaagd = true;
+        uitkomst = GELUKT;
+    }
+
+    /**
+     * @param ex fout waardoor de bewerking mislukte (de boodschap wordt de uitkomst)
+     */
+    public void mislukt(Exception ex) {
+        if (isEnabled()) {
+            geslaagd = false;
+            uitkomst = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+        }
+    }
+
+    /**
+     * schrijft het event weg indien het aan staat en boven de drempel van de
+     * opname zit
+     */
+    public void afsluiten() {
+        if (shouldCommit()) {
+            if (uitkomst == null) {
+                uitkomst = ONVERWACHT;
+            }
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package be.vives.ti.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder-event voor het verkrijgen van een connectie via
+ * ConnectionManager.getConnection. De duur is de wachttijd op de pool.
+ */
+@Name("be.vives.ti.Connectie")
+@Label("Connectie verkrijgen")
+@Category({"Eenvoudige Bank", "Databank"})
+@Description("Verkrijgen van een connectie uit de connectiepool")
+@StackTrace(false)
+public final class ConnectieEvent extends BankEvent {
+
+    public static final String VERKRIJGEN = "verkrijgen";
+
+    @Label("DAO-methode")
+    String methode;
+
+    private ConnectieEvent() {
+    }
+
+    /**
+     * @param methode naam van de DAO-methode, bv. "KlantDAO.zoekKlant" (mag null zijn)
+     * @return het gestarte event
+     */
+    public static ConnectieEvent starten(String methode) {
+        ConnectieEvent event = new ConnectieEvent();
+        if (event.isEnabled()) {
+            event.bewerking = VERKRIJGEN;
+            event.methode = methode;
+            event.begin();
+        }
+        return event;
+    }
+}
@@ -0,0 +1,52 @@
+package be.vives.ti.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder-event voor een bewerking van KlantService: toevoegen,
+ * wijzigen of verwijderen van een klant.
+ */
+@Name("be.vives.ti.Klantbewerking")
+@Label("Klantbewerking")
+@Category({"Eenvoudige Bank", "Service"})
+@Description("Bewerking op een klant via KlantService")
+@StackTrace(false)
+public final class KlantEvent extends BankEvent {
+
+    public static final String TOEVOEGEN = "toevoegen";
+    public static final String WIJZIGEN = "wijzigen";
+    public static final String VERWIJDEREN = "verwijderen";
+
+    @Label("Klant id")
+    @Description("Id van de klant, 0 wanneer (nog) niet gekend")
+    int klantId;
+
+    private KlantEvent() {
+    }
+
+    /**
+     * @param bewerking TOEVOEGEN, WIJZIGEN of VERWIJDEREN
+     * @param klantId   id van de klant, null indien nog niet gekend
+     * @return het gestarte event
+     */
+    public static KlantEvent starten(String bewerking, Integer klantId) {
+        KlantEvent event = new KlantEvent();
+        if (event.isEnabled()) {
+            event.bewerking = bewerking;
+            event.klantId = klantId == null ? 0 : klantId;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * @param klantId id van de klant, bv. het gegenereerde id na toevoegen
+     */
+    public void setKlantId(Integer klantId) {
+        this.klantId = klantId == null ? 0 : klantId;
+    }
+}
@@ -0,0 +1,53 @@
+package be.vives.ti.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.math.BigDecimal;
+
+/**
+ * Flight Recorder-event voor een bewerking van RekeningService: storten,
+ * opnemen, toevoegen of verwijderen van een rekening.
+ */
+@Name("be.vives.ti.Rekeningbewerking")
+@Label("Rekeningbewerking")
+@Category({"Eenvoudige Bank", "Service"})
+@Description("Bewerking op een rekening via RekeningService")
+@StackTrace(false)
+public final class RekeningEvent extends BankEvent {
+
+    public static final String STORTEN = "storten";
+    public static final String OPNEMEN = "opnemen";
+    public static final String TOEVOEGEN = "toevoegen";
+    public static final String VERWIJDEREN = "verwijderen";
+
+    @Label("Rekeningnummer")
+    String rekeningnummer;
+
+    @Label("Bedrag")
+    @Description("Bedrag in euro, 0 wanneer de bewerking geen bedrag heeft")
+    double bedrag;
+
+    private RekeningEvent() {
+    }
+
+    /**
+     * @param bewerking      STORTEN, OPNEMEN, TOEVOEGEN of VERWIJDEREN
+     * @param rekeningnummer rekeningnummer zoals opgegeven (mag null zijn)
+     * @param bedrag         bedrag zoals opgegeven (mag null zijn)
+     * @return het gestarte event
+     */
+    public static RekeningEvent starten(String bewerking, String rekeningnummer, BigDecimal bedrag) {
+        RekeningEvent event = new RekeningEvent();
+        if (event.isEnabled()) {
+            event.bewerking = bewerking;
+            event.rekeningnummer = rekeningnummer;
+            event.bedrag = bedrag == null ? 0 : bedrag.doubleValue();
+            event.begin();
+        }
+        return event;
+    }
+}
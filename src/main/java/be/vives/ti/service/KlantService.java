@@ -1,27 +1,34 @@
 package be.vives.ti.service;
 
-import be.vives.ti.DAO.KlantDAO;
+import be.vives.ti.DAO.KlantRepository;
+import be.vives.ti.DAO.Verwerker;
 import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.KlantOverzicht;
+import be.vives.ti.databag.Pagina;
 import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.Uitschrijving;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
+import be.vives.ti.jfr.KlantEvent;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Bevat alle functionaliteit van een klant, met de nodige checks. - toevoegen
- * van een klant - schrappen van een klant - wijzigen van een klant
+ * van een klant - toevoegen van een batch klanten - schrappen van een klant -
+ * wijzigen van een klant - klanten per pagina opvragen
  */
 public class KlantService {
 
-    private KlantDAO klantDAO;
-    private RekeningService rekeningService;
+    private KlantRepository klantDAO;
 
-    public KlantService(KlantDAO klantDAO, RekeningService rekeningService) {
+    public KlantService(KlantRepository klantDAO) {
         this.klantDAO = klantDAO;
-        this.rekeningService = rekeningService;
     }
 
     /**
@@ -35,25 +42,73 @@ public class KlantService {
      * @throws DBException          duidt op fouten vanuit de be.vives.DAO.
      */
     public Integer toevoegenKlant(Klant klant) throws ApplicationException, DBException {
-        // parameter ingevuld?
-        if (klant == null) {
-            throw new ApplicationException(ApplicationExceptionType.KLANT_NULL.getMessage());
+        KlantEvent event = KlantEvent.starten(KlantEvent.TOEVOEGEN, null);
+        try {
+            // parameter ingevuld?
+            if (klant == null) {
+                throw new ApplicationException(ApplicationExceptionType.KLANT_NULL.getMessage());
+            }
+            // alle gegevens ingevuld?
+            checkAlleVeldenIngevuld(klant);
+
+            // id mag niet ingevuld zijn
+            if (klant.getId() != null) {
+                throw new ApplicationException(ApplicationExceptionType.KLANT_ID_WORDT_GEGENEREERD.getMessage());
+            }
+
+            // bestaat klant?
+            if (bestaatKlant(klant)) {
+                throw new ApplicationException(ApplicationExceptionType.KLANT_BESTAAT_AL.getMessage());
+            }
+
+            //toevoegen
+            Integer id = klantDAO.toevoegenKlant(klant);
+            event.setKlantId(id);
+            event.gelukt();
+            return id;
+        } catch (ApplicationException | DBException | RuntimeException ex) {
+            event.mislukt(ex);
+            throw ex;
+        } finally {
+            event.afsluiten();
         }
-        // alle gegevens ingevuld?
-        checkAlleVeldenIngevuld(klant);
+    }
 
-        // id mag niet ingevuld zijn
-        if (klant.getId() != null) {
-            throw new ApplicationException(ApplicationExceptionType.KLANT_ID_WORDT_GEGENEREERD.getMessage());
+    /**
+     * Voegt een lijst klanten in één keer toe, bv. bij de migratie van de
+     * klanten van een kantoor. Eerst worden alle klanten gecontroleerd: is er
+     * één ongeldig, dan wordt niets toegevoegd. Klanten die al bestaan of
+     * meermaals in de lijst voorkomen, worden slechts één keer toegevoegd.
+     *
+     * @param klanten klanten die moeten worden toegevoegd.
+     * @return per klant (in dezelfde volgorde) het id van de pas toegevoegde
+     * klant, of null indien de klant al bestond.
+     * @throws ApplicationException Wordt gegooid wanneer geen lijst of
+     *                              een lege klant werd opgegeven, of wanneer van een klant niet alle velden
+     *                              (correct) ingevuld zijn.
+     * @throws DBException          duidt op fouten vanuit de be.vives.DAO.
+     */
+    public ArrayList<Integer> toevoegenKlanten(List<Klant> klanten) throws ApplicationException, DBException {
+        // parameter ingevuld?
+        if (klanten == null) {
+            throw new ApplicationException(ApplicationExceptionType.KLANTEN_LEEG.getMessage());
         }
 
-        // bestaat klant?
-        if (bestaatKlant(klant)) {
-            throw new ApplicationException(ApplicationExceptionType.KLANT_BESTAAT_AL.getMessage());
+        for (Klant klant : klanten) {
+            if (klant == null) {
+                throw new ApplicationException(ApplicationExceptionType.KLANT_NULL.getMessage());
+            }
+            // alle gegevens ingevuld?
+            checkAlleVeldenIngevuld(klant);
+
+            // id mag niet ingevuld zijn
+            if (klant.getId() != null) {
+                throw new ApplicationException(ApplicationExceptionType.KLANT_ID_WORDT_GEGENEREERD.getMessage());
+            }
         }
 
-        //toevoegen
-        return klantDAO.toevoegenKlant(klant);
+        //toevoegen (bestaande klanten en dubbels worden overgeslagen)
+        return klantDAO.toevoegenKlanten(klanten);
     }
 
     /**
@@ -66,26 +121,20 @@ public class KlantService {
      * @throws DBException          duidt op fouten vanuit de be.vives.DAO.
      */
     public void verwijderKlant(int id) throws ApplicationException, DBException {
+        KlantEvent event = KlantEvent.starten(KlantEvent.VERWIJDEREN, id);
+        try {
+            // uitschrijven in één statement: de DB controleert of de klant bestaat,
+            // nog ingeschreven is en geen open rekeningen meer heeft
+            Uitschrijving resultaat = klantDAO.verwijderKlant(id);
+            checkUitgeschreven(resultaat);
 
-        // bestaat de klant?
-        Klant kb = zoekKlant(id);
-        if (kb == null) {
-            throw new ApplicationException(ApplicationExceptionType.KLANT_BESTAAT_NIET.getMessage());
-        }
-
-        // is de klant nog ingeschreven?
-        if (KlantStatus.UITGESCHREVEN.equals(kb.getStatus())) {
-            throw new ApplicationException(ApplicationExceptionType.KLANT_UITGESCHREVEN.getMessage());
-        }
-
-        // heeft de klant openstaande rekeningen?
-        int aantal = rekeningService.zoekAantalOpenRekeningen(id);
-        if (aantal > 0) {
-            throw new ApplicationException(ApplicationExceptionType.KLANT_HEEFT_NOG_REKENINGEN.getMessage());
+            event.gelukt();
+        } catch (ApplicationException | DBException | RuntimeException ex) {
+            event.mislukt(ex);
+            throw ex;
+        } finally {
+            event.afsluiten();
         }
-
-        // verwijderen
-        klantDAO.verwijderKlant(kb.getId());
     }
 
     /**
@@ -100,34 +149,67 @@ public class KlantService {
      * @throws DBException          duidt op fouten vanuit de be.vives.DAO.
      */
     public void wijzigenKlant(Klant klant) throws ApplicationException, DBException {
-        // parameter ingevuld?
-        if (klant == null) {
-            throw new ApplicationException(ApplicationExceptionType.KLANT_NULL.getMessage());
-        }
+        KlantEvent event = KlantEvent.starten(KlantEvent.WIJZIGEN, klant == null ? null : klant.getId());
+        try {
+            // parameter ingevuld?
+            if (klant == null) {
+                throw new ApplicationException(ApplicationExceptionType.KLANT_NULL.getMessage());
+            }
 
-        //check velden ingevuld
-        checkAlleVeldenIngevuld(klant);
+            //check velden ingevuld
+            checkAlleVeldenIngevuld(klant);
 
-        // zit de klant die gewijzigd moet worden in de DB?
-        Klant teWijzigenKlant = zoekKlant(klant.getId());
-        if (teWijzigenKlant == null) {
-            throw new ApplicationException(ApplicationExceptionType.KLANT_BESTAAT_NIET.getMessage());
-        }
+            // zit de klant die gewijzigd moet worden in de DB?
+            Klant teWijzigenKlant = zoekKlant(klant.getId());
+            if (teWijzigenKlant == null) {
+                throw new ApplicationException(ApplicationExceptionType.KLANT_BESTAAT_NIET.getMessage());
+            }
 
-        // is originele klant nog ingeschreven?
-        if (teWijzigenKlant.getStatus().equals(KlantStatus.UITGESCHREVEN)) {
-            throw new ApplicationException(ApplicationExceptionType.KLANT_UITGESCHREVEN.getMessage());
-        }
+            // is originele klant nog ingeschreven?
+            if (teWijzigenKlant.getStatus().equals(KlantStatus.UITGESCHREVEN)) {
+                throw new ApplicationException(ApplicationExceptionType.KLANT_UITGESCHREVEN.getMessage());
+            }
+
+            // bestaat er al een klant met deze nieuwe gegevens?
+            // voornaam, naam, adres
 
-        // bestaat er al een klant met deze nieuwe gegevens?
-        // voornaam, naam, adres
+            if (bestaatKlant(klant)) {
+                throw new ApplicationException(ApplicationExceptionType.KLANT_BESTAAT_AL.getMessage());
+            }
 
-        if (bestaatKlant(klant)) {
-            throw new ApplicationException(ApplicationExceptionType.KLANT_BESTAAT_AL.getMessage());
+            // klant met id van originele klant wijzigen
+            klantDAO.wijzigenKlant(klant);
+
+            event.gelukt();
+        } catch (ApplicationException | DBException | RuntimeException ex) {
+            event.mislukt(ex);
+            throw ex;
+        } finally {
+            event.afsluiten();
         }
+    }
 
-        // klant met id van originele klant wijzigen
-        klantDAO.wijzigenKlant(klant);
+    /**
+     * Zet het resultaat van het uitschrijven om naar de overeenkomstige
+     * foutboodschap
+     * <p>
+     * Gooit een be.vives.exception bij: - klant bestaat niet - klant al
+     * uitgeschreven - klant heeft nog open rekeningen
+     */
+    private static void checkUitgeschreven(Uitschrijving resultaat) throws ApplicationException {
+        if (resultaat == null) {
+            throw new ApplicationException(ApplicationExceptionType.KLANT_BESTAAT_NIET.getMessage());
+        }
+        switch (resultaat) {
+            case GELUKT:
+                return;
+            case KLANT_UITGESCHREVEN:
+                throw new ApplicationException(ApplicationExceptionType.KLANT_UITGESCHREVEN.getMessage());
+            case KLANT_HEEFT_NOG_REKENINGEN:
+                throw new ApplicationException(ApplicationExceptionType.KLANT_HEEFT_NOG_REKENINGEN.getMessage());
+            default:
+                throw new ApplicationException(ApplicationExceptionType.KLANT_BESTAAT_NIET.getMessage());
+        }
     }
 
     /**
@@ -199,6 +281,40 @@ public class KlantService {
         return klantDAO.zoekKlant(id);
     }
 
+    /**
+     * Zoekt een klant samen met zijn open rekeningen, het aantal open
+     * rekeningen en het totale saldo op, met één query en één connectie (bv.
+     * voor het hoofdscherm).
+     *
+     * @param id id van de klant die gezocht wordt
+     * @return onwijzigbaar overzicht van de klant, null indien de klant niet
+     * werd gevonden.
+     * @throws DBException          Exception die duidt op een verkeerde
+     *                              installatie van de be.vives.DAO of een fout in de query.
+     * @throws ApplicationException Wordt gegooid wanneer geen id werd
+     *                              opgegeven.
+     */
+    public KlantOverzicht zoekKlantOverzicht(Integer id) throws DBException, ApplicationException {
+        // parameter ingevuld?
+        if (id == null) {
+            throw new ApplicationException(ApplicationExceptionType.KLANT_ID.getMessage());
+        }
+        return klantDAO.zoekKlantOverzicht(id);
+    }
+
+    /**
+     * Zoekt meerdere klanten tegelijk op adhv hun id, met een handvol queries
+     * in plaats van één per klant (bv. voor rapporten).
+     *
+     * @param ids id's van de klanten die gezocht worden
+     * @return per gevonden id de klant, in de volgorde van ids
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de be.vives.DAO of een fout in de query.
+     */
+    public Map<Integer, Klant> zoekKlanten(Collection<Integer> ids) throws DBException {
+        return klantDAO.zoekKlanten(ids);
+    }
+
     /**
      * Geeft alle ingeschreven klanten terug in een lijst, gesorteerd op naam,
      * voornaam
@@ -211,6 +327,38 @@ public class KlantService {
         return klantDAO.zoekIngeschrevenKlanten();
     }
 
+    /**
+     * Overloopt alle klanten één voor één, gesorteerd op naam, voornaam,
+     * zonder de volledige lijst in het geheugen te laden (bv. voor rapporten).
+     *
+     * @param verwerker verwerkt elke klant; geeft false terug om te stoppen
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de be.vives.DAO of een fout in de query.
+     */
+    public void verwerkAlleKlanten(Verwerker<Klant> verwerker) throws DBException {
+        klantDAO.verwerkAlleKlanten(verwerker);
+    }
+
+    /**
+     * Geeft één pagina van de klanten met een meegegeven KlantStatus terug,
+     * gesorteerd op naam, voornaam. De volgende pagina wordt opgevraagd met
+     * volgendePagina van deze pagina.
+     *
+     * @param klantStatus   de status waaraan de klanten moeten voldoen, null voor alle klanten
+     * @param vanaf         volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte maximaal aantal klanten op de pagina
+     * @return pagina met klanten
+     * @throws ApplicationException Wordt gegooid wanneer de paginagrootte of
+     *                              de sleutel van de vorige pagina ongeldig is.
+     * @throws DBException          Exception die duidt op een verkeerde
+     *                              installatie van de be.vives.DAO of een fout in de query.
+     */
+    public Pagina<Klant> zoekKlantenPagina(KlantStatus klantStatus, String vanaf, int paginagrootte)
+            throws ApplicationException, DBException {
+        checkPaginagrootte(paginagrootte);
+        return klantDAO.zoekKlantenPagina(klantStatus, vanaf, paginagrootte);
+    }
+
     public void valideerKlant(Integer id) throws ApplicationException, DBException {
         // bestaat klant?
         Klant klant = zoekKlant(id);
@@ -224,4 +372,15 @@ public class KlantService {
         }
     }
 
+    /**
+     * Controleert of de paginagrootte tussen 1 en Pagina.MAX_PAGINAGROOTTE ligt
+     * <p>
+     * Gooit een be.vives.exception bij: - paginagrootte ongeldig
+     */
+    private static void checkPaginagrootte(int paginagrootte) throws ApplicationException {
+        if (paginagrootte < 1 || paginagrootte > Pagina.MAX_PAGINAGROOTTE) {
+            throw new ApplicationException(ApplicationExceptionType.PAGINAGROOTTE_ONGELDIG.getMessage());
+        }
+    }
+
 }
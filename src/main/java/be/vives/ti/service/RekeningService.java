@@ -1,28 +1,61 @@
 package be.vives.ti.service;
 
-import be.vives.ti.DAO.RekeningDAO;
+import be.vives.ti.DAO.RekeningRepository;
+import be.vives.ti.DAO.Verwerker;
+import be.vives.ti.databag.Journaalregel;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.MutatieResultaat;
+import be.vives.ti.databag.Pagina;
 import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Afsluiting;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.Overschrijving;
 import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.datatype.SaldoWijziging;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
+import be.vives.ti.jfr.RekeningEvent;
 import org.apache.commons.lang3.StringUtils;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Bevat alle functionaliteit van een rekening, met de nodige checks. -
  * toevoegen van een rekening - schrappen van een rekening - geld storten op een
- * rekening - geld opnemen van een rekening
+ * rekening - geld opnemen van een rekening - geld overschrijven tussen twee
+ * rekeningen - een batch stortingen en opnames verwerken - rekeningen per
+ * pagina opvragen - het journaal van een rekening per pagina opvragen
+ * <p>
+ * Met RekeningSloten worden de wijzigingen van dezelfde rekening binnen deze
+ * JVM na elkaar uitgevoerd: controleren en wijzigen gebeuren dan onder het
+ * slot van de rekening(en). Een batch mutaties neemt geen sloten: de DAO
+ * verrekent elke mutatie op zich in de databank. Daarom sluit de DAO een
+ * rekening enkel wanneer ze op dat moment nog open is en haar saldo nul is,
+ * zodat een rekening niet gesloten kan worden na een storting.
  */
 public class RekeningService {
 
-    private RekeningDAO rekeningDAO;
+    private RekeningRepository rekeningDAO;
+    // null: geen sloten, enkel die van de databank
+    private final RekeningSloten sloten;
 
-    public RekeningService(RekeningDAO rekeningDAO) {
+    public RekeningService(RekeningRepository rekeningDAO) {
+        this(rekeningDAO, null);
+    }
+
+    /**
+     * @param sloten gedeeld door alle RekeningServices van de JVM die
+     *               dezelfde rekeningen wijzigen
+     */
+    public RekeningService(RekeningRepository rekeningDAO, RekeningSloten sloten) {
         this.rekeningDAO = rekeningDAO;
+        this.sloten = sloten;
     }
 
     /**
@@ -37,21 +70,34 @@ public class RekeningService {
      */
     public void verwijderRekening(String rekeningnummer) throws
             ApplicationException, DBException {
-
-        // bestaat rekening?
-        Rekening rekening = zoekRekening(rekeningnummer);
-        if (rekening == null) {
-            throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
+        RekeningEvent event = RekeningEvent.starten(RekeningEvent.VERWIJDEREN, rekeningnummer, null);
+        RekeningSloten.Vergrendeling slot = vergrendel(rekeningnummer);
+        try {
+            // bestaat rekening?
+            Rekening rekening = zoekRekening(rekeningnummer);
+            if (rekening == null) {
+                throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
+            }
+
+            //is rekening open?
+            checkRekeningOpen(rekening);
+
+            //is saldo = 0?
+            checkSaldoIsZero(rekening);
+
+            // verwijder rekening: de DB controleert opnieuw of de rekening open
+            // is en het saldo nul is, bv. na een storting uit een batch mutaties
+            Afsluiting resultaat = rekeningDAO.verwijderRekening(rekeningnummer);
+            checkGesloten(resultaat);
+
+            event.gelukt();
+        } catch (ApplicationException | DBException | RuntimeException ex) {
+            event.mislukt(ex);
+            throw ex;
+        } finally {
+            ontgrendel(slot);
+            event.afsluiten();
         }
-
-        //is rekening open?
-        checkRekeningOpen(rekening);
-
-        //is saldo = 0?
-        checkSaldoIsZero(rekening);
-
-        // verwijder rekening
-        rekeningDAO.verwijderRekening(rekeningnummer);
     }
 
     /**
@@ -67,24 +113,34 @@ public class RekeningService {
      */
     public void stortenRekening(String rekeningnummer, BigDecimal bedrag) throws
             ApplicationException, DBException {
-
-        // bestaat rekening?
-        Rekening rekening = zoekRekening(rekeningnummer);
-        if (rekening == null) {
-            throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
+        RekeningEvent event = RekeningEvent.starten(RekeningEvent.STORTEN, rekeningnummer, bedrag);
+        try {
+            // rekeningnummer opgegeven?
+            checkRekeningnummerIngevuld(rekeningnummer);
+
+            //is bedrag positief? (afgerond op twee cijfers na de komma)
+            Bedrag storting = checkBedragPositief(bedrag);
+
+            //wijzig saldo rekening
+            // het bedrag wordt in de DB bij het saldo opgeteld, zodat gelijktijdige
+            // wijzigingen elkaar niet overschrijven. De DB controleert of de rekening
+            // bestaat en open is.
+            SaldoWijziging resultaat;
+            RekeningSloten.Vergrendeling slot = vergrendel(rekeningnummer);
+            try {
+                resultaat = rekeningDAO.verrekenenSaldoRekening(rekeningnummer, storting);
+            } finally {
+                ontgrendel(slot);
+            }
+            checkSaldoGewijzigd(resultaat);
+
+            event.gelukt();
+        } catch (ApplicationException | DBException | RuntimeException ex) {
+            event.mislukt(ex);
+            throw ex;
+        } finally {
+            event.afsluiten();
         }
-
-        // is rekening open?
-        checkRekeningOpen(rekening);
-
-        //is bedrag positief?
-        checkBedragPositief(bedrag);
-
-        //wijzig saldo rekening
-        // waarden van type Bigdecimal optellen doe je met add()
-        BigDecimal nieuwSaldo = rekening.getSaldo().add(bedrag);
-        // getal met twee cijfers na komma wegschrijven
-        rekeningDAO.wijzigenSaldoRekening(rekeningnummer, nieuwSaldo.setScale(2, RoundingMode.HALF_UP));
     }
 
     /**
@@ -100,27 +156,127 @@ public class RekeningService {
      */
     public void opnemenRekening(String rekeningnummer, BigDecimal bedrag) throws
             ApplicationException, DBException {
+        RekeningEvent event = RekeningEvent.starten(RekeningEvent.OPNEMEN, rekeningnummer, bedrag);
+        try {
+            // rekeningnummer opgegeven?
+            checkRekeningnummerIngevuld(rekeningnummer);
+
+            // is bedrag positief? (afgerond op twee cijfers na de komma)
+            Bedrag opname = checkBedragPositief(bedrag);
+
+            // wijzig saldo rekening
+            // het bedrag wordt in de DB van het saldo afgetrokken. De DB controleert of
+            // de rekening bestaat, open is en of het saldo groot genoeg is.
+            SaldoWijziging resultaat;
+            RekeningSloten.Vergrendeling slot = vergrendel(rekeningnummer);
+            try {
+                resultaat = rekeningDAO.verrekenenSaldoRekening(rekeningnummer, opname.negatief());
+            } finally {
+                ontgrendel(slot);
+            }
+            checkSaldoGewijzigd(resultaat);
+
+            event.gelukt();
+        } catch (ApplicationException | DBException | RuntimeException ex) {
+            event.mislukt(ex);
+            throw ex;
+        } finally {
+            event.afsluiten();
+        }
+    }
 
-        // bestaat rekening?
-        Rekening rekening = zoekRekening(rekeningnummer);
-        if (rekening == null) {
-            throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
+    /**
+     * Verwerkt een batch stortingen (positief bedrag) en opnames (negatief
+     * bedrag), bv. een loon- of domiciliëringsrun. Eerst worden alle mutaties
+     * gecontroleerd, daarna worden de geldige mutaties in gebundelde
+     * transacties verrekend. Een mutatie die niet uitgevoerd kan worden, houdt
+     * de rest van de batch niet tegen.
+     *
+     * @param mutaties lijst van mutaties die verwerkt moeten worden
+     * @return per mutatie (in dezelfde volgorde) of ze gelukt is, en zo niet waarom
+     * @throws ApplicationException Wordt gegooid wanneer er geen lijst
+     *                              met mutaties opgegeven werd.
+     * @throws DBException          duidt op fouten vanuit de be.vives.DAO.
+     */
+    public ArrayList<MutatieResultaat> verwerkenMutaties(List<Mutatie> mutaties) throws
+            ApplicationException, DBException {
+        if (mutaties == null) {
+            throw new ApplicationException(ApplicationExceptionType.MUTATIES_LEEG.getMessage());
         }
 
-        // is rekening open?
-        checkRekeningOpen(rekening);
+        // alle mutaties controleren, enkel de geldige gaan naar de DB
+        ArrayList<MutatieResultaat> resultaten = new ArrayList<>();
+        ArrayList<Mutatie> geldig = new ArrayList<>();
+        ArrayList<MutatieResultaat> geldigeResultaten = new ArrayList<>();
+        for (Mutatie mutatie : mutaties) {
+            MutatieResultaat resultaat = new MutatieResultaat();
+            resultaat.setMutatie(mutatie);
+            resultaten.add(resultaat);
+            try {
+                checkMutatie(mutatie);
+                geldig.add(mutatie);
+                geldigeResultaten.add(resultaat);
+            } catch (ApplicationException ae) {
+                resultaat.setFoutboodschap(ae.getMessage());
+            }
+        }
 
-        // is bedrag positief?
-        checkBedragPositief(bedrag);
+        // geldige mutaties gebundeld verrekenen; zonder sloten: de DAO verrekent
+        // elke mutatie op zich in de databank, en een run over (bijna) alle
+        // rekeningen zou anders alle sloten de hele tijd bezet houden
+        ArrayList<SaldoWijziging> wijzigingen = rekeningDAO.verrekenenSaldoRekeningen(geldig);
+        for (int i = 0; i < geldigeResultaten.size(); i++) {
+            MutatieResultaat resultaat = geldigeResultaten.get(i);
+            try {
+                checkSaldoGewijzigd(i < wijzigingen.size() ? wijzigingen.get(i) : null);
+                resultaat.setGelukt(true);
+            } catch (ApplicationException ae) {
+                resultaat.setFoutboodschap(ae.getMessage());
+            }
+        }
+        return resultaten;
+    }
 
-        // is bedrag niet groter dan saldo?
-        checkBedragNietTeGroot(rekening, bedrag);
+    /**
+     * Schrijft een bedrag over van de ene rekening naar de andere. Het
+     * debiteren en crediteren gebeurt samen in één transactie.
+     *
+     * @param vanRekeningnummer  rekeningnummer van de rekening waarvan het
+     *                           bedrag afgehaald wordt.
+     * @param naarRekeningnummer rekeningnummer van de rekening waarop het
+     *                           bedrag gestort wordt.
+     * @param bedrag             bedrag dat overgeschreven moet worden
+     * @throws ApplicationException Wordt gegooid wanneer een
+     *                              rekeningnummer niet opgegeven is of niet bestaat, beide rekeningnummers
+     *                              gelijk zijn, een rekening al gesloten is, wanneer het bedrag negatief
+     *                              is, of wanneer het bedrag te groot is.
+     * @throws DBException          duidt op fouten vanuit de be.vives.DAO.
+     */
+    public void overschrijven(String vanRekeningnummer, String naarRekeningnummer, BigDecimal bedrag) throws
+            ApplicationException, DBException {
+
+        // rekeningnummers opgegeven?
+        checkRekeningnummerIngevuld(vanRekeningnummer);
+        checkRekeningnummerIngevuld(naarRekeningnummer);
+
+        // twee verschillende rekeningen?
+        // zoals de databank: hoofdletterongevoelig
+        if (vanRekeningnummer.toUpperCase(Locale.ROOT).equals(naarRekeningnummer.toUpperCase(Locale.ROOT))) {
+            throw new ApplicationException(ApplicationExceptionType.OVERSCHRIJVING_ZELFDE_REKENING.getMessage());
+        }
 
-        // wijzig saldo rekening
-        // waarden aftrekken van type Bigdecimal doe je met subtract()
-        BigDecimal nieuwSaldo = rekening.getSaldo().subtract(bedrag);
-        // getal met twee cijfers na komma wegschrijven
-        rekeningDAO.wijzigenSaldoRekening(rekeningnummer, nieuwSaldo.setScale(2, RoundingMode.HALF_UP));
+        // is bedrag positief? (afgerond op twee cijfers na de komma)
+        Bedrag overschrijving = checkBedragPositief(bedrag);
+
+        // overschrijven in één transactie
+        Overschrijving resultaat;
+        RekeningSloten.Vergrendeling slot = vergrendel(vanRekeningnummer, naarRekeningnummer);
+        try {
+            resultaat = rekeningDAO.overschrijven(vanRekeningnummer, naarRekeningnummer, overschrijving);
+        } finally {
+            ontgrendel(slot);
+        }
+        checkOverschreven(resultaat);
     }
 
     /**
@@ -135,21 +291,40 @@ public class RekeningService {
      */
     public void toevoegenRekening(Rekening rekening)
             throws ApplicationException, DBException {
-        if (rekening == null) {
-            throw new ApplicationException(ApplicationExceptionType.REK_NULL.getMessage());
-
+        RekeningEvent event = RekeningEvent.starten(RekeningEvent.TOEVOEGEN,
+                rekening == null || rekening.getRekeningnummer() == null ? null
+                        : rekening.getRekeningnummer().getRekeningnummer(),
+                rekening == null || rekening.getSaldo() == null ? null : rekening.getSaldo().toBigDecimal());
+        try {
+            if (rekening == null) {
+                throw new ApplicationException(ApplicationExceptionType.REK_NULL.getMessage());
+
+            }
+
+            // controleren of alle velden ingevuld zijn
+            checkAlleVeldenIngevuld(rekening);
+
+            String rekeningnummer = rekening.getRekeningnummer().getRekeningnummer();
+            RekeningSloten.Vergrendeling slot = vergrendel(rekeningnummer);
+            try {
+                // bestaat er al een rekening met dit rekeningnummer?
+                if (zoekRekening(rekeningnummer) != null) {
+                    throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_AL.getMessage());
+                }
+
+                // rekening toevoegen
+                rekeningDAO.toevoegenRekening(rekening);
+            } finally {
+                ontgrendel(slot);
+            }
+
+            event.gelukt();
+        } catch (ApplicationException | DBException | RuntimeException ex) {
+            event.mislukt(ex);
+            throw ex;
+        } finally {
+            event.afsluiten();
         }
-
-        // controleren of alle velden ingevuld zijn
-        checkAlleVeldenIngevuld(rekening);
-
-        // bestaat er al een rekening met dit rekeningnummer?
-        if (zoekRekening(rekening.getRekeningnummer().getRekeningnummer()) != null) {
-            throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_AL.getMessage());
-        }
-
-        // rekening toevoegen
-        rekeningDAO.toevoegenRekening(rekening);
     }
 
     /**
@@ -167,9 +342,7 @@ public class RekeningService {
      */
     public Rekening zoekRekening(String rekeningnummer) throws DBException, ApplicationException {
         // rekeningnummer opgegeven?
-        if (StringUtils.isEmpty(rekeningnummer)) {
-            throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
-        }
+        checkRekeningnummerIngevuld(rekeningnummer);
 
         return rekeningDAO.zoekRekening(rekeningnummer);
     }
@@ -186,6 +359,106 @@ public class RekeningService {
         return rekeningDAO.zoekOpenRekeningen(eigenaar);
     }
 
+    /**
+     * Geeft de rekeningen van meerdere klanten tegelijk terug, met een
+     * handvol queries in plaats van één per klant (bv. voor rapporten).
+     *
+     * @param eigenaars de eigenaars van de rekeningen die gezocht worden
+     * @return per eigenaar de lijst van al zijn rekeningen (leeg indien geen)
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de be.vives.DAO of een fout in de query.
+     */
+    public Map<Integer, ArrayList<Rekening>> zoekRekeningenVanKlanten(Collection<Integer> eigenaars)
+            throws DBException {
+        return rekeningDAO.zoekRekeningenVanKlanten(eigenaars);
+    }
+
+    /**
+     * Zoekt meerdere rekeningen tegelijk op adhv hun rekeningnummer, met een
+     * handvol queries in plaats van één per rekening.
+     *
+     * @param rekeningnummers rekeningnummers van de rekeningen die gezocht worden
+     * @return per gevonden rekeningnummer de rekening
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de be.vives.DAO of een fout in de query.
+     */
+    public Map<String, Rekening> zoekRekeningen(Collection<String> rekeningnummers) throws DBException {
+        return rekeningDAO.zoekRekeningen(rekeningnummers);
+    }
+
+    /**
+     * Overloopt alle rekeningen één voor één, gesorteerd op rekeningnummer,
+     * zonder de volledige lijst in het geheugen te laden (bv. voor rapporten).
+     *
+     * @param verwerker verwerkt elke rekening; geeft false terug om te stoppen
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de be.vives.DAO of een fout in de query.
+     */
+    public void verwerkAlleRekeningen(Verwerker<Rekening> verwerker) throws DBException {
+        rekeningDAO.verwerkAlleRekeningen(verwerker);
+    }
+
+    /**
+     * Geeft één pagina van alle rekeningen terug, gesorteerd op
+     * rekeningnummer. De volgende pagina wordt opgevraagd met volgendePagina
+     * van deze pagina.
+     *
+     * @param vanaf         volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte maximaal aantal rekeningen op de pagina
+     * @return pagina met rekeningen
+     * @throws ApplicationException Wordt gegooid wanneer de paginagrootte of
+     *                              de sleutel van de vorige pagina ongeldig is.
+     * @throws DBException          Exception die duidt op een verkeerde
+     *                              installatie van de be.vives.DAO of een fout in de query.
+     */
+    public Pagina<Rekening> zoekRekeningenPagina(String vanaf, int paginagrootte)
+            throws ApplicationException, DBException {
+        checkPaginagrootte(paginagrootte);
+        return rekeningDAO.zoekRekeningenPagina(vanaf, paginagrootte);
+    }
+
+    /**
+     * Geeft één pagina van de rekeningen van een gegeven klant terug,
+     * gesorteerd op rekeningnummer.
+     *
+     * @param eigenaar      de eigenaar van de rekeningen die gezocht worden
+     * @param vanaf         volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte maximaal aantal rekeningen op de pagina
+     * @return pagina met rekeningen
+     * @throws ApplicationException Wordt gegooid wanneer de paginagrootte of
+     *                              de sleutel van de vorige pagina ongeldig is.
+     * @throws DBException          Exception die duidt op een verkeerde
+     *                              installatie van de be.vives.DAO of een fout in de query.
+     */
+    public Pagina<Rekening> zoekRekeningenPagina(int eigenaar, String vanaf, int paginagrootte)
+            throws ApplicationException, DBException {
+        checkPaginagrootte(paginagrootte);
+        return rekeningDAO.zoekRekeningenPagina(eigenaar, vanaf, paginagrootte);
+    }
+
+    /**
+     * Geeft één pagina uit het journaal van een rekening terug: elke storting,
+     * opname en overschrijving met het saldo erna, de oudste eerst.
+     *
+     * @param rekeningnummer rekeningnummer van de rekening
+     * @param vanaf          volgendePagina van de vorige pagina, null voor de eerste pagina
+     * @param paginagrootte  maximaal aantal regels op de pagina
+     * @return pagina met journaalregels
+     * @throws ApplicationException Wordt gegooid wanneer het rekeningnummer
+     *                              ontbreekt, of de paginagrootte of de sleutel
+     *                              van de vorige pagina ongeldig is.
+     * @throws DBException          Exception die duidt op een verkeerde
+     *                              installatie van de be.vives.DAO of een fout in de query.
+     */
+    public Pagina<Journaalregel> zoekJournaalPagina(String rekeningnummer, String vanaf, int paginagrootte)
+            throws ApplicationException, DBException {
+        if (StringUtils.isBlank(rekeningnummer)) {
+            throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
+        }
+        checkPaginagrootte(paginagrootte);
+        return rekeningDAO.zoekJournaalPagina(rekeningnummer, vanaf, paginagrootte);
+    }
+
     /**
      * Geeft het aantal open rekeningen van een gegeven klant
      *
@@ -198,6 +471,108 @@ public class RekeningService {
         return rekeningDAO.zoekAantalOpenRekeningen(eigenaar);
     }
 
+    // --- sloten: null zonder RekeningSloten ---
+
+    private RekeningSloten.Vergrendeling vergrendel(String rekeningnummer) {
+        return sloten == null || rekeningnummer == null ? null : sloten.vergrendel(rekeningnummer);
+    }
+
+    private RekeningSloten.Vergrendeling vergrendel(String vanRekeningnummer, String naarRekeningnummer) {
+        return sloten == null ? null : sloten.vergrendel(vanRekeningnummer, naarRekeningnummer);
+    }
+
+    private static void ontgrendel(RekeningSloten.Vergrendeling slot) {
+        if (slot != null) {
+            slot.ontgrendel();
+        }
+    }
+
+    /**
+     * Controleert of er een rekeningnummer opgegeven werd
+     * <p>
+     * Gooit een be.vives.exception bij: - rekeningnummer null of leeg
+     */
+    private static void checkRekeningnummerIngevuld(String rekeningnummer) throws ApplicationException {
+        if (StringUtils.isEmpty(rekeningnummer)) {
+            throw new ApplicationException(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
+        }
+    }
+
+    /**
+     * Zet het resultaat van een saldowijziging in de DB om naar de
+     * overeenkomstige foutboodschap
+     * <p>
+     * Gooit een be.vives.exception bij: - rekening bestaat niet - rekening
+     * gesloten - bedrag groter dan saldo - mutatie niet uitgevoerd
+     */
+    private static void checkSaldoGewijzigd(SaldoWijziging resultaat) throws ApplicationException {
+        if (resultaat == null) {
+            throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
+        }
+        switch (resultaat) {
+            case GELUKT:
+                return;
+            case REKENING_GESLOTEN:
+                throw new ApplicationException(ApplicationExceptionType.REK_IS_GESLOTEN.getMessage());
+            case SALDO_ONTOEREIKEND:
+                throw new ApplicationException(ApplicationExceptionType.REK_BEDRAG_TE_GROOT.getMessage());
+            case NIET_UITGEVOERD:
+                throw new ApplicationException(ApplicationExceptionType.MUTATIE_NIET_UITGEVOERD.getMessage());
+            default:
+                throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
+        }
+    }
+
+    /**
+     * Zet het resultaat van het sluiten van een rekening om naar de
+     * overeenkomstige foutboodschap
+     * <p>
+     * Gooit een be.vives.exception bij: - rekening bestaat niet - rekening al
+     * gesloten - saldo niet nul
+     */
+    private static void checkGesloten(Afsluiting resultaat) throws ApplicationException {
+        if (resultaat == null) {
+            throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
+        }
+        switch (resultaat) {
+            case GELUKT:
+                return;
+            case REKENING_GESLOTEN:
+                throw new ApplicationException(ApplicationExceptionType.REK_IS_GESLOTEN.getMessage());
+            case SALDO_NIET_NUL:
+                throw new ApplicationException(ApplicationExceptionType.REK_SALDO_MOET_NUL_ZIJN.getMessage());
+            default:
+                throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
+        }
+    }
+
+    /**
+     * Zet het resultaat van een overschrijving om naar de overeenkomstige
+     * foutboodschap
+     * <p>
+     * Gooit een be.vives.exception bij: - een rekening bestaat niet - een
+     * rekening gesloten - bedrag groter dan saldo
+     */
+    private static void checkOverschreven(Overschrijving resultaat) throws ApplicationException {
+        if (resultaat == null) {
+            throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
+        }
+        switch (resultaat) {
+            case GELUKT:
+                return;
+            case VAN_REKENING_GESLOTEN:
+                throw new ApplicationException(ApplicationExceptionType.REK_IS_GESLOTEN.getMessage());
+            case NAAR_REKENING_BESTAAT_NIET:
+                throw new ApplicationException(ApplicationExceptionType.OVERSCHRIJVING_BEGUNSTIGDE_BESTAAT_NIET.getMessage());
+            case NAAR_REKENING_GESLOTEN:
+                throw new ApplicationException(ApplicationExceptionType.OVERSCHRIJVING_BEGUNSTIGDE_GESLOTEN.getMessage());
+            case SALDO_ONTOEREIKEND:
+                throw new ApplicationException(ApplicationExceptionType.REK_BEDRAG_TE_GROOT.getMessage());
+            default:
+                throw new ApplicationException(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
+        }
+    }
+
     /**
      * Controleert of de rekening omschreven in het object r open is. Dit
      * gebeurt op basis van zijn id.
@@ -211,35 +586,61 @@ public class RekeningService {
     }
 
     /**
-     * Controleert of bedrag > 0
+     * Controleert of de paginagrootte tussen 1 en Pagina.MAX_PAGINAGROOTTE ligt
      * <p>
-     * Gooit een be.vives.exception bij: - bedrag negatief of nul, of niet opgegeven
+     * Gooit een be.vives.exception bij: - paginagrootte ongeldig
      */
-    private void checkBedragPositief(BigDecimal bedrag) throws
-            ApplicationException {
+    private static void checkPaginagrootte(int paginagrootte) throws ApplicationException {
+        if (paginagrootte < 1 || paginagrootte > Pagina.MAX_PAGINAGROOTTE) {
+            throw new ApplicationException(ApplicationExceptionType.PAGINAGROOTTE_ONGELDIG.getMessage());
+        }
+    }
 
-        //is bedrag geldig?
-        if (bedrag == null) {
+    /**
+     * Controleert of een mutatie uit een batch volledig is
+     * <p>
+     * Gooit een be.vives.exception bij: - mutatie niet opgegeven -
+     * rekeningnummer niet ingevuld - bedrag niet opgegeven of nul
+     */
+    private static void checkMutatie(Mutatie mutatie) throws ApplicationException {
+        if (mutatie == null) {
+            throw new ApplicationException(ApplicationExceptionType.MUTATIE_NULL.getMessage());
+        }
+        checkRekeningnummerIngevuld(mutatie.getRekeningnummer());
+        if (mutatie.getBedrag() == null) {
             throw new ApplicationException(ApplicationExceptionType.REK_BEDRAG_LEEG.getMessage());
         }
-
-        if (bedrag.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new ApplicationException(ApplicationExceptionType.REK_BEDRAG_MOET_POS_ZIJN.getMessage());
+        if (mutatie.getBedrag().isNul()) {
+            throw new ApplicationException(ApplicationExceptionType.MUTATIE_BEDRAG_NUL.getMessage());
         }
     }
 
     /**
-     * Controleert of saldo - bedrag >= 0
+     * Zet bedrag om naar een Bedrag (afgerond op twee cijfers na de komma,
+     * HALF_UP) en controleert of het > 0
      * <p>
-     * Gooit een be.vives.exception bij: - bedrag groter dan saldo, of niet opgegeven
+     * Gooit een be.vives.exception bij: - bedrag negatief of nul, of niet
+     * opgegeven - bedrag te groot
      */
-    private void checkBedragNietTeGroot(Rekening rekening, BigDecimal bedrag) throws
+    private Bedrag checkBedragPositief(BigDecimal bedrag) throws
             ApplicationException {
 
-        // is bedrag kleiner dan saldo?
-        if (rekening.getSaldo().compareTo(bedrag) < 0) {
+        //is bedrag geldig?
+        if (bedrag == null) {
+            throw new ApplicationException(ApplicationExceptionType.REK_BEDRAG_LEEG.getMessage());
+        }
+
+        Bedrag afgerond;
+        try {
+            afgerond = Bedrag.van(bedrag);
+        } catch (ArithmeticException ae) {
             throw new ApplicationException(ApplicationExceptionType.REK_BEDRAG_TE_GROOT.getMessage());
         }
+
+        if (!afgerond.isPositief()) {
+            throw new ApplicationException(ApplicationExceptionType.REK_BEDRAG_MOET_POS_ZIJN.getMessage());
+        }
+        return afgerond;
     }
 
     /**
@@ -248,7 +649,7 @@ public class RekeningService {
      */
     private void checkSaldoIsZero(Rekening rekening) throws ApplicationException {
         //is saldo 0?
-        if (BigDecimal.ZERO.compareTo(rekening.getSaldo()) != 0) {
+        if (!rekening.getSaldo().isNul()) {
             throw new ApplicationException(ApplicationExceptionType.REK_SALDO_MOET_NUL_ZIJN.getMessage());
         }
     }
@@ -0,0 +1,153 @@
+package be.vives.ti.service;
+
+import be.vives.ti.DAO.metriek.Histogram;
+import be.vives.ti.DAO.metriek.Verdeling;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sloten per rekening binnen één JVM, zodat gelijktijdige wijzigingen van
+ * dezelfde rekening in RekeningService na elkaar gebeuren en die van andere
+ * rekeningen gewoon parallel (zie RekeningService(RekeningRepository,
+ * RekeningSloten)).
+ * <p>
+ * - gestreept: een vast aantal sloten, een rekeningnummer (in hoofdletters)
+ * hoort via zijn hash bij één slot; twee rekeningen kunnen zo hetzelfde slot
+ * delen, wat enkel wachten kost
+ * - meerdere rekeningen (overschrijven) worden altijd in de volgorde van hun
+ * slot vergrendeld en elk slot maar één keer: twee
+ * overschrijvingen in tegengestelde richting kunnen niet op elkaar blijven
+ * wachten
+ * - wachttijden: enkel wanneer een slot al bezet was, wordt de tijd tot het
+ * verkrijgen bijgehouden (getWachttijd, in microseconden)
+ * - de sloten beschermen enkel tegen andere threads van dezelfde
+ * RekeningSloten; de databank blijft de wijzigingen van andere JVM's
+ * afhandelen
+ */
+public class RekeningSloten {
+
+    public static final int STANDAARD_AANTAL = 1024;
+
+    private final ReentrantLock[] sloten;
+    private final int masker;
+
+    private final LongAdder vergrendelingen = new LongAdder();
+    private final LongAdder gewacht = new LongAdder();
+    private final Histogram wachttijden = new Histogram();
+
+    public RekeningSloten() {
+        this(STANDAARD_AANTAL);
+    }
+
+    /**
+     * @param aantal aantal sloten, een macht van 2
+     */
+    public RekeningSloten(int aantal) {
+        if (aantal < 1 || Integer.bitCount(aantal) != 1) {
+            throw new IllegalArgumentException("Aantal sloten moet een macht van 2 zijn: " + aantal);
+        }
+        sloten = new ReentrantLock[aantal];
+        for (int i = 0; i < aantal; i++) {
+            sloten[i] = new ReentrantLock();
+        }
+        masker = aantal - 1;
+    }
+
+    /**
+     * Vergrendelt het slot van één rekening; vrijgeven met
+     * Vergrendeling.ontgrendel in een finally.
+     */
+    public Vergrendeling vergrendel(String rekeningnummer) {
+        int[] strepen = {streep(rekeningnummer)};
+        vergrendel(strepen);
+        return new Vergrendeling(strepen);
+    }
+
+    /**
+     * Vergrendelt de sloten van twee rekeningen, in de volgorde van de sloten.
+     */
+    public Vergrendeling vergrendel(String rekeningnummer1, String rekeningnummer2) {
+        int eerste = streep(rekeningnummer1);
+        int tweede = streep(rekeningnummer2);
+        int[] strepen = eerste == tweede ? new int[]{eerste}
+                : new int[]{Math.min(eerste, tweede), Math.max(eerste, tweede)};
+        vergrendel(strepen);
+        return new Vergrendeling(strepen);
+    }
+
+    private int streep(String rekeningnummer) {
+        int h = rekeningnummer.toUpperCase(Locale.ROOT).hashCode();
+        return (h ^ (h >>> 16)) & masker;
+    }
+
+    private void vergrendel(int[] strepen) {
+        for (int streep : strepen) {
+            ReentrantLock slot = sloten[streep];
+            if (!slot.tryLock()) {
+                long start = System.nanoTime();
+                slot.lock();
+                wachttijden.registreer(System.nanoTime() - start);
+                gewacht.increment();
+            }
+            vergrendelingen.increment();
+        }
+    }
+
+    // voor testen
+    boolean isVergrendeldDoorHuidigeThread(String rekeningnummer) {
+        return sloten[streep(rekeningnummer)].isHeldByCurrentThread();
+    }
+
+    /**
+     * @return aantal keer dat een slot vergrendeld werd
+     */
+    public long getAantalVergrendelingen() {
+        return vergrendelingen.sum();
+    }
+
+    /**
+     * @return aantal keer dat er op een bezet slot gewacht werd
+     */
+    public long getAantalGewacht() {
+        return gewacht.sum();
+    }
+
+    /**
+     * @return verdeling van de wachttijd op een bezet slot
+     */
+    public Verdeling getWachttijd() {
+        return Verdeling.van(wachttijden);
+    }
+
+    public void leegmaken() {
+        vergrendelingen.reset();
+        gewacht.reset();
+        wachttijden.leegmaken();
+    }
+
+    @Override
+    public String toString() {
+        return "RekeningSloten{" + "sloten=" + sloten.length + ", vergrendelingen=" + getAantalVergrendelingen()
+                + ", gewacht=" + getAantalGewacht() + ", wachttijd=" + getWachttijd() + '}';
+    }
+
+    /**
+     * De vergrendelde sloten; ontgrendel geeft ze in omgekeerde volgorde vrij.
+     */
+    public final class Vergrendeling {
+
+        private final int[] strepen;
+
+        private Vergrendeling(int[] strepen) {
+            this.strepen = strepen;
+        }
+
+        public void ontgrendel() {
+            for (int i = strepen.length - 1; i >= 0; i--) {
+                sloten[strepen[i]].unlock();
+            }
+        }
+    }
+}
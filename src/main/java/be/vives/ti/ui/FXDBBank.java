@@ -40,7 +40,7 @@ public class FXDBBank extends Application {
 
     private KlantService createKlantService() {
         if (klantService == null) {
-            this.klantService = new KlantService(createKlantDao(), createRekeningService());
+            this.klantService = new KlantService(createKlantDao());
         }
         return klantService;
     }
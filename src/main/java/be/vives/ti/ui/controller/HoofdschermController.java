@@ -2,6 +2,7 @@ package be.vives.ti.ui.controller;
 
 import be.vives.ti.comparator.KlantComparator;
 import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.KlantOverzicht;
 import be.vives.ti.databag.Rekening;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.DBException;
@@ -252,13 +253,8 @@ public class HoofdschermController {
      */
     private void selecteer(Klant k) {
         if (k != null) {
-            // van geselecteerde klant overeenkomstig adres, postcode en gemeente ophalen
-            // en tonen
-            tfAdres.setText(k.getAdres());
-            tfPostcode.setText(k.getPostcode());
-            tfGemeente.setText(k.getGemeente());
-
-            // nieuw geselecteerde klant, dus nieuwe rekeningen opvragen en tonen in tabel
+            // nieuw geselecteerde klant: adres, postcode en gemeente en de
+            // rekeningen samen opvragen en tonen
             initialiseerTabel();
         } else // als er geen klant geselecteerd is, dan overige gegevens op blanco zetten
         {
@@ -276,7 +272,8 @@ public class HoofdschermController {
     }
 
     /**
-     * De tabel opvullen met data over rekeningen uit de DB
+     * De gegevens van de geselecteerde klant en de tabel opvullen met data
+     * over zijn rekeningen uit de DB (één query)
      */
     private void initialiseerTabel() {
         resetErrorMessage();
@@ -284,12 +281,22 @@ public class HoofdschermController {
         Klant k = cbNaam.getSelectionModel().getSelectedItem();
         if (k != null) {
             try {
-                // alle rekeningen van de geselecteerde klant ophalen
-                ArrayList<Rekening> reklijst = rekTrans.zoekOpenRekeningen(k.getId());
-
-                ObservableList<Rekening> rekeningen = FXCollections.
-                        observableArrayList(reklijst);
-                taRekeningen.setItems(rekeningen);
+                // klant met alle open rekeningen ophalen
+                KlantOverzicht overzicht = klantService.zoekKlantOverzicht(k.getId());
+                if (overzicht == null) {
+                    laErrorMessage.setText("Klant niet gevonden");
+                } else {
+                    Klant klant = overzicht.getKlant();
+                    tfAdres.setText(klant.getAdres());
+                    tfPostcode.setText(klant.getPostcode());
+                    tfGemeente.setText(klant.getGemeente());
+
+                    ObservableList<Rekening> rekeningen = FXCollections.
+                            observableArrayList(overzicht.getRekeningen());
+                    taRekeningen.setItems(rekeningen);
+                }
+            } catch (ApplicationException ae) {
+                laErrorMessage.setText(ae.getMessage());
             } catch (DBException ae) {
                 laErrorMessage.setText("onherstelbare fout: " + ae.
                         getMessage());
@@ -13,7 +13,6 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 public class StortenController {
 
@@ -116,6 +115,6 @@ public class StortenController {
         geselecteerdeKlant = KlantId;
         rekening = rek;
         tfRekeningnummer.setText(rek.getRekeningnummer().getRekeningnummer());
-        tfSaldo.setText(String.valueOf(rek.getSaldo().setScale(2, RoundingMode.HALF_UP)));
+        tfSaldo.setText(String.valueOf(rek.getSaldo()));
     }
 }
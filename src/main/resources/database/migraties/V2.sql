@@ -0,0 +1,12 @@
+-- covering indexes voor de zoekopdrachten van KlantDAO en RekeningDAO
+
+-- zoekAlleKlanten en zoekKlantenPagina (gesorteerd op naam, voornaam, id) en
+-- bestaatKlant (naam = ? and voornaam = ?, de rest uit dezelfde index)
+CREATE INDEX KLANT_NAAM_IDX ON KLANT (naam, voornaam, id, adres, postcode, gemeente, status);
+
+-- zoekKlantMetStatus en zoekKlantenPagina met status (status = ? order by naam, voornaam, id)
+CREATE INDEX KLANT_STATUS_IDX ON KLANT (status, naam, voornaam, id, adres, postcode, gemeente);
+
+-- zoekRekeningMetStatus, zoekAantalOpenRekeningen, zoekAlleRekeningen (eigenaar = ?)
+-- en de controle op open rekeningen in verwijderKlant
+CREATE INDEX REKENING_EIGENAAR_STATUS_IDX ON REKENING (eigenaar, status, saldo);
@@ -0,0 +1,19 @@
+-- journaal: elke wijziging van een saldo, in dezelfde transactie als de wijziging
+
+-- enkel toevoegen, nooit wijzigen of verwijderen. Geen vreemde sleutel naar
+-- rekening: dat maakt het toevoegen goedkoper en laat partitioneren toe.
+-- periode (jaar * 100 + maand van tijdstip) is de sleutel voor de partities in
+-- MySQL (zie database/journaal-partities.sql) en zit daarom in de primaire sleutel.
+CREATE TABLE IF NOT EXISTS JOURNAAL (
+  volgnummer     bigint auto_increment,
+  periode        int            NOT NULL,
+  rekeningnummer VARCHAR(20)    NOT NULL,
+  soort          VARCHAR(15)    NOT NULL,
+  verschil       decimal(10, 2) NOT NULL,
+  saldo          decimal(10, 2) NOT NULL,
+  tijdstip       timestamp(3)   NOT NULL,
+  primary key (volgnummer, periode)
+);
+
+-- zoekJournaalPagina (rekeningnummer = ? and volgnummer > ? order by volgnummer)
+CREATE INDEX JOURNAAL_REKENING_IDX ON JOURNAAL (rekeningnummer, volgnummer);
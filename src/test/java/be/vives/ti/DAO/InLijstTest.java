@@ -0,0 +1,42 @@
+package be.vives.ti.DAO;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InLijstTest {
+
+    @Test
+    public void verdelen_dubbelsEnNullWeg_opgevuldTotMachtVanTwee() {
+        List<List<Integer>> stukken = InLijst.verdelen(Arrays.asList(5, 3, null, 5, 8));
+
+        assertThat(stukken).containsExactly(Arrays.asList(5, 3, 8, 8));
+        assertThat(InLijst.parameters(stukken.get(0))).isEqualTo("(?, ?, ?, ?)");
+    }
+
+    @Test
+    public void verdelen_meerDanMaximum_inStukken() {
+        List<Integer> sleutels = new ArrayList<>();
+        for (int i = 0; i < InLijst.MAXIMUM * 2 + 3; i++) {
+            sleutels.add(i);
+        }
+
+        List<List<Integer>> stukken = InLijst.verdelen(sleutels);
+
+        assertThat(stukken).extracting(List::size).containsExactly(InLijst.MAXIMUM, InLijst.MAXIMUM, 4);
+        assertThat(stukken.get(1).get(0)).isEqualTo(InLijst.MAXIMUM);
+        assertThat(stukken.get(2)).containsExactly(InLijst.MAXIMUM * 2, InLijst.MAXIMUM * 2 + 1,
+                InLijst.MAXIMUM * 2 + 2, InLijst.MAXIMUM * 2 + 2);
+    }
+
+    @Test
+    public void verdelen_niets() {
+        assertThat(InLijst.verdelen(null)).isEmpty();
+        assertThat(InLijst.verdelen(new ArrayList<String>())).isEmpty();
+        assertThat(InLijst.verdelen(Arrays.asList((String) null))).isEmpty();
+    }
+}
@@ -1,7 +1,15 @@
 package be.vives.ti.DAO;
 
 import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.KlantOverzicht;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Bedrag;
 import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.datatype.Uitschrijving;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
 import be.vives.ti.extra.ExtraQueries;
 import be.vives.ti.extra.Removals;
@@ -9,6 +17,9 @@ import org.assertj.core.api.Assertions;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -177,6 +188,38 @@ public class KlantDAOTest {
         assertThat(klantID).isNull();
     }
 
+    // batch klanten toevoegen: dubbels in de lijst en bestaande klanten worden overgeslagen
+    @Test
+    public void testToevoegenKlanten() throws Exception {
+        Klant bestaand = maakKlant("Mieke", "Defoort", "Kerkstraat 1", "8000", "Brugge", KlantStatus.INGESCHREVEN);
+        Klant nieuw1 = maakKlant("Jan", "Janssens", "Dorpsplein 120", "8500", "Kortrijk", null);
+        Klant nieuw2 = maakKlant("Piet", "Peeters", "Markt 1", "8500", "Kortrijk", null);
+        // de DB onderscheidt geen hoofdletters: ook een dubbel
+        Klant dubbel = maakKlant("JAN", "JANSSENS", "Dorpsplein 120", "8500", "Kortrijk", null);
+        ArrayList<Integer> ids = new ArrayList<>();
+        try {
+            bestaand.setId(klantDAO.toevoegenKlant(bestaand));
+
+            ids = klantDAO.toevoegenKlanten(Arrays.asList(nieuw1, bestaand, nieuw2, dubbel));
+
+            assertThat(ids).hasSize(4);
+            assertThat(ids.get(0)).isNotNull();
+            assertThat(ids.get(1)).isNull();
+            assertThat(ids.get(2)).isNotNull();
+            assertThat(ids.get(3)).isNull();
+            assertThat(klantDAO.zoekKlant(ids.get(0)).getNaam()).isEqualTo("Janssens");
+            assertThat(klantDAO.zoekKlant(ids.get(2)).getNaam()).isEqualTo("Peeters");
+            assertThat(klantDAO.zoekKlant(ids.get(2)).getStatus()).isEqualTo(KlantStatus.INGESCHREVEN);
+        } finally {
+            Removals.removeKlant(bestaand.getId());
+            for (Integer id : ids) {
+                if (id != null) {
+                    Removals.removeKlant(id);
+                }
+            }
+        }
+    }
+
     // voornaam klant wijzigen
     @Test
     public void testWijzigenKlantVoornaam() throws Exception {
@@ -499,6 +542,48 @@ public class KlantDAOTest {
         }
     }
 
+    // klant verwijderen: resultaat per reden
+    @Test
+    public void testVerwijderenKlantResultaat() throws Exception {
+
+        Klant klant = maakKlant("Mieke", "Defoort", "Kerkstraat 1", "8000", "Brugge", KlantStatus.INGESCHREVEN);
+
+        try {
+            klant.setId(klantDAO.toevoegenKlant(klant));
+
+            assertThat(klantDAO.verwijderKlant(klant.getId())).isEqualTo(Uitschrijving.GELUKT);
+            // een tweede keer: al uitgeschreven
+            assertThat(klantDAO.verwijderKlant(klant.getId())).isEqualTo(Uitschrijving.KLANT_UITGESCHREVEN);
+            assertThat(klantDAO.verwijderKlant(ExtraQueries.getOngebruiktKlantID()))
+                    .isEqualTo(Uitschrijving.KLANT_BESTAAT_NIET);
+            assertThat(klantDAO.verwijderKlant(null)).isEqualTo(Uitschrijving.KLANT_BESTAAT_NIET);
+        } finally {
+            Removals.removeKlant(klant.getId());
+        }
+    }
+
+    // klant met een open rekening wordt niet uitgeschreven
+    @Test
+    public void testVerwijderenKlantMetOpenRekening() throws Exception {
+
+        Klant klant = maakKlant("Mieke", "Defoort", "Kerkstraat 1", "8000", "Brugge", KlantStatus.INGESCHREVEN);
+        String rekeningnummer = "BE62 0016 6836 7361";
+
+        try {
+            klant.setId(klantDAO.toevoegenKlant(klant));
+            Rekening rekening = new Rekening();
+            rekening.setRekeningnummer(new Rekeningnummer(rekeningnummer));
+            rekening.setEigenaar(klant.getId());
+            new RekeningDAO().toevoegenRekening(rekening);
+
+            assertThat(klantDAO.verwijderKlant(klant.getId())).isEqualTo(Uitschrijving.KLANT_HEEFT_NOG_REKENINGEN);
+            assertThat(klantDAO.zoekKlant(klant.getId()).getStatus()).isEqualTo(KlantStatus.INGESCHREVEN);
+        } finally {
+            Removals.removeRekening(rekeningnummer);
+            Removals.removeKlant(klant.getId());
+        }
+    }
+
     /**
      * Methode om be.vives.extra klanten toe te voegen (naast de setup)
      */
@@ -548,6 +633,95 @@ public class KlantDAOTest {
         }
     }
 
+    @Test
+    public void verwerkAlleKlanten() throws Exception {
+        // reeds aanwezige klanten tellen
+        int aantalKlanten = klantDAO.zoekAlleKlanten().size();
+
+        // extra klanten toevoegen
+        ArrayList<Klant> klanten = extraKlantenToevoegen();
+
+        try {
+            // alle klanten één voor één overlopen
+            ArrayList<Klant> verwerkteKlanten = new ArrayList<>();
+            klantDAO.verwerkAlleKlanten(klant -> verwerkteKlanten.add(klant));
+
+            assertThat(verwerkteKlanten.size()).isEqualTo(aantalKlanten + 5);
+            // zelfde volgorde als zoekAlleKlanten
+            assertThat(verwerkteKlanten).extracting(Klant::getId)
+                    .containsExactlyElementsOf(klantDAO.zoekAlleKlanten().stream().map(Klant::getId)
+                            .collect(Collectors.toList()));
+        } finally {
+            removeTestklanten(klanten);
+        }
+    }
+
+    @Test
+    public void verwerkAlleKlantenStoppen() throws Exception {
+        // extra klanten toevoegen
+        ArrayList<Klant> klanten = extraKlantenToevoegen();
+
+        try {
+            // na twee klanten stoppen
+            ArrayList<Klant> verwerkteKlanten = new ArrayList<>();
+            klantDAO.verwerkAlleKlanten(klant -> {
+                verwerkteKlanten.add(klant);
+                return verwerkteKlanten.size() < 2;
+            });
+
+            assertThat(verwerkteKlanten.size()).isEqualTo(2);
+        } finally {
+            removeTestklanten(klanten);
+        }
+    }
+
+    @Test
+    public void zoekKlantenPagina() throws Exception {
+        // extra klanten toevoegen
+        ArrayList<Klant> klanten = extraKlantenToevoegen();
+
+        try {
+            // alle pagina's van 2 klanten overlopen
+            ArrayList<Klant> gebladerd = new ArrayList<>();
+            Pagina<Klant> pagina = klantDAO.zoekKlantenPagina(null, 2);
+            gebladerd.addAll(pagina.getItems());
+            while (!pagina.isLaatstePagina()) {
+                assertThat(pagina.getItems().size()).isEqualTo(2);
+                pagina = klantDAO.zoekKlantenPagina(pagina.getVolgendePagina(), 2);
+                gebladerd.addAll(pagina.getItems());
+            }
+
+            // zelfde klanten als zoekAlleKlanten, zonder dubbels
+            assertThat(gebladerd).extracting(Klant::getId).doesNotHaveDuplicates()
+                    .containsExactlyInAnyOrderElementsOf(klantDAO.zoekAlleKlanten().stream().map(Klant::getId)
+                            .collect(Collectors.toList()));
+        } finally {
+            removeTestklanten(klanten);
+        }
+    }
+
+    @Test
+    public void zoekKlantenPaginaMetStatus() throws Exception {
+        // extra klanten toevoegen
+        ArrayList<Klant> klanten = extraKlantenToevoegen();
+
+        try {
+            Pagina<Klant> pagina = klantDAO.zoekKlantenPagina(KlantStatus.UITGESCHREVEN, null, Pagina.MAX_PAGINAGROOTTE);
+
+            assertThat(pagina.getItems()).extracting(Klant::getStatus).containsOnly(KlantStatus.UITGESCHREVEN);
+        } finally {
+            removeTestklanten(klanten);
+        }
+    }
+
+    @Test
+    public void zoekKlantenPaginaOngeldigeSleutel() throws Exception {
+        assertThatThrownBy(() -> {
+            klantDAO.zoekKlantenPagina("geen.geldige.sleutel!", 2);
+        }).isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.PAGINA_SLEUTEL_ONGELDIG.getMessage());
+    }
+
     @Test
     public void zoekIngeschrevenKlanten() throws Exception {
         // reeds ingeschreven klanten tellen
@@ -625,6 +799,80 @@ public class KlantDAOTest {
         }
     }
 
+    // zoek meerdere klanten tegelijk op basis van id
+    @Test
+    public void zoekKlanten() throws Exception {
+
+        // extra klanten toevoegen
+        ArrayList<Klant> klanten = extraKlantenToevoegen();
+
+        try {
+            // dubbels en null worden genegeerd, onbestaande id's komen niet voor
+            Map<Integer, Klant> gevonden = klantDAO.zoekKlanten(Arrays.asList(klanten.get(2).getId(),
+                    klanten.get(0).getId(), null, klanten.get(2).getId(), -1));
+
+            assertThat(gevonden.keySet()).containsExactly(klanten.get(2).getId(), klanten.get(0).getId());
+            assertThat(gevonden.get(klanten.get(0).getId()).getNaam()).isEqualTo("Defoort");
+            assertThat(gevonden.get(klanten.get(2).getId()).getStatus()).isEqualTo(KlantStatus.UITGESCHREVEN);
+        } finally {
+            removeTestklanten(klanten);
+        }
+    }
+
+    // zoek meerdere klanten tegelijk, geen id's opgegeven
+    @Test
+    public void zoekKlantenLeeg() throws Exception {
+        assertThat(klantDAO.zoekKlanten(null)).isEmpty();
+        assertThat(klantDAO.zoekKlanten(new ArrayList<>())).isEmpty();
+    }
+
+    // zoek een klant met zijn open rekeningen
+    @Test
+    public void zoekKlantOverzicht() throws Exception {
+        Klant klant = maakKlant("Mieke", "Defoort", "Kerkstraat 1", "8000", "Brugge", KlantStatus.INGESCHREVEN);
+        klant.setId(klantDAO.toevoegenKlant(klant));
+        RekeningDAO rekeningDAO = new RekeningDAO();
+        ArrayList<String> rekeningnummers = new ArrayList<>(
+                Arrays.asList("BE74 9871 1111 1107", "BE24 1238 8888 8838", "BE33 1112 2222 2246"));
+        try {
+            // zonder rekeningen
+            KlantOverzicht overzicht = klantDAO.zoekKlantOverzicht(klant.getId());
+            assertThat(overzicht.getKlant().getNaam()).isEqualTo("Defoort");
+            assertThat(overzicht.getRekeningen()).isEmpty();
+            assertThat(overzicht.getTotaalSaldo()).isEqualTo(Bedrag.NUL);
+
+            // twee open rekeningen en een gesloten rekening
+            for (String rekeningnummer : rekeningnummers) {
+                Rekening rekening = new Rekening();
+                rekening.setRekeningnummer(new Rekeningnummer(rekeningnummer));
+                rekening.setEigenaar(klant.getId());
+                rekeningDAO.toevoegenRekening(rekening);
+            }
+            rekeningDAO.verrekenenSaldoRekening("BE74 9871 1111 1107", Bedrag.vanCenten(1000));
+            rekeningDAO.verrekenenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(250));
+            rekeningDAO.verwijderRekening("BE33 1112 2222 2246");
+
+            overzicht = klantDAO.zoekKlantOverzicht(klant.getId());
+            assertThat(overzicht.getKlant().getId()).isEqualTo(klant.getId());
+            assertThat(overzicht.getRekeningen()).extracting(rekening -> rekening.getRekeningnummer().getRekeningnummer())
+                    .containsExactly("BE24 1238 8888 8838", "BE74 9871 1111 1107");
+            assertThat(overzicht.getAantalRekeningen()).isEqualTo(2);
+            assertThat(overzicht.getTotaalSaldo()).isEqualTo(Bedrag.vanCenten(1250));
+        } finally {
+            for (String rekeningnummer : rekeningnummers) {
+                Removals.removeRekening(rekeningnummer);
+            }
+            Removals.removeKlant(klant.getId());
+        }
+    }
+
+    // zoek een klant met zijn open rekeningen, onbestaande klant of id null
+    @Test
+    public void zoekKlantOverzichtNietGevonden() throws Exception {
+        assertThat(klantDAO.zoekKlantOverzicht(null)).isNull();
+        assertThat(klantDAO.zoekKlantOverzicht(-1)).isNull();
+    }
+
     // zoek een klant op basis van naam, voornaam en adres
     @Test
     public void bestaatKlant() throws Exception {
@@ -0,0 +1,184 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.KlantOverzicht;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.datatype.Uitschrijving;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.extra.Rekeningnummers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class KlantGeheugenDAOTest {
+
+    private GeheugenDatabank databank;
+    private KlantGeheugenDAO klantDAO;
+    private RekeningGeheugenDAO rekeningDAO;
+
+    @Before
+    public void setUp() {
+        databank = new GeheugenDatabank();
+        klantDAO = new KlantGeheugenDAO(databank);
+        rekeningDAO = new RekeningGeheugenDAO(databank);
+    }
+
+    private Klant maakKlant(String naam, String voornaam) {
+        Klant klant = new Klant();
+        klant.setNaam(naam);
+        klant.setVoornaam(voornaam);
+        klant.setAdres("Kerkstraat 1");
+        klant.setPostcode("8000");
+        klant.setGemeente("Brugge");
+        return klant;
+    }
+
+    @Test
+    public void toevoegenEnZoekKlant() throws Exception {
+        Klant klant = maakKlant("Defoort", "Mieke");
+        Integer id = klantDAO.toevoegenKlant(klant);
+
+        Klant gevonden = klantDAO.zoekKlant(id);
+        assertThat(gevonden.getNaam()).isEqualTo("Defoort");
+        assertThat(gevonden.getStatus()).isEqualTo(KlantStatus.INGESCHREVEN);
+
+        // een kopie: wijzigen verandert de opgeslagen klant niet
+        gevonden.setNaam("Anders");
+        assertThat(klantDAO.zoekKlant(id).getNaam()).isEqualTo("Defoort");
+        assertThat(klantDAO.zoekKlant(null)).isNull();
+        assertThat(klantDAO.zoekKlant(id + 1)).isNull();
+    }
+
+    @Test
+    public void toevoegenKlantOnvolledig() {
+        Klant klant = maakKlant("Defoort", null);
+
+        assertThatThrownBy(() -> klantDAO.toevoegenKlant(klant)).isInstanceOf(DBException.class);
+        assertThat(klantDAO.zoekAlleKlanten()).isEmpty();
+    }
+
+    @Test
+    public void bestaatKlantHoofdletterongevoelig() throws Exception {
+        klantDAO.toevoegenKlant(maakKlant("Defoort", "Mieke"));
+
+        assertThat(klantDAO.bestaatKlant(maakKlant("DEFOORT", "mieke"))).isTrue();
+        assertThat(klantDAO.bestaatKlant(maakKlant("Defoort", "Jan"))).isFalse();
+        assertThat(klantDAO.bestaatKlant(null)).isFalse();
+    }
+
+    @Test
+    public void toevoegenKlanten_bestaandeEnDubbelsOvergeslagen() throws Exception {
+        klantDAO.toevoegenKlant(maakKlant("Defoort", "Mieke"));
+
+        ArrayList<Integer> ids = klantDAO.toevoegenKlanten(Arrays.asList(
+                maakKlant("defoort", "MIEKE"), maakKlant("Peeters", "Jan"), null, maakKlant("Peeters", "Jan")));
+
+        assertThat(ids).hasSize(4);
+        assertThat(ids.get(0)).isNull();
+        assertThat(ids.get(1)).isNotNull();
+        assertThat(ids.get(2)).isNull();
+        assertThat(ids.get(3)).isNull();
+        assertThat(klantDAO.zoekAlleKlanten()).hasSize(2);
+    }
+
+    @Test
+    public void toevoegenKlanten_hoofdletterDubbelInLijstEnOngeldigeKlantNaStuk_nietsToegevoegd() throws Exception {
+        ArrayList<Klant> klanten = new ArrayList<>();
+        klanten.add(maakKlant("Peeters", "Jan"));
+        klanten.add(maakKlant("PEETERS", "JAN"));
+        // voorbij de BATCHGROOTTE van KlantDAO
+        for (int i = 0; i < 600; i++) {
+            klanten.add(maakKlant("Klant" + i, "Jan"));
+        }
+        Klant ongeldig = maakKlant("Vermeulen", "Mieke");
+        ongeldig.setPostcode(null);
+        klanten.add(ongeldig);
+
+        assertThatThrownBy(() -> klantDAO.toevoegenKlanten(klanten)).isInstanceOf(DBException.class);
+        assertThat(klantDAO.zoekAlleKlanten()).isEmpty();
+
+        klanten.remove(ongeldig);
+        ArrayList<Integer> ids = klantDAO.toevoegenKlanten(klanten);
+        assertThat(ids.get(0)).isNotNull();
+        assertThat(ids.get(1)).isNull();
+        assertThat(klantDAO.zoekAlleKlanten()).hasSize(601);
+    }
+
+    @Test
+    public void wijzigenKlant_behoudtStatusEnIndex() throws Exception {
+        Integer id = klantDAO.toevoegenKlant(maakKlant("Defoort", "Mieke"));
+        klantDAO.verwijderKlant(id);
+
+        Klant gewijzigd = maakKlant("Vermeulen", "Mieke");
+        gewijzigd.setId(id);
+        klantDAO.wijzigenKlant(gewijzigd);
+
+        assertThat(klantDAO.zoekKlant(id).getNaam()).isEqualTo("Vermeulen");
+        assertThat(klantDAO.zoekKlant(id).getStatus()).isEqualTo(KlantStatus.UITGESCHREVEN);
+        assertThat(klantDAO.bestaatKlant(maakKlant("Defoort", "Mieke"))).isFalse();
+        assertThat(klantDAO.bestaatKlant(gewijzigd)).isTrue();
+    }
+
+    @Test
+    public void verwijderKlant() throws Exception {
+        Integer id = klantDAO.toevoegenKlant(maakKlant("Defoort", "Mieke"));
+        Rekening rekening = new Rekening();
+        rekening.setRekeningnummer(new Rekeningnummer("BE24 1238 8888 8838"));
+        rekening.setEigenaar(id);
+        rekeningDAO.toevoegenRekening(rekening);
+
+        assertThat(klantDAO.verwijderKlant(id)).isEqualTo(Uitschrijving.KLANT_HEEFT_NOG_REKENINGEN);
+        rekeningDAO.verwijderRekening("BE24 1238 8888 8838");
+        assertThat(klantDAO.verwijderKlant(id)).isEqualTo(Uitschrijving.GELUKT);
+        assertThat(klantDAO.verwijderKlant(id)).isEqualTo(Uitschrijving.KLANT_UITGESCHREVEN);
+        assertThat(klantDAO.verwijderKlant(id + 1)).isEqualTo(Uitschrijving.KLANT_BESTAAT_NIET);
+        assertThat(klantDAO.verwijderKlant(null)).isEqualTo(Uitschrijving.KLANT_BESTAAT_NIET);
+        assertThat(klantDAO.zoekUitgeschrevenKlanten()).extracting(Klant::getId).containsExactly(id);
+        assertThat(klantDAO.zoekIngeschrevenKlanten()).isEmpty();
+    }
+
+    @Test
+    public void zoekKlantOverzicht() throws Exception {
+        Integer id = klantDAO.toevoegenKlant(maakKlant("Defoort", "Mieke"));
+        for (String nummer : Arrays.asList("BE24 1238 8888 8838", Rekeningnummers.maak(1))) {
+            Rekening rekening = new Rekening();
+            rekening.setRekeningnummer(new Rekeningnummer(nummer));
+            rekening.setEigenaar(id);
+            rekeningDAO.toevoegenRekening(rekening);
+        }
+        rekeningDAO.verwijderRekening(Rekeningnummers.maak(1));
+
+        KlantOverzicht overzicht = klantDAO.zoekKlantOverzicht(id);
+
+        assertThat(overzicht.getKlant().getId()).isEqualTo(id);
+        assertThat(overzicht.getRekeningen()).extracting(r -> r.getRekeningnummer().getRekeningnummer())
+                .containsExactly("BE24 1238 8888 8838");
+        assertThat(klantDAO.zoekKlantOverzicht(id + 1)).isNull();
+    }
+
+    @Test
+    public void zoekKlantenPagina_gesorteerdZonderDubbels() throws Exception {
+        klantDAO.toevoegenKlant(maakKlant("Peeters", "Jan"));
+        klantDAO.toevoegenKlant(maakKlant("anckaert", "Els"));
+        klantDAO.toevoegenKlant(maakKlant("Defoort", "Mieke"));
+        Klant tweeling = maakKlant("Defoort", "Mieke");
+        tweeling.setAdres("Kerkstraat 2");
+        klantDAO.toevoegenKlant(tweeling);
+
+        Pagina<Klant> eerste = klantDAO.zoekKlantenPagina(null, 2);
+        Pagina<Klant> tweede = klantDAO.zoekKlantenPagina(eerste.getVolgendePagina(), 2);
+
+        assertThat(eerste.getItems()).extracting(Klant::getNaam).containsExactly("anckaert", "Defoort");
+        assertThat(tweede.getItems()).extracting(Klant::getNaam).containsExactly("Defoort", "Peeters");
+        assertThat(tweede.isLaatstePagina()).isTrue();
+        assertThat(klantDAO.zoekKlantenPagina(KlantStatus.UITGESCHREVEN, null, 2).getItems()).isEmpty();
+    }
+}
@@ -0,0 +1,201 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.DAO.connect.ConnectionManager;
+import be.vives.ti.DAO.connect.DBProp;
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.extra.Rekeningnummers;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Voert de zoekopdrachten en wijzigingen van KlantDAO en RekeningDAO uit op
+ * een embedded H2-databank (MySQL-modus) met het schema uit de migraties, en
+ * controleert met EXPLAIN dat geen enkel statement een volledige tabel
+ * overloopt. De SQL-teksten komen uit de querystatistieken van H2, dus het
+ * zijn exact de statements die de DAO's uitvoeren.
+ * <p>
+ * verwerkAlleRekeningen() zonder eigenaar leest bewust de hele tabel en
+ * wordt niet meegenomen.
+ */
+public class QueryPlanTest {
+
+    private static final KlantDAO klantDAO = new KlantDAO();
+    private static final RekeningDAO rekeningDAO = new RekeningDAO();
+
+    private static final Map<String, String> plannen = new LinkedHashMap<>();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        System.setProperty(DBProp.BESTAND_EIGENSCHAP, "/database/DB-h2.properties");
+        DBProp.herladen();
+        ConnectionManager.sluitPool();
+
+        // testdata (de pool past bij de eerste connectie de migraties toe)
+        List<Integer> ids = new ArrayList<>();
+        String[][] namen = {{"Janssens", "Jan"}, {"Peeters", "Piet"}, {"Maes", "Mieke"}, {"Claes", "An"}};
+        for (String[] naam : namen) {
+            ids.add(klantDAO.toevoegenKlant(maakKlant(naam[0], naam[1])));
+        }
+        List<String> rekeningnummers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Rekening rekening = new Rekening();
+            rekening.setRekeningnummer(new Rekeningnummer(Rekeningnummers.maak(i + 1)));
+            rekening.setEigenaar(ids.get(i % 2));
+            rekeningDAO.toevoegenRekening(rekening);
+            rekeningnummers.add(rekening.getRekeningnummer().getRekeningnummer());
+        }
+
+        try (Connection conn = ConnectionManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("set query_statistics_max_entries 1000");
+            stmt.execute("set query_statistics true");
+        }
+
+        voerDAOsUit(ids, rekeningnummers);
+
+        try (Connection conn = ConnectionManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            List<String> statements = new ArrayList<>();
+            try (ResultSet r = stmt.executeQuery("select sql_statement from information_schema.query_statistics")) {
+                while (r.next()) {
+                    statements.add(r.getString(1));
+                }
+            }
+            stmt.execute("set query_statistics false");
+            for (String sql : statements) {
+                String klein = sql.trim().toLowerCase();
+                if (klein.startsWith("select") || klein.startsWith("update") || klein.startsWith("delete")) {
+                    plannen.put(sql, plan(stmt, sql));
+                }
+            }
+        }
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        ConnectionManager.sluitPool();
+        System.clearProperty(DBProp.BESTAND_EIGENSCHAP);
+        DBProp.herladen();
+    }
+
+    private static Klant maakKlant(String naam, String voornaam) {
+        Klant klant = new Klant();
+        klant.setNaam(naam);
+        klant.setVoornaam(voornaam);
+        klant.setAdres("Markt 1");
+        klant.setPostcode("8500");
+        klant.setGemeente("Kortrijk");
+        return klant;
+    }
+
+    private static void voerDAOsUit(List<Integer> ids, List<String> rekeningnummers) throws Exception {
+        Klant klant = klantDAO.zoekKlant(ids.get(0));
+        klantDAO.bestaatKlant(klant);
+        klantDAO.zoekIngeschrevenKlanten();
+        klantDAO.zoekUitgeschrevenKlanten();
+        klantDAO.zoekAlleKlanten();
+        klantDAO.verwerkAlleKlanten(k -> true);
+        Pagina<Klant> klanten = klantDAO.zoekKlantenPagina(null, 2);
+        klantDAO.zoekKlantenPagina(klanten.getVolgendePagina(), 2);
+        klanten = klantDAO.zoekKlantenPagina(KlantStatus.INGESCHREVEN, null, 2);
+        klantDAO.zoekKlantenPagina(KlantStatus.INGESCHREVEN, klanten.getVolgendePagina(), 2);
+        klantDAO.zoekKlanten(ids);
+        klantDAO.zoekKlantOverzicht(ids.get(0));
+        // een bestaande en een nieuwe klant (bestaande sleutels opzoeken)
+        klantDAO.toevoegenKlanten(Arrays.asList(maakKlant("Peeters", "Piet"), maakKlant("Wouters", "Wim")));
+        klant.setAdres("Markt 2");
+        klantDAO.wijzigenKlant(klant);
+        // klant zonder rekeningen en klant met open rekeningen (reden opzoeken)
+        klantDAO.verwijderKlant(ids.get(3));
+        klantDAO.verwijderKlant(ids.get(0));
+
+        String nummer = rekeningnummers.get(0);
+        int eigenaar = ids.get(0);
+        rekeningDAO.zoekRekening(nummer);
+        rekeningDAO.zoekOpenRekeningen(eigenaar);
+        rekeningDAO.zoekGeslotenRekeningen(eigenaar);
+        rekeningDAO.zoekAantalOpenRekeningen(eigenaar);
+        rekeningDAO.zoekAlleRekeningen(eigenaar);
+        rekeningDAO.zoekRekeningenVanKlanten(ids);
+        rekeningDAO.zoekRekeningen(rekeningnummers);
+        rekeningDAO.verwerkAlleRekeningen(eigenaar, r -> true);
+        Pagina<Rekening> rekeningen = rekeningDAO.zoekRekeningenPagina(null, 2);
+        rekeningDAO.zoekRekeningenPagina(rekeningen.getVolgendePagina(), 2);
+        rekeningDAO.zoekRekeningenPagina(eigenaar, null, 2);
+        rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(1000));
+        // opname die niet lukt (reden opzoeken)
+        rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-100000));
+        Mutatie mutatie = new Mutatie();
+        mutatie.setRekeningnummer(rekeningnummers.get(1));
+        mutatie.setBedrag(Bedrag.vanCenten(500));
+        rekeningDAO.verrekenenSaldoRekeningen(Arrays.asList(mutatie));
+        rekeningDAO.overschrijven(nummer, rekeningnummers.get(1), Bedrag.vanCenten(100));
+        rekeningDAO.wijzigenSaldoRekening(rekeningnummers.get(2), Bedrag.NUL);
+        rekeningDAO.verwijderRekening(rekeningnummers.get(2));
+    }
+
+    private static String plan(Statement stmt, String sql) throws SQLException {
+        try (ResultSet r = stmt.executeQuery("explain " + sql)) {
+            StringBuilder plan = new StringBuilder();
+            while (r.next()) {
+                plan.append(r.getString(1));
+            }
+            return plan.toString();
+        }
+    }
+
+    @Test
+    public void alleDAOStatementsGecontroleerd() {
+        // zoeken, wijzigen en de NOT EXISTS in verwijderKlant op beide tabellen
+        assertThat(plannen.keySet()).anyMatch(sql -> sql.contains("where naam = ?"));
+        assertThat(plannen.keySet()).anyMatch(sql -> sql.contains("where status = ?"));
+        assertThat(plannen.keySet()).anyMatch(sql -> sql.contains("not exists"));
+        assertThat(plannen.keySet()).anyMatch(sql -> sql.contains("group by eigenaar"));
+        assertThat(plannen.keySet()).anyMatch(sql -> sql.contains("where eigenaar in (?, ?, ?, ?)"));
+        assertThat(plannen.keySet()).anyMatch(sql -> sql.contains("union all"));
+        assertThat(plannen.size()).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    public void geenVolledigeTabelScan() {
+        for (Map.Entry<String, String> plan : plannen.entrySet()) {
+            assertThat(plan.getValue().toLowerCase())
+                    .as("plan van %s", plan.getKey())
+                    .doesNotContain("tablescan");
+        }
+    }
+
+    // voor rekening kiest H2 bij zo weinig rijen even graag de index van de
+    // foreign key op eigenaar; dat is geen tabelscan en wordt niet gecontroleerd
+    @Test
+    public void coveringIndexes() {
+        for (Map.Entry<String, String> plan : plannen.entrySet()) {
+            String sql = plan.getKey();
+            if (sql.contains("where naam = ?")) {
+                assertThat(plan.getValue()).as(sql).containsIgnoringCase("klant_naam_idx");
+            }
+            if (sql.contains("where status = ?") && sql.contains("from klant")) {
+                assertThat(plan.getValue()).as(sql).containsIgnoringCase("klant_status_idx");
+            }
+        }
+    }
+}
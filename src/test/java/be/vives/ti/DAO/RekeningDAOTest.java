@@ -1,10 +1,18 @@
 package be.vives.ti.DAO;
 
+import be.vives.ti.databag.Journaalregel;
 import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.Pagina;
 import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Afsluiting;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.JournaalSoort;
 import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.Overschrijving;
 import be.vives.ti.datatype.RekeningStatus;
 import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.datatype.SaldoWijziging;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
@@ -15,8 +23,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -81,7 +91,7 @@ public class RekeningDAOTest {
 
             // toegevoegde rek vergelijken met opgehaalde rek
             assertThat(ophaalRek.getRekeningnummer().getRekeningnummer()).isEqualTo("BE24 1238 8888 8838");
-            assertThat(ophaalRek.getSaldo()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
+            assertThat(ophaalRek.getSaldo()).isEqualTo(Bedrag.NUL);
             assertThat(ophaalRek.getEigenaar()).isEqualTo(klant.getId());
             assertThat(ophaalRek.getStatus()).isEqualTo(RekeningStatus.OPEN);
         } finally {
@@ -119,7 +129,7 @@ public class RekeningDAOTest {
 
             // toegevoegde rek vergelijken met opgehaalde rek
             assertThat(ophaalRek.getRekeningnummer().getRekeningnummer()).isEqualTo("BE24 1238 8888 8838");
-            assertThat(ophaalRek.getSaldo()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
+            assertThat(ophaalRek.getSaldo()).isEqualTo(Bedrag.NUL);
             assertThat(ophaalRek.getEigenaar()).isEqualTo(klant.getId());
             assertThat(ophaalRek.getStatus()).isEqualTo(RekeningStatus.OPEN);
         } finally {
@@ -158,7 +168,7 @@ public class RekeningDAOTest {
 
             // toegevoegde rek vergelijken met opgehaalde rek
             assertThat(ophaalRek.getRekeningnummer().getRekeningnummer()).isEqualTo("BE24 1238 8888 8838");
-            assertThat(ophaalRek.getSaldo()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
+            assertThat(ophaalRek.getSaldo()).isEqualTo(Bedrag.NUL);
             assertThat(ophaalRek.getEigenaar()).isEqualTo(klant.getId());
             assertThat(ophaalRek.getStatus()).isEqualTo(RekeningStatus.OPEN);
         } finally {
@@ -204,14 +214,14 @@ public class RekeningDAOTest {
             // rek toevoegen
             rekeningDAO.toevoegenRekening(rek);
             // saldo wijzigen
-            rekeningDAO.wijzigenSaldoRekening(reknr, new BigDecimal(20));
+            rekeningDAO.wijzigenSaldoRekening(reknr, Bedrag.vanCenten(2000));
 
             // rek opnieuw ophalen
             Rekening ophaalRek = rekeningDAO.zoekRekening(rek.getRekeningnummer().getRekeningnummer());
 
             // toegevoegde rek vergelijken met opgehaalde rek
             assertThat(ophaalRek.getRekeningnummer().getRekeningnummer()).isEqualTo("BE24 1238 8888 8838");
-            assertThat(ophaalRek.getSaldo()).isEqualTo(new BigDecimal(20).setScale(2, RoundingMode.HALF_UP));
+            assertThat(ophaalRek.getSaldo()).isEqualTo(Bedrag.vanCenten(2000));
             assertThat(ophaalRek.getEigenaar()).isEqualTo(klant.getId());
             assertThat(ophaalRek.getStatus()).isEqualTo(RekeningStatus.OPEN);
         } finally {
@@ -220,6 +230,199 @@ public class RekeningDAOTest {
         }
     }
 
+    // bedrag verrekenen op saldo: storten en opnemen in één statement
+    @Test
+    public void testVerrekenenSaldoRekening() throws Exception {
+        Rekening rek = maakRekening(new Rekeningnummer("BE24 1238 8888 8838"), BigDecimal.ZERO, RekeningStatus.OPEN, klant.getId());
+
+        try {
+            rekeningDAO.toevoegenRekening(rek);
+
+            assertThat(rekeningDAO.verrekenenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(2050)))
+                    .isEqualTo(SaldoWijziging.GELUKT);
+            assertThat(rekeningDAO.verrekenenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(-525)))
+                    .isEqualTo(SaldoWijziging.GELUKT);
+
+            Rekening ophaalRek = rekeningDAO.zoekRekening("BE24 1238 8888 8838");
+            assertThat(ophaalRek.getSaldo()).isEqualTo(Bedrag.vanCenten(1525));
+        } finally {
+            Removals.removeRekening("BE24 1238 8888 8838");
+        }
+    }
+
+    // negatieve test: saldo mag niet negatief worden
+    @Test
+    public void testVerrekenenSaldoRekeningSaldoOntoereikend() throws Exception {
+        Rekening rek = maakRekening(new Rekeningnummer("BE24 1238 8888 8838"), BigDecimal.ZERO, RekeningStatus.OPEN, klant.getId());
+
+        try {
+            rekeningDAO.toevoegenRekening(rek);
+
+            assertThat(rekeningDAO.verrekenenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(-1)))
+                    .isEqualTo(SaldoWijziging.SALDO_ONTOEREIKEND);
+            assertThat(rekeningDAO.zoekRekening("BE24 1238 8888 8838").getSaldo())
+                    .isEqualTo(Bedrag.NUL);
+        } finally {
+            Removals.removeRekening("BE24 1238 8888 8838");
+        }
+    }
+
+    // negatieve test: gesloten rekening
+    @Test
+    public void testVerrekenenSaldoRekeningGesloten() throws Exception {
+        Rekening rek = maakRekening(new Rekeningnummer("BE24 1238 8888 8838"), BigDecimal.ZERO, RekeningStatus.OPEN, klant.getId());
+
+        try {
+            rekeningDAO.toevoegenRekening(rek);
+            rekeningDAO.verwijderRekening("BE24 1238 8888 8838");
+
+            assertThat(rekeningDAO.verrekenenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(1000)))
+                    .isEqualTo(SaldoWijziging.REKENING_GESLOTEN);
+        } finally {
+            Removals.removeRekening("BE24 1238 8888 8838");
+        }
+    }
+
+    // negatieve test: onbestaande rekening
+    @Test
+    public void testVerrekenenSaldoRekeningBestaatNiet() throws Exception {
+        assertThat(rekeningDAO.verrekenenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(1000)))
+                .isEqualTo(SaldoWijziging.REKENING_BESTAAT_NIET);
+    }
+
+    // batch mutaties: in volgorde verrekend, mislukte mutaties met reden
+    @Test
+    public void testVerrekenenSaldoRekeningen() throws Exception {
+        Rekening rek = maakRekening(new Rekeningnummer("BE24 1238 8888 8838"), BigDecimal.ZERO, RekeningStatus.OPEN, klant.getId());
+
+        try {
+            rekeningDAO.toevoegenRekening(rek);
+
+            ArrayList<Mutatie> mutaties = new ArrayList<>();
+            mutaties.add(maakMutatie("BE24 1238 8888 8838", new BigDecimal("50.00")));
+            // kleine letters: de databank vergelijkt hoofdletterongevoelig, ook voor de reden
+            mutaties.add(maakMutatie("be24 1238 8888 8838", new BigDecimal("-70.00")));
+            mutaties.add(maakMutatie("BE51 1231 2589 8962", new BigDecimal("10.00")));
+            mutaties.add(maakMutatie("BE24 1238 8888 8838", new BigDecimal("-20.00")));
+
+            assertThat(rekeningDAO.verrekenenSaldoRekeningen(mutaties)).containsExactly(
+                    SaldoWijziging.GELUKT,
+                    SaldoWijziging.SALDO_ONTOEREIKEND,
+                    SaldoWijziging.REKENING_BESTAAT_NIET,
+                    SaldoWijziging.GELUKT);
+            assertThat(rekeningDAO.zoekRekening("BE24 1238 8888 8838").getSaldo()).isEqualTo(Bedrag.vanCenten(3000));
+        } finally {
+            Removals.removeRekening("BE24 1238 8888 8838");
+        }
+    }
+
+    // elke gelukte saldowijziging staat in het journaal, met het saldo erna
+    @Test
+    public void testJournaal() throws Exception {
+        Rekening van = maakRekening(new Rekeningnummer("BE24 1238 8888 8838"), BigDecimal.ZERO, RekeningStatus.OPEN, klant.getId());
+        Rekening naar = maakRekening(new Rekeningnummer("BE51 1231 2589 8962"), BigDecimal.ZERO, RekeningStatus.OPEN, klant.getId());
+
+        try {
+            rekeningDAO.toevoegenRekening(van);
+            rekeningDAO.toevoegenRekening(naar);
+            rekeningDAO.verrekenenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(10000));
+            rekeningDAO.verrekenenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(-20000));
+            rekeningDAO.verrekenenSaldoRekeningen(Arrays.asList(
+                    maakMutatie("BE24 1238 8888 8838", new BigDecimal("-10.00")),
+                    maakMutatie("BE51 1231 2589 8962", new BigDecimal("5.00")),
+                    maakMutatie("BE24 1238 8888 8838", new BigDecimal("-20.00"))));
+            rekeningDAO.overschrijven("BE24 1238 8888 8838", "BE51 1231 2589 8962", Bedrag.vanCenten(1000));
+            rekeningDAO.wijzigenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(6500));
+
+            Pagina<Journaalregel> eerste = rekeningDAO.zoekJournaalPagina("BE24 1238 8888 8838", null, 3);
+            Pagina<Journaalregel> tweede = rekeningDAO.zoekJournaalPagina("BE24 1238 8888 8838",
+                    eerste.getVolgendePagina(), 3);
+
+            ArrayList<Journaalregel> regels = new ArrayList<>(eerste.getItems());
+            regels.addAll(tweede.getItems());
+            assertThat(tweede.isLaatstePagina()).isTrue();
+            assertThat(regels).extracting(Journaalregel::getSoort).containsExactly(JournaalSoort.STORTING,
+                    JournaalSoort.OPNAME, JournaalSoort.OPNAME, JournaalSoort.OVERSCHRIJVING, JournaalSoort.CORRECTIE);
+            assertThat(regels).extracting(Journaalregel::getVerschil).containsExactly(Bedrag.vanCenten(10000),
+                    Bedrag.vanCenten(-1000), Bedrag.vanCenten(-2000), Bedrag.vanCenten(-1000), Bedrag.vanCenten(500));
+            assertThat(regels).extracting(Journaalregel::getSaldo).containsExactly(Bedrag.vanCenten(10000),
+                    Bedrag.vanCenten(9000), Bedrag.vanCenten(7000), Bedrag.vanCenten(6000), Bedrag.vanCenten(6500));
+            assertThat(regels.get(3).getVolgnummer()).isGreaterThan(regels.get(2).getVolgnummer());
+
+            assertThat(rekeningDAO.zoekJournaalPagina("BE51 1231 2589 8962", null, 10).getItems())
+                    .extracting(Journaalregel::getSaldo).containsExactly(Bedrag.vanCenten(500), Bedrag.vanCenten(1500));
+        } finally {
+            Removals.removeRekening("BE24 1238 8888 8838");
+            Removals.removeRekening("BE51 1231 2589 8962");
+        }
+    }
+
+    private Mutatie maakMutatie(String rekeningnummer, BigDecimal bedrag) {
+        Mutatie mutatie = new Mutatie();
+        mutatie.setRekeningnummer(rekeningnummer);
+        mutatie.setBedrag(Bedrag.van(bedrag));
+        return mutatie;
+    }
+
+    // overschrijving tussen twee rekeningen
+    @Test
+    public void testOverschrijven() throws Exception {
+        Rekening van = maakRekening(new Rekeningnummer("BE24 1238 8888 8838"), BigDecimal.ZERO, RekeningStatus.OPEN, klant.getId());
+        Rekening naar = maakRekening(new Rekeningnummer("BE51 1231 2589 8962"), BigDecimal.ZERO, RekeningStatus.OPEN, klant.getId());
+
+        try {
+            rekeningDAO.toevoegenRekening(van);
+            rekeningDAO.toevoegenRekening(naar);
+            rekeningDAO.verrekenenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(10000));
+
+            assertThat(rekeningDAO.overschrijven("BE24 1238 8888 8838", "BE51 1231 2589 8962", Bedrag.vanCenten(4010)))
+                    .isEqualTo(Overschrijving.GELUKT);
+
+            assertThat(rekeningDAO.zoekRekening("BE24 1238 8888 8838").getSaldo()).isEqualTo(Bedrag.vanCenten(5990));
+            assertThat(rekeningDAO.zoekRekening("BE51 1231 2589 8962").getSaldo()).isEqualTo(Bedrag.vanCenten(4010));
+        } finally {
+            Removals.removeRekening("BE24 1238 8888 8838");
+            Removals.removeRekening("BE51 1231 2589 8962");
+        }
+    }
+
+    // negatieve test: saldo ontoereikend, niets mag gewijzigd zijn
+    @Test
+    public void testOverschrijvenSaldoOntoereikend() throws Exception {
+        Rekening van = maakRekening(new Rekeningnummer("BE24 1238 8888 8838"), BigDecimal.ZERO, RekeningStatus.OPEN, klant.getId());
+        Rekening naar = maakRekening(new Rekeningnummer("BE51 1231 2589 8962"), BigDecimal.ZERO, RekeningStatus.OPEN, klant.getId());
+
+        try {
+            rekeningDAO.toevoegenRekening(van);
+            rekeningDAO.toevoegenRekening(naar);
+
+            assertThat(rekeningDAO.overschrijven("BE24 1238 8888 8838", "BE51 1231 2589 8962", Bedrag.vanCenten(1000)))
+                    .isEqualTo(Overschrijving.SALDO_ONTOEREIKEND);
+            assertThat(rekeningDAO.zoekRekening("BE51 1231 2589 8962").getSaldo())
+                    .isEqualTo(Bedrag.NUL);
+        } finally {
+            Removals.removeRekening("BE24 1238 8888 8838");
+            Removals.removeRekening("BE51 1231 2589 8962");
+        }
+    }
+
+    // negatieve test: begunstigde bestaat niet
+    @Test
+    public void testOverschrijvenBegunstigdeBestaatNiet() throws Exception {
+        Rekening van = maakRekening(new Rekeningnummer("BE24 1238 8888 8838"), BigDecimal.ZERO, RekeningStatus.OPEN, klant.getId());
+
+        try {
+            rekeningDAO.toevoegenRekening(van);
+            rekeningDAO.verrekenenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(1000));
+
+            assertThat(rekeningDAO.overschrijven("BE24 1238 8888 8838", "BE51 1231 2589 8962", Bedrag.vanCenten(100)))
+                    .isEqualTo(Overschrijving.NAAR_REKENING_BESTAAT_NIET);
+            assertThat(rekeningDAO.zoekRekening("BE24 1238 8888 8838").getSaldo()).isEqualTo(Bedrag.vanCenten(1000));
+        } finally {
+            Removals.removeRekening("BE24 1238 8888 8838");
+        }
+    }
+
     // open rekening afsluiten
     @Test
     public void testVerwijderenRekeningOpenNaarGesloten() throws Exception {
@@ -238,7 +441,7 @@ public class RekeningDAOTest {
 
             // toegevoegde rek vergelijken met opgehaalde rek
             assertThat(ophaalRek.getRekeningnummer().getRekeningnummer()).isEqualTo("BE24 1238 8888 8838");
-            assertThat(ophaalRek.getSaldo()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
+            assertThat(ophaalRek.getSaldo()).isEqualTo(Bedrag.NUL);
             assertThat(ophaalRek.getEigenaar()).isEqualTo(klant.getId());
             assertThat(ophaalRek.getStatus()).isEqualTo(RekeningStatus.GESLOTEN);
         } finally {
@@ -246,6 +449,31 @@ public class RekeningDAOTest {
         }
     }
 
+    // rekening met saldo niet afsluiten: de controle gebeurt in hetzelfde statement
+    @Test
+    public void testVerwijderenRekeningSaldoNietNul() throws Exception {
+
+        // toegevoegde klant (via setup)
+        // rek maken voor klant
+        Rekening rek = maakRekening(new Rekeningnummer("BE24 1238 8888 8838"), BigDecimal.TEN, RekeningStatus.OPEN, klant.getId());
+
+        try {
+            // rek toevoegen
+            rekeningDAO.toevoegenRekening(rek);
+            // rek verwijderen lukt niet
+            assertThat(rekeningDAO.verwijderRekening("BE24 1238 8888 8838")).isEqualTo(Afsluiting.SALDO_NIET_NUL);
+            assertThat(rekeningDAO.zoekRekening("BE24 1238 8888 8838").getStatus()).isEqualTo(RekeningStatus.OPEN);
+
+            // saldo op nul: rek verwijderen lukt, een tweede keer niet meer
+            rekeningDAO.verrekenenSaldoRekening("BE24 1238 8888 8838", Bedrag.vanCenten(-1000));
+            assertThat(rekeningDAO.verwijderRekening("BE24 1238 8888 8838")).isEqualTo(Afsluiting.GELUKT);
+            assertThat(rekeningDAO.verwijderRekening("BE24 1238 8888 8838")).isEqualTo(Afsluiting.REKENING_GESLOTEN);
+            assertThat(rekeningDAO.verwijderRekening("BE24 1238 8888 8839")).isEqualTo(Afsluiting.REKENING_BESTAAT_NIET);
+        } finally {
+            Removals.removeRekening("BE24 1238 8888 8838");
+        }
+    }
+
     //rekening sluiten, maar ongeldig rekeningnummer opgegeven
     // geen effect, want rekening wordt niet gevonden
     @Test
@@ -265,7 +493,7 @@ public class RekeningDAOTest {
 
             // rekening is niet gesloten, want niet gevonden
             assertThat(ophaalRek.getRekeningnummer().getRekeningnummer()).isEqualTo("BE24 1238 8888 8838");
-            assertThat(ophaalRek.getSaldo()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
+            assertThat(ophaalRek.getSaldo()).isEqualTo(Bedrag.NUL);
             assertThat(ophaalRek.getEigenaar()).isEqualTo(klant.getId());
             assertThat(ophaalRek.getStatus()).isEqualTo(RekeningStatus.OPEN);
         } finally {
@@ -292,7 +520,7 @@ public class RekeningDAOTest {
 
             // rekening is niet gesloten, want niet gevonden
             assertThat(ophaalRek.getRekeningnummer().getRekeningnummer()).isEqualTo("BE24 1238 8888 8838");
-            assertThat(ophaalRek.getSaldo()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
+            assertThat(ophaalRek.getSaldo()).isEqualTo(Bedrag.NUL);
             assertThat(ophaalRek.getEigenaar()).isEqualTo(klant.getId());
             assertThat(ophaalRek.getStatus()).isEqualTo(RekeningStatus.OPEN);
         } finally {
@@ -410,6 +638,95 @@ public class RekeningDAOTest {
         }
     }
 
+    @Test
+    public void zoekRekeningenVanKlanten() throws Exception {
+        // be.vives.extra klanten en rekeningen toevoegen
+        ArrayList<Rekening> rekeningen = extraRekeningenToevoegen();
+
+        try {
+            // klant3 heeft geen rekeningen, klant2 staat er twee keer in
+            Map<Integer, ArrayList<Rekening>> perKlant = rekeningDAO.zoekRekeningenVanKlanten(
+                    Arrays.asList(klant3.getId(), klant.getId(), klant2.getId(), null, klant2.getId()));
+
+            assertThat(perKlant.keySet()).containsExactly(klant3.getId(), klant.getId(), klant2.getId());
+            assertThat(perKlant.get(klant3.getId())).isEmpty();
+            assertThat(perKlant.get(klant.getId())).hasSameSizeAs(rekeningDAO.zoekAlleRekeningen(klant.getId()));
+            assertThat(perKlant.get(klant2.getId())).extracting(rekening -> rekening.getRekeningnummer().getRekeningnummer())
+                    .containsExactlyInAnyOrder("BE84 5555 5555 5559", "BE92 9639 6396 3923");
+        } finally {
+            removeAlleExtras(rekeningen);
+        }
+    }
+
+    @Test
+    public void zoekRekeningen() throws Exception {
+        // be.vives.extra klanten en rekeningen toevoegen
+        ArrayList<Rekening> rekeningen = extraRekeningenToevoegen();
+
+        try {
+            // het laatste rekeningnummer bestaat niet
+            Map<String, Rekening> gevonden = rekeningDAO.zoekRekeningen(
+                    Arrays.asList("BE92 9639 6396 3923", "BE24 1238 8888 8838", "BE68 5390 0754 7034"));
+
+            assertThat(gevonden.keySet()).containsExactly("BE92 9639 6396 3923", "BE24 1238 8888 8838");
+            assertThat(gevonden.get("BE92 9639 6396 3923").getStatus()).isEqualTo(RekeningStatus.GESLOTEN);
+            assertThat(gevonden.get("BE24 1238 8888 8838").getEigenaar()).isEqualTo(klant.getId());
+        } finally {
+            removeAlleExtras(rekeningen);
+        }
+    }
+
+    @Test
+    public void zoekRekeningenLeeg() throws Exception {
+        assertThat(rekeningDAO.zoekRekeningen(null)).isEmpty();
+        assertThat(rekeningDAO.zoekRekeningen(new ArrayList<>())).isEmpty();
+        assertThat(rekeningDAO.zoekRekeningenVanKlanten(new ArrayList<>())).isEmpty();
+    }
+
+    @Test
+    public void verwerkAlleRekeningenKlant() throws Exception {
+        // be.vives.extra klanten en rekeningen toevoegen
+        ArrayList<Rekening> rekeningen = extraRekeningenToevoegen();
+
+        try {
+            ArrayList<Rekening> verwerkt = new ArrayList<>();
+            rekeningDAO.verwerkAlleRekeningen(klant.getId(), rekening -> verwerkt.add(rekening));
+
+            assertThat(verwerkt).extracting(rekening -> rekening.getRekeningnummer().getRekeningnummer())
+                    .containsExactlyInAnyOrderElementsOf(rekeningDAO.zoekAlleRekeningen(klant.getId()).stream()
+                            .map(rekening -> rekening.getRekeningnummer().getRekeningnummer())
+                            .collect(Collectors.toList()))
+                    .isSorted();
+        } finally {
+            removeAlleExtras(rekeningen);
+        }
+    }
+
+    @Test
+    public void zoekRekeningenPaginaKlant() throws Exception {
+        // be.vives.extra klanten en rekeningen toevoegen
+        ArrayList<Rekening> rekeningen = extraRekeningenToevoegen();
+
+        try {
+            // alle pagina's van 1 rekening overlopen
+            ArrayList<Rekening> gebladerd = new ArrayList<>();
+            Pagina<Rekening> pagina = rekeningDAO.zoekRekeningenPagina(klant.getId(), null, 1);
+            gebladerd.addAll(pagina.getItems());
+            while (!pagina.isLaatstePagina()) {
+                pagina = rekeningDAO.zoekRekeningenPagina(klant.getId(), pagina.getVolgendePagina(), 1);
+                gebladerd.addAll(pagina.getItems());
+            }
+
+            assertThat(gebladerd).extracting(rekening -> rekening.getRekeningnummer().getRekeningnummer())
+                    .containsExactlyInAnyOrderElementsOf(rekeningDAO.zoekAlleRekeningen(klant.getId()).stream()
+                            .map(rekening -> rekening.getRekeningnummer().getRekeningnummer())
+                            .collect(Collectors.toList()))
+                    .isSorted();
+        } finally {
+            removeAlleExtras(rekeningen);
+        }
+    }
+
     @Test
     public void zoekAlleRekeningenKlantOngeldig() throws Exception {
 
@@ -495,7 +812,7 @@ public class RekeningDAOTest {
 
             // rek vergelijken met gevonden rek
             assertThat(ophaalRek.getRekeningnummer().getRekeningnummer()).isEqualTo("BE74 9871 1111 1107");
-            assertThat(ophaalRek.getSaldo()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
+            assertThat(ophaalRek.getSaldo()).isEqualTo(Bedrag.NUL);
             assertThat(ophaalRek.getEigenaar()).isEqualTo(klant.getId());
             assertThat(ophaalRek.getStatus()).isEqualTo(RekeningStatus.OPEN);
         } finally {
@@ -0,0 +1,241 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.databag.Journaalregel;
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Afsluiting;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.JournaalSoort;
+import be.vives.ti.datatype.Overschrijving;
+import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.datatype.SaldoWijziging;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.extra.Rekeningnummers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RekeningGeheugenDAOTest {
+
+    private RekeningGeheugenDAO rekeningDAO;
+    private int eigenaar;
+
+    @Before
+    public void setUp() throws Exception {
+        GeheugenDatabank databank = new GeheugenDatabank();
+        rekeningDAO = new RekeningGeheugenDAO(databank);
+
+        Klant klant = new Klant();
+        klant.setNaam("Defoort");
+        klant.setVoornaam("Mieke");
+        klant.setAdres("Kerkstraat 1");
+        klant.setPostcode("8000");
+        klant.setGemeente("Brugge");
+        eigenaar = new KlantGeheugenDAO(databank).toevoegenKlant(klant);
+    }
+
+    private String toevoegen(long volgnummer, long saldoInCenten) throws Exception {
+        Rekening rekening = new Rekening();
+        rekening.setRekeningnummer(new Rekeningnummer(Rekeningnummers.maak(volgnummer)));
+        rekening.setSaldo(Bedrag.vanCenten(saldoInCenten));
+        rekening.setEigenaar(eigenaar);
+        rekeningDAO.toevoegenRekening(rekening);
+        return rekening.getRekeningnummer().getRekeningnummer();
+    }
+
+    @Test
+    public void toevoegenEnZoekRekening() throws Exception {
+        String nummer = toevoegen(1, 1000);
+
+        Rekening rekening = rekeningDAO.zoekRekening(nummer.toLowerCase());
+        assertThat(rekening.getStatus()).isEqualTo(RekeningStatus.OPEN);
+        assertThat(rekening.getSaldo()).isEqualTo(Bedrag.vanCenten(1000));
+        assertThat(rekeningDAO.zoekRekening(null)).isNull();
+        assertThat(rekeningDAO.zoekAantalOpenRekeningen(eigenaar)).isEqualTo(1);
+    }
+
+    @Test
+    public void toevoegenRekening_fouten() throws Exception {
+        String nummer = toevoegen(1, 0);
+
+        Rekening zonderNummer = new Rekening();
+        zonderNummer.setEigenaar(eigenaar);
+        assertThatThrownBy(() -> rekeningDAO.toevoegenRekening(zonderNummer))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
+
+        Rekening zelfdeNummer = new Rekening();
+        zelfdeNummer.setRekeningnummer(new Rekeningnummer(nummer));
+        zelfdeNummer.setEigenaar(eigenaar);
+        assertThatThrownBy(() -> rekeningDAO.toevoegenRekening(zelfdeNummer)).isInstanceOf(DBException.class);
+
+        Rekening onbekendeEigenaar = new Rekening();
+        onbekendeEigenaar.setRekeningnummer(new Rekeningnummer(Rekeningnummers.maak(2)));
+        onbekendeEigenaar.setEigenaar(eigenaar + 1);
+        assertThatThrownBy(() -> rekeningDAO.toevoegenRekening(onbekendeEigenaar)).isInstanceOf(DBException.class);
+    }
+
+    @Test
+    public void verrekenenSaldoRekening() throws Exception {
+        String nummer = toevoegen(1, 1000);
+
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-1000))).isEqualTo(SaldoWijziging.GELUKT);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-1)))
+                .isEqualTo(SaldoWijziging.SALDO_ONTOEREIKEND);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(Rekeningnummers.maak(2), Bedrag.vanCenten(1)))
+                .isEqualTo(SaldoWijziging.REKENING_BESTAAT_NIET);
+        rekeningDAO.verwijderRekening(nummer);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(1)))
+                .isEqualTo(SaldoWijziging.REKENING_GESLOTEN);
+        assertThat(rekeningDAO.zoekGeslotenRekeningen(eigenaar)).hasSize(1);
+    }
+
+    @Test
+    public void verwijderRekening_enkelOpenMetSaldoNul() throws Exception {
+        String nummer = toevoegen(1, 1000);
+
+        assertThat(rekeningDAO.verwijderRekening(nummer)).isEqualTo(Afsluiting.SALDO_NIET_NUL);
+        assertThat(rekeningDAO.zoekRekening(nummer).getStatus()).isEqualTo(RekeningStatus.OPEN);
+        rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-1000));
+        assertThat(rekeningDAO.verwijderRekening(nummer.toLowerCase())).isEqualTo(Afsluiting.GELUKT);
+        assertThat(rekeningDAO.verwijderRekening(nummer)).isEqualTo(Afsluiting.REKENING_GESLOTEN);
+        assertThat(rekeningDAO.verwijderRekening(Rekeningnummers.maak(2))).isEqualTo(Afsluiting.REKENING_BESTAAT_NIET);
+        assertThat(rekeningDAO.verwijderRekening(null)).isEqualTo(Afsluiting.REKENING_BESTAAT_NIET);
+    }
+
+    @Test
+    public void verrekenenSaldoRekeningen() throws Exception {
+        String nummer = toevoegen(1, 1000);
+        Mutatie opname = new Mutatie();
+        opname.setRekeningnummer(nummer);
+        opname.setBedrag(Bedrag.vanCenten(-600));
+
+        ArrayList<SaldoWijziging> resultaten = rekeningDAO.verrekenenSaldoRekeningen(Arrays.asList(opname, null, opname));
+
+        assertThat(resultaten).containsExactly(SaldoWijziging.GELUKT, SaldoWijziging.REKENING_BESTAAT_NIET,
+                SaldoWijziging.SALDO_ONTOEREIKEND);
+        assertThat(rekeningDAO.zoekRekening(nummer).getSaldo()).isEqualTo(Bedrag.vanCenten(400));
+    }
+
+    @Test
+    public void overschrijven() throws Exception {
+        String van = toevoegen(1, 1000);
+        String naar = toevoegen(2, 0);
+
+        assertThat(rekeningDAO.overschrijven(van, naar, Bedrag.vanCenten(300))).isEqualTo(Overschrijving.GELUKT);
+        assertThat(rekeningDAO.overschrijven(van, naar, Bedrag.vanCenten(800)))
+                .isEqualTo(Overschrijving.SALDO_ONTOEREIKEND);
+        assertThat(rekeningDAO.overschrijven(van, Rekeningnummers.maak(3), Bedrag.vanCenten(1)))
+                .isEqualTo(Overschrijving.NAAR_REKENING_BESTAAT_NIET);
+        assertThat(rekeningDAO.zoekRekening(van).getSaldo()).isEqualTo(Bedrag.vanCenten(700));
+        assertThat(rekeningDAO.zoekRekening(naar).getSaldo()).isEqualTo(Bedrag.vanCenten(300));
+    }
+
+    @Test
+    public void journaal() throws Exception {
+        String van = toevoegen(1, 1000);
+        String naar = toevoegen(2, 0);
+
+        rekeningDAO.verrekenenSaldoRekening(van, Bedrag.vanCenten(500));
+        rekeningDAO.verrekenenSaldoRekening(van, Bedrag.vanCenten(-5000));
+        rekeningDAO.overschrijven(van, naar, Bedrag.vanCenten(300));
+        rekeningDAO.wijzigenSaldoRekening(van, Bedrag.vanCenten(1000));
+
+        Pagina<Journaalregel> eerste = rekeningDAO.zoekJournaalPagina(van.toLowerCase(), null, 2);
+        Pagina<Journaalregel> tweede = rekeningDAO.zoekJournaalPagina(van, eerste.getVolgendePagina(), 2);
+
+        assertThat(eerste.getItems()).extracting(Journaalregel::getSoort)
+                .containsExactly(JournaalSoort.STORTING, JournaalSoort.OVERSCHRIJVING);
+        assertThat(tweede.getItems()).extracting(Journaalregel::getSaldo).containsExactly(Bedrag.vanCenten(1000));
+        assertThat(tweede.getItems()).extracting(Journaalregel::getVerschil).containsExactly(Bedrag.vanCenten(-200));
+        assertThat(tweede.isLaatstePagina()).isTrue();
+        assertThat(rekeningDAO.zoekJournaalPagina(naar, null, 10).getItems())
+                .extracting(Journaalregel::getVerschil).containsExactly(Bedrag.vanCenten(300));
+        assertThatThrownBy(() -> rekeningDAO.zoekJournaalPagina(van, "ongeldig", 2))
+                .isInstanceOf(ApplicationException.class);
+    }
+
+    @Test
+    public void zoekRekeningenPagina() throws Exception {
+        for (int i = 5; i > 0; i--) {
+            toevoegen(i, 0);
+        }
+
+        Pagina<Rekening> eerste = rekeningDAO.zoekRekeningenPagina(eigenaar, null, 3);
+        Pagina<Rekening> tweede = rekeningDAO.zoekRekeningenPagina(eerste.getVolgendePagina(), 3);
+
+        assertThat(eerste.getItems()).hasSize(3);
+        assertThat(tweede.getItems()).hasSize(2);
+        assertThat(tweede.isLaatstePagina()).isTrue();
+        assertThat(eerste.getItems().get(2).getRekeningnummer().getRekeningnummer()
+                .compareTo(tweede.getItems().get(0).getRekeningnummer().getRekeningnummer())).isNegative();
+    }
+
+    @Test
+    public void gelijktijdigeMutaties_totaalSaldoBlijftGelijk() throws Exception {
+        List<String> nummers = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            nummers.add(toevoegen(i, 10000));
+        }
+
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> netto = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Random random = new Random(t);
+                netto.add(threads.submit(() -> {
+                    long gestort = 0;
+                    for (int i = 0; i < 2000; i++) {
+                        String van = nummers.get(random.nextInt(nummers.size()));
+                        String naar = nummers.get(random.nextInt(nummers.size()));
+                        Bedrag bedrag = Bedrag.vanCenten(1 + random.nextInt(5000));
+                        switch (i % 3) {
+                            case 0:
+                                rekeningDAO.overschrijven(van, naar, bedrag);
+                                break;
+                            case 1:
+                                if (rekeningDAO.verrekenenSaldoRekening(van, bedrag) == SaldoWijziging.GELUKT) {
+                                    gestort += bedrag.getCenten();
+                                }
+                                break;
+                            default:
+                                if (rekeningDAO.verrekenenSaldoRekening(van, bedrag.negatief())
+                                        == SaldoWijziging.GELUKT) {
+                                    gestort -= bedrag.getCenten();
+                                }
+                        }
+                    }
+                    return gestort;
+                }));
+            }
+            long verwacht = 10 * 10000;
+            for (Future<Long> resultaat : netto) {
+                verwacht += resultaat.get();
+            }
+
+            long totaal = 0;
+            for (Rekening rekening : rekeningDAO.zoekAlleRekeningen(eigenaar)) {
+                assertThat(rekening.getSaldo().isNegatief()).isFalse();
+                totaal += rekening.getSaldo().getCenten();
+            }
+            assertThat(totaal).isEqualTo(verwacht);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.databag.Journaalregel;
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Afsluiting;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.JournaalSoort;
+import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.Overschrijving;
+import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.datatype.SaldoWijziging;
+import be.vives.ti.datatype.Uitschrijving;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.extra.Rekeningnummers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RekeningGrootboekDAOTest {
+
+    @Rule
+    public TemporaryFolder map = new TemporaryFolder();
+
+    private KlantRepository klantDAO;
+    private RekeningGrootboekDAO rekeningDAO;
+    private int eigenaar;
+
+    @Before
+    public void setUp() throws Exception {
+        rekeningDAO = new RekeningGrootboekDAO(map.getRoot().toPath(), true);
+        klantDAO = rekeningDAO.getKlantDAO();
+
+        Klant klant = new Klant();
+        klant.setNaam("Defoort");
+        klant.setVoornaam("Mieke");
+        klant.setAdres("Kerkstraat 1");
+        klant.setPostcode("8000");
+        klant.setGemeente("Brugge");
+        eigenaar = klantDAO.toevoegenKlant(klant);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        rekeningDAO.close();
+    }
+
+    private RekeningGrootboekDAO heropenen() throws Exception {
+        rekeningDAO.close();
+        rekeningDAO = new RekeningGrootboekDAO(map.getRoot().toPath(), true);
+        klantDAO = rekeningDAO.getKlantDAO();
+        return rekeningDAO;
+    }
+
+    private String toevoegen(long volgnummer, long saldoInCenten) throws Exception {
+        Rekening rekening = new Rekening();
+        rekening.setRekeningnummer(new Rekeningnummer(Rekeningnummers.maak(volgnummer)));
+        rekening.setSaldo(Bedrag.vanCenten(saldoInCenten));
+        rekening.setEigenaar(eigenaar);
+        rekeningDAO.toevoegenRekening(rekening);
+        return rekening.getRekeningnummer().getRekeningnummer();
+    }
+
+    @Test
+    public void toevoegenEnZoekRekening() throws Exception {
+        String nummer = toevoegen(1, 1000);
+
+        Rekening rekening = rekeningDAO.zoekRekening(nummer.toLowerCase());
+        assertThat(rekening.getRekeningnummer().getRekeningnummer()).isEqualTo(nummer);
+        assertThat(rekening.getStatus()).isEqualTo(RekeningStatus.OPEN);
+        assertThat(rekening.getSaldo()).isEqualTo(Bedrag.vanCenten(1000));
+        assertThat(rekening.getEigenaar()).isEqualTo(eigenaar);
+        assertThat(rekeningDAO.zoekRekening(null)).isNull();
+        assertThat(rekeningDAO.zoekRekening("BE62 +016 6836 7361")).isNull();
+        assertThat(rekeningDAO.zoekAantalOpenRekeningen(eigenaar)).isEqualTo(1);
+    }
+
+    @Test
+    public void toevoegenRekening_fouten() throws Exception {
+        String nummer = toevoegen(1, 0);
+
+        Rekening zonderNummer = new Rekening();
+        zonderNummer.setEigenaar(eigenaar);
+        assertThatThrownBy(() -> rekeningDAO.toevoegenRekening(zonderNummer))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
+
+        Rekening zelfdeNummer = new Rekening();
+        zelfdeNummer.setRekeningnummer(new Rekeningnummer(nummer.toLowerCase()));
+        zelfdeNummer.setEigenaar(eigenaar);
+        assertThatThrownBy(() -> rekeningDAO.toevoegenRekening(zelfdeNummer)).isInstanceOf(DBException.class);
+
+        Rekening onbekendeEigenaar = new Rekening();
+        onbekendeEigenaar.setRekeningnummer(new Rekeningnummer(Rekeningnummers.maak(2)));
+        onbekendeEigenaar.setEigenaar(eigenaar + 1);
+        assertThatThrownBy(() -> rekeningDAO.toevoegenRekening(onbekendeEigenaar)).isInstanceOf(DBException.class);
+    }
+
+    @Test
+    public void verrekenenSaldoRekening() throws Exception {
+        String nummer = toevoegen(1, 1000);
+
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-1000))).isEqualTo(SaldoWijziging.GELUKT);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-1)))
+                .isEqualTo(SaldoWijziging.SALDO_ONTOEREIKEND);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(Rekeningnummers.maak(2), Bedrag.vanCenten(1)))
+                .isEqualTo(SaldoWijziging.REKENING_BESTAAT_NIET);
+        rekeningDAO.verwijderRekening(nummer);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(1)))
+                .isEqualTo(SaldoWijziging.REKENING_GESLOTEN);
+        assertThat(rekeningDAO.zoekGeslotenRekeningen(eigenaar)).hasSize(1);
+    }
+
+    @Test
+    public void verwijderRekening_enkelOpenMetSaldoNul() throws Exception {
+        String nummer = toevoegen(1, 1000);
+
+        assertThat(rekeningDAO.verwijderRekening(nummer)).isEqualTo(Afsluiting.SALDO_NIET_NUL);
+        assertThat(rekeningDAO.zoekRekening(nummer).getStatus()).isEqualTo(RekeningStatus.OPEN);
+        rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-1000));
+        assertThat(rekeningDAO.verwijderRekening(nummer.toLowerCase())).isEqualTo(Afsluiting.GELUKT);
+        assertThat(rekeningDAO.verwijderRekening(nummer)).isEqualTo(Afsluiting.REKENING_GESLOTEN);
+        assertThat(rekeningDAO.verwijderRekening(Rekeningnummers.maak(2))).isEqualTo(Afsluiting.REKENING_BESTAAT_NIET);
+        assertThat(rekeningDAO.verwijderRekening(null)).isEqualTo(Afsluiting.REKENING_BESTAAT_NIET);
+    }
+
+    @Test
+    public void verrekenenSaldoRekeningen() throws Exception {
+        String nummer = toevoegen(1, 1000);
+        Mutatie opname = new Mutatie();
+        opname.setRekeningnummer(nummer);
+        opname.setBedrag(Bedrag.vanCenten(-600));
+
+        ArrayList<SaldoWijziging> resultaten = rekeningDAO.verrekenenSaldoRekeningen(Arrays.asList(opname, null, opname));
+
+        assertThat(resultaten).containsExactly(SaldoWijziging.GELUKT, SaldoWijziging.REKENING_BESTAAT_NIET,
+                SaldoWijziging.SALDO_ONTOEREIKEND);
+        assertThat(rekeningDAO.zoekRekening(nummer).getSaldo()).isEqualTo(Bedrag.vanCenten(400));
+    }
+
+    @Test
+    public void overschrijven() throws Exception {
+        String van = toevoegen(1, 1000);
+        String naar = toevoegen(2, 0);
+
+        assertThat(rekeningDAO.overschrijven(van, naar, Bedrag.vanCenten(300))).isEqualTo(Overschrijving.GELUKT);
+        assertThat(rekeningDAO.overschrijven(van, naar, Bedrag.vanCenten(800)))
+                .isEqualTo(Overschrijving.SALDO_ONTOEREIKEND);
+        assertThat(rekeningDAO.overschrijven(van, Rekeningnummers.maak(3), Bedrag.vanCenten(1)))
+                .isEqualTo(Overschrijving.NAAR_REKENING_BESTAAT_NIET);
+        assertThat(rekeningDAO.overschrijven(van, van, Bedrag.vanCenten(700))).isEqualTo(Overschrijving.GELUKT);
+        assertThat(rekeningDAO.zoekRekening(van).getSaldo()).isEqualTo(Bedrag.vanCenten(700));
+        assertThat(rekeningDAO.zoekRekening(naar).getSaldo()).isEqualTo(Bedrag.vanCenten(300));
+    }
+
+    // een saldo dat niet meer in een long past: er wordt niets gewijzigd, ook niet in het geheugen
+    @Test
+    public void saldoTeGroot_nietsGewijzigd() throws Exception {
+        String van = toevoegen(1, 100);
+        String naar = toevoegen(2, Long.MAX_VALUE - 10);
+        Mutatie storting = new Mutatie();
+        storting.setRekeningnummer(van);
+        storting.setBedrag(Bedrag.vanCenten(50));
+        Mutatie teVeel = new Mutatie();
+        teVeel.setRekeningnummer(naar);
+        teVeel.setBedrag(Bedrag.vanCenten(50));
+
+        assertThatThrownBy(() -> rekeningDAO.overschrijven(van, naar, Bedrag.vanCenten(50)))
+                .isInstanceOf(DBException.class).hasMessageContaining("saldo te groot");
+        assertThatThrownBy(() -> rekeningDAO.verrekenenSaldoRekening(naar, Bedrag.vanCenten(50)))
+                .isInstanceOf(DBException.class);
+        // de storting vóór de mutatie die te groot wordt, wordt mee teruggezet
+        assertThatThrownBy(() -> rekeningDAO.verrekenenSaldoRekeningen(Arrays.asList(storting, teVeel)))
+                .isInstanceOf(DBException.class);
+
+        assertThat(rekeningDAO.zoekRekening(van).getSaldo()).isEqualTo(Bedrag.vanCenten(100));
+        assertThat(rekeningDAO.zoekRekening(naar).getSaldo()).isEqualTo(Bedrag.vanCenten(Long.MAX_VALUE - 10));
+        heropenen();
+        assertThat(rekeningDAO.zoekRekening(van).getSaldo()).isEqualTo(Bedrag.vanCenten(100));
+        assertThat(rekeningDAO.zoekJournaalPagina(van, null, 10).getItems()).isEmpty();
+    }
+
+    @Test
+    public void zoekRekeningenPagina() throws Exception {
+        for (int i = 5; i > 0; i--) {
+            toevoegen(i, 0);
+        }
+
+        Pagina<Rekening> eerste = rekeningDAO.zoekRekeningenPagina(null, 3);
+        Pagina<Rekening> tweede = rekeningDAO.zoekRekeningenPagina(eerste.getVolgendePagina(), 3);
+        Pagina<Rekening> vanKlant = rekeningDAO.zoekRekeningenPagina(eigenaar, eerste.getVolgendePagina(), 3);
+
+        assertThat(eerste.getItems()).hasSize(3);
+        assertThat(tweede.getItems()).hasSize(2);
+        assertThat(tweede.isLaatstePagina()).isTrue();
+        assertThat(vanKlant.getItems()).usingFieldByFieldElementComparator()
+                .containsExactlyElementsOf(tweede.getItems());
+        assertThat(eerste.getItems().get(2).getRekeningnummer().getRekeningnummer()
+                .compareTo(tweede.getItems().get(0).getRekeningnummer().getRekeningnummer())).isNegative();
+    }
+
+    @Test
+    public void journaal() throws Exception {
+        String van = toevoegen(1, 1000);
+        String naar = toevoegen(2, 0);
+
+        rekeningDAO.verrekenenSaldoRekening(van, Bedrag.vanCenten(500));
+        rekeningDAO.verrekenenSaldoRekening(van, Bedrag.vanCenten(-5000));
+        rekeningDAO.overschrijven(van, naar, Bedrag.vanCenten(300));
+        rekeningDAO.wijzigenSaldoRekening(van, Bedrag.vanCenten(1000));
+
+        Pagina<Journaalregel> eerste = rekeningDAO.zoekJournaalPagina(van.toLowerCase(), null, 2);
+        Pagina<Journaalregel> tweede = rekeningDAO.zoekJournaalPagina(van, eerste.getVolgendePagina(), 2);
+
+        assertThat(eerste.getItems()).extracting(Journaalregel::getSoort)
+                .containsExactly(JournaalSoort.STORTING, JournaalSoort.OVERSCHRIJVING);
+        assertThat(eerste.getItems()).extracting(Journaalregel::getRekeningnummer).containsOnly(van);
+        assertThat(tweede.getItems()).extracting(Journaalregel::getSaldo).containsExactly(Bedrag.vanCenten(1000));
+        assertThat(tweede.getItems()).extracting(Journaalregel::getVerschil).containsExactly(Bedrag.vanCenten(-200));
+        assertThat(tweede.isLaatstePagina()).isTrue();
+        assertThat(rekeningDAO.zoekJournaalPagina(naar, null, 10).getItems())
+                .extracting(Journaalregel::getVerschil).containsExactly(Bedrag.vanCenten(300));
+        assertThatThrownBy(() -> rekeningDAO.zoekJournaalPagina(van, "ongeldig", 2))
+                .isInstanceOf(ApplicationException.class);
+    }
+
+    // na het heropenen is alles teruggelezen uit het logboek
+    @Test
+    public void heropenen_herspeeltLogboek() throws Exception {
+        String van = toevoegen(1, 1000);
+        String naar = toevoegen(2, 0);
+        rekeningDAO.overschrijven(van, naar, Bedrag.vanCenten(300));
+        rekeningDAO.verrekenenSaldoRekening(naar, Bedrag.vanCenten(-300));
+        assertThat(rekeningDAO.verwijderRekening(naar)).isEqualTo(Afsluiting.GELUKT);
+        List<Journaalregel> voor = rekeningDAO.zoekJournaalPagina(van, null, 10).getItems();
+
+        heropenen();
+
+        assertThat(rekeningDAO.zoekRekening(van).getSaldo()).isEqualTo(Bedrag.vanCenten(700));
+        assertThat(rekeningDAO.zoekRekening(naar).getStatus()).isEqualTo(RekeningStatus.GESLOTEN);
+        assertThat(rekeningDAO.zoekAlleRekeningen(eigenaar)).hasSize(2);
+        assertThat(rekeningDAO.zoekJournaalPagina(van, null, 10).getItems())
+                .usingFieldByFieldElementComparator().containsExactlyElementsOf(voor);
+        // nieuwe volgnummers gaan verder na de teruggelezen
+        rekeningDAO.verrekenenSaldoRekening(van, Bedrag.vanCenten(1));
+        List<Journaalregel> na = rekeningDAO.zoekJournaalPagina(van, null, 10).getItems();
+        assertThat(na.get(na.size() - 1).getVolgnummer()).isGreaterThan(voor.get(voor.size() - 1).getVolgnummer());
+    }
+
+    // een half geschreven laatste record wordt bij het openen genegeerd
+    @Test
+    public void heropenen_onderbrokenLaatsteRecord() throws Exception {
+        String nummer = toevoegen(1, 1000);
+        rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-100));
+        rekeningDAO.close();
+
+        // het saldo (laatste bytes van het laatste record) beschadigen
+        Path logbestand = map.getRoot().toPath().resolve(RekeningGrootboekDAO.LOGBESTAND);
+        long einde = eindeVanLaatsteRecord(logbestand);
+        try (RandomAccessFile bestand = new RandomAccessFile(logbestand.toFile(), "rw")) {
+            bestand.seek(einde - 9);
+            bestand.write(0x7f);
+        }
+
+        rekeningDAO = new RekeningGrootboekDAO(map.getRoot().toPath(), true);
+        assertThat(rekeningDAO.zoekRekening(nummer).getSaldo()).isEqualTo(Bedrag.vanCenten(1000));
+        assertThat(rekeningDAO.zoekJournaalPagina(nummer, null, 10).getItems()).isEmpty();
+
+        // daarna wordt er gewoon verder geschreven
+        rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-200));
+        heropenen();
+        assertThat(rekeningDAO.zoekRekening(nummer).getSaldo()).isEqualTo(Bedrag.vanCenten(800));
+    }
+
+    private static long eindeVanLaatsteRecord(Path logbestand) throws Exception {
+        try (RandomAccessFile bestand = new RandomAccessFile(logbestand.toFile(), "r")) {
+            long positie = 16;
+            bestand.seek(positie);
+            int lengte = bestand.readInt();
+            while (lengte > 0) {
+                positie += 8 + lengte;
+                bestand.seek(positie);
+                lengte = bestand.readInt();
+            }
+            return positie;
+        }
+    }
+
+    // de klanten van het grootboek komen mee in het logboek
+    @Test
+    public void klanten_wordenHerspeeld() throws Exception {
+        String nummer = toevoegen(1, 0);
+        Klant klant = klantDAO.zoekKlant(eigenaar);
+        klant.setAdres("Markt 7");
+        klantDAO.wijzigenKlant(klant);
+        assertThat(klantDAO.verwijderKlant(eigenaar)).isEqualTo(Uitschrijving.KLANT_HEEFT_NOG_REKENINGEN);
+        rekeningDAO.verwijderRekening(nummer);
+        assertThat(klantDAO.verwijderKlant(eigenaar)).isEqualTo(Uitschrijving.GELUKT);
+
+        heropenen();
+
+        Klant teruggelezen = klantDAO.zoekKlant(eigenaar);
+        assertThat(teruggelezen.getAdres()).isEqualTo("Markt 7");
+        assertThat(teruggelezen.getStatus()).isEqualTo(KlantStatus.UITGESCHREVEN);
+        assertThat(klantDAO.bestaatKlant(teruggelezen)).isTrue();
+        // nieuwe id's gaan verder na de teruggelezen
+        Klant nieuw = new Klant();
+        nieuw.setNaam("Vandamme");
+        nieuw.setVoornaam("Jan");
+        nieuw.setAdres("Markt 8");
+        nieuw.setPostcode("8000");
+        nieuw.setGemeente("Brugge");
+        assertThat(klantDAO.toevoegenKlant(nieuw)).isEqualTo(eigenaar + 1);
+    }
+
+    // na een snapshot wordt enkel het logboek erna herspeeld; het journaal van ervoor wordt nadien ingelezen
+    @Test
+    public void snapshot_heropenenVanafSnapshot() throws Exception {
+        String van = toevoegen(1, 1000);
+        String naar = toevoegen(2, 0);
+        rekeningDAO.overschrijven(van, naar, Bedrag.vanCenten(300));
+        rekeningDAO.snapshot();
+        rekeningDAO.verrekenenSaldoRekening(van, Bedrag.vanCenten(-100));
+        String later = toevoegen(3, 50);
+        rekeningDAO.verrekenenSaldoRekening(naar, Bedrag.vanCenten(-300));
+        assertThat(rekeningDAO.verwijderRekening(naar)).isEqualTo(Afsluiting.GELUKT);
+        List<Rekening> voor = rekeningDAO.zoekAlleRekeningen(eigenaar);
+        List<Journaalregel> journaalVoor = rekeningDAO.zoekJournaalPagina(van, null, 10).getItems();
+
+        heropenen();
+        wachtOpJournaal();
+
+        assertThat(rekeningDAO.zoekAlleRekeningen(eigenaar)).usingFieldByFieldElementComparator()
+                .containsExactlyElementsOf(voor);
+        assertThat(rekeningDAO.zoekRekening(later).getSaldo()).isEqualTo(Bedrag.vanCenten(50));
+        assertThat(rekeningDAO.zoekJournaalPagina(van, null, 10).getItems())
+                .usingFieldByFieldElementComparator().containsExactlyElementsOf(journaalVoor);
+        assertThat(klantDAO.zoekKlant(eigenaar).getNaam()).isEqualTo("Defoort");
+
+        // een tweede snapshot vervangt de eerste
+        rekeningDAO.verrekenenSaldoRekening(van, Bedrag.vanCenten(1));
+        rekeningDAO.snapshot();
+        heropenen();
+        assertThat(rekeningDAO.zoekRekening(van).getSaldo()).isEqualTo(Bedrag.vanCenten(601));
+    }
+
+    @Test
+    public void snapshot_beschadigd_herspeeltHetHeleLogboek() throws Exception {
+        String nummer = toevoegen(1, 1000);
+        rekeningDAO.snapshot();
+        rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-100));
+        rekeningDAO.close();
+
+        Path snapshot = map.getRoot().toPath().resolve(GrootboekSnapshot.BESTAND);
+        try (RandomAccessFile bestand = new RandomAccessFile(snapshot.toFile(), "rw")) {
+            bestand.seek(30);
+            bestand.write(bestand.read() ^ 0xff);
+        }
+
+        rekeningDAO = new RekeningGrootboekDAO(map.getRoot().toPath(), true);
+        assertThat(rekeningDAO.isJournaalVolledig()).isTrue();
+        assertThat(rekeningDAO.zoekRekening(nummer).getSaldo()).isEqualTo(Bedrag.vanCenten(900));
+        assertThat(rekeningDAO.getKlantDAO().zoekKlant(eigenaar)).isNotNull();
+    }
+
+    // snapshots terwijl er overgeschreven wordt en de tabel groeit: na het heropenen is alles terug
+    @Test
+    public void snapshot_gelijktijdigMetWijzigingen() throws Exception {
+        List<String> nummers = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            nummers.add(toevoegen(i, 10000));
+        }
+
+        ExecutorService threads = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> klaar = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                Random random = new Random(t);
+                klaar.add(threads.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        rekeningDAO.overschrijven(nummers.get(random.nextInt(nummers.size())),
+                                nummers.get(random.nextInt(nummers.size())), Bedrag.vanCenten(1 + random.nextInt(500)));
+                    }
+                    return null;
+                }));
+            }
+            klaar.add(threads.submit(() -> {
+                // meer dan de 768 rekeningen waarvoor de tabel plaats heeft
+                for (int i = 11; i <= 2000; i++) {
+                    toevoegen(i, i);
+                }
+                return null;
+            }));
+            klaar.add(threads.submit(() -> {
+                for (int i = 0; i < 5; i++) {
+                    rekeningDAO.snapshot();
+                }
+                return null;
+            }));
+            for (Future<?> thread : klaar) {
+                thread.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        List<Rekening> voor = rekeningDAO.zoekAlleRekeningen(eigenaar);
+
+        heropenen();
+
+        assertThat(rekeningDAO.zoekAlleRekeningen(eigenaar)).usingFieldByFieldElementComparator()
+                .containsExactlyElementsOf(voor);
+        long totaal = 0;
+        for (String nummer : nummers) {
+            totaal += rekeningDAO.zoekRekening(nummer).getSaldo().getCenten();
+        }
+        assertThat(totaal).isEqualTo(10 * 10000);
+    }
+
+    private void wachtOpJournaal() throws InterruptedException {
+        for (int i = 0; i < 500 && !rekeningDAO.isJournaalVolledig(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(rekeningDAO.isJournaalVolledig()).isTrue();
+    }
+
+    @Test
+    public void gelijktijdigeMutaties_totaalSaldoBlijftGelijk() throws Exception {
+        List<String> nummers = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            nummers.add(toevoegen(i, 10000));
+        }
+
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> netto = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Random random = new Random(t);
+                netto.add(threads.submit(() -> {
+                    long gestort = 0;
+                    for (int i = 0; i < 500; i++) {
+                        String van = nummers.get(random.nextInt(nummers.size()));
+                        String naar = nummers.get(random.nextInt(nummers.size()));
+                        Bedrag bedrag = Bedrag.vanCenten(1 + random.nextInt(5000));
+                        switch (i % 3) {
+                            case 0:
+                                rekeningDAO.overschrijven(van, naar, bedrag);
+                                break;
+                            case 1:
+                                if (rekeningDAO.verrekenenSaldoRekening(van, bedrag) == SaldoWijziging.GELUKT) {
+                                    gestort += bedrag.getCenten();
+                                }
+                                break;
+                            default:
+                                if (rekeningDAO.verrekenenSaldoRekening(van, bedrag.negatief())
+                                        == SaldoWijziging.GELUKT) {
+                                    gestort -= bedrag.getCenten();
+                                }
+                        }
+                    }
+                    return gestort;
+                }));
+            }
+            long verwacht = 10 * 10000;
+            for (Future<Long> resultaat : netto) {
+                verwacht += resultaat.get();
+            }
+
+            // ook na het herspelen van het logboek
+            for (RekeningGrootboekDAO dao : Arrays.asList(rekeningDAO, heropenen())) {
+                long totaal = 0;
+                for (Rekening rekening : dao.zoekAlleRekeningen(eigenaar)) {
+                    assertThat(rekening.getSaldo().isNegatief()).isFalse();
+                    totaal += rekening.getSaldo().getCenten();
+                }
+                assertThat(totaal).isEqualTo(verwacht);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+}
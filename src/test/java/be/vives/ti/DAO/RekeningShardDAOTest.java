@@ -0,0 +1,335 @@
+package be.vives.ti.DAO;
+
+import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Afsluiting;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.Overschrijving;
+import be.vives.ti.datatype.RekeningStatus;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.datatype.SaldoWijziging;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.extra.Rekeningnummers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RekeningShardDAOTest {
+
+    private GeheugenDatabank databank;
+    private RekeningGeheugenDAO opslag;
+    private RekeningShardDAO rekeningDAO;
+    private int eigenaar;
+
+    @Before
+    public void setUp() throws Exception {
+        databank = new GeheugenDatabank();
+        opslag = new RekeningGeheugenDAO(databank);
+        // weinig saldi per shard: ook het inladen na het uitvallen wordt getest
+        rekeningDAO = new RekeningShardDAO(opslag, 3, 8);
+
+        Klant klant = new Klant();
+        klant.setNaam("Defoort");
+        klant.setVoornaam("Mieke");
+        klant.setAdres("Kerkstraat 1");
+        klant.setPostcode("8000");
+        klant.setGemeente("Brugge");
+        eigenaar = new KlantGeheugenDAO(databank).toevoegenKlant(klant);
+    }
+
+    @After
+    public void tearDown() {
+        rekeningDAO.close();
+    }
+
+    private String toevoegen(long volgnummer, long saldoInCenten) throws Exception {
+        Rekening rekening = new Rekening();
+        rekening.setRekeningnummer(new Rekeningnummer(Rekeningnummers.maak(volgnummer)));
+        rekening.setSaldo(Bedrag.vanCenten(saldoInCenten));
+        rekening.setEigenaar(eigenaar);
+        rekeningDAO.toevoegenRekening(rekening);
+        return rekening.getRekeningnummer().getRekeningnummer();
+    }
+
+    private long saldo(String nummer) throws Exception {
+        return opslag.zoekRekening(nummer).getSaldo().getCenten();
+    }
+
+    @Test
+    public void verrekenenSaldoRekening() throws Exception {
+        String nummer = toevoegen(1, 1000);
+
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(500)))
+                .isEqualTo(SaldoWijziging.GELUKT);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer.toLowerCase(), Bedrag.vanCenten(-1500)))
+                .isEqualTo(SaldoWijziging.GELUKT);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-1)))
+                .isEqualTo(SaldoWijziging.SALDO_ONTOEREIKEND);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(Rekeningnummers.maak(2), Bedrag.vanCenten(1)))
+                .isEqualTo(SaldoWijziging.REKENING_BESTAAT_NIET);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(null, Bedrag.vanCenten(1)))
+                .isEqualTo(SaldoWijziging.REKENING_BESTAAT_NIET);
+        // het resultaat wordt pas gegeven wanneer de mutatie bewaard is
+        assertThat(saldo(nummer)).isEqualTo(0);
+
+        // een storting die nog in de batch zat, is bewaard vóór er gesloten wordt
+        rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(1));
+        assertThat(rekeningDAO.verwijderRekening(nummer)).isEqualTo(Afsluiting.SALDO_NIET_NUL);
+        rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-1));
+        assertThat(rekeningDAO.verwijderRekening(nummer)).isEqualTo(Afsluiting.GELUKT);
+        assertThat(opslag.zoekRekening(nummer).getStatus()).isEqualTo(RekeningStatus.GESLOTEN);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(1)))
+                .isEqualTo(SaldoWijziging.REKENING_GESLOTEN);
+    }
+
+    @Test
+    public void verrekenenSaldoRekeningen_volgordeVanDeLijst() throws Exception {
+        String a = toevoegen(1, 100);
+        String b = toevoegen(2, 0);
+        List<Mutatie> mutaties = new ArrayList<>();
+        for (Object[] m : new Object[][]{{a, -100}, {b, 50}, {a, -1}, {b, -50}, {"BE00", 1}, {a, 10}}) {
+            Mutatie mutatie = new Mutatie();
+            mutatie.setRekeningnummer((String) m[0]);
+            mutatie.setBedrag(Bedrag.vanCenten((Integer) m[1]));
+            mutaties.add(mutatie);
+        }
+
+        assertThat(rekeningDAO.verrekenenSaldoRekeningen(mutaties)).containsExactly(
+                SaldoWijziging.GELUKT, SaldoWijziging.GELUKT, SaldoWijziging.SALDO_ONTOEREIKEND,
+                SaldoWijziging.GELUKT, SaldoWijziging.REKENING_BESTAAT_NIET, SaldoWijziging.GELUKT);
+        assertThat(saldo(a)).isEqualTo(10);
+        assertThat(saldo(b)).isEqualTo(0);
+    }
+
+    @Test
+    public void wijzigenSaldoRekening_ziet_de_shard() throws Exception {
+        String nummer = toevoegen(1, 100);
+        rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(1));
+
+        rekeningDAO.wijzigenSaldoRekening(nummer, Bedrag.vanCenten(5));
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-6)))
+                .isEqualTo(SaldoWijziging.SALDO_ONTOEREIKEND);
+        assertThat(rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(-5)))
+                .isEqualTo(SaldoWijziging.GELUKT);
+        assertThat(saldo(nummer)).isEqualTo(0);
+    }
+
+    @Test
+    public void overschrijven_tussenShards() throws Exception {
+        List<String> nummers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            nummers.add(toevoegen(i, 100));
+        }
+        for (String nummer : nummers) {
+            // alle saldi in het geheugen van hun shard
+            rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(0));
+        }
+
+        for (String van : nummers) {
+            for (String naar : nummers) {
+                if (!van.equals(naar)) {
+                    assertThat(rekeningDAO.overschrijven(van, naar, Bedrag.vanCenten(10)))
+                            .isEqualTo(Overschrijving.GELUKT);
+                    // de ontvanger kan meteen het volledige saldo opnemen
+                    long ontvangen = saldo(naar);
+                    assertThat(rekeningDAO.verrekenenSaldoRekening(naar, Bedrag.vanCenten(-ontvangen)))
+                            .isEqualTo(SaldoWijziging.GELUKT);
+                    assertThat(rekeningDAO.verrekenenSaldoRekening(naar, Bedrag.vanCenten(ontvangen)))
+                            .isEqualTo(SaldoWijziging.GELUKT);
+                }
+            }
+        }
+        assertThat(rekeningDAO.overschrijven(nummers.get(0), "BE00", Bedrag.vanCenten(1)))
+                .isEqualTo(Overschrijving.NAAR_REKENING_BESTAAT_NIET);
+        assertThat(rekeningDAO.overschrijven(nummers.get(0), nummers.get(1), Bedrag.vanCenten(1000)))
+                .isEqualTo(Overschrijving.SALDO_ONTOEREIKEND);
+        long totaal = 0;
+        for (String nummer : nummers) {
+            totaal += saldo(nummer);
+        }
+        assertThat(totaal).isEqualTo(600);
+    }
+
+    @Test
+    public void gelijktijdig_geldBlijftBehouden() throws Exception {
+        int aantalRekeningen = 20;
+        List<String> nummers = new ArrayList<>();
+        for (int i = 0; i < aantalRekeningen; i++) {
+            nummers.add(toevoegen(i, 1000));
+        }
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> gestort = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long zaad = t;
+                gestort.add(threads.submit(() -> {
+                    Random random = new Random(zaad);
+                    long netto = 0;
+                    for (int i = 0; i < 2000; i++) {
+                        String van = nummers.get(random.nextInt(aantalRekeningen));
+                        String naar = nummers.get(random.nextInt(aantalRekeningen));
+                        int bedrag = random.nextInt(200) - 100;
+                        if (i % 3 == 0) {
+                            rekeningDAO.overschrijven(van, naar, Bedrag.vanCenten(Math.abs(bedrag)));
+                        } else if (rekeningDAO.verrekenenSaldoRekening(van, Bedrag.vanCenten(bedrag))
+                                == SaldoWijziging.GELUKT) {
+                            netto += bedrag;
+                        }
+                    }
+                    return netto;
+                }));
+            }
+            long netto = 0;
+            for (Future<Long> f : gestort) {
+                netto += f.get();
+            }
+
+            long totaal = 0;
+            for (String nummer : nummers) {
+                long centen = saldo(nummer);
+                assertThat(centen).isGreaterThanOrEqualTo(0);
+                totaal += centen;
+            }
+            assertThat(totaal).isEqualTo(aantalRekeningen * 1000L + netto);
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    public void gesloten() throws Exception {
+        String nummer = toevoegen(1, 100);
+        rekeningDAO.close();
+
+        assertThatThrownBy(() -> rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(1)))
+                .isInstanceOf(DBException.class);
+        Mutatie mutatie = new Mutatie();
+        mutatie.setRekeningnummer(nummer);
+        mutatie.setBedrag(Bedrag.vanCenten(1));
+        assertThatThrownBy(() -> rekeningDAO.verrekenenSaldoRekeningen(Arrays.asList(mutatie)))
+                .isInstanceOf(DBException.class);
+        // opzoeken gaat nog rechtstreeks
+        assertThat(rekeningDAO.zoekRekening(nummer)).isNotNull();
+    }
+
+    @Test
+    public void sluitenTijdensAanbieden_geenOproeperBlijftWachten() throws Exception {
+        String nummer = toevoegen(1, 100);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> oproepers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                oproepers.add(threads.submit(() -> {
+                    int gelukt = 0;
+                    for (int i = 0; i < 100_000; i++) {
+                        try {
+                            rekeningDAO.verrekenenSaldoRekening(nummer, Bedrag.vanCenten(1));
+                            gelukt++;
+                        } catch (DBException ex) {
+                            return gelukt;
+                        }
+                    }
+                    return gelukt;
+                }));
+            }
+            Thread.sleep(20);
+            rekeningDAO.close();
+
+            int gelukt = 0;
+            for (Future<Integer> oproeper : oproepers) {
+                // zonder opruimen bleef een opdracht na het stoppen van de thread eeuwig wachten
+                gelukt += oproeper.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(saldo(nummer)).isEqualTo(100L + gelukt);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void verrekenenSaldoRekeningen_foutPerMutatie() throws Exception {
+        String goed = toevoegen(1, 100);
+        String fout = toevoegen(2, 100);
+        RekeningGeheugenDAO foutief = new RekeningGeheugenDAO(databank) {
+            @Override
+            public Rekening zoekRekening(String rekeningnummer) {
+                if (fout.equals(rekeningnummer)) {
+                    throw new IllegalStateException("opslag niet bereikbaar");
+                }
+                return super.zoekRekening(rekeningnummer);
+            }
+
+            @Override
+            public Map<String, Rekening> zoekRekeningen(Collection<String> rekeningnummers) {
+                if (rekeningnummers.contains(fout)) {
+                    throw new IllegalStateException("opslag niet bereikbaar");
+                }
+                return super.zoekRekeningen(rekeningnummers);
+            }
+        };
+        try (RekeningShardDAO shardDAO = new RekeningShardDAO(foutief, 2)) {
+            assertThat(shardDAO.verrekenenSaldoRekeningen(Arrays.asList(mutatie(goed, 10), mutatie(fout, 10),
+                    mutatie(goed, 5)))).containsExactly(SaldoWijziging.GELUKT, SaldoWijziging.NIET_UITGEVOERD,
+                    SaldoWijziging.GELUKT);
+            assertThat(saldo(goed)).isEqualTo(115);
+            assertThat(saldo(fout)).isEqualTo(100);
+
+            // niets uitgevoerd: de fout zelf
+            assertThatThrownBy(() -> shardDAO.verrekenenSaldoRekeningen(Arrays.asList(mutatie(fout, 10))))
+                    .isInstanceOf(DBException.class);
+        }
+    }
+
+    // een fout na de commit: het geheugen mag niet van de opslag blijven afwijken
+    @Test
+    public void overschrijven_foutNaCommit_rekeningenOpnieuwIngeladen() throws Exception {
+        String van = toevoegen(1, 1000);
+        String naar = toevoegen(2, 0);
+        RekeningGeheugenDAO foutief = new RekeningGeheugenDAO(databank) {
+            @Override
+            public Overschrijving overschrijven(String vanRekeningnummer, String naarRekeningnummer, Bedrag bedrag) {
+                super.overschrijven(vanRekeningnummer, naarRekeningnummer, bedrag);
+                throw new IllegalStateException("connectie verbroken na de commit");
+            }
+        };
+        for (int aantalShards = 1; aantalShards <= 3; aantalShards += 2) {
+            try (RekeningShardDAO shardDAO = new RekeningShardDAO(foutief, aantalShards)) {
+                // beide saldi in het geheugen
+                shardDAO.verrekenenSaldoRekening(van, Bedrag.vanCenten(1));
+                shardDAO.verrekenenSaldoRekening(naar, Bedrag.vanCenten(1));
+                long vanSaldo = saldo(van);
+
+                assertThatThrownBy(() -> shardDAO.overschrijven(van, naar, Bedrag.vanCenten(300)))
+                        .isInstanceOf(DBException.class);
+
+                // de opslag heeft de overschrijving wel: van kan geen 300 meer missen dan er staat
+                assertThat(shardDAO.verrekenenSaldoRekening(van, Bedrag.vanCenten(-(vanSaldo - 299))))
+                        .isEqualTo(SaldoWijziging.SALDO_ONTOEREIKEND);
+                assertThat(shardDAO.verrekenenSaldoRekening(naar, Bedrag.vanCenten(-(saldo(naar)))))
+                        .isEqualTo(SaldoWijziging.GELUKT);
+            }
+        }
+    }
+
+    private static Mutatie mutatie(String nummer, long centen) {
+        Mutatie mutatie = new Mutatie();
+        mutatie.setRekeningnummer(nummer);
+        mutatie.setBedrag(Bedrag.vanCenten(centen));
+        return mutatie;
+    }
+}
@@ -0,0 +1,177 @@
+package be.vives.ti.DAO.cache;
+
+import be.vives.ti.databag.Klant;
+import be.vives.ti.exception.DBException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LeesCacheTest {
+
+    // tijd in ns, wordt door de tests vooruitgezet
+    private long nu = 0;
+    // sleutels die de lader opgevraagd heeft
+    private final ArrayList<Integer> geladen = new ArrayList<>();
+
+    private LeesCache<Integer, Klant> maakCache(boolean actief, int maximum, long ttlMillis) {
+        return new LeesCache<>("test", actief, maximum, ttlMillis, LeesCacheTest::kopieer, () -> nu);
+    }
+
+    private Klant laad(Integer id) {
+        geladen.add(id);
+        if (id < 0) {
+            return null;
+        }
+        Klant klant = new Klant();
+        klant.setId(id);
+        klant.setNaam("Naam" + id);
+        return klant;
+    }
+
+    private static Klant kopieer(Klant klant) {
+        Klant kopie = new Klant();
+        kopie.setId(klant.getId());
+        kopie.setNaam(klant.getNaam());
+        return kopie;
+    }
+
+    @Test
+    public void tweedeOpzoeking_uitCache() throws Exception {
+        LeesCache<Integer, Klant> cache = maakCache(true, 10, 1000);
+
+        cache.zoek(1, this::laad);
+        Klant klant = cache.zoek(1, this::laad);
+
+        assertThat(klant.getNaam()).isEqualTo("Naam1");
+        assertThat(geladen).containsExactly(1);
+        assertThat(cache.getStatistieken().getAantalHits()).isEqualTo(1);
+        assertThat(cache.getStatistieken().getAantalMissers()).isEqualTo(1);
+    }
+
+    @Test
+    public void gewijzigdeKopie_wijzigtCacheNiet() throws Exception {
+        LeesCache<Integer, Klant> cache = maakCache(true, 10, 1000);
+
+        cache.zoek(1, this::laad).setNaam("Gewijzigd");
+
+        assertThat(cache.zoek(1, this::laad).getNaam()).isEqualTo("Naam1");
+    }
+
+    @Test
+    public void nietGevonden_wordtNietBewaard() throws Exception {
+        LeesCache<Integer, Klant> cache = maakCache(true, 10, 1000);
+
+        assertThat(cache.zoek(-1, this::laad)).isNull();
+        assertThat(cache.zoek(-1, this::laad)).isNull();
+
+        assertThat(geladen).containsExactly(-1, -1);
+        assertThat(cache.getStatistieken().getGrootte()).isEqualTo(0);
+    }
+
+    @Test
+    public void verlopen_wordtOpnieuwGeladen() throws Exception {
+        LeesCache<Integer, Klant> cache = maakCache(true, 10, 1000);
+
+        cache.zoek(1, this::laad);
+        nu += 1_000_000_000L;
+        cache.zoek(1, this::laad);
+
+        assertThat(geladen).containsExactly(1, 1);
+        assertThat(cache.getStatistieken().getAantalVerlopen()).isEqualTo(1);
+    }
+
+    @Test
+    public void opruimen_verwijdertVerlopen() throws Exception {
+        LeesCache<Integer, Klant> cache = maakCache(true, 10, 1000);
+        cache.zoek(1, this::laad);
+        nu += 500_000_000L;
+        cache.zoek(2, this::laad);
+        nu += 500_000_000L;
+
+        cache.opruimen();
+
+        assertThat(cache.getStatistieken().getGrootte()).isEqualTo(1);
+        assertThat(cache.getStatistieken().getAantalVerlopen()).isEqualTo(1);
+    }
+
+    @Test
+    public void vol_minstRecentGebruikteWordtVerdrongen() throws Exception {
+        LeesCache<Integer, Klant> cache = maakCache(true, 2, 1000);
+        cache.zoek(1, this::laad);
+        cache.zoek(2, this::laad);
+        // 1 opnieuw gebruiken, zodat 2 de minst recent gebruikte is
+        cache.zoek(1, this::laad);
+
+        cache.zoek(3, this::laad);
+        geladen.clear();
+        cache.zoek(1, this::laad);
+        cache.zoek(2, this::laad);
+
+        assertThat(geladen).containsExactly(2);
+        assertThat(cache.getStatistieken().getAantalVerdrongen()).isEqualTo(2);
+        assertThat(cache.getStatistieken().getGrootte()).isEqualTo(2);
+    }
+
+    @Test
+    public void verwijder_wordtOpnieuwGeladen() throws Exception {
+        LeesCache<Integer, Klant> cache = maakCache(true, 10, 1000);
+        cache.zoek(1, this::laad);
+
+        cache.verwijder(1);
+        cache.zoek(1, this::laad);
+
+        assertThat(geladen).containsExactly(1, 1);
+        assertThat(cache.getStatistieken().getAantalVerwijderd()).isEqualTo(1);
+    }
+
+    @Test
+    public void verwijderTijdensLaden_resultaatWordtNietBewaard() throws Exception {
+        LeesCache<Integer, Klant> cache = maakCache(true, 10, 1000);
+
+        // de rij wordt gewijzigd terwijl ze geladen wordt: wat geladen werd, kan verouderd zijn
+        cache.zoek(1, id -> {
+            cache.verwijder(id);
+            return laad(id);
+        });
+
+        assertThat(cache.getStatistieken().getGrootte()).isEqualTo(0);
+    }
+
+    @Test
+    public void uitgeschakeld_laadtAltijd() throws Exception {
+        LeesCache<Integer, Klant> cache = maakCache(false, 10, 1000);
+
+        cache.zoek(1, this::laad);
+        cache.zoek(1, this::laad);
+
+        assertThat(geladen).containsExactly(1, 1);
+        assertThat(cache.getStatistieken().getAantalMissers()).isEqualTo(0);
+    }
+
+    @Test
+    public void uitschakelen_maaktLeeg() throws Exception {
+        LeesCache<Integer, Klant> cache = maakCache(true, 10, 1000);
+        cache.zoek(1, this::laad);
+
+        cache.setActief(false);
+        cache.setActief(true);
+        cache.zoek(1, this::laad);
+
+        assertThat(geladen).containsExactly(1, 1);
+    }
+
+    @Test
+    public void fout_vanLader_wordtDoorgegeven() throws Exception {
+        LeesCache<Integer, Klant> cache = maakCache(true, 10, 1000);
+
+        assertThatThrownBy(() -> {
+            cache.zoek(1, id -> {
+                throw new DBException("databank weg");
+            });
+        }).isInstanceOf(DBException.class);
+        assertThat(cache.getStatistieken().getGrootte()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,185 @@
+package be.vives.ti.DAO.connect;
+
+import be.vives.ti.exception.DBException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class ConnectionPoolTest {
+
+    private final ArrayList<Connection> aangemaakt = new ArrayList<>();
+    private ConnectionPool pool;
+
+    // simulatieobject voor een fysieke connectie die geldig is en in autocommit staat
+    private Connection maakConnectie() throws SQLException {
+        Connection conn = mock(Connection.class);
+        when(conn.isValid(anyInt())).thenReturn(true);
+        when(conn.getAutoCommit()).thenReturn(true);
+        aangemaakt.add(conn);
+        return conn;
+    }
+
+    private ConnectionPool maakPool(int minimum, int maximum, long idleTimeout, long uitleenTimeout, long lekDrempel) {
+        pool = new ConnectionPool(this::maakConnectie, minimum, maximum, idleTimeout, uitleenTimeout, lekDrempel, 1);
+        return pool;
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.sluiten();
+        }
+    }
+
+    @Test
+    public void opstarten_vultAanTotMinimum() {
+        maakPool(2, 5, 60000, 100, 0);
+
+        assertThat(aangemaakt).hasSize(2);
+        assertThat(pool.getStatistieken().getVrij()).isEqualTo(2);
+        assertThat(pool.getStatistieken().getTotaal()).isEqualTo(2);
+    }
+
+    @Test
+    public void sluitenVanConnectie_geeftFysiekeConnectieTerug() throws Exception {
+        maakPool(0, 5, 60000, 100, 0);
+
+        Connection eerste = pool.leenConnectie();
+        eerste.close();
+        Connection tweede = pool.leenConnectie();
+        tweede.close();
+
+        assertThat(aangemaakt).hasSize(1);
+        verify(aangemaakt.get(0), never()).close();
+        assertThat(eerste.isClosed()).isTrue();
+        assertThat(pool.getStatistieken().getAantalUitleningen()).isEqualTo(2);
+    }
+
+    @Test
+    public void gebruikNaTeruggeven_geeftSQLException() throws Exception {
+        maakPool(0, 5, 60000, 100, 0);
+
+        Connection conn = pool.leenConnectie();
+        conn.close();
+
+        assertThatThrownBy(() -> {
+            conn.prepareStatement("select 1");
+        }).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    public void gelijktijdigSluiten_geeftConnectieEenKeerTerug() throws Exception {
+        maakPool(0, 1, 60000, 50, 0);
+
+        for (int ronde = 0; ronde < 200; ronde++) {
+            Connection conn = pool.leenConnectie();
+            CountDownLatch start = new CountDownLatch(1);
+            ArrayList<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                        conn.close();
+                    } catch (InterruptedException | SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertThat(pool.getStatistieken().getVrij()).isEqualTo(1);
+        }
+
+        // het maximum blijft 1
+        Connection conn = pool.leenConnectie();
+        assertThatThrownBy(() -> {
+            pool.leenConnectie();
+        }).isInstanceOf(DBException.class);
+        conn.close();
+        assertThat(aangemaakt).hasSize(1);
+    }
+
+    @Test
+    public void maximumBereikt_uitleenTimeout() throws Exception {
+        maakPool(0, 2, 60000, 50, 0);
+
+        Connection c1 = pool.leenConnectie();
+        Connection c2 = pool.leenConnectie();
+
+        assertThatThrownBy(() -> {
+            pool.leenConnectie();
+        }).isInstanceOf(DBException.class);
+        assertThat(pool.getStatistieken().getAantalTimeouts()).isEqualTo(1);
+        assertThat(aangemaakt).hasSize(2);
+
+        c1.close();
+        c2.close();
+    }
+
+    @Test
+    public void ongeldigeVrijeConnectie_wordtVervangen() throws Exception {
+        maakPool(1, 5, 60000, 100, 0);
+        when(aangemaakt.get(0).isValid(anyInt())).thenReturn(false);
+
+        Connection conn = pool.leenConnectie();
+        conn.close();
+
+        assertThat(aangemaakt).hasSize(2);
+        verify(aangemaakt.get(0)).close();
+        assertThat(pool.getStatistieken().getAantalValidatieFouten()).isEqualTo(1);
+    }
+
+    @Test
+    public void openTransactie_wordtTeruggedraaidBijTeruggeven() throws Exception {
+        maakPool(0, 5, 60000, 100, 0);
+
+        Connection conn = pool.leenConnectie();
+        when(aangemaakt.get(0).getAutoCommit()).thenReturn(false);
+        conn.close();
+
+        verify(aangemaakt.get(0)).rollback();
+        verify(aangemaakt.get(0)).setAutoCommit(true);
+    }
+
+    @Test
+    public void onderhoud_sluitOngebruikteConnectiesTotMinimum() throws Exception {
+        maakPool(1, 5, 0, 100, 0);
+        Connection c1 = pool.leenConnectie();
+        Connection c2 = pool.leenConnectie();
+        Connection c3 = pool.leenConnectie();
+        c1.close();
+        c2.close();
+        c3.close();
+        assertThat(pool.getStatistieken().getVrij()).isEqualTo(3);
+
+        pool.onderhoud();
+
+        assertThat(pool.getStatistieken().getVrij()).isEqualTo(1);
+        assertThat(pool.getStatistieken().getAantalGesloten()).isEqualTo(2);
+    }
+
+    @Test
+    public void onderhoud_meldtLekEenmaal() throws Exception {
+        maakPool(0, 5, 60000, 100, 1);
+        Connection conn = pool.leenConnectie();
+        Thread.sleep(5);
+
+        pool.onderhoud();
+        pool.onderhoud();
+
+        assertThat(pool.getStatistieken().getAantalLekken()).isEqualTo(1);
+        conn.close();
+    }
+}
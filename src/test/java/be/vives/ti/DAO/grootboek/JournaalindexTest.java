@@ -0,0 +1,51 @@
+package be.vives.ti.DAO.grootboek;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JournaalindexTest {
+
+    // in de test is de positie meteen het volgnummer
+    private static List<Long> doorlopen(Journaalindex index, long verpakt, long vanaf, int maximum) {
+        List<Long> posities = new ArrayList<>();
+        index.doorlopen(verpakt, vanaf, positie -> positie, positie -> {
+            posities.add(positie);
+            return posities.size() < maximum;
+        });
+        return posities;
+    }
+
+    @Test
+    public void doorlopen_vanafVolgnummer_overMeerdereBlokken() {
+        Journaalindex index = new Journaalindex();
+        for (long volgnummer = 1; volgnummer <= 3000; volgnummer++) {
+            // drie rekeningen door elkaar
+            index.voegToe(10 + volgnummer % 3, volgnummer);
+        }
+
+        assertThat(index.getAantal()).isEqualTo(3);
+        assertThat(doorlopen(index, 11, 0, 3)).containsExactly(1L, 4L, 7L);
+        assertThat(doorlopen(index, 11, 1000, 3)).containsExactly(1003L, 1006L, 1009L);
+        assertThat(doorlopen(index, 11, 1003, 3)).containsExactly(1006L, 1009L, 1012L);
+        assertThat(doorlopen(index, 12, 0, Integer.MAX_VALUE)).hasSize(1000).startsWith(2L).endsWith(2999L);
+        assertThat(doorlopen(index, 10, 3000, 10)).isEmpty();
+        assertThat(doorlopen(index, 13, 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void doorlopen_stopt_enVeleRekeningen() {
+        Journaalindex index = new Journaalindex();
+        for (long verpakt = 1; verpakt <= 10_000; verpakt++) {
+            index.voegToe(verpakt, verpakt * 2);
+        }
+
+        assertThat(index.getAantal()).isEqualTo(10_000);
+        assertThat(index.doorlopen(500, 0, positie -> positie, positie -> false)).isFalse();
+        assertThat(index.doorlopen(500, 0, positie -> positie, positie -> true)).isTrue();
+        assertThat(doorlopen(index, 9_999, 0, 10)).containsExactly(19_998L);
+    }
+}
@@ -0,0 +1,150 @@
+package be.vives.ti.DAO.grootboek;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LogboekTest {
+
+    @Rule
+    public TemporaryFolder map = new TemporaryFolder();
+
+    private static ByteBuffer record(long waarde, int lengte) {
+        ByteBuffer inhoud = ByteBuffer.allocate(lengte);
+        inhoud.putLong(0, waarde);
+        return inhoud;
+    }
+
+    private static List<Long> teruglezen(Path bestand) throws IOException {
+        List<Long> gelezen = new ArrayList<>();
+        Logboek.openen(bestand, 1024, false, (positie, inhoud) -> gelezen.add(inhoud.getLong(0))).close();
+        return gelezen;
+    }
+
+    // records lopen nooit over de grens van een regio
+    @Test
+    public void toevoegenEnTeruglezen_overMeerdereRegios() throws Exception {
+        Path bestand = map.getRoot().toPath().resolve("test.log");
+        List<Long> posities = new ArrayList<>();
+        try (Logboek logboek = Logboek.openen(bestand, 1024, true, null)) {
+            for (long i = 1; i <= 50; i++) {
+                long positie = logboek.toevoegen(record(i, 100));
+                logboek.wachtTotBewaard(positie);
+                posities.add(positie);
+            }
+            assertThat(logboek.lees(posities.get(20), 8).getLong(0)).isEqualTo(21);
+        }
+
+        List<Long> gelezen = teruglezen(bestand);
+
+        assertThat(gelezen).hasSize(50);
+        assertThat(gelezen.get(0)).isEqualTo(1);
+        assertThat(gelezen.get(49)).isEqualTo(50);
+        assertThat(Files.size(bestand) % 1024).isZero();
+    }
+
+    @Test
+    public void onderbrokenRecord_isHetEinde() throws Exception {
+        Path bestand = map.getRoot().toPath().resolve("test.log");
+        long laatste;
+        try (Logboek logboek = Logboek.openen(bestand, 1024, false, null)) {
+            logboek.toevoegen(record(1, 16));
+            logboek.toevoegen(record(2, 16));
+            laatste = logboek.toevoegen(record(3, 16));
+        }
+        // een byte van het laatste record wijzigen: de CRC klopt niet meer
+        byte[] inhoud = Files.readAllBytes(bestand);
+        inhoud[(int) laatste + 3] = 1;
+        Files.write(bestand, inhoud);
+
+        assertThat(teruglezen(bestand)).containsExactly(1L, 2L);
+
+        // het onderbroken record is gewist, een nieuw record komt erna
+        try (Logboek logboek = Logboek.openen(bestand, 1024, false, null)) {
+            logboek.toevoegen(record(4, 8));
+        }
+        assertThat(teruglezen(bestand)).containsExactly(1L, 2L, 4L);
+    }
+
+    // openen vanaf een positie leest enkel de records erna; de records ervoor kunnen nadien nog gelezen worden
+    @Test
+    public void openenVanafPositie_enLezen() throws Exception {
+        Path bestand = map.getRoot().toPath().resolve("test.log");
+        long vanaf;
+        try (Logboek logboek = Logboek.openen(bestand, 1024, false, null)) {
+            for (long i = 1; i <= 20; i++) {
+                logboek.toevoegen(record(i, 100));
+            }
+            vanaf = logboek.getGeschreven();
+            logboek.toevoegen(record(21, 100));
+        }
+
+        List<Long> erna = new ArrayList<>();
+        List<Long> ervoor = new ArrayList<>();
+        try (Logboek logboek = Logboek.openen(bestand, 1024, false, vanaf,
+                (positie, inhoud) -> erna.add(inhoud.getLong(0)))) {
+            logboek.toevoegen(record(22, 100));
+            logboek.lezen(Logboek.BEGIN, vanaf, (positie, inhoud) -> ervoor.add(inhoud.getLong(0)));
+        }
+
+        assertThat(erna).containsExactly(21L);
+        assertThat(ervoor).hasSize(20);
+        assertThat(ervoor.get(19)).isEqualTo(20);
+        assertThat(teruglezen(bestand)).hasSize(22);
+        assertThatThrownBy(() -> Logboek.openen(bestand, 1024, false, Files.size(bestand) + 1024, null))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void geenLogboek() throws Exception {
+        Path bestand = map.newFile("ander.bestand").toPath();
+        Files.write(bestand, "geen logboek, wel lang genoeg".getBytes("UTF-8"));
+
+        assertThatThrownBy(() -> Logboek.openen(bestand, 1024, false, null)).isInstanceOf(IOException.class);
+    }
+
+    // veel threads die elk op hun eigen record wachten: alles is bewaard en in één volgorde teruggelezen
+    @Test
+    public void groupCommit_gelijktijdig() throws Exception {
+        Path bestand = map.getRoot().toPath().resolve("test.log");
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try (Logboek logboek = Logboek.openen(bestand, 4096, true, null)) {
+            List<Future<?>> klaar = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                long eerste = t * 1000L;
+                klaar.add(threads.submit(() -> {
+                    for (long i = eerste; i < eerste + 200; i++) {
+                        logboek.wachtTotBewaard(logboek.toevoegen(record(i, 24)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> thread : klaar) {
+                thread.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        List<Long> gelezen = teruglezen(bestand);
+        assertThat(gelezen).hasSize(1600).doesNotHaveDuplicates();
+        // per thread in volgorde
+        for (int t = 0; t < 8; t++) {
+            long eerste = t * 1000L;
+            assertThat(gelezen.stream().filter(w -> w >= eerste && w < eerste + 200)).isSorted();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package be.vives.ti.DAO.metriek;
+
+import be.vives.ti.DAO.connect.ConnectionPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.management.ObjectName;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class DAOMetriekenTest {
+
+    private ConnectionPool pool;
+    private PreparedStatement stmt;
+    private ResultSet rs;
+
+    @Before
+    public void setUp() throws Exception {
+        stmt = mock(PreparedStatement.class);
+        rs = mock(ResultSet.class);
+        when(stmt.executeQuery()).thenReturn(rs);
+        pool = new ConnectionPool(() -> {
+            Connection conn = mock(Connection.class);
+            when(conn.isValid(anyInt())).thenReturn(true);
+            when(conn.getAutoCommit()).thenReturn(true);
+            when(conn.prepareStatement(anyString())).thenReturn(stmt);
+            return conn;
+        }, 0, 5, 60000, 100, 0, 1);
+        DAOMetrieken.leegmaken();
+    }
+
+    @After
+    public void tearDown() {
+        pool.sluiten();
+        DAOMetrieken.setActief(false);
+        DAOMetrieken.leegmaken();
+    }
+
+    private MetriekStatistieken zoek(String naam) {
+        for (MetriekStatistieken s : DAOMetrieken.getStatistieken()) {
+            if (s.getNaam().equals(naam)) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void uitgeschakeld_nietsGemetenEnNietsOmhuld() throws Exception {
+        DAOMetrieken.setActief(false);
+
+        try (Connection conn = pool.leenConnectie("TestDAO.uit")) {
+            assertThat(conn.prepareStatement("select 1")).isSameAs(stmt);
+        }
+
+        assertThat(DAOMetrieken.start("TestDAO.uit")).isNull();
+        assertThat(zoek("TestDAO.uit")).isNull();
+    }
+
+    @Test
+    public void ingeschakeld_meetConnectieUitvoerenEnMapping() throws Exception {
+        DAOMetrieken.setActief(true);
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.leenConnectie("TestDAO.zoek");
+                 PreparedStatement ps = conn.prepareStatement("select 1");
+                 ResultSet r = ps.executeQuery()) {
+                r.next();
+            }
+        }
+
+        MetriekStatistieken s = zoek("TestDAO.zoek");
+        assertThat(s.getAantal()).isEqualTo(3);
+        assertThat(s.getFouten()).isEqualTo(0);
+        assertThat(s.getTotaal().getAantal()).isEqualTo(3);
+        assertThat(s.getConnectie().getAantal()).isEqualTo(3);
+        assertThat(s.getUitvoeren().getAantal()).isEqualTo(3);
+        assertThat(s.getMapping().getAantal()).isEqualTo(3);
+        verify(rs, times(3)).next();
+        verify(rs, times(3)).close();
+    }
+
+    @Test
+    public void sqlException_teltAlsFout() throws Exception {
+        DAOMetrieken.setActief(true);
+        when(stmt.executeUpdate()).thenThrow(new SQLException("kapot"));
+
+        try (Connection conn = pool.leenConnectie("TestDAO.wijzig");
+             PreparedStatement ps = conn.prepareStatement("update x")) {
+            assertThatThrownBy(ps::executeUpdate).isInstanceOf(SQLException.class).hasMessage("kapot");
+        }
+
+        MetriekStatistieken s = zoek("TestDAO.wijzig");
+        assertThat(s.getAantal()).isEqualTo(1);
+        assertThat(s.getFouten()).isEqualTo(1);
+        assertThat(s.getUitvoeren().getAantal()).isEqualTo(1);
+    }
+
+    @Test
+    public void geenConnectie_teltAlsFout() throws Exception {
+        DAOMetrieken.setActief(true);
+        pool.sluiten();
+
+        assertThatThrownBy(() -> pool.leenConnectie("TestDAO.gesloten")).isInstanceOf(Exception.class);
+
+        MetriekStatistieken s = zoek("TestDAO.gesloten");
+        assertThat(s.getAantal()).isEqualTo(1);
+        assertThat(s.getFouten()).isEqualTo(1);
+    }
+
+    @Test
+    public void jmx() throws Exception {
+        DAOMetrieken.configureren(true, 0);
+        try (Connection conn = pool.leenConnectie("TestDAO.jmx")) {
+            conn.prepareStatement("select 1").executeQuery().close();
+        }
+
+        ObjectName naam = new ObjectName("be.vives.ti:type=DAOMetrieken");
+        assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(naam, "Actief")).isEqualTo(true);
+        assertThat((String) ManagementFactory.getPlatformMBeanServer().getAttribute(naam, "Overzicht"))
+                .contains("TestDAO.jmx");
+    }
+}
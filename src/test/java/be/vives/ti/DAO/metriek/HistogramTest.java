@@ -0,0 +1,84 @@
+package be.vives.ti.DAO.metriek;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HistogramTest {
+
+    @Test
+    public void leeg() {
+        Histogram histogram = new Histogram();
+
+        assertThat(histogram.getAantal()).isEqualTo(0);
+        assertThat(histogram.percentiel(99)).isEqualTo(0);
+        assertThat(histogram.getMaximum()).isEqualTo(0);
+    }
+
+    @Test
+    public void kleineWaardenExact() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.registreer(i);
+        }
+
+        assertThat(histogram.percentiel(50)).isEqualTo(5);
+        assertThat(histogram.percentiel(100)).isEqualTo(10);
+        assertThat(histogram.getMaximum()).isEqualTo(10);
+    }
+
+    @Test
+    public void vakjesSluitenAanEnBevattenHunWaarde() {
+        for (int vakje = 0; vakje < 959; vakje++) {
+            assertThat(Histogram.bovengrens(vakje) + 1).isEqualTo(ondergrens(vakje + 1));
+        }
+        assertThat(Histogram.bovengrens(959)).isEqualTo(Long.MAX_VALUE);
+        assertThat(Histogram.vakje(Long.MAX_VALUE)).isEqualTo(959);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long waarde = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            int vakje = Histogram.vakje(waarde);
+            assertThat(waarde).isBetween(ondergrens(vakje), Histogram.bovengrens(vakje));
+        }
+    }
+
+    @Test
+    public void percentielBinnenZesProcent() {
+        Histogram histogram = new Histogram();
+        Random random = new Random(42);
+        long[] waarden = new long[100_000];
+        for (int i = 0; i < waarden.length; i++) {
+            // log-normaal verdeeld rond 200 µs, zoals de duur van een query
+            waarden[i] = (long) (200_000 * Math.exp(random.nextGaussian()));
+            histogram.registreer(waarden[i]);
+        }
+        Arrays.sort(waarden);
+
+        for (double p : new double[]{50, 99, 99.9}) {
+            long exact = waarden[(int) Math.ceil(p / 100 * waarden.length) - 1];
+            assertThat(histogram.percentiel(p)).isBetween(exact, (long) (exact * 1.0625) + 1);
+        }
+        assertThat(histogram.getMaximum()).isEqualTo(waarden[waarden.length - 1]);
+        assertThat(histogram.percentiel(100)).isEqualTo(waarden[waarden.length - 1]);
+    }
+
+    @Test
+    public void leegmaken() {
+        Histogram histogram = new Histogram();
+        histogram.registreer(1000);
+
+        histogram.leegmaken();
+
+        assertThat(histogram.getAantal()).isEqualTo(0);
+        assertThat(histogram.getMaximum()).isEqualTo(0);
+        assertThat(histogram.percentiel(50)).isEqualTo(0);
+    }
+
+    private static long ondergrens(int vakje) {
+        return vakje == 0 ? 0 : Histogram.bovengrens(vakje - 1) + 1;
+    }
+}
@@ -0,0 +1,158 @@
+package be.vives.ti.DAO.metriek;
+
+import be.vives.ti.DAO.connect.ConnectionPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class TraagQueryLogTest {
+
+    @Rule
+    public TemporaryFolder map = new TemporaryFolder();
+
+    private ConnectionPool pool;
+    private PreparedStatement stmt;
+    private ResultSet rs;
+    private File logbestand;
+
+    @Before
+    public void setUp() throws Exception {
+        stmt = mock(PreparedStatement.class);
+        rs = mock(ResultSet.class);
+        when(stmt.executeQuery()).thenReturn(rs);
+        pool = new ConnectionPool(() -> {
+            Connection conn = mock(Connection.class);
+            when(conn.isValid(anyInt())).thenReturn(true);
+            when(conn.getAutoCommit()).thenReturn(true);
+            when(conn.prepareStatement(anyString())).thenReturn(stmt);
+            return conn;
+        }, 0, 5, 60000, 100, 0, 1);
+        logbestand = new File(map.getRoot(), "traag-0.log");
+        DAOMetrieken.setActief(false);
+    }
+
+    @After
+    public void tearDown() {
+        pool.sluiten();
+        TraagQueryLog.stoppen();
+    }
+
+    private void configureren(int drempelMillis) {
+        TraagQueryLog.configureren(drempelMillis, new File(map.getRoot(), "traag-%g.log").getPath(), 100000, 2);
+    }
+
+    private List<String> leesLog() throws Exception {
+        TraagQueryLog.stoppen();
+        return Files.readAllLines(logbestand.toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void uitgeschakeld_nietsOmhuld() throws Exception {
+        configureren(0);
+
+        assertThat(TraagQueryLog.isActief()).isFalse();
+        try (Connection conn = pool.leenConnectie("TestDAO.uit")) {
+            assertThat(conn.prepareStatement("select 1")).isSameAs(stmt);
+        }
+    }
+
+    @Test
+    public void trageQuery_wordtGelogdMetRijenEnGemaskeerdeParameters() throws Exception {
+        configureren(1);
+        when(rs.next()).thenAnswer(i -> {
+            Thread.sleep(3);
+            return true;
+        }).thenReturn(true).thenReturn(false);
+
+        try (Connection conn = pool.leenConnectie("KlantDAO.zoekKlanten");
+             PreparedStatement ps = conn.prepareStatement("select *\n  from klant where naam like ? and status = ?")) {
+            ps.setString(1, "Janssens");
+            ps.setString(2, "INGESCHREVEN");
+            try (ResultSet r = ps.executeQuery()) {
+                while (r.next()) {
+                    r.getString("naam");
+                }
+            }
+        }
+
+        List<String> regels = leesLog();
+        assertThat(regels).hasSize(1);
+        assertThat(regels.get(0))
+                .contains("rijen=2")
+                .contains("methode=KlantDAO.zoekKlanten")
+                // deze test zit zelf in het DAO-pakket: de aanroeper is de eerste methode erbuiten
+                .containsPattern("aanroeper=\\S+\\.\\S+")
+                .contains("sql=select * from klant where naam like ? and status = ?")
+                .contains("parameters=[***(8), INGESCHREVEN]")
+                .doesNotContain("Janssens");
+    }
+
+    @Test
+    public void trageUpdate_wordtGelogdMetAantalGewijzigdeRijen() throws Exception {
+        configureren(1);
+        when(stmt.executeUpdate()).thenAnswer(i -> {
+            Thread.sleep(3);
+            return 1;
+        });
+
+        try (Connection conn = pool.leenConnectie("RekeningDAO.wijzigSaldo");
+             PreparedStatement ps = conn.prepareStatement("update rekening set saldo = saldo + ? where rekeningnummer = ?")) {
+            ps.setBigDecimal(1, new BigDecimal("12.50"));
+            ps.setString(2, "BE68 5390 0754 7034");
+            ps.executeUpdate();
+        }
+
+        List<String> regels = leesLog();
+        assertThat(regels).hasSize(1);
+        assertThat(regels.get(0))
+                .contains("rijen=1")
+                .contains("parameters=[12.50, BE** **** **** 7034]");
+    }
+
+    @Test
+    public void snelleQuery_wordtNietGelogd() throws Exception {
+        configureren(60000);
+        long gemeld = TraagQueryLog.getAantalGemeld();
+
+        try (Connection conn = pool.leenConnectie("KlantDAO.zoekKlant");
+             PreparedStatement ps = conn.prepareStatement("select 1");
+             ResultSet r = ps.executeQuery()) {
+            r.next();
+        }
+
+        assertThat(TraagQueryLog.getAantalGemeld()).isEqualTo(gemeld);
+        assertThat(leesLog()).isEmpty();
+    }
+
+    @Test
+    public void maskeer() {
+        assertThat(TraagQueryLog.maskeer(null)).isEqualTo("NULL");
+        assertThat(TraagQueryLog.maskeer(42)).isEqualTo("42");
+        assertThat(TraagQueryLog.maskeer("OPEN")).isEqualTo("OPEN");
+        assertThat(TraagQueryLog.maskeer("Kortrijk")).isEqualTo("***(8)");
+        assertThat(TraagQueryLog.maskeer("BE68 5390 0754 7034")).isEqualTo("BE** **** **** 7034");
+    }
+
+    @Test
+    public void maakRegel_batch() {
+        String regel = TraagQueryLog.maakRegel(new Date(), "KlantDAO.toevoegenKlanten", "KlantService.x",
+                "insert into klant values (?)", new Object[]{"Peeters"}, 500, 12_345_678, 500);
+
+        assertThat(regel).contains("batch=500").contains("rijen=500").contains("parameters=[***(7)]");
+    }
+}
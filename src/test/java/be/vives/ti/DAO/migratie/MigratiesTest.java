@@ -0,0 +1,112 @@
+package be.vives.ti.DAO.migratie;
+
+import be.vives.ti.exception.DBException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MigratiesTest {
+
+    private static final AtomicInteger TELLER = new AtomicInteger();
+
+    private Connection conn;
+    private final Migraties migraties = new Migraties();
+
+    @Before
+    public void setUp() throws Exception {
+        // elke test een eigen, lege databank
+        conn = DriverManager.getConnection("jdbc:h2:mem:migratie" + TELLER.incrementAndGet()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        conn.close();
+    }
+
+    private String beschrijving(int versie) throws Exception {
+        try (Statement stmt = conn.createStatement();
+             ResultSet r = stmt.executeQuery("select beschrijving from schema_versie where versie = " + versie)) {
+            return r.next() ? r.getString(1) : null;
+        }
+    }
+
+    //positieve test
+    @Test
+    public void legeDatabank_alleMigratiesToegepast() throws Exception {
+        assertThat(migraties.toepassen(conn)).isEqualTo(3);
+
+        assertThat(migraties.getVersie(conn)).isEqualTo(3);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("insert into klant(naam, voornaam, adres, postcode, gemeente, status)"
+                    + " values('Janssens', 'Jan', 'Markt 1', '8500', 'Kortrijk', 'INGESCHREVEN')");
+        }
+    }
+
+    //positieve test
+    @Test
+    public void tweedeKeer_nietsToegepast() throws Exception {
+        migraties.toepassen(conn);
+
+        assertThat(migraties.toepassen(conn)).isZero();
+        assertThat(migraties.getVersie(conn)).isEqualTo(3);
+    }
+
+    //positieve test
+    @Test
+    public void schemaUitCreateSql_V1IsBasislijn() throws Exception {
+        // zoals een databank die vroeger met database/create.sql aangemaakt werd
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("create table klant(id int auto_increment primary key, naam varchar(50) not null,"
+                    + " voornaam varchar(50) not null, adres varchar(100) not null, postcode varchar(10) not null,"
+                    + " gemeente varchar(50) not null, status varchar(15) not null)");
+            stmt.execute("create table rekening(rekeningnummer varchar(20) primary key, eigenaar int not null,"
+                    + " status varchar(15) not null, saldo decimal(10, 2) not null)");
+        }
+
+        assertThat(migraties.toepassen(conn)).isEqualTo(2);
+
+        assertThat(beschrijving(1)).endsWith("(basislijn)");
+        assertThat(beschrijving(2)).startsWith("covering indexes");
+        assertThat(beschrijving(3)).startsWith("journaal");
+    }
+
+    @Test
+    public void gewijzigdScript_DBException() throws Exception {
+        migraties.toepassen(conn);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("update schema_versie set controlegetal = controlegetal + 1 where versie = 2");
+        }
+
+        assertThatThrownBy(() -> {
+            migraties.toepassen(conn);
+        }).isInstanceOf(DBException.class).hasMessageContaining("V2");
+    }
+
+    @Test
+    public void geslotenConnectie_DBException() throws Exception {
+        // een fout van de databank is niet hetzelfde als een ontbrekende tabel
+        conn.close();
+
+        assertThatThrownBy(() -> {
+            migraties.toepassen(conn);
+        }).isInstanceOf(DBException.class).hasMessageContaining("bestaatTabel");
+    }
+
+    @Test
+    public void statements_zonderCommentaar() {
+        assertThat(Migraties.statements("-- beschrijving\ncreate table a (x int);\n\n  -- uitleg\ncreate index i on a (x);\n"))
+                .containsExactly("create table a (x int)", "create index i on a (x)");
+        assertThat(Migraties.beschrijving("-- covering indexes\r\ncreate index i on a (x);")).isEqualTo("covering indexes");
+        assertThat(Migraties.controlegetal("a;\r\nb;")).isEqualTo(Migraties.controlegetal("a;\nb;"));
+    }
+}
@@ -0,0 +1,80 @@
+package be.vives.ti.DAO.shard;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RingbufferTest {
+
+    @Test
+    public void capaciteit_macht_van_2() {
+        assertThatThrownBy(() -> new Ringbuffer<String>(6)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Ringbuffer<String>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void vol_en_afnemen() {
+        Ringbuffer<Integer> buffer = new Ringbuffer<>(4);
+        assertThat(buffer.isLeeg()).isTrue();
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.toevoegen(i)).isTrue();
+        }
+        assertThat(buffer.toevoegen(4)).isFalse();
+
+        List<Integer> genomen = new ArrayList<>();
+        assertThat(buffer.afnemen(genomen, 3)).isEqualTo(3);
+        assertThat(genomen).containsExactly(0, 1, 2);
+        assertThat(buffer.toevoegen(4)).isTrue();
+        assertThat(buffer.toevoegen(5)).isTrue();
+        assertThat(buffer.toevoegen(6)).isTrue();
+        assertThat(buffer.toevoegen(7)).isFalse();
+        assertThat(buffer.afnemen(genomen, 10)).isEqualTo(4);
+        assertThat(genomen).containsExactly(0, 1, 2, 3, 4, 5, 6);
+        assertThat(buffer.isLeeg()).isTrue();
+    }
+
+    @Test
+    public void veelProducenten_volgordePerProducent() throws Exception {
+        int producenten = 4;
+        int aantal = 100_000;
+        Ringbuffer<long[]> buffer = new Ringbuffer<>(64);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producenten; p++) {
+            long producent = p;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < aantal; i++) {
+                    long[] item = {producent, i};
+                    while (!buffer.toevoegen(item)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long[] volgende = new long[producenten];
+        List<long[]> genomen = new ArrayList<>();
+        int totaal = 0;
+        while (totaal < producenten * aantal) {
+            genomen.clear();
+            if (buffer.afnemen(genomen, 16) == 0) {
+                Thread.yield();
+            }
+            for (long[] item : genomen) {
+                assertThat(item[1]).isEqualTo(volgende[(int) item[0]]);
+                volgende[(int) item[0]]++;
+                totaal++;
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(buffer.isLeeg()).isTrue();
+        assertThat(volgende).containsOnly(aantal);
+    }
+}
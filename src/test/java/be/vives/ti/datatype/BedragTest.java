@@ -0,0 +1,85 @@
+package be.vives.ti.datatype;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BedragTest {
+
+    @Test
+    public void van_rondtAfZoalsSetScaleHalfUp() {
+        assertThat(Bedrag.van(new BigDecimal("10.005")).getCenten()).isEqualTo(1001);
+        assertThat(Bedrag.van(new BigDecimal("10.004")).getCenten()).isEqualTo(1000);
+        assertThat(Bedrag.van(new BigDecimal("-10.005")).getCenten()).isEqualTo(-1001);
+        assertThat(Bedrag.van(new BigDecimal("12")).getCenten()).isEqualTo(1200);
+    }
+
+    @Test
+    public void van_null() {
+        assertThat(Bedrag.van(null)).isNull();
+    }
+
+    @Test
+    public void van_willekeurigeBedragen_zelfdeAlsBigDecimal() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 10000; i++) {
+            BigDecimal bedrag = BigDecimal.valueOf(random.nextLong(-100_000_000_000L, 100_000_000_000L), 4);
+
+            assertThat(Bedrag.van(bedrag).toBigDecimal())
+                    .isEqualTo(bedrag.setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+
+    @Test
+    public void van_teGroot() {
+        assertThatThrownBy(() -> {
+            Bedrag.van(new BigDecimal("1E17"));
+        }).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    public void plusEnMin() {
+        Bedrag tien = Bedrag.vanCenten(1000);
+        Bedrag drie = Bedrag.vanCenten(325);
+
+        assertThat(tien.plus(drie)).isEqualTo(Bedrag.vanCenten(1325));
+        assertThat(drie.min(tien)).isEqualTo(Bedrag.vanCenten(-675));
+        assertThat(tien.min(tien).isNul()).isTrue();
+        assertThat(drie.negatief().isNegatief()).isTrue();
+    }
+
+    @Test
+    public void plus_overloop() {
+        assertThatThrownBy(() -> {
+            Bedrag.vanCenten(Long.MAX_VALUE).plus(Bedrag.vanCenten(1));
+        }).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    public void negatief_overloop() {
+        assertThatThrownBy(() -> {
+            Bedrag.vanCenten(Long.MIN_VALUE).negatief();
+        }).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    public void vergelijken() {
+        assertThat(Bedrag.vanCenten(-1)).isLessThan(Bedrag.NUL);
+        assertThat(Bedrag.vanCenten(500)).isEqualByComparingTo(Bedrag.van(new BigDecimal("5")));
+        assertThat(Bedrag.vanCenten(500).hashCode()).isEqualTo(Bedrag.van(new BigDecimal("5.00")).hashCode());
+    }
+
+    @Test
+    public void toString_zoalsBigDecimalMetTweeDecimalen() {
+        assertThat(Bedrag.vanCenten(1250).toString()).isEqualTo("12.50");
+        assertThat(Bedrag.vanCenten(-5).toString()).isEqualTo("-0.05");
+        assertThat(Bedrag.NUL.toString()).isEqualTo("0.00");
+        assertThat(Bedrag.vanCenten(Long.MIN_VALUE).toString())
+                .isEqualTo(BigDecimal.valueOf(Long.MIN_VALUE, 2).toPlainString());
+    }
+}
@@ -2,9 +2,14 @@ package be.vives.ti.datatype;
 
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.extra.RekeningnummerReferentie;
+import be.vives.ti.extra.Rekeningnummers;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -73,4 +78,157 @@ public class RekeningnummerTest {
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void verpakt_standaardvorm() throws Exception {
+        Rekeningnummer nr = new Rekeningnummer(rekeningNummer);
+
+        assertThat(nr.getVerpakt()).isEqualTo(62001668367361L);
+        assertThat(nr.getRekeningnummer()).isSameAs(rekeningNummer);
+    }
+
+    @Test
+    public void verpakt_geenStandaardvorm() throws Exception {
+        Rekeningnummer nr = new Rekeningnummer("be62 0016 6836 7361");
+
+        assertThat(nr.getVerpakt()).isEqualTo(Rekeningnummer.NIET_VERPAKT);
+        assertThat(nr.getRekeningnummer()).isEqualTo("be62 0016 6836 7361");
+    }
+
+    @Test
+    public void verpakEnVanVerpakt() throws Exception {
+        assertThat(Rekeningnummer.verpak(rekeningNummer)).isEqualTo(62001668367361L);
+        assertThat(Rekeningnummer.verpak("be62 0016 6836 7361")).isEqualTo(62001668367361L);
+        assertThat(Rekeningnummer.verpak("BE62 +016 6836 7361")).isEqualTo(Rekeningnummer.NIET_VERPAKT);
+        assertThat(Rekeningnummer.verpak("BE00 0000 0000 0000")).isEqualTo(Rekeningnummer.NIET_VERPAKT);
+        assertThat(Rekeningnummer.verpak(null)).isEqualTo(Rekeningnummer.NIET_VERPAKT);
+
+        Rekeningnummer nr = Rekeningnummer.vanVerpakt(62001668367361L);
+        assertThat(nr.getRekeningnummer()).isEqualTo(rekeningNummer);
+        assertThat(nr).isEqualTo(new Rekeningnummer(rekeningNummer));
+        String klein = Rekeningnummers.maak(1);
+        assertThat(Rekeningnummer.vanVerpakt(Rekeningnummer.verpak(klein)).getRekeningnummer()).isEqualTo(klein);
+    }
+
+    @Test
+    public void equalsEnHashCode() throws Exception {
+        Rekeningnummer nr1 = new Rekeningnummer(rekeningNummer);
+        Rekeningnummer nr2 = new Rekeningnummer(new String(rekeningNummer));
+        Rekeningnummer ander = new Rekeningnummer(Rekeningnummers.maak(1));
+        Rekeningnummer klein1 = new Rekeningnummer("be62 0016 6836 7361");
+        Rekeningnummer klein2 = new Rekeningnummer("be62 0016 6836 7361");
+
+        assertThat(nr1).isEqualTo(nr2);
+        assertThat(nr1.hashCode()).isEqualTo(nr2.hashCode());
+        assertThat(nr1).isNotEqualTo(ander);
+        assertThat(klein1).isEqualTo(klein2);
+        assertThat(klein1.hashCode()).isEqualTo(klein2.hashCode());
+    }
+
+    @Test
+    public void isGeldig() {
+        assertThat(Rekeningnummer.isGeldig(rekeningNummer)).isTrue();
+        assertThat(Rekeningnummer.isGeldig(null)).isFalse();
+        assertThat(Rekeningnummer.isGeldig("BE00 0000 0000 0000")).isFalse();
+    }
+
+    // randgevallen die de vroegere controle met Long.parseLong aanvaardde of weigerde
+    @Test
+    public void zelfdeResultaatAlsOudeControle_randgevallen() {
+        String[] gevallen = {
+                "BE62 +016 6836 7361", "BE62 -016 6836 7361", "BE+6 0016 6836 7361", "BE62 0016 6836 +",
+                "BE62 0016 6836 736", "BE62 0016 6836 73610", "BE62 0016 6836 7361 ", "BE62 0016 6836 ",
+                "bE62 0016 6836 7361", "Be62 0016 6836 7361", "BE62 0016 6836 \u0667361", "BE62 \uFF10016 6836 7361",
+                "BE62 0016 6836 9223372036854775807", "BE62 0016 6836 9223372036854775808",
+                "BE62 0016 6836 -9223372036854775808", "BE62 0016 6836 -9223372036854775809",
+                " BE62 0016 6836 7361", "BE62  016 6836 7361", "BE620016 6836 7361", "\u00df62 0016 6836 7361"
+        };
+        for (String geval : gevallen) {
+            controleerZelfdeResultaat(geval);
+        }
+    }
+
+    /**
+     * Eigenschap: voor elke invoer geeft de nieuwe controle hetzelfde
+     * resultaat (geldig of dezelfde foutboodschap) als de oorspronkelijke.
+     * De invoer bestaat uit geldige nummers, kleine wijzigingen daarvan en
+     * willekeurige tekenreeksen, met een vaste seed zodat een fout
+     * reproduceerbaar is.
+     */
+    @Test
+    public void zelfdeResultaatAlsOudeControle_willekeurig() {
+        Random random = new Random(20260101L);
+        for (int i = 0; i < 200_000; i++) {
+            String geval;
+            switch (i % 3) {
+                case 0:
+                    geval = Rekeningnummers.maak((random.nextLong() >>> 1) % 1_000_000_000_000L);
+                    break;
+                case 1:
+                    geval = wijzig(Rekeningnummers.maak((random.nextLong() >>> 1) % 1_000_000_000_000L), random);
+                    break;
+                default:
+                    geval = willekeurig(random);
+            }
+            controleerZelfdeResultaat(geval);
+        }
+    }
+
+    private static final char[] TEKENS = {
+            '0', '1', '2', '5', '7', '9', ' ', ' ', '+', '-', 'B', 'E', 'b', 'e', 'X',
+            '\u0663', '\uFF15', '\u00df', '\u0131', '.'
+    };
+
+    private static String wijzig(String geldig, Random random) {
+        StringBuilder sb = new StringBuilder(geldig);
+        int aantal = 1 + random.nextInt(3);
+        for (int i = 0; i < aantal; i++) {
+            int positie = random.nextInt(sb.length());
+            switch (random.nextInt(5)) {
+                case 0:
+                    sb.setCharAt(positie, TEKENS[random.nextInt(TEKENS.length)]);
+                    break;
+                case 1:
+                    sb.insert(positie, TEKENS[random.nextInt(TEKENS.length)]);
+                    break;
+                case 2:
+                    if (sb.length() > 1) {
+                        sb.deleteCharAt(positie);
+                    }
+                    break;
+                case 3:
+                    sb.setCharAt(positie, Character.toLowerCase(sb.charAt(positie)));
+                    break;
+                default:
+                    sb.append((char) ('0' + random.nextInt(10)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String willekeurig(Random random) {
+        int lengte = random.nextInt(25);
+        StringBuilder sb = new StringBuilder(lengte);
+        for (int i = 0; i < lengte; i++) {
+            sb.append(TEKENS[random.nextInt(TEKENS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static void controleerZelfdeResultaat(String geval) {
+        String verwacht = RekeningnummerReferentie.controleer(geval);
+        String gekregen;
+        try {
+            Rekeningnummer nr = new Rekeningnummer(geval);
+            gekregen = null;
+            if (nr.getVerpakt() != Rekeningnummer.NIET_VERPAKT) {
+                assertThat(nr.getVerpakt()).as(geval)
+                        .isEqualTo(Long.parseLong(geval.substring(2).replace(" ", "")));
+            }
+        } catch (ApplicationException e) {
+            gekregen = e.getMessage();
+        }
+        assertThat(gekregen).as("rekeningnummer '%s'", geval).isEqualTo(verwacht);
+        assertThat(Rekeningnummer.isGeldig(geval)).as(geval).isEqualTo(verwacht == null);
+    }
+}
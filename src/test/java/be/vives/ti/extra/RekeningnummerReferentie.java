@@ -0,0 +1,57 @@
+package be.vives.ti.extra;
+
+import be.vives.ti.exception.ApplicationExceptionType;
+
+/**
+ * De oorspronkelijke controle van Rekeningnummer (indexOf, substring,
+ * toUpperCase en Long.parseLong), ongewijzigd overgenomen als referentie om
+ * de nieuwe controle mee te vergelijken in tests en benchmarks.
+ */
+public class RekeningnummerReferentie {
+
+    /**
+     * @param rekeningnr rekeningnummer in stringvorm
+     * @return null wanneer het rekeningnummer geldig is, anders de boodschap
+     * van de ApplicationException die de oorspronkelijke constructor gooide
+     */
+    public static String controleer(String rekeningnr) {
+        if (rekeningnr == null || rekeningnr.isEmpty()) {
+            return ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage();
+        }
+
+        int spatie1 = rekeningnr.indexOf(" ");
+        int spatie2 = rekeningnr.indexOf(" ", spatie1 + 1);
+        int spatie3 = rekeningnr.indexOf(" ", spatie2 + 1);
+
+        if ((spatie1 == 4) && (spatie2 == 9) && (spatie3 == 14)) {
+            try {
+                long deel2 = Long.parseLong(rekeningnr.substring(spatie1 + 1,
+                        spatie2));
+                long deel3 = Long.parseLong(rekeningnr.substring(spatie2 + 1,
+                        spatie3));
+                long deel4 = Long.parseLong(rekeningnr.substring(spatie3 + 1));
+
+                char B = rekeningnr.toUpperCase().charAt(0);
+                char E = rekeningnr.toUpperCase().charAt(1);
+
+                if (B == 'B' && E == 'E') {
+                    long deel1 = 111400L + Long.parseLong(rekeningnr.substring(2, 4));
+
+                    long geheel = deel2 * 100000000000000L + deel3 * 10000000000L + deel4 * 1000000L + deel1;
+
+                    if (geheel % 97 == 1) {
+                        return null;
+                    } else {
+                        return ApplicationExceptionType.REK_REKNUMMER_ONGELDIG.getMessage();
+                    }
+                } else {
+                    return ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage();
+                }
+            } catch (NumberFormatException p) {
+                return ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage();
+            }
+        } else {
+            return ApplicationExceptionType.REK_REKNUMMER_ONGELDIG_FORMAAT.getMessage();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package be.vives.ti.extra;
+
+/**
+ * Maakt geldige Belgische rekeningnummers (BEaa bbbb cccc dddd) om
+ * testdata te genereren.
+ */
+public class Rekeningnummers {
+
+    /**
+     * Maakt een geldig rekeningnummer met het opgegeven volgnummer als
+     * bbbbccccdddd. De controlecijfers aa worden zo berekend dat
+     * bbbbccccdddd1114aa mod 97 = 1.
+     *
+     * @param volgnummer getal tussen 0 en 999999999999
+     * @return geldig rekeningnummer in het formaat BEaa bbbb cccc dddd
+     */
+    public static String maak(long volgnummer) {
+        if (volgnummer < 0 || volgnummer > 999999999999L) {
+            throw new IllegalArgumentException("Volgnummer moet uit maximaal 12 cijfers bestaan: " + volgnummer);
+        }
+        long controle = 98 - (volgnummer % 97 * 1000000L + 111400L) % 97;
+        String bban = String.format("%012d", volgnummer);
+        return String.format("BE%02d %s %s %s", controle,
+                bban.substring(0, 4), bban.substring(4, 8), bban.substring(8));
+    }
+}
@@ -36,7 +36,7 @@ public class Removals {
     }
 
     /**
-     * Verwijdert de rekening uit de DAO zonder enige controle
+     * Verwijdert de rekening en haar journaal uit de DAO zonder enige controle
      *
      * @param rekeningnummer rekeningnummer van de rekening die verwijderd moet worden
      * @throws DBException Exception die duidt op een verkeerde
@@ -48,10 +48,14 @@ public class Removals {
         try (Connection conn = ConnectionManager.getConnection()) {
             // preparedStatement opstellen (en automtisch sluiten)
             try (PreparedStatement stmt = conn.prepareStatement(
-                    "delete from rekening where rekeningnummer = ?")) {
+                    "delete from rekening where rekeningnummer = ?");
+                 PreparedStatement journaal = conn.prepareStatement(
+                         "delete from journaal where rekeningnummer = ?")) {
                 stmt.setString(1, rekeningnummer);
                 // execute voert elke sql-statement uit, executeQuery enkel de select
                 stmt.execute();
+                journaal.setString(1, rekeningnummer);
+                journaal.execute();
             } catch (SQLException sqlEx) {
                 throw new DBException("SQL-exception in removeRekening - statement" + sqlEx);
             }
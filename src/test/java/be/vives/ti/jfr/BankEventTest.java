@@ -0,0 +1,135 @@
+package be.vives.ti.jfr;
+
+import be.vives.ti.DAO.KlantDAO;
+import be.vives.ti.DAO.RekeningDAO;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.SaldoWijziging;
+import be.vives.ti.datatype.Uitschrijving;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.service.KlantService;
+import be.vives.ti.service.RekeningService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class BankEventTest {
+
+    private static final String REKENINGNUMMER = "BE62 0016 6836 7361";
+
+    @Rule
+    public TemporaryFolder map = new TemporaryFolder();
+
+    private RekeningDAO rekeningDAO;
+    private KlantDAO klantDAO;
+    private RekeningService rekeningService;
+    private KlantService klantService;
+    private Recording opname;
+
+    @Before
+    public void setUp() {
+        rekeningDAO = mock(RekeningDAO.class);
+        klantDAO = mock(KlantDAO.class);
+        rekeningService = new RekeningService(rekeningDAO);
+        klantService = new KlantService(klantDAO);
+
+        opname = new Recording();
+        opname.enable(RekeningEvent.class);
+        opname.enable(KlantEvent.class);
+        opname.start();
+    }
+
+    @After
+    public void tearDown() {
+        opname.close();
+    }
+
+    private List<RecordedEvent> stopOpname(String naam) throws Exception {
+        opname.stop();
+        Path bestand = map.newFile("opname.jfr").toPath();
+        opname.dump(bestand);
+        List<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(bestand)) {
+            if (event.getEventType().getName().equals(naam)) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    //positieve test
+    @Test
+    public void storten_geluktEvent() throws Exception {
+        when(rekeningDAO.verrekenenSaldoRekening(REKENINGNUMMER, Bedrag.vanCenten(1250)))
+                .thenReturn(SaldoWijziging.GELUKT);
+
+        rekeningService.stortenRekening(REKENINGNUMMER, new BigDecimal("12.50"));
+
+        List<RecordedEvent> events = stopOpname("be.vives.ti.Rekeningbewerking");
+        assertThat(events).hasSize(1);
+        RecordedEvent event = events.get(0);
+        assertThat(event.getString("bewerking")).isEqualTo(RekeningEvent.STORTEN);
+        assertThat(event.getString("rekeningnummer")).isEqualTo(REKENINGNUMMER);
+        assertThat(event.getDouble("bedrag")).isEqualTo(12.5);
+        assertThat(event.getBoolean("geslaagd")).isTrue();
+        assertThat(event.getString("uitkomst")).isEqualTo(BankEvent.GELUKT);
+        assertThat(event.getDuration().isNegative()).isFalse();
+    }
+
+    @Test
+    public void opnemen_saldoOntoereikend_mislukt() throws Exception {
+        when(rekeningDAO.verrekenenSaldoRekening(REKENINGNUMMER, Bedrag.vanCenten(-5000)))
+                .thenReturn(SaldoWijziging.SALDO_ONTOEREIKEND);
+
+        assertThatThrownBy(() -> {
+            rekeningService.opnemenRekening(REKENINGNUMMER, new BigDecimal("50"));
+        }).isInstanceOf(ApplicationException.class);
+
+        List<RecordedEvent> events = stopOpname("be.vives.ti.Rekeningbewerking");
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getString("bewerking")).isEqualTo(RekeningEvent.OPNEMEN);
+        assertThat(events.get(0).getBoolean("geslaagd")).isFalse();
+        assertThat(events.get(0).getString("uitkomst")).isNotEqualTo(BankEvent.GELUKT);
+    }
+
+    @Test
+    public void verwijderKlant_bestaatNiet_mislukt() throws Exception {
+        when(klantDAO.verwijderKlant(7)).thenReturn(Uitschrijving.KLANT_BESTAAT_NIET);
+
+        assertThatThrownBy(() -> {
+            klantService.verwijderKlant(7);
+        }).isInstanceOf(ApplicationException.class);
+
+        List<RecordedEvent> events = stopOpname("be.vives.ti.Klantbewerking");
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getString("bewerking")).isEqualTo(KlantEvent.VERWIJDEREN);
+        assertThat(events.get(0).getInt("klantId")).isEqualTo(7);
+        assertThat(events.get(0).getString("uitkomst"))
+                .isEqualTo(ApplicationExceptionType.KLANT_BESTAAT_NIET.getMessage());
+    }
+
+    @Test
+    public void nietIngeschakeld_geenEvent() throws Exception {
+        opname.disable(RekeningEvent.class);
+        when(rekeningDAO.verrekenenSaldoRekening(REKENINGNUMMER, Bedrag.vanCenten(100)))
+                .thenReturn(SaldoWijziging.GELUKT);
+
+        rekeningService.stortenRekening(REKENINGNUMMER, BigDecimal.ONE);
+
+        assertThat(stopOpname("be.vives.ti.Rekeningbewerking")).isEmpty();
+    }
+}
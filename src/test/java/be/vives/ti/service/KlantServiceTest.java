@@ -2,12 +2,19 @@ package be.vives.ti.service;
 
 import be.vives.ti.DAO.KlantDAO;
 import be.vives.ti.databag.Klant;
+import be.vives.ti.databag.KlantOverzicht;
+import be.vives.ti.databag.Pagina;
+import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Bedrag;
 import be.vives.ti.datatype.KlantStatus;
+import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.datatype.Uitschrijving;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -16,15 +23,13 @@ public class KlantServiceTest {
 
     private KlantService klantService;
     private KlantDAO klantDAO;
-    private RekeningService rekeningService;
 
 
     public KlantServiceTest() {
-        // simulatieobject maken voor KlantDAO en RekeningService.
+        // simulatieobject maken voor KlantDAO.
         this.klantDAO = mock(KlantDAO.class);
-        this.rekeningService = mock(RekeningService.class);
 
-        this.klantService = new KlantService(klantDAO, rekeningService);
+        this.klantService = new KlantService(klantDAO);
     }
 
     private Klant maakKlant(String voornaam, String familienaam, String adres, String postcode, String gemeente, KlantStatus klantStatus) {
@@ -219,67 +224,99 @@ public class KlantServiceTest {
         assertThat(returnedKlantId).isEqualTo(klantId);
     }
 
+    @Test
+    public void toevoegenKlanten_null() throws Exception {
+        assertThatThrownBy(() -> {
+            klantService.toevoegenKlanten(null);
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.KLANTEN_LEEG.getMessage());
+
+        verify(klantDAO, never()).toevoegenKlanten(any());
+    }
+
+    @Test
+    public void toevoegenKlanten_ongeldigeKlant_nietsToegevoegd() throws Exception {
+        Klant geldig = maakKlant("Jan", "Janssens", "Dorpsplein 120", "8500", "Kortrijk", null);
+        Klant zonderGemeente = maakKlant("Piet", "Peeters", "Markt 1", "8500", null, null);
+
+        assertThatThrownBy(() -> {
+            klantService.toevoegenKlanten(Arrays.asList(geldig, zonderGemeente));
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.KLANT_GEMEENTE_LEEG.getMessage());
+
+        verify(klantDAO, never()).toevoegenKlanten(any());
+    }
+
+    @Test
+    public void toevoegenKlanten_klantMetId() throws Exception {
+        Klant klant = maakKlant("Jan", "Janssens", "Dorpsplein 120", "8500", "Kortrijk", null);
+        klant.setId(5);
+
+        assertThatThrownBy(() -> {
+            klantService.toevoegenKlanten(Arrays.asList(klant));
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.KLANT_ID_WORDT_GEGENEREERD.getMessage());
+
+        verify(klantDAO, never()).toevoegenKlanten(any());
+    }
+
+    //positieve test
+    @Test
+    public void toevoegenKlanten_succesvol() throws Exception {
+        Klant klant1 = maakKlant("Jan", "Janssens", "Dorpsplein 120", "8500", "Kortrijk", null);
+        Klant klant2 = maakKlant("Piet", "Peeters", "Markt 1", "8500", "Kortrijk", null);
+        ArrayList<Integer> ids = new ArrayList<>(Arrays.asList(8, null));
+        when(klantDAO.toevoegenKlanten(Arrays.asList(klant1, klant2))).thenReturn(ids);
+
+        assertThat(klantService.toevoegenKlanten(Arrays.asList(klant1, klant2))).containsExactly(8, null);
+        // geen afzonderlijke bestaatKlant-query per klant
+        verify(klantDAO, never()).bestaatKlant(any());
+    }
+
     //positieve test
     @Test
     public void verwijderKlant_succesvol() throws Exception {
         int klantId = 123;
 
-        Klant klant = maakKlant("Jan", "Janssens", "Dorpsplein 120", "8500", "Kortrijk", KlantStatus.INGESCHREVEN);
-        klant.setId(klantId);
-
-        when(klantDAO.zoekKlant(klantId)).thenReturn(klant);
-        when(rekeningService.zoekAantalOpenRekeningen(klantId)).thenReturn(0);
+        when(klantDAO.verwijderKlant(klantId)).thenReturn(Uitschrijving.GELUKT);
 
         assertThatCode(() -> {
             klantService.verwijderKlant(klantId);
         }).doesNotThrowAnyException();
 
+        // één statement: geen aparte zoekKlant of telling van de open rekeningen
         verify(klantDAO).verwijderKlant(klantId);
+        verify(klantDAO, never()).zoekKlant(anyInt());
     }
 
     @Test
     public void verwijderKlant_BestaatNiet() throws Exception {
         int klantId = 123;
 
-        when(klantDAO.zoekKlant(klantId)).thenReturn(null);
+        when(klantDAO.verwijderKlant(klantId)).thenReturn(Uitschrijving.KLANT_BESTAAT_NIET);
 
         assertThatThrownBy(() -> {
             klantService.verwijderKlant(klantId);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.KLANT_BESTAAT_NIET.getMessage());
-
-        verify(klantDAO, never()).verwijderKlant(klantId);
-
     }
 
     @Test
     public void verwijderKlant_isUitgeschreven() throws Exception {
-        Klant klant = maakKlant("Jan", "Janssens", "Dorpsplein 120", "8500", "Kortrijk", KlantStatus.UITGESCHREVEN);
         int klantId = 123;
-        klant.setId(klantId);
-        when(klantDAO.zoekKlant(klantId)).thenReturn(klant);
+
+        when(klantDAO.verwijderKlant(klantId)).thenReturn(Uitschrijving.KLANT_UITGESCHREVEN);
 
         assertThatThrownBy(() -> {
             klantService.verwijderKlant(klantId);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.KLANT_UITGESCHREVEN.getMessage());
-
-        verify(klantDAO, never()).verwijderKlant(klantId);
     }
 
     @Test
     public void verwijderKlant_heeftNogOpenstaandeRekeningen() throws Exception {
         int klantId = 123;
-        //wanneer er gezocht wordt naar klant met id 123, return dan een nieuwe klant
-        Klant klant = maakKlant("Jan", "Janssens", "Dorpsplein 120", "8500", "Kortrijk", KlantStatus.INGESCHREVEN);
-        klant.setId(klantId);
 
-        when(klantDAO.zoekKlant(klantId)).thenReturn(klant);
-        when(rekeningService.zoekAantalOpenRekeningen(klantId)).thenReturn(4);
+        when(klantDAO.verwijderKlant(klantId)).thenReturn(Uitschrijving.KLANT_HEEFT_NOG_REKENINGEN);
 
         assertThatThrownBy(() -> {
             klantService.verwijderKlant(klantId);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.KLANT_HEEFT_NOG_REKENINGEN.getMessage());
-
-        verify(klantDAO, never()).verwijderKlant(klantId);
     }
 
     @Test
@@ -604,4 +641,71 @@ public class KlantServiceTest {
         assertThat(klantService.zoekIngeschrevenKlanten()).containsExactly(kl1, kl2, kl3);
     }
 
-}
\ No newline at end of file
+    //positieve test
+    @Test
+    public void zoekKlantenPagina() throws Exception {
+        Pagina<Klant> pagina = new Pagina<>();
+        when(klantDAO.zoekKlantenPagina(KlantStatus.INGESCHREVEN, "sleutel", 20)).thenReturn(pagina);
+
+        assertThat(klantService.zoekKlantenPagina(KlantStatus.INGESCHREVEN, "sleutel", 20)).isSameAs(pagina);
+    }
+
+    @Test
+    public void zoekKlantenPagina_paginagrootteNul() throws Exception {
+        assertThatThrownBy(() -> {
+            klantService.zoekKlantenPagina(null, null, 0);
+        }).isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.PAGINAGROOTTE_ONGELDIG.getMessage());
+        verify(klantDAO, never()).zoekKlantenPagina(any(), any(), anyInt());
+    }
+
+    @Test
+    public void zoekKlantenPagina_paginagrootteTeGroot() throws Exception {
+        assertThatThrownBy(() -> {
+            klantService.zoekKlantenPagina(null, null, Pagina.MAX_PAGINAGROOTTE + 1);
+        }).isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.PAGINAGROOTTE_ONGELDIG.getMessage());
+    }
+
+    //positieve test
+    @Test
+    public void zoekKlantOverzicht() throws Exception {
+        Klant klant = maakKlant("Jan", "Janssen", "Dorpsplein 120", "8500", "Kortrijk", KlantStatus.INGESCHREVEN);
+        klant.setId(123);
+        Rekening rekening1 = new Rekening();
+        rekening1.setRekeningnummer(new Rekeningnummer("BE51 1231 2589 8962"));
+        rekening1.setSaldo(Bedrag.vanCenten(1050));
+        rekening1.setEigenaar(123);
+        Rekening rekening2 = new Rekening();
+        rekening2.setRekeningnummer(new Rekeningnummer("BE24 1238 8888 8838"));
+        rekening2.setSaldo(Bedrag.vanCenten(250));
+        rekening2.setEigenaar(123);
+        KlantOverzicht overzicht = new KlantOverzicht(klant, Arrays.asList(rekening1, rekening2));
+
+        when(klantDAO.zoekKlantOverzicht(123)).thenReturn(overzicht);
+
+        KlantOverzicht resultaat = klantService.zoekKlantOverzicht(123);
+        assertThat(resultaat.getKlant().getNaam()).isEqualTo("Janssen");
+        assertThat(resultaat.getAantalRekeningen()).isEqualTo(2);
+        assertThat(resultaat.getTotaalSaldo()).isEqualTo(Bedrag.vanCenten(1300));
+
+        // het overzicht verandert niet mee met de klant of de rekeningen
+        klant.setNaam("Peeters");
+        rekening1.setSaldo(Bedrag.NUL);
+        resultaat.getKlant().setAdres("Markt 1");
+        resultaat.getRekeningen().get(0).setSaldo(Bedrag.NUL);
+        assertThat(resultaat.getKlant().getNaam()).isEqualTo("Janssen");
+        assertThat(resultaat.getKlant().getAdres()).isEqualTo("Dorpsplein 120");
+        assertThat(resultaat.getRekeningen()).extracting(Rekening::getSaldo)
+                .containsExactly(Bedrag.vanCenten(1050), Bedrag.vanCenten(250));
+    }
+
+    @Test
+    public void zoekKlantOverzicht_idNull() throws Exception {
+        assertThatThrownBy(() -> {
+            klantService.zoekKlantOverzicht(null);
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.KLANT_ID.getMessage());
+        verify(klantDAO, never()).zoekKlantOverzicht(any());
+    }
+
+}
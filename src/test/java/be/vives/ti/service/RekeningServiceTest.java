@@ -1,15 +1,28 @@
 package be.vives.ti.service;
 
 import be.vives.ti.DAO.RekeningDAO;
+import be.vives.ti.databag.Journaalregel;
+import be.vives.ti.databag.Mutatie;
+import be.vives.ti.databag.MutatieResultaat;
+import be.vives.ti.databag.Pagina;
 import be.vives.ti.databag.Rekening;
+import be.vives.ti.datatype.Afsluiting;
+import be.vives.ti.datatype.Bedrag;
+import be.vives.ti.datatype.Overschrijving;
 import be.vives.ti.datatype.RekeningStatus;
 import be.vives.ti.datatype.Rekeningnummer;
+import be.vives.ti.datatype.SaldoWijziging;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -103,6 +116,7 @@ public class RekeningServiceTest {
         Rekening rekening = maakRekening(BigDecimal.ZERO, RekeningStatus.OPEN, 123);
 
         when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(rekening);
+        when(rekeningDAO.verwijderRekening(rekeningNummer)).thenReturn(Afsluiting.GELUKT);
 
         assertThatCode(() -> {
             rekeningService.verwijderRekening(rekeningNummer);
@@ -111,6 +125,18 @@ public class RekeningServiceTest {
         verify(rekeningDAO).verwijderRekening(rekeningNummer);
     }
 
+    // na de controle van het saldo gestort (bv. door een batch mutaties): de DB sluit niet
+    @Test
+    public void verwijderRekening_saldoGewijzigdNaControle() throws Exception {
+        Rekening rekening = maakRekening(BigDecimal.ZERO, RekeningStatus.OPEN, 123);
+        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(rekening);
+        when(rekeningDAO.verwijderRekening(rekeningNummer)).thenReturn(Afsluiting.SALDO_NIET_NUL);
+
+        assertThatThrownBy(() -> {
+            rekeningService.verwijderRekening(rekeningNummer);
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_SALDO_MOET_NUL_ZIJN.getMessage());
+    }
+
     @Test
     public void stortenRekening_reknummer_null() throws Exception {
 
@@ -118,7 +144,7 @@ public class RekeningServiceTest {
             rekeningService.stortenRekening(null, BigDecimal.TEN);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
 
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(anyString(), any(BigDecimal.class));
+        verify(rekeningDAO, never()).verrekenenSaldoRekening(any(), any(Bedrag.class));
     }
 
     @Test
@@ -127,63 +153,75 @@ public class RekeningServiceTest {
             rekeningService.stortenRekening("", BigDecimal.TEN);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
 
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(anyString(), any(BigDecimal.class));
+        verify(rekeningDAO, never()).verrekenenSaldoRekening(anyString(), any(Bedrag.class));
     }
 
     @Test
     public void stortenRekening_reknummer_nietGevonden() throws Exception {
-        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(null);
+        when(rekeningDAO.verrekenenSaldoRekening(eq(rekeningNummer), any(Bedrag.class)))
+                .thenReturn(SaldoWijziging.REKENING_BESTAAT_NIET);
         assertThatThrownBy(() -> {
             rekeningService.stortenRekening(rekeningNummer, BigDecimal.TEN);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
 
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(anyString(), any(BigDecimal.class));
+        verify(rekeningDAO, never()).wijzigenSaldoRekening(anyString(), any(Bedrag.class));
     }
 
     @Test
     public void stortenRekening_reedsGeslotenRekening() throws Exception {
-        Rekening rekening = maakRekening(BigDecimal.ZERO, RekeningStatus.GESLOTEN, 123);
-
-        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(rekening);
+        when(rekeningDAO.verrekenenSaldoRekening(eq(rekeningNummer), any(Bedrag.class)))
+                .thenReturn(SaldoWijziging.REKENING_GESLOTEN);
         assertThatThrownBy(() -> {
             rekeningService.stortenRekening(rekeningNummer, BigDecimal.TEN);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_IS_GESLOTEN.getMessage());
-
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(rekeningNummer, BigDecimal.TEN);
     }
 
     @Test
     public void stortenRekening_bedragNull() throws Exception {
-        Rekening rekening = maakRekening(BigDecimal.ZERO, RekeningStatus.OPEN, 123);
-        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(rekening);
         assertThatThrownBy(() -> {
             rekeningService.stortenRekening(rekeningNummer, null);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_BEDRAG_LEEG.getMessage());
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(rekeningNummer, BigDecimal.ZERO);
+        verify(rekeningDAO, never()).verrekenenSaldoRekening(anyString(), any(Bedrag.class));
     }
 
     @Test
     public void stortenRekening_bedragNegatief() throws Exception {
-        Rekening rekening = maakRekening(BigDecimal.ZERO, RekeningStatus.OPEN, 123);
-        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(rekening);
         assertThatThrownBy(() -> {
             rekeningService.stortenRekening(rekeningNummer, new BigDecimal(-412.45));
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_BEDRAG_MOET_POS_ZIJN.getMessage());
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(rekeningNummer, new BigDecimal(-412.45));
+        verify(rekeningDAO, never()).verrekenenSaldoRekening(anyString(), any(Bedrag.class));
+    }
+
+    @Test
+    public void stortenRekening_bedragAfgerondNul() throws Exception {
+        // 0.004 wordt afgerond naar 0.00
+        assertThatThrownBy(() -> {
+            rekeningService.stortenRekening(rekeningNummer, new BigDecimal("0.004"));
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_BEDRAG_MOET_POS_ZIJN.getMessage());
+        verify(rekeningDAO, never()).verrekenenSaldoRekening(anyString(), any(Bedrag.class));
+    }
+
+    @Test
+    public void stortenRekening_bedragTeGroot() throws Exception {
+        assertThatThrownBy(() -> {
+            rekeningService.stortenRekening(rekeningNummer, new BigDecimal("1E20"));
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_BEDRAG_TE_GROOT.getMessage());
+        verify(rekeningDAO, never()).verrekenenSaldoRekening(anyString(), any(Bedrag.class));
     }
 
     //positieve test
     @Test
     public void stortenRekening_succesvol() throws Exception {
-        Rekening rekening = maakRekening(new BigDecimal(1452.88), RekeningStatus.OPEN, 123);
-
-        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(rekening);
+        when(rekeningDAO.verrekenenSaldoRekening(eq(rekeningNummer), any(Bedrag.class)))
+                .thenReturn(SaldoWijziging.GELUKT);
 
         assertThatCode(() -> {
             rekeningService.stortenRekening(rekeningNummer, BigDecimal.valueOf(300.21));
         }).doesNotThrowAnyException();
 
-        verify(rekeningDAO).wijzigenSaldoRekening(rekeningNummer, BigDecimal.valueOf(1753.09));
+        // één statement, zonder de rekening eerst op te halen
+        verify(rekeningDAO).verrekenenSaldoRekening(rekeningNummer, Bedrag.vanCenten(30021));
+        verify(rekeningDAO, never()).zoekRekening(anyString());
     }
 
     @Test
@@ -192,7 +230,7 @@ public class RekeningServiceTest {
             rekeningService.opnemenRekening(null, BigDecimal.TEN);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
 
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(anyString(), any(BigDecimal.class));
+        verify(rekeningDAO, never()).verrekenenSaldoRekening(any(), any(Bedrag.class));
     }
 
     @Test
@@ -201,75 +239,215 @@ public class RekeningServiceTest {
             rekeningService.opnemenRekening("", BigDecimal.TEN);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
 
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(anyString(), any(BigDecimal.class));
+        verify(rekeningDAO, never()).verrekenenSaldoRekening(anyString(), any(Bedrag.class));
     }
 
     @Test
     public void opnemenRekening_reknummer_nietGevonden() throws Exception {
-        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(null);
+        when(rekeningDAO.verrekenenSaldoRekening(eq(rekeningNummer), any(Bedrag.class)))
+                .thenReturn(SaldoWijziging.REKENING_BESTAAT_NIET);
         assertThatThrownBy(() -> {
             rekeningService.opnemenRekening(rekeningNummer, BigDecimal.TEN);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
 
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(anyString(), any(BigDecimal.class));
+        verify(rekeningDAO, never()).wijzigenSaldoRekening(anyString(), any(Bedrag.class));
     }
 
     @Test
     public void opnemenRekening_reedsGeslotenRekening() throws Exception {
-        Rekening rekening = maakRekening(new BigDecimal(100.00), RekeningStatus.GESLOTEN, 123);
-        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(rekening);
+        when(rekeningDAO.verrekenenSaldoRekening(eq(rekeningNummer), any(Bedrag.class)))
+                .thenReturn(SaldoWijziging.REKENING_GESLOTEN);
         assertThatThrownBy(() -> {
             rekeningService.opnemenRekening(rekeningNummer, BigDecimal.TEN);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_IS_GESLOTEN.getMessage());
-
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(rekeningNummer, new BigDecimal(90.00));
     }
 
     @Test
     public void opnemenRekening_bedragNull() throws Exception {
-        Rekening rekening = maakRekening(new BigDecimal(100.00), RekeningStatus.OPEN, 123);
-        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(rekening);
         assertThatThrownBy(() -> {
             rekeningService.opnemenRekening(rekeningNummer, null);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_BEDRAG_LEEG.getMessage());
 
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(rekeningNummer, new BigDecimal(100.00));
+        verify(rekeningDAO, never()).verrekenenSaldoRekening(anyString(), any(Bedrag.class));
     }
 
     @Test
     public void opnemenRekening_bedragNegatief() throws Exception {
-        Rekening rekening = maakRekening(new BigDecimal(100.00), RekeningStatus.OPEN, 123);
-        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(rekening);
         assertThatThrownBy(() -> {
             rekeningService.opnemenRekening(rekeningNummer, new BigDecimal(-412.45));
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_BEDRAG_MOET_POS_ZIJN.getMessage());
 
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(rekeningNummer, new BigDecimal(512.45));
+        verify(rekeningDAO, never()).verrekenenSaldoRekening(anyString(), any(Bedrag.class));
     }
 
     @Test
     public void opnemenRekening_bedragTeGroot() throws Exception {
-        Rekening rekening = maakRekening(new BigDecimal(3.10), RekeningStatus.OPEN, 123);
-        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(rekening);
+        when(rekeningDAO.verrekenenSaldoRekening(eq(rekeningNummer), any(Bedrag.class)))
+                .thenReturn(SaldoWijziging.SALDO_ONTOEREIKEND);
         assertThatThrownBy(() -> {
             rekeningService.opnemenRekening(rekeningNummer, BigDecimal.valueOf(412.45));
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_BEDRAG_TE_GROOT.getMessage());
-
-        verify(rekeningDAO, never()).wijzigenSaldoRekening(rekeningNummer, new BigDecimal(-409.35));
     }
 
     //positieve test
     @Test
     public void opnemenRekening() throws Exception {
-        Rekening rekening = maakRekening(new BigDecimal(1452.88), RekeningStatus.OPEN, 123);
-
-        when(rekeningDAO.zoekRekening(rekeningNummer)).thenReturn(rekening);
+        when(rekeningDAO.verrekenenSaldoRekening(eq(rekeningNummer), any(Bedrag.class)))
+                .thenReturn(SaldoWijziging.GELUKT);
 
         assertThatCode(() -> {
             rekeningService.opnemenRekening(rekeningNummer, BigDecimal.valueOf(300.21));
         }).doesNotThrowAnyException();
 
-        verify(rekeningDAO).wijzigenSaldoRekening(rekeningNummer, BigDecimal.valueOf(1152.67));
+        verify(rekeningDAO).verrekenenSaldoRekening(rekeningNummer, Bedrag.vanCenten(-30021));
+    }
+
+    @Test
+    public void overschrijven_vanReknummer_null() throws Exception {
+        assertThatThrownBy(() -> {
+            rekeningService.overschrijven(null, "BE51 1231 2589 8962", BigDecimal.TEN);
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
+
+        verify(rekeningDAO, never()).overschrijven(any(), any(), any(Bedrag.class));
+    }
+
+    @Test
+    public void overschrijven_naarReknummer_emptyString() throws Exception {
+        assertThatThrownBy(() -> {
+            rekeningService.overschrijven(rekeningNummer, "", BigDecimal.TEN);
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
+
+        verify(rekeningDAO, never()).overschrijven(any(), any(), any(Bedrag.class));
+    }
+
+    @Test
+    public void overschrijven_zelfdeRekening() throws Exception {
+        assertThatThrownBy(() -> {
+            rekeningService.overschrijven(rekeningNummer, rekeningNummer, BigDecimal.TEN);
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.OVERSCHRIJVING_ZELFDE_REKENING.getMessage());
+        // de databank vergelijkt rekeningnummers hoofdletterongevoelig
+        assertThatThrownBy(() -> {
+            rekeningService.overschrijven(rekeningNummer.toLowerCase(), rekeningNummer, BigDecimal.TEN);
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.OVERSCHRIJVING_ZELFDE_REKENING.getMessage());
+
+        verify(rekeningDAO, never()).overschrijven(any(), any(), any(Bedrag.class));
+    }
+
+    @Test
+    public void overschrijven_bedragNegatief() throws Exception {
+        assertThatThrownBy(() -> {
+            rekeningService.overschrijven(rekeningNummer, "BE51 1231 2589 8962", new BigDecimal(-412.45));
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_BEDRAG_MOET_POS_ZIJN.getMessage());
+
+        verify(rekeningDAO, never()).overschrijven(any(), any(), any(Bedrag.class));
+    }
+
+    @Test
+    public void overschrijven_begunstigdeBestaatNiet() throws Exception {
+        when(rekeningDAO.overschrijven(eq(rekeningNummer), eq("BE51 1231 2589 8962"), any(Bedrag.class)))
+                .thenReturn(Overschrijving.NAAR_REKENING_BESTAAT_NIET);
+
+        assertThatThrownBy(() -> {
+            rekeningService.overschrijven(rekeningNummer, "BE51 1231 2589 8962", BigDecimal.TEN);
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.OVERSCHRIJVING_BEGUNSTIGDE_BESTAAT_NIET.getMessage());
+    }
+
+    @Test
+    public void overschrijven_bedragTeGroot() throws Exception {
+        when(rekeningDAO.overschrijven(eq(rekeningNummer), eq("BE51 1231 2589 8962"), any(Bedrag.class)))
+                .thenReturn(Overschrijving.SALDO_ONTOEREIKEND);
+
+        assertThatThrownBy(() -> {
+            rekeningService.overschrijven(rekeningNummer, "BE51 1231 2589 8962", BigDecimal.TEN);
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.REK_BEDRAG_TE_GROOT.getMessage());
+    }
+
+    //positieve test
+    @Test
+    public void overschrijven_succesvol() throws Exception {
+        when(rekeningDAO.overschrijven(eq(rekeningNummer), eq("BE51 1231 2589 8962"), any(Bedrag.class)))
+                .thenReturn(Overschrijving.GELUKT);
+
+        assertThatCode(() -> {
+            rekeningService.overschrijven(rekeningNummer, "BE51 1231 2589 8962", BigDecimal.valueOf(300.21));
+        }).doesNotThrowAnyException();
+
+        verify(rekeningDAO).overschrijven(rekeningNummer, "BE51 1231 2589 8962", Bedrag.vanCenten(30021));
+    }
+
+    private Mutatie maakMutatie(String rekeningnummer, BigDecimal bedrag) {
+        Mutatie mutatie = new Mutatie();
+        mutatie.setRekeningnummer(rekeningnummer);
+        mutatie.setBedrag(Bedrag.van(bedrag));
+        return mutatie;
+    }
+
+    // een captor voor een generische lijst kan niet zonder ongecontroleerde cast
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<Mutatie>> mutatieCaptor() {
+        return ArgumentCaptor.forClass((Class<List<Mutatie>>) (Class<?>) List.class);
+    }
+
+    @Test
+    public void verwerkenMutaties_null() throws Exception {
+        assertThatThrownBy(() -> {
+            rekeningService.verwerkenMutaties(null);
+        }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.MUTATIES_LEEG.getMessage());
+
+        verify(rekeningDAO, never()).verrekenenSaldoRekeningen(any());
+    }
+
+    @Test
+    public void verwerkenMutaties_ongeldigeMutatiesNietNaarDB() throws Exception {
+        Mutatie geldig = maakMutatie(rekeningNummer, BigDecimal.valueOf(10.005));
+        Mutatie zonderRekeningnummer = maakMutatie("", BigDecimal.TEN);
+        Mutatie zonderBedrag = maakMutatie(rekeningNummer, null);
+        Mutatie bedragNul = maakMutatie(rekeningNummer, BigDecimal.ZERO);
+
+        ArrayList<SaldoWijziging> wijzigingen = new ArrayList<>();
+        wijzigingen.add(SaldoWijziging.GELUKT);
+        when(rekeningDAO.verrekenenSaldoRekeningen(anyList())).thenReturn(wijzigingen);
+
+        ArrayList<MutatieResultaat> resultaten = rekeningService.verwerkenMutaties(
+                Arrays.asList(geldig, zonderRekeningnummer, null, zonderBedrag, bedragNul));
+
+        assertThat(resultaten).hasSize(5);
+        assertThat(resultaten.get(0).isGelukt()).isTrue();
+        assertThat(resultaten.get(1).getFoutboodschap()).isEqualTo(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
+        assertThat(resultaten.get(2).getFoutboodschap()).isEqualTo(ApplicationExceptionType.MUTATIE_NULL.getMessage());
+        assertThat(resultaten.get(3).getFoutboodschap()).isEqualTo(ApplicationExceptionType.REK_BEDRAG_LEEG.getMessage());
+        assertThat(resultaten.get(4).getFoutboodschap()).isEqualTo(ApplicationExceptionType.MUTATIE_BEDRAG_NUL.getMessage());
+
+        // enkel de geldige mutatie, afgerond op twee cijfers na de komma
+        ArgumentCaptor<List<Mutatie>> captor = mutatieCaptor();
+        verify(rekeningDAO).verrekenenSaldoRekeningen(captor.capture());
+        assertThat(captor.getValue()).hasSize(1);
+        assertThat(captor.getValue().get(0).getBedrag()).isEqualTo(Bedrag.vanCenten(1001));
+    }
+
+    //positieve test
+    @Test
+    public void verwerkenMutaties_resultaatPerMutatie() throws Exception {
+        ArrayList<SaldoWijziging> wijzigingen = new ArrayList<>();
+        wijzigingen.add(SaldoWijziging.GELUKT);
+        wijzigingen.add(SaldoWijziging.SALDO_ONTOEREIKEND);
+        wijzigingen.add(SaldoWijziging.REKENING_GESLOTEN);
+        wijzigingen.add(SaldoWijziging.REKENING_BESTAAT_NIET);
+        wijzigingen.add(SaldoWijziging.NIET_UITGEVOERD);
+        when(rekeningDAO.verrekenenSaldoRekeningen(anyList())).thenReturn(wijzigingen);
+
+        ArrayList<MutatieResultaat> resultaten = rekeningService.verwerkenMutaties(Arrays.asList(
+                maakMutatie(rekeningNummer, BigDecimal.TEN),
+                maakMutatie(rekeningNummer, BigDecimal.TEN.negate()),
+                maakMutatie(rekeningNummer, BigDecimal.ONE),
+                maakMutatie("BE51 1231 2589 8962", BigDecimal.ONE),
+                maakMutatie(rekeningNummer, BigDecimal.ONE)));
+
+        assertThat(resultaten.get(0).isGelukt()).isTrue();
+        assertThat(resultaten.get(1).getFoutboodschap()).isEqualTo(ApplicationExceptionType.REK_BEDRAG_TE_GROOT.getMessage());
+        assertThat(resultaten.get(2).getFoutboodschap()).isEqualTo(ApplicationExceptionType.REK_IS_GESLOTEN.getMessage());
+        assertThat(resultaten.get(3).getFoutboodschap()).isEqualTo(ApplicationExceptionType.REK_BESTAAT_NIET.getMessage());
+        assertThat(resultaten.get(4).getFoutboodschap()).isEqualTo(ApplicationExceptionType.MUTATIE_NIET_UITGEVOERD.getMessage());
     }
 
     @Test
@@ -399,6 +577,19 @@ public class RekeningServiceTest {
         assertThat(rekeningService.zoekOpenRekeningen(eigenaar)).containsExactly(rekening1, rekening2);
     }
 
+    //positieve test
+    @Test
+    public void zoekRekeningenVanKlanten() throws Exception {
+        Rekening rekening1 = maakRekening(BigDecimal.ZERO, RekeningStatus.OPEN, 123);
+        Map<Integer, ArrayList<Rekening>> perKlant = new LinkedHashMap<>();
+        perKlant.put(123, new ArrayList<>(Arrays.asList(rekening1)));
+        perKlant.put(456, new ArrayList<>());
+
+        when(rekeningDAO.zoekRekeningenVanKlanten(Arrays.asList(123, 456))).thenReturn(perKlant);
+
+        assertThat(rekeningService.zoekRekeningenVanKlanten(Arrays.asList(123, 456))).isSameAs(perKlant);
+    }
+
     //positieve test
     @Test
     public void zoekAantalOpenRekeningen() throws Exception {
@@ -408,4 +599,102 @@ public class RekeningServiceTest {
 
         assertThat(rekeningService.zoekAantalOpenRekeningen(eigenaar)).isEqualTo(4);
     }
-}
\ No newline at end of file
+
+    //positieve test
+    @Test
+    public void zoekRekeningenPagina() throws Exception {
+        Pagina<Rekening> pagina = new Pagina<>();
+        when(rekeningDAO.zoekRekeningenPagina(5, null, 10)).thenReturn(pagina);
+
+        assertThat(rekeningService.zoekRekeningenPagina(5, null, 10)).isSameAs(pagina);
+    }
+
+    @Test
+    public void zoekRekeningenPagina_paginagrootteNegatief() throws Exception {
+        assertThatThrownBy(() -> {
+            rekeningService.zoekRekeningenPagina(null, -1);
+        }).isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.PAGINAGROOTTE_ONGELDIG.getMessage());
+    }
+
+    //positieve test
+    @Test
+    public void zoekJournaalPagina() throws Exception {
+        Pagina<Journaalregel> pagina = new Pagina<>();
+        when(rekeningDAO.zoekJournaalPagina("BE24 1238 8888 8838", null, 10)).thenReturn(pagina);
+
+        assertThat(rekeningService.zoekJournaalPagina("BE24 1238 8888 8838", null, 10)).isSameAs(pagina);
+    }
+
+    @Test
+    public void zoekJournaalPagina_reknummerLeeg() throws Exception {
+        assertThatThrownBy(() -> {
+            rekeningService.zoekJournaalPagina(" ", null, 10);
+        }).isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.REK_REKNUMMER_LEEG.getMessage());
+        verifyZeroInteractions(rekeningDAO);
+    }
+
+    @Test
+    public void zoekJournaalPagina_paginagrootteTeGroot() throws Exception {
+        assertThatThrownBy(() -> {
+            rekeningService.zoekJournaalPagina("BE24 1238 8888 8838", null, Pagina.MAX_PAGINAGROOTTE + 1);
+        }).isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.PAGINAGROOTTE_ONGELDIG.getMessage());
+    }
+
+    @Test
+    public void sloten_wijzigenOnderHetSlot() throws Exception {
+        RekeningSloten sloten = new RekeningSloten(16);
+        RekeningService metSloten = new RekeningService(rekeningDAO, sloten);
+        String naar = "BE68 5390 0754 7034";
+        when(rekeningDAO.verrekenenSaldoRekening(eq(rekeningNummer), any(Bedrag.class))).thenAnswer(oproep -> {
+            assertThat(sloten.isVergrendeldDoorHuidigeThread(rekeningNummer)).isTrue();
+            return SaldoWijziging.GELUKT;
+        });
+        when(rekeningDAO.overschrijven(eq(rekeningNummer), eq(naar), any(Bedrag.class))).thenAnswer(oproep -> {
+            assertThat(sloten.isVergrendeldDoorHuidigeThread(rekeningNummer)).isTrue();
+            assertThat(sloten.isVergrendeldDoorHuidigeThread(naar)).isTrue();
+            return Overschrijving.GELUKT;
+        });
+
+        metSloten.stortenRekening(rekeningNummer, BigDecimal.TEN);
+        metSloten.opnemenRekening(rekeningNummer, BigDecimal.ONE);
+        metSloten.overschrijven(rekeningNummer, naar, BigDecimal.ONE);
+
+        assertThat(sloten.isVergrendeldDoorHuidigeThread(rekeningNummer)).isFalse();
+        assertThat(sloten.isVergrendeldDoorHuidigeThread(naar)).isFalse();
+        assertThat(sloten.getAantalVergrendelingen()).isBetween(3L, 4L);
+    }
+
+    @Test
+    public void sloten_batchZonderSloten() throws Exception {
+        // een batch kan (bijna) alle rekeningen raken: geen sloten, de DAO verrekent per mutatie
+        RekeningSloten sloten = new RekeningSloten(16);
+        RekeningService metSloten = new RekeningService(rekeningDAO, sloten);
+        when(rekeningDAO.verrekenenSaldoRekeningen(anyList())).thenAnswer(oproep -> {
+            assertThat(sloten.isVergrendeldDoorHuidigeThread(rekeningNummer)).isFalse();
+            return new ArrayList<>(Arrays.asList(SaldoWijziging.GELUKT));
+        });
+
+        ArrayList<MutatieResultaat> resultaten = metSloten.verwerkenMutaties(
+                Arrays.asList(maakMutatie(rekeningNummer, BigDecimal.TEN)));
+
+        assertThat(resultaten.get(0).isGelukt()).isTrue();
+        assertThat(sloten.getAantalVergrendelingen()).isZero();
+    }
+
+    @Test
+    public void sloten_vrijgegevenNaEenFout() throws Exception {
+        RekeningSloten sloten = new RekeningSloten(16);
+        RekeningService metSloten = new RekeningService(rekeningDAO, sloten);
+        when(rekeningDAO.zoekRekening(rekeningNummer))
+                .thenReturn(maakRekening(BigDecimal.TEN, RekeningStatus.OPEN, 1));
+
+        assertThatThrownBy(() -> metSloten.verwijderRekening(rekeningNummer))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.REK_SALDO_MOET_NUL_ZIJN.getMessage());
+        assertThat(sloten.isVergrendeldDoorHuidigeThread(rekeningNummer)).isFalse();
+        verify(rekeningDAO, never()).verwijderRekening(anyString());
+    }
+}
@@ -0,0 +1,141 @@
+package be.vives.ti.service;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RekeningSlotenTest {
+
+    private static final String A = "BE62 0016 6836 7361";
+    private static final String B = "BE68 5390 0754 7034";
+
+    @Test
+    public void aantal_macht_van_2() {
+        assertThatThrownBy(() -> new RekeningSloten(12)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RekeningSloten(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void vergrendelen_en_vrijgeven() {
+        RekeningSloten sloten = new RekeningSloten(16);
+        RekeningSloten.Vergrendeling slot = sloten.vergrendel(A, B);
+        try {
+            assertThat(sloten.isVergrendeldDoorHuidigeThread(A)).isTrue();
+            assertThat(sloten.isVergrendeldDoorHuidigeThread(B)).isTrue();
+            // hoofdletters of niet: zelfde slot
+            assertThat(sloten.isVergrendeldDoorHuidigeThread(A.toLowerCase())).isTrue();
+        } finally {
+            slot.ontgrendel();
+        }
+        assertThat(sloten.isVergrendeldDoorHuidigeThread(A)).isFalse();
+        assertThat(sloten.isVergrendeldDoorHuidigeThread(B)).isFalse();
+
+        // één slot (één sloten: alle rekeningen delen het) wordt maar één keer vergrendeld
+        RekeningSloten eenSlot = new RekeningSloten(1);
+        RekeningSloten.Vergrendeling alle = eenSlot.vergrendel(A, B);
+        try {
+            assertThat(eenSlot.getAantalVergrendelingen()).isEqualTo(1);
+        } finally {
+            alle.ontgrendel();
+        }
+        assertThat(eenSlot.isVergrendeldDoorHuidigeThread(A)).isFalse();
+    }
+
+    @Test
+    public void zelfdeRekening_wacht_andereRekening_niet() throws Exception {
+        RekeningSloten sloten = new RekeningSloten(1024);
+        String ander = zoekAnderSlot(sloten, A);
+        ExecutorService thread = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> wachtend;
+            RekeningSloten.Vergrendeling slot = sloten.vergrendel(A);
+            try {
+                // een andere rekening gaat gewoon door
+                thread.submit(() -> sloten.vergrendel(ander).ontgrendel()).get(5, TimeUnit.SECONDS);
+                assertThat(sloten.getAantalGewacht()).isEqualTo(0);
+
+                wachtend = thread.submit(() -> sloten.vergrendel(A).ontgrendel());
+                Thread.sleep(50);
+                assertThat(wachtend.isDone()).isFalse();
+            } finally {
+                slot.ontgrendel();
+            }
+            wachtend.get(5, TimeUnit.SECONDS);
+            assertThat(sloten.getAantalGewacht()).isEqualTo(1);
+            assertThat(sloten.getWachttijd().getAantal()).isEqualTo(1);
+            assertThat(sloten.getWachttijd().getMaximum()).isGreaterThan(10_000.0);
+
+            sloten.leegmaken();
+            assertThat(sloten.getAantalVergrendelingen()).isEqualTo(0);
+        } finally {
+            thread.shutdown();
+        }
+    }
+
+    @Test
+    public void tegengesteldeVolgorde_geenDeadlock() throws Exception {
+        RekeningSloten sloten = new RekeningSloten(1024);
+        String ander = zoekAnderSlot(sloten, A);
+        sloten.leegmaken();
+        int aantal = 20_000;
+        int[] teller = new int[1];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> heen = threads.submit(() -> {
+                start.await();
+                for (int i = 0; i < aantal; i++) {
+                    RekeningSloten.Vergrendeling slot = sloten.vergrendel(A, ander);
+                    try {
+                        teller[0]++;
+                    } finally {
+                        slot.ontgrendel();
+                    }
+                }
+                return null;
+            });
+            Future<?> terug = threads.submit(() -> {
+                start.await();
+                for (int i = 0; i < aantal; i++) {
+                    RekeningSloten.Vergrendeling slot = sloten.vergrendel(ander, A);
+                    try {
+                        teller[0]++;
+                    } finally {
+                        slot.ontgrendel();
+                    }
+                }
+                return null;
+            });
+            start.countDown();
+            heen.get(30, TimeUnit.SECONDS);
+            terug.get(30, TimeUnit.SECONDS);
+        } finally {
+            threads.shutdown();
+        }
+        // de sloten beschermen de teller
+        assertThat(teller[0]).isEqualTo(2 * aantal);
+        assertThat(sloten.getAantalVergrendelingen()).isEqualTo(4L * aantal);
+    }
+
+    // een rekeningnummer met een ander slot dan rekeningnummer
+    private static String zoekAnderSlot(RekeningSloten sloten, String rekeningnummer) {
+        RekeningSloten.Vergrendeling slot = sloten.vergrendel(rekeningnummer);
+        try {
+            for (int i = 0; ; i++) {
+                String ander = "BE00 0000 0000 " + i;
+                if (!sloten.isVergrendeldDoorHuidigeThread(ander)) {
+                    return ander;
+                }
+            }
+        } finally {
+            slot.ontgrendel();
+        }
+    }
+}